@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks the same way {@link org.openjdk.jmh.Main} does, yet with allocation profiling (i.e., {@code -prof gc}) enabled by default.
+ * <p>
+ * This makes regressions in allocated bytes per operation visible in every run.
+ * Pass {@code -Dlog4j.changelog.benchmarks.gcProfiler=false} to disable the allocation profiling.
+ * </p>
+ */
+public final class ChangelogBenchmarkRunner {
+
+    private ChangelogBenchmarkRunner() {}
+
+    public static void main(final String[] args) throws Exception {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final OptionsBuilder optionsBuilder = new OptionsBuilder();
+        optionsBuilder.parent(commandLineOptions);
+        final boolean gcProfilerEnabled =
+                Boolean.parseBoolean(System.getProperty("log4j.changelog.benchmarks.gcProfiler", "true"));
+        final boolean gcProfilerRequested = commandLineOptions
+                .getProfilers()
+                .stream()
+                .anyMatch(profiler -> GCProfiler.class.getName().equals(profiler.getKlass())
+                        || "gc".equals(profiler.getKlass()));
+        if (gcProfilerEnabled && !gcProfilerRequested) {
+            optionsBuilder.addProfiler(GCProfiler.class);
+        }
+        final Options options = optionsBuilder.build();
+        new Runner(options).run();
+    }
+
+}
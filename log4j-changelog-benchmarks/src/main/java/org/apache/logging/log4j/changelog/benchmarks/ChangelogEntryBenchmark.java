@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks reading and writing a single changelog entry file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChangelogEntryBenchmark {
+
+    private Path directory;
+
+    private ChangelogEntry entry;
+
+    private Path entryFile;
+
+    private Path outputFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("log4j-changelog-benchmark-");
+        entry = ChangelogTreeGenerator.createEntry(new Random(0), 0);
+        entryFile = directory.resolve("entry.xml");
+        entry.writeToXmlFile(entryFile);
+        outputFile = directory.resolve("output.xml");
+    }
+
+    @TearDown
+    public void tearDown() {
+        ChangelogTreeGenerator.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public ChangelogEntry readFromXmlFile() {
+        return ChangelogEntry.readFromXmlFile(entryFile);
+    }
+
+    @Benchmark
+    public void writeToXmlFile() {
+        entry.writeToXmlFile(outputFile);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporter;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporterArgs;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks full exports of a generated changelog directory of {@link #releaseCount} releases containing {@link #entryCountPerRelease} entries each.
+ * <p>
+ * Incremental exports and snapshots are disabled, hence every invocation parses and renders all releases.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ChangelogExporterBenchmark {
+
+    @Param({"10", "100"})
+    public int releaseCount;
+
+    @Param({"10", "100"})
+    public int entryCountPerRelease;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path directory;
+
+    private ChangelogExporterArgs args;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("log4j-changelog-benchmark-");
+        final Path changelogDirectory = directory.resolve("changelog");
+        ChangelogTreeGenerator.generateChangelogDirectory(changelogDirectory, releaseCount, entryCountPerRelease);
+        args = ChangelogExporterArgs.builder(
+                        changelogDirectory,
+                        ChangelogTreeGenerator.INDEX_TEMPLATES,
+                        ChangelogTreeGenerator.CHANGELOG_TEMPLATES,
+                        directory.resolve("output"))
+                .parallelism(parallelism)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ChangelogTreeGenerator.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void performExport() {
+        ChangelogExporter.performExport(args);
+    }
+
+}
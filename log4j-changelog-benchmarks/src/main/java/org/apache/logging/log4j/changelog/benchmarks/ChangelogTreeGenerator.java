@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporterTemplate;
+
+import static java.time.format.DateTimeFormatter.ISO_DATE;
+
+/**
+ * Generates synthetic changelog directories and Maven {@code changes.xml} files of configurable size.
+ * <p>
+ * Releases are spread over one or more version majors (i.e., {@code 2.x.x}, {@code 3.x.x}, etc.) in a round-robin fashion, mimicking maintenance branches released next to each other.
+ * Entries mix {@code apache/logging-log4j2} GitHub issues and {@code LOG4J2} JIRA tickets, committers and external contributors, and descriptions of varying length with AsciiDoc markup.
+ * Generated contents are deterministic for the same sizes.
+ * </p>
+ */
+public final class ChangelogTreeGenerator {
+
+    static final Set<ChangelogExporterTemplate> INDEX_TEMPLATES = Collections.singleton(
+            new ChangelogExporterTemplate(".index.adoc.ftl", "index.adoc", true));
+
+    static final Set<ChangelogExporterTemplate> CHANGELOG_TEMPLATES = Collections.singleton(
+            new ChangelogExporterTemplate(".release-notes.adoc.ftl", "%v.adoc", true));
+
+    /**
+     * The version major of the first generated release.
+     */
+    public static final int FIRST_VERSION_MAJOR = 2;
+
+    private static final String[] AUTHOR_IDS = {
+        "rgoers", "ggregory", "rpopma", "mattsicker", "vy", "pkarwasz", "garydgregory", "jvz", "ckozak"
+    };
+
+    private static final String[] CONTRIBUTOR_NAMES = {
+        "Alice Hartmann", "Bogdan Ionescu", "Chen Wei", "Dmitri Sokolov", "Émilie Durand",
+        "Farah Haddad", "Giulia Rossi", "Hiroshi Tanaka", "Ingrid Johansson", "José García"
+    };
+
+    private static final String[] WORDS = {
+        "appender", "layout", "logger", "configuration", "plugin", "rollover", "strategy", "context",
+        "thread", "lookup", "filter", "marker", "message", "formatter", "async", "queue", "socket",
+        "property", "substitution", "reconfiguration", "classloader", "JNDI", "JSON", "YAML", "XML",
+        "stack trace", "timestamp", "buffer", "encoder", "garbage-free", "SLF4J", "JUL", "OSGi"
+    };
+
+    private static final String[] VERBS = {"Fix", "Add", "Improve", "Remove", "Deprecate", "Update", "Support"};
+
+    /**
+     * Entry types weighted by their approximate frequency in the Log4j changelog.
+     */
+    private static final ChangelogEntry.Type[] WEIGHTED_TYPES = {
+        ChangelogEntry.Type.FIXED, ChangelogEntry.Type.FIXED, ChangelogEntry.Type.FIXED,
+        ChangelogEntry.Type.FIXED, ChangelogEntry.Type.CHANGED, ChangelogEntry.Type.CHANGED,
+        ChangelogEntry.Type.ADDED, ChangelogEntry.Type.ADDED, ChangelogEntry.Type.DEPRECATED,
+        ChangelogEntry.Type.REMOVED
+    };
+
+    private ChangelogTreeGenerator() {}
+
+    /**
+     * Populates the given directory with released directories of a single version major, an unreleased {@code .2.x.x} directory, and templates.
+     */
+    public static void generateChangelogDirectory(
+            final Path changelogDirectory,
+            final int releaseCount,
+            final int entryCountPerRelease) {
+        generateChangelogDirectory(changelogDirectory, 1, releaseCount, entryCountPerRelease);
+    }
+
+    /**
+     * Populates the given directory with released directories spread over the given number of version majors, an unreleased {@code .N.x.x} directory per version major, and templates.
+     * <p>
+     * Every unreleased directory contains {@code entryCountPerRelease} entries too.
+     * </p>
+     */
+    public static void generateChangelogDirectory(
+            final Path changelogDirectory,
+            final int versionMajorCount,
+            final int releaseCount,
+            final int entryCountPerRelease) {
+        requirePositive(versionMajorCount, "versionMajorCount");
+        try {
+
+            // Write the shared templates
+            Files.createDirectories(changelogDirectory);
+            copyResource("changelog.adoc.ftl", changelogDirectory.resolve(".changelog.adoc.ftl"));
+            copyResource("index.adoc.ftl", changelogDirectory.resolve(".index.adoc.ftl"));
+
+            // Write the release directories
+            final Random random = new Random(0);
+            int issueNumber = 0;
+            for (int releaseIndex = 0; releaseIndex < releaseCount; releaseIndex++) {
+                final ChangelogRelease release = release(versionMajorCount, releaseIndex);
+                final Path releaseDirectory = ChangelogFiles.releaseDirectory(changelogDirectory, release.version);
+                release.writeToXmlFile(ChangelogFiles.releaseXmlFile(releaseDirectory));
+                issueNumber = writeEntries(releaseDirectory, random, issueNumber, entryCountPerRelease);
+            }
+
+            // Write the unreleased directories
+            for (int versionMajorIndex = 0; versionMajorIndex < versionMajorCount; versionMajorIndex++) {
+                final int versionMajor = FIRST_VERSION_MAJOR + versionMajorIndex;
+                final Path unreleasedDirectory = ChangelogFiles.unreleasedDirectory(changelogDirectory, versionMajor);
+                issueNumber = writeEntries(unreleasedDirectory, random, issueNumber, entryCountPerRelease);
+            }
+
+        } catch (final IOException error) {
+            final String message = String.format("failed generating changelog directory: `%s`", changelogDirectory);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    /**
+     * Creates the release at the given index.
+     *
+     * @return the release at the given index, where releases are assigned to version majors in a round-robin fashion and dated a week apart
+     */
+    public static ChangelogRelease release(final int versionMajorCount, final int releaseIndex) {
+        final int versionMajor = FIRST_VERSION_MAJOR + releaseIndex % versionMajorCount;
+        final int versionMinor = releaseIndex / versionMajorCount;
+        final String version = String.format("%d.%d.0", versionMajor, versionMinor);
+        final String date = ISO_DATE.format(LocalDate.of(2000, 1, 1).plusDays(7L * releaseIndex));
+        return new ChangelogRelease(version, date);
+    }
+
+    private static int writeEntries(
+            final Path releaseDirectory,
+            final Random random,
+            final int firstIssueNumber,
+            final int entryCount)
+            throws IOException {
+        copyResource("release-notes.adoc.ftl", releaseDirectory.resolve(".release-notes.adoc.ftl"));
+        for (int entryIndex = 0; entryIndex < entryCount; entryIndex++) {
+            final int issueNumber = firstIssueNumber + entryIndex;
+            final ChangelogEntry entry = createEntry(random, issueNumber);
+            final Path entryFile = releaseDirectory.resolve(String.format("%d_generated.xml", issueNumber));
+            entry.writeToXmlFile(entryFile);
+        }
+        return firstIssueNumber + entryCount;
+    }
+
+    /**
+     * Creates an entry with up to two issues, one to three authors, and a description of varying length.
+     * <p>
+     * The given issue number is used for the first issue, if there is any.
+     * </p>
+     */
+    public static ChangelogEntry createEntry(final Random random, final int issueNumber) {
+        final ChangelogEntry.Type type = WEIGHTED_TYPES[random.nextInt(WEIGHTED_TYPES.length)];
+
+        // Create issues
+        final int issueCount = random.nextInt(10) == 0 ? 0 : random.nextInt(5) == 0 ? 2 : 1;
+        final List<ChangelogEntry.Issue> issues = new ArrayList<>(issueCount);
+        for (int issueIndex = 0; issueIndex < issueCount; issueIndex++) {
+            final int effectiveIssueNumber = issueIndex == 0 ? issueNumber : random.nextInt(issueNumber + 1);
+            issues.add(createIssue(random, effectiveIssueNumber));
+        }
+
+        // Create authors
+        final List<ChangelogEntry.Author> authors = new ArrayList<>(3);
+        authors.add(new ChangelogEntry.Author(randomElement(random, AUTHOR_IDS), null));
+        if (random.nextInt(3) == 0) {
+            authors.add(new ChangelogEntry.Author(randomElement(random, AUTHOR_IDS), null));
+        }
+        if (random.nextBoolean()) {
+            authors.add(new ChangelogEntry.Author(null, randomElement(random, CONTRIBUTOR_NAMES)));
+        }
+
+        // Create the description
+        final ChangelogEntry.Description description =
+                new ChangelogEntry.Description("asciidoc", createDescription(random));
+
+        return new ChangelogEntry(type, issues, authors, description);
+    }
+
+    private static ChangelogEntry.Issue createIssue(final Random random, final int issueNumber) {
+        if (random.nextBoolean()) {
+            final String issueId = String.valueOf(issueNumber);
+            final String issueLink = "https://github.com/apache/logging-log4j2/issues/" + issueId;
+            return new ChangelogEntry.Issue(issueId, issueLink);
+        }
+        final String issueId = "LOG4J2-" + issueNumber;
+        return new ChangelogEntry.Issue(issueId, "https://issues.apache.org/jira/browse/" + issueId);
+    }
+
+    /**
+     * Creates a description of 5 to 40 words, where every fifth word is formatted as code and every tenth description spans two paragraphs.
+     */
+    private static String createDescription(final Random random) {
+        final String description = createSentence(random, 5 + random.nextInt(36));
+        return random.nextInt(10) == 0
+                ? description + "\n\n" + createSentence(random, 5 + random.nextInt(20))
+                : description;
+    }
+
+    private static String createSentence(final Random random, final int wordCount) {
+        final StringBuilder sentenceBuilder = new StringBuilder(randomElement(random, VERBS));
+        for (int wordIndex = 0; wordIndex < wordCount; wordIndex++) {
+            final String word = randomElement(random, WORDS);
+            sentenceBuilder.append(' ').append(wordIndex % 5 == 4 ? '`' + word + '`' : word);
+        }
+        return sentenceBuilder.append('.').toString();
+    }
+
+    private static <V> V randomElement(final Random random, final V[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Writes a Maven {@code changes.xml} file of a single version major containing an upcoming release followed by the given number of released ones.
+     */
+    public static void generateChangesXmlFile(
+            final Path changesXmlFile,
+            final int releaseCount,
+            final int actionCountPerRelease) {
+        generateChangesXmlFile(changesXmlFile, 1, releaseCount, actionCountPerRelease);
+    }
+
+    /**
+     * Writes a Maven {@code changes.xml} file containing an upcoming release followed by the given number of released ones spread over the given number of version majors.
+     * <p>
+     * Every action refers to a distinct issue, hence imported changelog entry file names don't collide.
+     * </p>
+     */
+    public static void generateChangesXmlFile(
+            final Path changesXmlFile,
+            final int versionMajorCount,
+            final int releaseCount,
+            final int actionCountPerRelease) {
+        requirePositive(versionMajorCount, "versionMajorCount");
+        final String[] actionTypes = {"add", "fix", "fix", "fix", "update", "update", "remove"};
+        final Random random = new Random(0);
+        final StringBuilder xmlBuilder = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<document xmlns=\"http://maven.apache.org/changes/1.0.0\">\n")
+                .append("  <body>\n");
+        int issueNumber = 0;
+        for (int releaseIndex = releaseCount; releaseIndex >= 0; releaseIndex--) {
+            final boolean upcoming = releaseIndex == releaseCount;
+            final ChangelogRelease release = release(versionMajorCount, releaseIndex);
+            xmlBuilder
+                    .append("    <release version=\"")
+                    .append(release.version)
+                    .append("\" date=\"")
+                    .append(upcoming ? "TBD" : release.date)
+                    .append("\">\n");
+            for (int actionIndex = 0; actionIndex < actionCountPerRelease; actionIndex++) {
+                xmlBuilder
+                        .append("      <action issue=\"LOG4J2-")
+                        .append(issueNumber++)
+                        .append("\" dev=\"")
+                        .append(randomElement(random, AUTHOR_IDS));
+                if (random.nextInt(5) == 0) {
+                    xmlBuilder.append(", ").append(randomElement(random, AUTHOR_IDS));
+                }
+                xmlBuilder.append('"');
+                if (random.nextBoolean()) {
+                    xmlBuilder.append(" due-to=\"").append(randomElement(random, CONTRIBUTOR_NAMES)).append('"');
+                }
+                xmlBuilder
+                        .append(" type=\"")
+                        .append(randomElement(random, actionTypes))
+                        .append("\">\n        ")
+                        .append(createSentence(random, 5 + random.nextInt(36)))
+                        .append("\n      </action>\n");
+            }
+            xmlBuilder.append("    </release>\n");
+        }
+        xmlBuilder.append("  </body>\n</document>\n");
+        try {
+            Files.write(changesXmlFile, xmlBuilder.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException error) {
+            final String message = String.format("failed writing changes file: `%s`", changesXmlFile);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    private static void requirePositive(final int value, final String name) {
+        if (value < 1) {
+            final String message = String.format("was expecting `%s > 0`, found: %d", name, value);
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static void copyResource(final String resourceName, final Path targetFile) throws IOException {
+        Files.createDirectories(targetFile.getParent());
+        try (final InputStream inputStream = ChangelogTreeGenerator.class.getResourceAsStream(resourceName)) {
+            if (inputStream == null) {
+                final String message = String.format("could not find resource: `%s`", resourceName);
+                throw new IllegalStateException(message);
+            }
+            Files.copy(inputStream, targetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the given directory recursively, if it exists.
+     */
+    public static void deleteDirectory(final Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (final IOException error) {
+                    throw new UncheckedIOException(error);
+                }
+            });
+        } catch (final IOException error) {
+            final String message = String.format("failed deleting directory: `%s`", directory);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+}
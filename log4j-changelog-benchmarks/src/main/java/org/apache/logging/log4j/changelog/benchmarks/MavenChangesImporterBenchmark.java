@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.changelog.importer.MavenChangesImporter;
+import org.apache.logging.log4j.changelog.importer.MavenChangesImporterArgs;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks importing a generated Maven {@code changes.xml} of {@link #releaseCount} releases containing {@link #actionCountPerRelease} actions each using {@link #parallelism} threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MavenChangesImporterBenchmark {
+
+    @Param({"10", "100"})
+    public int releaseCount;
+
+    @Param({"10", "100"})
+    public int actionCountPerRelease;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path directory;
+
+    private Path changesXmlFile;
+
+    private Path changelogDirectory;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        directory = Files.createTempDirectory("log4j-changelog-benchmark-");
+        changesXmlFile = directory.resolve("changes.xml");
+        ChangelogTreeGenerator.generateChangesXmlFile(changesXmlFile, releaseCount, actionCountPerRelease);
+        changelogDirectory = directory.resolve("changelog");
+    }
+
+    /**
+     * Starts every import with an empty changelog directory.
+     * <p>
+     * An import takes milliseconds, hence the per-invocation setup overhead is negligible.
+     * </p>
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        ChangelogTreeGenerator.deleteDirectory(changelogDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        ChangelogTreeGenerator.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void performImport() {
+        final MavenChangesImporterArgs args = new MavenChangesImporterArgs(changelogDirectory, changesXmlFile, 2, parallelism, null);
+        MavenChangesImporter.performImport(args);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.benchmarks.ChangelogTreeGenerator;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks rendering the release notes of a single release containing {@link #entryCount} entries.
+ * <p>
+ * {@link FreeMarkerEngine} is package-private, hence this benchmark shares its package.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FreeMarkerEngineBenchmark {
+
+    @Param({"10", "100"})
+    public int entryCount;
+
+    private Path directory;
+
+    private Path changelogDirectory;
+
+    private Map<String, Object> templateData;
+
+    private Path outputFile;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        // Generate a single release
+        directory = Files.createTempDirectory("log4j-changelog-benchmark-");
+        changelogDirectory = directory.resolve("changelog");
+        ChangelogTreeGenerator.generateChangelogDirectory(changelogDirectory, 1, entryCount);
+        final Path releaseDirectory = ChangelogFiles.releaseDirectory(changelogDirectory, "2.0.0");
+
+        // Read the template data the way the exporter does
+        final ChangelogRelease release = ChangelogRelease.readFromXmlFile(ChangelogFiles.releaseXmlFile(releaseDirectory));
+        final Map<ChangelogEntry.Type, List<ChangelogEntry>> entriesByType = ChangelogFiles
+                .changelogEntryFiles(releaseDirectory)
+                .stream()
+                .map(ChangelogEntry::readFromXmlFile)
+                .collect(Collectors.groupingBy(entry -> entry.type, TreeMap::new, Collectors.toList()));
+        templateData = new LinkedHashMap<>();
+        templateData.put("release", release);
+        templateData.put("entriesByType", entriesByType);
+        outputFile = directory.resolve("output.adoc");
+
+    }
+
+    @TearDown
+    public void tearDown() {
+        ChangelogTreeGenerator.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void render() {
+        FreeMarkerEngine
+                .forTemplateDirectory(changelogDirectory)
+                .render("2.0.0/.release-notes.adoc.ftl", templateData, outputFile);
+    }
+
+}
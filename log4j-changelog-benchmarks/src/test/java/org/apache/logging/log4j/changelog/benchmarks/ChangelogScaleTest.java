@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporter;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporterArgs;
+import org.apache.logging.log4j.changelog.importer.MavenChangesImporter;
+import org.apache.logging.log4j.changelog.importer.MavenChangesImporterArgs;
+import org.apache.logging.log4j.changelog.releaser.ChangelogReleaser;
+import org.apache.logging.log4j.changelog.releaser.ChangelogReleaserArgs;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs import, release, and export over synthetic changelogs of production size, and verifies that they stay within their wall-clock and allocation budgets.
+ * <p>
+ * Budgets are linear in the entry count of the entire tree, hence any accidental super-linear behaviour (e.g., re-parsing files inside a comparator) quickly exceeds them.
+ * Allocation budgets are roughly thrice the figures measured on a developer machine.
+ * Wall-clock budgets are more generous, since they depend on the load of the host.
+ * Allocations are measured for the current thread using {@link com.sun.management.ThreadMXBean}, hence every operation is run with {@code parallelism = 1}.
+ * These tests are only run by the {@code scale} Maven profile.
+ * </p>
+ */
+@Tag("scale")
+class ChangelogScaleTest {
+
+    private static final int VERSION_MAJOR_COUNT = 2;
+
+    private static final int RELEASE_COUNT = Integer.getInteger("log4j.changelog.scale.releaseCount", 200);
+
+    private static final int ENTRY_COUNT_PER_RELEASE =
+            Integer.getInteger("log4j.changelog.scale.entryCountPerRelease", 500);
+
+    private static final long ENTRY_COUNT = (long) RELEASE_COUNT * ENTRY_COUNT_PER_RELEASE;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @BeforeAll
+    static void enableAllocationMeasurement() {
+        assertThat(THREAD_MX_BEAN.isThreadAllocatedMemorySupported()).isTrue();
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void import_should_stay_within_budget(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path directory) {
+        final Path changesXmlFile = directory.resolve("changes.xml");
+        ChangelogTreeGenerator.generateChangesXmlFile(
+                changesXmlFile, VERSION_MAJOR_COUNT, RELEASE_COUNT, ENTRY_COUNT_PER_RELEASE);
+        final MavenChangesImporterArgs args = new MavenChangesImporterArgs(
+                directory.resolve("changelog"), changesXmlFile, ChangelogTreeGenerator.FIRST_VERSION_MAJOR, 1, null);
+        assertWithinBudget("import", 2_000_000L, 160_000L, () -> MavenChangesImporter.performImport(args));
+    }
+
+    @Test
+    void release_should_stay_within_budget(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory) {
+        ChangelogTreeGenerator.generateChangelogDirectory(
+                changelogDirectory, VERSION_MAJOR_COUNT, RELEASE_COUNT, ENTRY_COUNT_PER_RELEASE);
+        final ChangelogRelease release = ChangelogTreeGenerator.release(VERSION_MAJOR_COUNT, RELEASE_COUNT);
+        final ChangelogReleaserArgs args =
+                new ChangelogReleaserArgs(changelogDirectory, release.version, null, LocalDate.of(2023, 1, 25));
+        assertWithinBudget("release", 10_000L, 1_000L, () -> ChangelogReleaser.performRelease(args));
+    }
+
+    @Test
+    void export_should_stay_within_budget(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path directory) {
+        final Path changelogDirectory = directory.resolve("changelog");
+        ChangelogTreeGenerator.generateChangelogDirectory(
+                changelogDirectory, VERSION_MAJOR_COUNT, RELEASE_COUNT, ENTRY_COUNT_PER_RELEASE);
+        final ChangelogExporterArgs args = ChangelogExporterArgs.builder(
+                        changelogDirectory,
+                        ChangelogTreeGenerator.INDEX_TEMPLATES,
+                        ChangelogTreeGenerator.CHANGELOG_TEMPLATES,
+                        directory.resolve("output"))
+                .parallelism(1)
+                .build();
+        assertWithinBudget("export", 1_000_000L, 200_000L, () -> ChangelogExporter.performExport(args));
+    }
+
+    /**
+     * Runs the given operation in the current thread and verifies its elapsed time and allocated bytes against the given per-entry budgets.
+     */
+    private static void assertWithinBudget(
+            final String operationName,
+            final long nanosPerEntryBudget,
+            final long allocatedBytesPerEntryBudget,
+            final Runnable operation) {
+
+        // Run the operation
+        final long threadId = Thread.currentThread().getId();
+        final long startAllocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        final long startNanos = System.nanoTime();
+        operation.run();
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final long allocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+        System.out.format(
+                "%s of %d entries took %d ms and allocated %d MiB (%d ns and %d bytes per entry)%n",
+                operationName,
+                ENTRY_COUNT,
+                elapsedNanos / 1_000_000L,
+                allocatedBytes >> 20,
+                elapsedNanos / ENTRY_COUNT,
+                allocatedBytes / ENTRY_COUNT);
+
+        // Verify budgets
+        assertThat(elapsedNanos)
+                .as("%s wall-clock time in nanoseconds", operationName)
+                .isLessThanOrEqualTo(nanosPerEntryBudget * ENTRY_COUNT);
+        assertThat(allocatedBytes)
+                .as("%s allocated bytes", operationName)
+                .isLessThanOrEqualTo(allocatedBytesPerEntryBudget * ENTRY_COUNT);
+
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j;
+
+import java.io.File;
+
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.compactor.ChangelogCompactor;
+import org.apache.logging.log4j.changelog.compactor.ChangelogCompactorArgs;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Goal packing the changelog entry files of released directories (e.g., {@code 2.19.0}) into single {@code .entries.xml} bundle files.
+ *
+ * @see ChangelogCompactor
+ */
+@Mojo(name = "compact", defaultPhase = LifecyclePhase.VALIDATE)
+public final class CompactMojo extends AbstractMojo {
+
+    /**
+     * Directory containing release folders composed of changelog entry XML files.
+     */
+    @Parameter(
+            defaultValue = "${project.basedir}/src/changelog",
+            property = "log4j.changelog.directory",
+            required = true)
+    private File changelogDirectory;
+
+    /**
+     * The version of the release directory to be compacted, e.g., {@code 2.19.0}.
+     * If not provided, all released directories are compacted.
+     */
+    @Parameter(property = "log4j.changelog.releaseVersion")
+    private String releaseVersion;
+
+    /**
+     * Mode of validating the XML files read against the schema: {@code STRICT}, {@code CHANGED}, or {@code OFF}.
+     * <p>
+     * {@code CHANGED} validates only the files whose contents didn't pass validation before, as recorded in the {@link #validationCacheFile}.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "CHANGED",
+            property = "log4j.changelog.validationMode")
+    private XmlValidator.Mode validationMode;
+
+    /**
+     * File to store the content digests of the XML files that passed validation to, which is only used in {@code CHANGED} validation mode.
+     */
+    @Parameter(
+            defaultValue = "${project.build.directory}/log4j-changelog/" + XmlValidator.DEFAULT_CACHE_FILE_NAME,
+            property = "log4j.changelog.validationCacheFile")
+    private File validationCacheFile;
+
+    public void execute() {
+        final XmlValidator validator =
+                XmlValidator.of(validationMode, validationCacheFile != null ? validationCacheFile.toPath() : null);
+        final ChangelogCompactorArgs args =
+                new ChangelogCompactorArgs(changelogDirectory.toPath(), releaseVersion, validator);
+        final ChangelogReport report = ChangelogCompactor.performCompaction(args);
+        getLog().info(report.summary());
+    }
+
+}
@@ -17,15 +17,23 @@
 package org.apache.logging.log4j;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.ChangelogSnapshot;
 import org.apache.logging.log4j.changelog.exporter.ChangelogExporter;
 import org.apache.logging.log4j.changelog.exporter.ChangelogExporterArgs;
 import org.apache.logging.log4j.changelog.exporter.ChangelogExporterTemplate;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -37,7 +45,7 @@ import org.apache.maven.plugins.annotations.Parameter;
  * @see ChangelogExporter
  */
 @Mojo(name = "export", defaultPhase = LifecyclePhase.PRE_SITE)
-public final class ExportMojo extends AbstractMojo {
+public class ExportMojo extends AbstractMojo {
 
     private static final String SOURCE_TARGET_TEMPLATE_PATTERN =
             "^\\.(.*)\\." + ChangelogFiles.templateFileNameExtension() + '$';
@@ -51,6 +59,15 @@ public final class ExportMojo extends AbstractMojo {
             required = true)
     private File changelogDirectory;
 
+    /**
+     * ZIP archive containing the changelog directory at its root, to export from instead of the {@code changelogDirectory}.
+     * <p>
+     * Reading a single archive is considerably faster than accessing thousands of small files on network file systems.
+     * </p>
+     */
+    @Parameter(property = "log4j.changelog.archive")
+    private File changelogArchive;
+
     /**
      * Templates that will be rendered with the release information of all releases, e.g., to generate an index page.
      */
@@ -63,6 +80,21 @@ public final class ExportMojo extends AbstractMojo {
     @Parameter(required = true)
     private List<TemplateMojo> changelogTemplates;
 
+    /**
+     * Changelog directories of modules to export in the same run, e.g., the ones of all modules of a multi-module project.
+     * <p>
+     * Each module is exported using the same templates to the sub-directory named after the module in the {@code outputDirectory}.
+     * </p>
+     */
+    @Parameter
+    private List<ModuleMojo> modules;
+
+    /**
+     * Templates in the {@code changelogDirectory} that will be rendered with the release information of all {@code modules}, e.g., to generate a combined index page.
+     */
+    @Parameter
+    private List<TemplateMojo> aggregateIndexTemplates;
+
     /**
      * Directory to write rendered templates.
      */
@@ -72,16 +104,155 @@ public final class ExportMojo extends AbstractMojo {
             required = true)
     private File outputDirectory;
 
+    /**
+     * Number of releases to export concurrently.
+     * <p>
+     * If not provided, the number of available processors will be used.
+     * </p>
+     */
+    @Parameter(property = "log4j.changelog.parallelism")
+    private Integer parallelism;
+
+    /**
+     * Indicates if all releases should be exported, even if their inputs haven't changed since the last export.
+     * <p>
+     * Releases are otherwise skipped using the export manifest stored in the output directory.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "false",
+            property = "log4j.changelog.force")
+    private boolean force;
+
+    /**
+     * File to store the binary snapshot of parsed release directories to.
+     * <p>
+     * Release directories whose files haven't changed since the snapshot was written are read from the snapshot instead of parsing their XML files.
+     * The snapshot of each module is stored in the output sub-directory of that module using the same file name.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "${project.build.directory}/log4j-changelog/" + ChangelogSnapshot.DEFAULT_FILE_NAME,
+            property = "log4j.changelog.snapshotFile")
+    private File snapshotFile;
+
+    /**
+     * Indicates if rendered files should only be written if their contents have changed.
+     * <p>
+     * This preserves the modification times of unchanged files, which allows tools processing them (e.g., Asciidoctor) to skip them too.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "true",
+            property = "log4j.changelog.writeIfChanged")
+    private boolean writeIfChanged;
+
+    /**
+     * Indicates if only the index templates should be exported.
+     * <p>
+     * Changelog entry files are not parsed in this mode, hence it is considerably faster.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "false",
+            property = "log4j.changelog.indexOnly")
+    private boolean indexOnly;
+
+    /**
+     * Indicates if the full-text search index of changelog entries should be exported to the {@code search} directory in the {@code outputDirectory}.
+     * <p>
+     * The index is split into JSON files small enough to be loaded by browsers on demand.
+     * Postings of releases whose inputs haven't changed since the last export are reused.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "false",
+            property = "log4j.changelog.searchIndex")
+    private boolean searchIndex;
+
+    /**
+     * JSON file to write the export report to.
+     * <p>
+     * The report contains the time spent in each phase, the number of files and bytes read and written, the peak heap usage, and the slowest releases.
+     * It is intended to trend the export performance across builds.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "${project.build.directory}/log4j-changelog/export-report.json",
+            property = "log4j.changelog.reportFile")
+    private File reportFile;
+
+    /**
+     * Mode of validating the XML files read against the schema: {@code STRICT}, {@code CHANGED}, or {@code OFF}.
+     * <p>
+     * {@code CHANGED} validates only the files whose contents didn't pass validation before, as recorded in the {@link #validationCacheFile}.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "CHANGED",
+            property = "log4j.changelog.validationMode")
+    private XmlValidator.Mode validationMode;
+
+    /**
+     * File to store the content digests of the XML files that passed validation to, which is only used in {@code CHANGED} validation mode.
+     */
+    @Parameter(
+            defaultValue = "${project.build.directory}/log4j-changelog/" + XmlValidator.DEFAULT_CACHE_FILE_NAME,
+            property = "log4j.changelog.validationCacheFile")
+    private File validationCacheFile;
+
     public void execute() {
+        final ChangelogExporterArgs args = createExporterArgs();
+        final ChangelogReport report = indexOnly
+                ? ChangelogExporter.performIndexExport(args)
+                : ChangelogExporter.performExport(args);
+        getLog().info(report.summary());
+        if (reportFile != null) {
+            report.writeJsonFile(reportFile.toPath());
+        }
+    }
+
+    ChangelogExporterArgs createExporterArgs() {
         final Set<ChangelogExporterTemplate> translatedIndexTemplates = toExporterTemplates(indexTemplates);
         final Set<ChangelogExporterTemplate> translatedReleaseChangelogTemplates = toExporterTemplates(
                 changelogTemplates);
-        final ChangelogExporterArgs args = new ChangelogExporterArgs(
-                changelogDirectory.toPath(),
-                translatedIndexTemplates,
-                translatedReleaseChangelogTemplates,
-                outputDirectory.toPath());
-        ChangelogExporter.performExport(args);
+        return ChangelogExporterArgs.builder(
+                        changelogArchive != null ? changelogArchive.toPath() : changelogDirectory.toPath(),
+                        translatedIndexTemplates,
+                        translatedReleaseChangelogTemplates,
+                        outputDirectory.toPath())
+                .parallelism(parallelism != null ? parallelism : ExecutorUtils.defaultParallelism())
+                .incremental(true)
+                .force(force)
+                .snapshotFile(snapshotFile != null ? snapshotFile.toPath() : null)
+                .writeIfChanged(writeIfChanged)
+                .validator(createValidator())
+                .moduleChangelogDirectories(toModuleChangelogDirectories(modules))
+                .aggregateIndexTemplates(
+                        aggregateIndexTemplates != null
+                                ? toExporterTemplates(aggregateIndexTemplates)
+                                : Collections.emptySet())
+                .searchIndex(searchIndex)
+                .build();
+    }
+
+    private static Map<String, Path> toModuleChangelogDirectories(final List<ModuleMojo> moduleMojos) {
+        final Map<String, Path> moduleChangelogDirectories = new LinkedHashMap<>();
+        if (moduleMojos != null) {
+            for (final ModuleMojo moduleMojo : moduleMojos) {
+                final Path previousChangelogDirectory =
+                        moduleChangelogDirectories.put(moduleMojo.name, moduleMojo.changelogDirectory.toPath());
+                if (previousChangelogDirectory != null) {
+                    final String message = String.format("duplicate module name: `%s`", moduleMojo.name);
+                    throw new IllegalArgumentException(message);
+                }
+            }
+        }
+        return moduleChangelogDirectories;
+    }
+
+    XmlValidator createValidator() {
+        return XmlValidator.of(validationMode, validationCacheFile != null ? validationCacheFile.toPath() : null);
     }
 
     private static Set<ChangelogExporterTemplate> toExporterTemplates(Collection<TemplateMojo> templateMojos) {
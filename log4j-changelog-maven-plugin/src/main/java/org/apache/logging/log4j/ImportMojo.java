@@ -18,9 +18,11 @@ package org.apache.logging.log4j;
 
 import java.io.File;
 
+import org.apache.logging.log4j.changelog.ChangelogReport;
 import org.apache.logging.log4j.changelog.importer.MavenChangesImporter;
 import org.apache.logging.log4j.changelog.importer.MavenChangesImporterArgs;
 import org.apache.logging.log4j.changelog.releaser.ChangelogReleaser;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -59,12 +61,34 @@ public final class ImportMojo extends AbstractMojo {
             required = true)
     private int releaseVersionMajor;
 
+    /**
+     * Number of changelog entry files to write concurrently.
+     * <p>
+     * If not provided, the number of available processors will be used.
+     * </p>
+     */
+    @Parameter(property = "log4j.changelog.parallelism")
+    private Integer parallelism;
+
+    /**
+     * Indicates if the release information of all released directories should be consolidated into {@code .releases.xml} after the import.
+     * <p>
+     * {@code .releases.xml} saves reading a {@code .release.xml} per released directory on every export, which pays off for changelog directories containing many releases.
+     * </p>
+     */
+    @Parameter(property = "log4j.changelog.releasesXmlFileWritten", defaultValue = "false")
+    private boolean releasesXmlFileWritten;
+
     public void execute() {
         final MavenChangesImporterArgs args = new MavenChangesImporterArgs(
                 changelogDirectory.toPath(),
                 changesXmlFile.toPath(),
-                releaseVersionMajor);
-        MavenChangesImporter.performImport(args);
+                releaseVersionMajor,
+                parallelism != null ? parallelism : ExecutorUtils.defaultParallelism(),
+                null);
+        final MavenChangesImporterArgs releasesXmlFileArgs = args.withReleasesXmlFileWritten(releasesXmlFileWritten);
+        final ChangelogReport report = MavenChangesImporter.performImport(releasesXmlFileArgs);
+        getLog().info(report.summary());
     }
 
 }
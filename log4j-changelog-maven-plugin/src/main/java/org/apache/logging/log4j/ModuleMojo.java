@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j;
+
+import java.io.File;
+
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * The module changelog directory definition.
+ */
+public final class ModuleMojo {
+
+    /**
+     * The module name, e.g., {@code log4j-core}, which is used as the name of the output sub-directory of the module.
+     */
+    @Parameter(required = true)
+    String name;
+
+    /**
+     * Directory containing release folders composed of changelog entry XML files of the module, e.g., {@code ${project.basedir}/log4j-core/src/changelog}.
+     */
+    @Parameter(required = true)
+    File changelogDirectory;
+
+}
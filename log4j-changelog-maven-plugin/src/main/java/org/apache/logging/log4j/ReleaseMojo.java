@@ -20,9 +20,13 @@ import java.io.File;
 import java.time.LocalDate;
 import java.util.regex.Pattern;
 
+import org.apache.logging.log4j.changelog.ChangelogReport;
 import org.apache.logging.log4j.changelog.releaser.ChangelogReleaser;
 import org.apache.logging.log4j.changelog.releaser.ChangelogReleaserArgs;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -46,10 +50,11 @@ public final class ReleaseMojo extends AbstractMojo {
 
     /**
      * The version to be released, e.g., {@code 2.19.0}.
+     * <p>
+     * Required, unless a {@link #recovery} is requested.
+     * </p>
      */
-    @Parameter(
-            property = "log4j.changelog.releaseVersion",
-            required = true)
+    @Parameter(property = "log4j.changelog.releaseVersion")
     private String releaseVersion;
 
     /**
@@ -66,14 +71,83 @@ public final class ReleaseMojo extends AbstractMojo {
     @Parameter(property = "log4j.changelog.versionPattern")
     private String versionPattern;
 
-    public void execute() {
+    /**
+     * Mode of validating the XML files read against the schema: {@code STRICT}, {@code CHANGED}, or {@code OFF}.
+     * <p>
+     * {@code CHANGED} validates only the files whose contents didn't pass validation before, as recorded in the {@link #validationCacheFile}.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "CHANGED",
+            property = "log4j.changelog.validationMode")
+    private XmlValidator.Mode validationMode;
+
+    /**
+     * File to store the content digests of the XML files that passed validation to, which is only used in {@code CHANGED} validation mode.
+     */
+    @Parameter(
+            defaultValue = "${project.build.directory}/log4j-changelog/" + XmlValidator.DEFAULT_CACHE_FILE_NAME,
+            property = "log4j.changelog.validationCacheFile")
+    private File validationCacheFile;
+
+    /**
+     * Indicates if the release should only be planned, i.e., its summary should be printed without changing any files.
+     */
+    @Parameter(
+            defaultValue = "false",
+            property = "log4j.changelog.dryRun")
+    private boolean dryRun;
+
+    /**
+     * The way of recovering an interrupted release using its journal: {@code ROLL_FORWARD} or {@code ROLL_BACK}.
+     * <p>
+     * If provided, the interrupted release is recovered, and no new release is performed.
+     * </p>
+     */
+    @Parameter(property = "log4j.changelog.recovery")
+    private ChangelogReleaser.Recovery recovery;
+
+    /**
+     * Number of files to move concurrently, if the release directory already exists.
+     * <p>
+     * If not provided, the number of available processors will be used.
+     * </p>
+     */
+    @Parameter(property = "log4j.changelog.parallelism")
+    private Integer parallelism;
+
+    public void execute() throws MojoExecutionException {
+
+        // Recover an interrupted release, if requested
+        final int effectiveParallelism = parallelism != null ? parallelism : ExecutorUtils.defaultParallelism();
+        if (recovery != null) {
+            final ChangelogReport report =
+                    ChangelogReleaser.recoverRelease(changelogDirectory.toPath(), recovery, effectiveParallelism);
+            getLog().info(report.summary());
+            return;
+        }
+
+        // Otherwise, perform a new release
+        if (releaseVersion == null) {
+            throw new MojoExecutionException("`releaseVersion` is required, unless a `recovery` is requested");
+        }
         Pattern compiledVersionPattern = versionPattern != null ? Pattern.compile(versionPattern) : null;
+        final XmlValidator validator =
+                XmlValidator.of(validationMode, validationCacheFile != null ? validationCacheFile.toPath() : null);
         final ChangelogReleaserArgs args = new ChangelogReleaserArgs(
                 changelogDirectory.toPath(),
                 releaseVersion,
                 compiledVersionPattern,
-                LocalDate.now());
-        ChangelogReleaser.performRelease(args);
+                LocalDate.now(),
+                validator,
+                effectiveParallelism);
+        if (dryRun) {
+            getLog().info(ChangelogReleaser.planRelease(args).summary());
+            return;
+        }
+        final ChangelogReport report = ChangelogReleaser.performRelease(args);
+        getLog().info(report.summary());
+
     }
 
 }
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j;
+
+import java.io.File;
+
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+import org.apache.logging.log4j.changelog.validator.ChangelogValidationException;
+import org.apache.logging.log4j.changelog.validator.ChangelogValidator;
+import org.apache.logging.log4j.changelog.validator.ChangelogValidatorArgs;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Goal validating every XML file of the changelog directory and reporting all invalid ones at once, without rendering anything.
+ *
+ * @see ChangelogValidator
+ */
+@Mojo(name = "validate", defaultPhase = LifecyclePhase.VALIDATE)
+public final class ValidateMojo extends AbstractMojo {
+
+    /**
+     * Directory containing release folders composed of changelog entry XML files.
+     */
+    @Parameter(
+            defaultValue = "${project.basedir}/src/changelog",
+            property = "log4j.changelog.directory",
+            required = true)
+    private File changelogDirectory;
+
+    /**
+     * Number of files to validate concurrently.
+     * <p>
+     * If not provided, the number of available processors will be used.
+     * </p>
+     */
+    @Parameter(property = "log4j.changelog.parallelism")
+    private Integer parallelism;
+
+    /**
+     * Mode of validating the XML files against the schema: {@code STRICT}, {@code CHANGED}, or {@code OFF}.
+     * <p>
+     * Files are read and checked for their structure even if the schema validation is skipped.
+     * </p>
+     */
+    @Parameter(
+            defaultValue = "STRICT",
+            property = "log4j.changelog.validationMode")
+    private XmlValidator.Mode validationMode;
+
+    /**
+     * File to store the content digests of the XML files that passed validation to, which is only used in {@code CHANGED} validation mode.
+     */
+    @Parameter(
+            defaultValue = "${project.build.directory}/log4j-changelog/" + XmlValidator.DEFAULT_CACHE_FILE_NAME,
+            property = "log4j.changelog.validationCacheFile")
+    private File validationCacheFile;
+
+    public void execute() throws MojoFailureException {
+        final XmlValidator validator =
+                XmlValidator.of(validationMode, validationCacheFile != null ? validationCacheFile.toPath() : null);
+        final ChangelogValidatorArgs args = new ChangelogValidatorArgs(
+                changelogDirectory.toPath(),
+                parallelism != null ? parallelism : ExecutorUtils.defaultParallelism(),
+                validator);
+        try {
+            final ChangelogReport report = ChangelogValidator.performValidation(args);
+            getLog().info(report.summary());
+        } catch (final ChangelogValidationException error) {
+            error.failures().forEach(failure -> getLog().error(failure.toString()));
+            final String message = String.format(
+                    "found %d invalid files in `%s`", error.failures().size(), changelogDirectory);
+            throw new MojoFailureException(message, error);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j;
+
+import org.apache.logging.log4j.changelog.exporter.ChangelogExportWatcher;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporter;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Goal exporting the changelog directory, and re-exporting the affected releases on every change until the build is interrupted.
+ * <p>
+ * It accepts all parameters of the {@code export} goal.
+ * </p>
+ *
+ * @see ChangelogExportWatcher
+ */
+@Mojo(name = "watch")
+public final class WatchMojo extends ExportMojo {
+
+    /**
+     * Period in milliseconds without further changes to wait for before re-exporting.
+     */
+    @Parameter(
+            defaultValue = "50",
+            property = "log4j.changelog.debounceDelay")
+    private long debounceDelay;
+
+    @Override
+    public void execute() {
+        try (final ChangelogExportWatcher watcher =
+                ChangelogExporter.watch(createExporterArgs(), debounceDelay, outputFileNames -> {})) {
+            watcher.awaitClose();
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
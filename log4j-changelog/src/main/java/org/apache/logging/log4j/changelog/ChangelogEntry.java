@@ -17,15 +17,16 @@
 package org.apache.logging.log4j.changelog;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.util.FileEvent;
+import org.apache.logging.log4j.changelog.util.StreamingXmlReader;
+import org.apache.logging.log4j.changelog.util.StreamingXmlWriter;
 import org.apache.logging.log4j.changelog.util.StringUtils;
-import org.apache.logging.log4j.changelog.util.XmlReader;
-import org.apache.logging.log4j.changelog.util.XmlWriter;
-import org.w3c.dom.Element;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 
 public final class ChangelogEntry {
 
@@ -99,6 +100,22 @@ public final class ChangelogEntry {
 
     }
 
+    /**
+     * The type and the authors of a changelog entry, which can be read without parsing the entire file.
+     */
+    public static final class Summary {
+
+        public final Type type;
+
+        public final List<Author> authors;
+
+        public Summary(final Type type, final List<Author> authors) {
+            this.type = type;
+            this.authors = authors;
+        }
+
+    }
+
     public ChangelogEntry(
             final Type type,
             final List<Issue> issues,
@@ -111,95 +128,164 @@ public final class ChangelogEntry {
     }
 
     public void writeToXmlFile(final Path path) {
-        XmlWriter.toFile(path, "entry", (document, entryElement) -> {
-
-            // Create the `entry` root element
-            entryElement.setAttribute("type", type.toXmlAttribute());
-
-            // Create the `issue` elements
-            issues.forEach(issue -> {
-                final Element issueElement = document.createElement("issue");
-                issueElement.setAttribute("id", issue.id);
-                issueElement.setAttribute("link", issue.link);
-                entryElement.appendChild(issueElement);
-            });
-
-            // Create the `author` elements
-            authors.forEach(author -> {
-                final Element authorElement = document.createElement("author");
-                if (author.id != null) {
-                    authorElement.setAttribute("id", author.id);
-                } else {
-                    authorElement.setAttribute("name", author.name);
-                }
-                entryElement.appendChild(authorElement);
-            });
-
-            // Create the `description` element
-            final Element descriptionElement = document.createElement("description");
-            if (description.format != null) {
-                descriptionElement.setAttribute("format", description.format);
+        StreamingXmlWriter.toFile(path, "entry", this::writeEntryElement);
+    }
+
+    /**
+     * Writes the attributes and the child elements of the {@code entry} element the given writer is positioned at.
+     */
+    void writeEntryElement(final StreamingXmlWriter entryWriter) {
+
+        // Write the `entry` element
+        entryWriter.attribute("type", type.toXmlAttribute());
+
+        // Write the `issue` elements
+        issues.forEach(issue -> entryWriter.element("issue", issueWriter -> issueWriter
+                .attribute("id", issue.id)
+                .attribute("link", issue.link)));
+
+        // Write the `author` elements
+        authors.forEach(author -> entryWriter.element("author", authorWriter -> {
+            if (author.id != null) {
+                authorWriter.attribute("id", author.id);
+            } else {
+                authorWriter.attribute("name", author.name);
             }
-            descriptionElement.setTextContent(description.text);
-            entryElement.appendChild(descriptionElement);
+        }));
 
+        // Write the `description` element
+        entryWriter.element("description", descriptionWriter -> {
+            if (description.format != null) {
+                descriptionWriter.attribute("format", description.format);
+            }
+            descriptionWriter.text(description.text);
         });
+
     }
 
     public static ChangelogEntry readFromXmlFile(final Path path) {
+        return readFromXmlFile(path, XmlValidator.off());
+    }
 
-        // Read the `entry` root element
-        final Element entryElement = XmlReader.readXmlFileRootElement(path, "entry");
-        final String typeAttribute = XmlReader.requireAttribute(entryElement, "type");
-        final Type type;
-        try {
-            type = Type.fromXmlAttribute(typeAttribute);
-        } catch (final Exception error) {
-            throw XmlReader.failureAtXmlNode(error, entryElement, "`type` attribute read failure");
-        }
+    public static ChangelogEntry readFromXmlFile(final Path path, final XmlValidator validator) {
+        final FileEvent event = FileEvent.beginEntryRead(path);
+        final ChangelogEntry changelogEntry =
+                StreamingXmlReader.readXmlFile(path, validator, "entry", ChangelogEntry::readFromEntryElement);
+        event.endWithFileSize();
+        return changelogEntry;
+    }
+
+    /**
+     * Reads the type and the authors of a changelog entry file, skipping the rest of the file.
+     * <p>
+     * Unlike {@link #readFromXmlFile(Path)}, the file is not validated.
+     * That is, the file is only read up to the {@code description} element, which is expected to follow the {@code issue} and {@code author} elements.
+     * </p>
+     */
+    public static Summary readSummaryFromXmlFile(final Path path) {
+        return readSummaryFromXmlFile(path, XmlValidator.off());
+    }
+
+    /**
+     * Reads the type and the authors of a changelog entry file, after validating the entire file against the schema, unless the validator is {@link XmlValidator.Mode#OFF off}.
+     */
+    public static Summary readSummaryFromXmlFile(final Path path, final XmlValidator validator) {
+        return StreamingXmlReader.readXmlFile(path, validator, "entry", ChangelogEntry::readSummaryFromEntryElement);
+    }
 
-        // Read the `issue` elements
-        final List<Issue> issues = XmlReader
-                .findChildElementsMatchingName(entryElement, "issue")
-                .map(issueElement -> {
-                    final String issueId = XmlReader.requireAttribute(issueElement, "id");
-                    final String issueLink = XmlReader.requireAttribute(issueElement, "link");
-                    return new Issue(issueId, issueLink);
-                })
-                .collect(Collectors.toList());
-
-        // Read the `author` elements
-        final List<Author> authors = XmlReader
-                .findChildElementsMatchingName(entryElement, "author")
-                .map(authorElement -> {
-                    @Nullable
-                    final String authorId = authorElement.hasAttribute("id")
-                            ? authorElement.getAttribute("id")
-                            : null;
-                    @Nullable
-                    final String authorName = authorElement.hasAttribute("name")
-                            ? authorElement.getAttribute("name")
-                            : null;
-                    if (authorId == null && authorName == null) {
-                        throw XmlReader.failureAtXmlNode(
-                                authorElement, "`author` must have at least one of `id` or `name` attributes");
-                    }
-                    return new Author(authorId, authorName);
-                })
-                .collect(Collectors.toList());
+    private static Summary readSummaryFromEntryElement(final StreamingXmlReader reader) {
+        final Type type = readType(reader);
+        final List<Author> authors = new ArrayList<>();
+        reader.forEachChildElementWhile(childReader -> {
+            final String childElementName = childReader.elementName();
+            if ("author".equals(childElementName)) {
+                authors.add(readAuthor(childReader));
+            }
+            return !"description".equals(childElementName);
+        });
+        return new Summary(type, authors);
+    }
+
+    /**
+     * Reads the {@code entry} element the given reader is positioned at.
+     */
+    static ChangelogEntry readFromEntryElement(final StreamingXmlReader reader) {
+
+        // Read the `entry` element
+        final int entryLineNumber = reader.lineNumber();
+        final Type type = readType(reader);
+
+        // Read the child elements in a single pass
+        final List<Issue> issues = new ArrayList<>();
+        final List<Author> authors = new ArrayList<>();
+        final List<Description> descriptions = new ArrayList<>(1);
+        reader.forEachChildElement(childReader -> {
+            final String childElementName = childReader.elementName();
+            switch (childElementName) {
+                case "issue":
+                    issues.add(readIssue(childReader));
+                    break;
+                case "author":
+                    authors.add(readAuthor(childReader));
+                    break;
+                case "description":
+                    descriptions.add(readDescription(childReader));
+                    break;
+                default:
+                    // Unknown elements are ignored
+                    break;
+            }
+        });
+
+        // Verify the cardinalities
         if (authors.isEmpty()) {
-            throw XmlReader.failureAtXmlNode(entryElement, "no `author` elements found");
+            throw StreamingXmlReader.failureAtLine(null, entryLineNumber, "no `author` elements found");
+        }
+        final int descriptionCount = descriptions.size();
+        if (descriptionCount != 1) {
+            throw StreamingXmlReader.failureAtLine(
+                    null,
+                    entryLineNumber,
+                    "was expecting a single `%s` element, found: %d",
+                    "description",
+                    descriptionCount);
         }
-
-        // Read the `description` element
-        final Element descriptionElement = XmlReader.requireChildElementMatchingName(entryElement, "description");
-        final String descriptionFormat = XmlReader.requireAttribute(descriptionElement, "format");
-        final String descriptionText = StringUtils.trimNullable(descriptionElement.getTextContent());
-        final Description description = new Description(descriptionFormat, descriptionText);
 
         // Create the instance
-        return new ChangelogEntry(type, issues, authors, description);
+        return new ChangelogEntry(type, issues, authors, descriptions.get(0));
+
+    }
+
+    private static Type readType(final StreamingXmlReader reader) {
+        final String typeAttribute = reader.requireAttribute("type");
+        try {
+            return Type.fromXmlAttribute(typeAttribute);
+        } catch (final Exception error) {
+            throw StreamingXmlReader.failureAtLine(error, reader.lineNumber(), "`type` attribute read failure");
+        }
+    }
+
+    private static Issue readIssue(final StreamingXmlReader reader) {
+        final String issueId = reader.requireAttribute("id");
+        final String issueLink = reader.requireAttribute("link");
+        return new Issue(issueId, issueLink);
+    }
+
+    private static Author readAuthor(final StreamingXmlReader reader) {
+        @Nullable
+        final String authorId = reader.attribute("id");
+        @Nullable
+        final String authorName = reader.attribute("name");
+        if (authorId == null && authorName == null) {
+            throw reader.failure("`author` must have at least one of `id` or `name` attributes");
+        }
+        return new Author(authorId, authorName);
+    }
 
+    private static Description readDescription(final StreamingXmlReader reader) {
+        final String descriptionFormat = reader.requireAttribute("format");
+        final String descriptionText = StringUtils.trimNullable(reader.readElementText());
+        return new Description(descriptionFormat, descriptionText);
     }
 
 }
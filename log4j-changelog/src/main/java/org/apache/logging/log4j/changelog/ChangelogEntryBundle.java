@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.StreamingXmlReader;
+import org.apache.logging.log4j.changelog.util.StreamingXmlWriter;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+/**
+ * Reads and writes {@code .entries.xml} files bundling the changelog entries of a compacted release directory.
+ * <p>
+ * A bundle contains an {@code entry} element per changelog entry, wrapped in a {@code file} element carrying the name of the changelog entry file it was read from.
+ * Hence, a bundle can be expanded back to changelog entry files.
+ * </p>
+ * <p>
+ * A release directory can contain both a bundle and loose changelog entry files, e.g., if changelog entries are added to a compacted release.
+ * Loose files take precedence over bundled ones with the same name, e.g., if a compaction was interrupted before deleting the loose files.
+ * </p>
+ */
+public final class ChangelogEntryBundle {
+
+    private ChangelogEntryBundle() {}
+
+    /**
+     * Writes the given changelog entries to the bundle file atomically.
+     *
+     * @param entryByFileName changelog entries keyed by their file names
+     */
+    public static void writeToXmlFile(final Path path, final SortedMap<String, ChangelogEntry> entryByFileName) {
+        final String xml = StreamingXmlWriter.toString("entries", entriesWriter -> {
+            entriesWriter.attribute("count", String.valueOf(entryByFileName.size()));
+            entryByFileName.forEach((fileName, entry) -> entriesWriter.element("file", fileWriter -> fileWriter
+                    .attribute("name", fileName)
+                    .element("entry", entry::writeEntryElement)));
+        });
+        FileUtils.writeAtomically(path, xml.getBytes(CharsetUtils.CHARSET));
+    }
+
+    /**
+     * Reads the changelog entries of the given bundle file.
+     *
+     * @return changelog entries of the bundle file keyed by their file names
+     */
+    public static SortedMap<String, ChangelogEntry> readFromXmlFile(final Path path) {
+        return readFromXmlFile(path, XmlValidator.off());
+    }
+
+    /**
+     * Reads the changelog entries of the given bundle file, and validates it using the given validator.
+     *
+     * @return changelog entries of the bundle file keyed by their file names
+     */
+    public static SortedMap<String, ChangelogEntry> readFromXmlFile(final Path path, final XmlValidator validator) {
+        return StreamingXmlReader.readXmlFile(
+                path, validator, "entries", ChangelogEntryBundle::readFromEntriesElement);
+    }
+
+    private static SortedMap<String, ChangelogEntry> readFromEntriesElement(final StreamingXmlReader reader) {
+        final int entriesLineNumber = reader.lineNumber();
+        final int entryCount = readEntryCount(reader);
+        final SortedMap<String, ChangelogEntry> entryByFileName = new TreeMap<>();
+        reader.forEachChildElement(fileReader -> {
+            if (!"file".equals(fileReader.elementName())) {
+                // Unknown elements are ignored
+                return;
+            }
+            final int fileLineNumber = fileReader.lineNumber();
+            final String fileName = fileReader.requireAttribute("name");
+            if (!changelogEntryFileName(fileName)) {
+                throw fileReader.failure("invalid changelog entry file name: `%s`", fileName);
+            }
+            final List<ChangelogEntry> entries = new ArrayList<>(1);
+            fileReader.forEachChildElement(entryReader -> {
+                if ("entry".equals(entryReader.elementName())) {
+                    entries.add(ChangelogEntry.readFromEntryElement(entryReader));
+                }
+            });
+            if (entries.size() != 1) {
+                throw StreamingXmlReader.failureAtLine(
+                        null, fileLineNumber, "was expecting a single `entry` element, found: %d", entries.size());
+            }
+            if (entryByFileName.put(fileName, entries.get(0)) != null) {
+                throw StreamingXmlReader.failureAtLine(
+                        null, fileLineNumber, "duplicate changelog entry file name: `%s`", fileName);
+            }
+        });
+        if (entryByFileName.size() != entryCount) {
+            throw StreamingXmlReader.failureAtLine(
+                    null,
+                    entriesLineNumber,
+                    "was expecting %d `file` elements, found: %d",
+                    entryCount,
+                    entryByFileName.size());
+        }
+        return entryByFileName;
+    }
+
+    /**
+     * Reads the number of changelog entries of the bundle file, skipping the rest of the file.
+     */
+    public static int readEntryCountFromXmlFile(final Path path) {
+        return StreamingXmlReader.readXmlFile(path, "entries", ChangelogEntryBundle::readEntryCount);
+    }
+
+    private static int readEntryCount(final StreamingXmlReader reader) {
+        final String countAttribute = reader.requireAttribute("count");
+        try {
+            return Integer.parseInt(countAttribute);
+        } catch (final NumberFormatException error) {
+            throw StreamingXmlReader.failureAtLine(
+                    error, reader.lineNumber(), "invalid `count` attribute: `%s`", countAttribute);
+        }
+    }
+
+    /**
+     * Checks if the given name, read from a bundle, can be used as a changelog entry file name in the release directory.
+     * <p>
+     * Names containing separators are rejected, since expanding them would write files outside the release directory.
+     * </p>
+     */
+    private static boolean changelogEntryFileName(final String fileName) {
+        return !fileName.isEmpty() && !fileName.startsWith(".") && fileName.indexOf('/') < 0 && fileName.indexOf('\\') < 0;
+    }
+
+    /**
+     * Reads the changelog entries of the given release directory, both the bundled and the loose ones.
+     *
+     * @return changelog entries keyed by their files and sorted by them
+     */
+    public static SortedMap<Path, ChangelogEntry> readAllEntries(final Path releaseDirectory) {
+        return readAllEntries(releaseDirectory, XmlValidator.off());
+    }
+
+    /**
+     * Reads the changelog entries of the given release directory, both the bundled and the loose ones, validating the files using the given validator.
+     *
+     * @return changelog entries keyed by their files and sorted by them
+     */
+    public static SortedMap<Path, ChangelogEntry> readAllEntries(
+            final Path releaseDirectory, final XmlValidator validator) {
+        final SortedMap<Path, ChangelogEntry> entryByFile = new TreeMap<>();
+        final Path bundleFile = ChangelogFiles.entriesXmlFile(releaseDirectory);
+        if (Files.exists(bundleFile)) {
+            readFromXmlFile(bundleFile, validator)
+                    .forEach((fileName, entry) -> entryByFile.put(releaseDirectory.resolve(fileName), entry));
+        }
+        for (final Path file : ChangelogFiles.changelogEntryFiles(releaseDirectory)) {
+            entryByFile.put(file, ChangelogEntry.readFromXmlFile(file, validator));
+        }
+        return entryByFile;
+    }
+
+    /**
+     * Reads the summaries of the changelog entries of the given release directory, both the bundled and the loose ones.
+     * <p>
+     * Unless validated, loose files are only read up to their {@code description} elements, whereas bundles are read entirely.
+     * </p>
+     *
+     * @return changelog entry summaries sorted by their files
+     */
+    public static List<ChangelogEntry.Summary> readAllEntrySummaries(
+            final Path releaseDirectory, final XmlValidator validator) {
+        final SortedMap<Path, ChangelogEntry.Summary> summaryByFile = new TreeMap<>();
+        final Path bundleFile = ChangelogFiles.entriesXmlFile(releaseDirectory);
+        if (Files.exists(bundleFile)) {
+            readFromXmlFile(bundleFile, validator).forEach((fileName, entry) -> summaryByFile.put(
+                    releaseDirectory.resolve(fileName), new ChangelogEntry.Summary(entry.type, entry.authors)));
+        }
+        for (final Path file : ChangelogFiles.changelogEntryFiles(releaseDirectory)) {
+            summaryByFile.put(file, ChangelogEntry.readSummaryFromXmlFile(file, validator));
+        }
+        return new ArrayList<>(summaryByFile.values());
+    }
+
+}
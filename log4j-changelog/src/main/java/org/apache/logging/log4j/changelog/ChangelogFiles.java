@@ -17,6 +17,7 @@
 package org.apache.logging.log4j.changelog;
 
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -60,6 +61,45 @@ public final class ChangelogFiles {
         return releaseDirectory.resolve(".release.xml");
     }
 
+    /**
+     * Resolves the consolidated release information file of the given changelog directory.
+     *
+     * @return the file consolidating the release information of all release directories, see {@link ChangelogReleaseCatalog}
+     */
+    public static Path releasesXmlFile(final Path changelogDirectory) {
+        return changelogDirectory.resolve(".releases.xml");
+    }
+
+    /**
+     * Resolves the changelog entry bundle file of the given release directory.
+     *
+     * @return the file bundling the changelog entries of a compacted release directory, see {@link ChangelogEntryBundle}
+     */
+    public static Path entriesXmlFile(final Path releaseDirectory) {
+        return releaseDirectory.resolve(".entries.xml");
+    }
+
+    /**
+     * Resolves the release journal file of the given changelog directory.
+     *
+     * @return the file recording the moves of a release in progress, see {@link org.apache.logging.log4j.changelog.releaser.ChangelogReleaser}
+     */
+    public static Path releaseJournalFile(final Path changelogDirectory) {
+        return changelogDirectory.resolve(".release-journal.txt");
+    }
+
+    /**
+     * Finds changelog entry files, i.e., files not prefixed with a dot, in the given release directory.
+     *
+     * @return changelog entry files sorted by their names
+     */
+    public static List<Path> changelogEntryFiles(final Path releaseDirectory) {
+        return FileUtils.findAdjacentFiles(releaseDirectory, true, paths -> paths
+                // Sorting is needed to generate the same output between different runs
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
     public static String templateFileNameExtension() {
         return "ftl";
     }
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+/**
+ * An in-memory index of the changelog entries of all release directories.
+ * <p>
+ * Entries can be looked up by issue ID, author, type, and release version in constant time.
+ * Looked up entries are ordered by their releases (released ones sorted by date followed by unreleased ones), and then by their file names.
+ * </p>
+ * <p>
+ * Instances are immutable, and hence, thread-safe.
+ * </p>
+ */
+public final class ChangelogIndex {
+
+    /**
+     * A changelog entry along with the release it belongs to.
+     */
+    public static final class IndexedEntry {
+
+        public final ChangelogRelease release;
+
+        public final ChangelogEntry entry;
+
+        private IndexedEntry(final ChangelogRelease release, final ChangelogEntry entry) {
+            this.release = release;
+            this.entry = entry;
+        }
+
+    }
+
+    private final List<ChangelogRelease> releases;
+
+    private final int entryCount;
+
+    private final Map<String, List<IndexedEntry>> entriesByReleaseVersion;
+
+    private final Map<String, List<IndexedEntry>> entriesByIssueId;
+
+    private final Map<String, List<ChangelogRelease>> releasesByIssueId;
+
+    private final Map<String, List<IndexedEntry>> entriesByAuthor;
+
+    private final Map<ChangelogEntry.Type, List<IndexedEntry>> entriesByType;
+
+    private ChangelogIndex(final List<ChangelogRelease> releases, final List<? extends Collection<ChangelogEntry>> entryLists) {
+        this.releases = Collections.unmodifiableList(new ArrayList<>(releases));
+        final Map<String, List<IndexedEntry>> entriesByReleaseVersion = new LinkedHashMap<>();
+        final Map<String, List<IndexedEntry>> entriesByIssueId = new HashMap<>();
+        final Map<String, List<ChangelogRelease>> releasesByIssueId = new HashMap<>();
+        final Map<String, List<IndexedEntry>> entriesByAuthor = new HashMap<>();
+        final Map<ChangelogEntry.Type, List<IndexedEntry>> entriesByType = new EnumMap<>(ChangelogEntry.Type.class);
+        int entryCount = 0;
+        for (int releaseIndex = 0; releaseIndex < releases.size(); releaseIndex++) {
+            final ChangelogRelease release = releases.get(releaseIndex);
+            final Collection<ChangelogEntry> entries = entryLists.get(releaseIndex);
+            final List<IndexedEntry> releaseEntries = new ArrayList<>(entries.size());
+            for (final ChangelogEntry entry : entries) {
+                final IndexedEntry indexedEntry = new IndexedEntry(release, entry);
+                releaseEntries.add(indexedEntry);
+                for (final ChangelogEntry.Issue issue : entry.issues) {
+                    entriesByIssueId.computeIfAbsent(issue.id, ignored -> new ArrayList<>(1)).add(indexedEntry);
+                    final List<ChangelogRelease> issueReleases =
+                            releasesByIssueId.computeIfAbsent(issue.id, ignored -> new ArrayList<>(1));
+                    // Entries are visited in release order, hence checking the last release is sufficient to avoid duplicates
+                    if (issueReleases.isEmpty() || issueReleases.get(issueReleases.size() - 1) != release) {
+                        issueReleases.add(release);
+                    }
+                }
+                for (final ChangelogEntry.Author author : entry.authors) {
+                    addAuthorEntry(entriesByAuthor, author.id, indexedEntry);
+                    if (!Objects.equals(author.id, author.name)) {
+                        addAuthorEntry(entriesByAuthor, author.name, indexedEntry);
+                    }
+                }
+                entriesByType.computeIfAbsent(entry.type, ignored -> new ArrayList<>()).add(indexedEntry);
+            }
+            entriesByReleaseVersion.put(release.version, Collections.unmodifiableList(releaseEntries));
+            entryCount += releaseEntries.size();
+        }
+        this.entryCount = entryCount;
+        this.entriesByReleaseVersion = Collections.unmodifiableMap(entriesByReleaseVersion);
+        this.entriesByIssueId = unmodifiableListMap(entriesByIssueId);
+        this.releasesByIssueId = unmodifiableListMap(releasesByIssueId);
+        this.entriesByAuthor = unmodifiableListMap(entriesByAuthor);
+        this.entriesByType = unmodifiableListMap(entriesByType);
+    }
+
+    private static void addAuthorEntry(
+            final Map<String, List<IndexedEntry>> entriesByAuthor,
+            @Nullable final String authorKey,
+            final IndexedEntry indexedEntry) {
+        if (authorKey == null) {
+            return;
+        }
+        final List<IndexedEntry> authorEntries = entriesByAuthor.computeIfAbsent(authorKey, ignored -> new ArrayList<>());
+        // An entry can list the same author more than once, e.g., once by ID and once by name
+        if (authorEntries.isEmpty() || authorEntries.get(authorEntries.size() - 1) != indexedEntry) {
+            authorEntries.add(indexedEntry);
+        }
+    }
+
+    private static <K, V> Map<K, List<V>> unmodifiableListMap(final Map<K, List<V>> listByKey) {
+        listByKey.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        return Collections.unmodifiableMap(listByKey);
+    }
+
+    /**
+     * Creates an index of the given releases.
+     *
+     * @param releases releases in the index order
+     * @param entryLists changelog entries of each release in the file name order
+     */
+    public static ChangelogIndex of(
+            final List<ChangelogRelease> releases,
+            final List<? extends Collection<ChangelogEntry>> entryLists) {
+        Objects.requireNonNull(releases, "releases");
+        Objects.requireNonNull(entryLists, "entryLists");
+        if (releases.size() != entryLists.size()) {
+            final String message = String.format(
+                    "was expecting the changelog entries of %d releases, found: %d", releases.size(), entryLists.size());
+            throw new IllegalArgumentException(message);
+        }
+        return new ChangelogIndex(releases, entryLists);
+    }
+
+    /**
+     * Scans the changelog directory, and reads the changelog entries of all release directories.
+     *
+     * @param executor the executor to read release directories concurrently with; if {@code null}, they are read sequentially
+     */
+    public static ChangelogIndex read(
+            final Path changelogDirectory,
+            @Nullable final ExecutorService executor,
+            final XmlValidator validator) {
+        final List<ChangelogReleaseCatalog.ReleaseDirectory> releaseDirectories =
+                ChangelogReleaseCatalog.scan(changelogDirectory, executor, validator).releaseDirectories();
+        final List<Collection<ChangelogEntry>> entryLists = ExecutorUtils.mapOrdered(
+                executor,
+                releaseDirectories,
+                releaseDirectory -> ChangelogEntryBundle.readAllEntries(releaseDirectory.path, validator).values());
+        final List<ChangelogRelease> releases = new ArrayList<>(releaseDirectories.size());
+        releaseDirectories.forEach(releaseDirectory -> releases.add(releaseDirectory.release));
+        return new ChangelogIndex(releases, entryLists);
+    }
+
+    /**
+     * Lists the indexed releases.
+     *
+     * @return releases in the index order, i.e., released ones sorted by date followed by unreleased ones
+     */
+    public List<ChangelogRelease> releases() {
+        return releases;
+    }
+
+    public int entryCount() {
+        return entryCount;
+    }
+
+    public List<IndexedEntry> findEntriesByReleaseVersion(final String releaseVersion) {
+        return entriesByReleaseVersion.getOrDefault(releaseVersion, Collections.emptyList());
+    }
+
+    public List<IndexedEntry> findEntriesByIssueId(final String issueId) {
+        return entriesByIssueId.getOrDefault(issueId, Collections.emptyList());
+    }
+
+    /**
+     * Finds releases by the issues of their changelog entries.
+     *
+     * @return releases containing a changelog entry of the given issue, e.g., {@code LOG4J2-3333}
+     */
+    public List<ChangelogRelease> findReleasesByIssueId(final String issueId) {
+        return releasesByIssueId.getOrDefault(issueId, Collections.emptyList());
+    }
+
+    /**
+     * Finds changelog entries by their authors.
+     *
+     * @param authorIdOrName either the ID, or the name of an author
+     */
+    public List<IndexedEntry> findEntriesByAuthor(final String authorIdOrName) {
+        return entriesByAuthor.getOrDefault(authorIdOrName, Collections.emptyList());
+    }
+
+    public List<IndexedEntry> findEntriesByType(final ChangelogEntry.Type type) {
+        return entriesByType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * Lists the issues of all changelog entries.
+     *
+     * @return all issue IDs in lexicographical order
+     */
+    public List<String> issueIds() {
+        return sortedKeys(entriesByIssueId);
+    }
+
+    /**
+     * Lists the authors of all changelog entries.
+     *
+     * @return all author IDs and names in lexicographical order
+     */
+    public List<String> authorIdsAndNames() {
+        return sortedKeys(entriesByAuthor);
+    }
+
+    private static List<String> sortedKeys(final Map<String, ?> map) {
+        final List<String> keys = new ArrayList<>(map.keySet());
+        // Sorting is needed to generate the same output between different runs
+        Collections.sort(keys);
+        return keys;
+    }
+
+}
@@ -18,9 +18,9 @@ package org.apache.logging.log4j.changelog;
 
 import java.nio.file.Path;
 
-import org.apache.logging.log4j.changelog.util.XmlReader;
-import org.apache.logging.log4j.changelog.util.XmlWriter;
-import org.w3c.dom.Element;
+import org.apache.logging.log4j.changelog.util.StreamingXmlReader;
+import org.apache.logging.log4j.changelog.util.StreamingXmlWriter;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 
 public final class ChangelogRelease {
 
@@ -34,16 +34,25 @@ public final class ChangelogRelease {
     }
 
     public void writeToXmlFile(final Path path) {
-        XmlWriter.toFile(path, "release", (document, releaseElement) -> {
-            releaseElement.setAttribute("version", version);
-            releaseElement.setAttribute("date", date);
-        });
+        StreamingXmlWriter.toFile(path, "release", releaseWriter -> releaseWriter
+                .attribute("version", version)
+                .attribute("date", date));
     }
 
     public static ChangelogRelease readFromXmlFile(final Path path) {
-        final Element releaseElement = XmlReader.readXmlFileRootElement(path, "release");
-        final String version = XmlReader.requireAttribute(releaseElement, "version");
-        final String date = XmlReader.requireAttribute(releaseElement, "date");
+        return readFromXmlFile(path, XmlValidator.off());
+    }
+
+    public static ChangelogRelease readFromXmlFile(final Path path, final XmlValidator validator) {
+        return StreamingXmlReader.readXmlFile(path, validator, "release", ChangelogRelease::readFromReleaseElement);
+    }
+
+    /**
+     * Reads the release element the given reader is positioned at.
+     */
+    public static ChangelogRelease readFromReleaseElement(final StreamingXmlReader reader) {
+        final String version = reader.requireAttribute("version");
+        final String date = reader.requireAttribute("date");
         return new ChangelogRelease(version, date);
     }
 
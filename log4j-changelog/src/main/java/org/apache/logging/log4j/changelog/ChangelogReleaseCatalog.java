@@ -0,0 +1,451 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.DigestUtils;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.StreamingXmlReader;
+import org.apache.logging.log4j.changelog.util.StreamingXmlWriter;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+/**
+ * Release directories of a changelog directory along with their release information.
+ * <p>
+ * The changelog directory and each release directory are listed once, and each {@code .release.xml} is read at most once.
+ * If the changelog directory contains a {@code .releases.xml} consolidating the release information of release directories, release information that is up-to-date is read from there instead, which spares parsing and validating the {@code .release.xml} files.
+ * {@link org.apache.logging.log4j.changelog.releaser.ChangelogReleaser ChangelogReleaser} keeps {@code .releases.xml} up-to-date, and {@link org.apache.logging.log4j.changelog.importer.MavenChangesImporter MavenChangesImporter} creates it on request.
+ * </p>
+ * <p>
+ * {@code .release.xml} files stay the source of truth.
+ * {@code .releases.xml} is typically committed along with the changelog directory, hence modification times of files, which are set by the checkout, cannot tell if it is up-to-date.
+ * Instead, it records the digest of the {@code .release.xml} file each release is consolidated from.
+ * A release is only read from {@code .releases.xml}, if the digest of the {@code .release.xml} file in its directory still matches; otherwise, e.g., after a manual edit, the {@code .release.xml} file is read.
+ * </p>
+ */
+public final class ChangelogReleaseCatalog {
+
+    private static final Pattern UNRELEASED_DIRECTORY_NAME_PATTERN = Pattern.compile("^\\.(\\d+)\\.x\\.x$");
+
+    /**
+     * Released directories sorted by their release dates.
+     */
+    public final List<ReleaseDirectory> releasedDirectories;
+
+    /**
+     * Unreleased directories (e.g., {@code .2.x.x}) sorted by their version majors.
+     */
+    public final List<ReleaseDirectory> unreleasedDirectories;
+
+    private ChangelogReleaseCatalog(
+            final List<ReleaseDirectory> releasedDirectories,
+            final List<ReleaseDirectory> unreleasedDirectories) {
+        this.releasedDirectories = releasedDirectories;
+        this.unreleasedDirectories = unreleasedDirectories;
+    }
+
+    public static final class ReleaseDirectory {
+
+        public final Path path;
+
+        public final ChangelogRelease release;
+
+        /**
+         * Number of changelog entry files found while listing the directory, including the ones bundled in {@code .entries.xml}, if there is any.
+         */
+        public final int changelogEntryFileCount;
+
+        private ReleaseDirectory(final Path path, final ChangelogRelease release, final int changelogEntryFileCount) {
+            this.path = path;
+            this.release = release;
+            this.changelogEntryFileCount = changelogEntryFileCount;
+        }
+
+    }
+
+    /**
+     * Release information of a release directory consolidated in {@code .releases.xml}.
+     */
+    public static final class ConsolidatedRelease {
+
+        public final ChangelogRelease release;
+
+        /**
+         * Digest of the {@code .release.xml} file the release information is consolidated from; if {@code null}, the release information is never considered up-to-date.
+         */
+        @Nullable
+        public final String releaseXmlFileDigest;
+
+        public ConsolidatedRelease(final ChangelogRelease release, @Nullable final String releaseXmlFileDigest) {
+            this.release = release;
+            this.releaseXmlFileDigest = releaseXmlFileDigest;
+        }
+
+        /**
+         * Checks if the release information is consolidated from the given {@code .release.xml} file as it is now.
+         */
+        private boolean upToDate(final Path releaseXmlFile) {
+            return releaseXmlFileDigest != null
+                    && MessageDigest.isEqual(
+                            releaseXmlFileDigest.getBytes(CharsetUtils.CHARSET),
+                            releaseXmlFileDigest(releaseXmlFile).getBytes(CharsetUtils.CHARSET));
+        }
+
+    }
+
+    /**
+     * Lists all release directories.
+     *
+     * @return released directories followed by unreleased ones
+     */
+    public List<ReleaseDirectory> releaseDirectories() {
+        final List<ReleaseDirectory> releaseDirectories =
+                new ArrayList<>(releasedDirectories.size() + unreleasedDirectories.size());
+        releaseDirectories.addAll(releasedDirectories);
+        releaseDirectories.addAll(unreleasedDirectories);
+        return releaseDirectories;
+    }
+
+    /**
+     * Checks if the given name of a directory in a changelog directory denotes an unreleased directory, e.g., {@code .2.x.x}.
+     */
+    public static boolean unreleasedDirectoryName(final String directoryName) {
+        return UNRELEASED_DIRECTORY_NAME_PATTERN.matcher(directoryName).matches();
+    }
+
+    /**
+     * Checks if the given name of a directory in a changelog directory denotes a released directory, i.e., it is not hidden.
+     */
+    public static boolean releasedDirectoryName(final String directoryName) {
+        return !directoryName.startsWith(".");
+    }
+
+    public static ChangelogRelease upcomingRelease(final int versionMajor) {
+        final String releaseVersion = versionMajor + ".x.x";
+        return new ChangelogRelease(releaseVersion, null);
+    }
+
+    /**
+     * Scans the given changelog directory.
+     *
+     * @param executor executor to read {@code .release.xml} files with; if {@code null}, they are read sequentially
+     */
+    public static ChangelogReleaseCatalog scan(final Path changelogDirectory, @Nullable final ExecutorService executor) {
+        return scan(changelogDirectory, executor, XmlValidator.off());
+    }
+
+    /**
+     * Scans the given changelog directory, validating the release information files using the given validator.
+     *
+     * @param executor executor to read {@code .release.xml} files with; if {@code null}, they are read sequentially
+     */
+    public static ChangelogReleaseCatalog scan(
+            final Path changelogDirectory,
+            @Nullable final ExecutorService executor,
+            final XmlValidator validator) {
+
+        // List directories once
+        final List<DirectoryListing> releasedDirectoryListings = new ArrayList<>();
+        final SortedMap<Integer, DirectoryListing> unreleasedDirectoryListingByVersionMajor = new TreeMap<>();
+        FileUtils.findAdjacentFiles(changelogDirectory, false, paths -> {
+            paths.filter(Files::isDirectory).forEach(directory -> {
+                final String directoryName = directory.getFileName().toString();
+                final Matcher unreleasedDirectoryNameMatcher = UNRELEASED_DIRECTORY_NAME_PATTERN.matcher(directoryName);
+                if (unreleasedDirectoryNameMatcher.matches()) {
+                    final int versionMajor = Integer.parseInt(unreleasedDirectoryNameMatcher.group(1));
+                    unreleasedDirectoryListingByVersionMajor.put(versionMajor, DirectoryListing.of(directory));
+                } else if (releasedDirectoryName(directoryName)) {
+                    final DirectoryListing directoryListing = DirectoryListing.of(directory);
+                    if (!directoryListing.empty) {
+                        releasedDirectoryListings.add(directoryListing);
+                    }
+                }
+            });
+            return null;
+        });
+
+        // Read the release information
+        final List<ReleaseDirectory> releasedDirectories = readReleasedDirectories(
+                changelogDirectory,
+                executor,
+                validator,
+                releasedDirectoryListings);
+        final List<ReleaseDirectory> unreleasedDirectories = unreleasedDirectoryListingByVersionMajor
+                .entrySet()
+                .stream()
+                .map(versionMajorAndListing -> {
+                    final ChangelogRelease upcomingRelease = upcomingRelease(versionMajorAndListing.getKey());
+                    final DirectoryListing directoryListing = versionMajorAndListing.getValue();
+                    return new ReleaseDirectory(
+                            directoryListing.path,
+                            upcomingRelease,
+                            directoryListing.changelogEntryFileCount);
+                })
+                .collect(Collectors.toList());
+        return new ChangelogReleaseCatalog(releasedDirectories, unreleasedDirectories);
+
+    }
+
+    private static final class DirectoryListing {
+
+        private final Path path;
+
+        private final boolean empty;
+
+        private final boolean releaseXmlFilePresent;
+
+        private final int changelogEntryFileCount;
+
+        private DirectoryListing(
+                final Path path,
+                final boolean empty,
+                final boolean releaseXmlFilePresent,
+                final int changelogEntryFileCount) {
+            this.path = path;
+            this.empty = empty;
+            this.releaseXmlFilePresent = releaseXmlFilePresent;
+            this.changelogEntryFileCount = changelogEntryFileCount;
+        }
+
+        private static DirectoryListing of(final Path directory) {
+            final String releaseXmlFileName = String.valueOf(ChangelogFiles.releaseXmlFile(directory).getFileName());
+            final Path entriesXmlFile = ChangelogFiles.entriesXmlFile(directory);
+            final String entriesXmlFileName = String.valueOf(entriesXmlFile.getFileName());
+            return FileUtils.findAdjacentFiles(directory, false, paths -> {
+                boolean empty = true;
+                boolean releaseXmlFilePresent = false;
+                int changelogEntryFileCount = 0;
+                for (final Path path : (Iterable<Path>) paths::iterator) {
+                    empty = false;
+                    final String fileName = path.getFileName().toString();
+                    if (releaseXmlFileName.equals(fileName)) {
+                        releaseXmlFilePresent = true;
+                    } else if (entriesXmlFileName.equals(fileName)) {
+                        // Only the count is read from the bundle, not its changelog entries
+                        changelogEntryFileCount += ChangelogEntryBundle.readEntryCountFromXmlFile(entriesXmlFile);
+                    } else if (!fileName.startsWith(".")) {
+                        changelogEntryFileCount++;
+                    }
+                }
+                return new DirectoryListing(directory, empty, releaseXmlFilePresent, changelogEntryFileCount);
+            });
+        }
+
+    }
+
+    private static List<ReleaseDirectory> readReleasedDirectories(
+            final Path changelogDirectory,
+            @Nullable final ExecutorService executor,
+            final XmlValidator validator,
+            final List<DirectoryListing> releasedDirectoryListings) {
+
+        // Verify that every released directory has a `.release.xml`
+        releasedDirectoryListings.forEach(directoryListing -> {
+            if (!directoryListing.releaseXmlFilePresent) {
+                final String message = String.format(
+                        "could not find release information file: `%s`",
+                        ChangelogFiles.releaseXmlFile(directoryListing.path));
+                throw new IllegalStateException(message);
+            }
+        });
+
+        // Read release information either from `.releases.xml`, if it is up-to-date, or `.release.xml` files
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        final Map<String, ConsolidatedRelease> consolidatedReleaseByVersion = Files.exists(releasesXmlFile)
+                ? readConsolidatedReleases(releasesXmlFile, validator)
+                : Collections.emptyMap();
+        final List<ReleaseDirectory> releasedDirectories = ExecutorUtils.mapOrdered(
+                executor,
+                releasedDirectoryListings,
+                directoryListing -> {
+                    final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(directoryListing.path);
+                    @Nullable
+                    final ConsolidatedRelease consolidatedRelease =
+                            consolidatedReleaseByVersion.get(String.valueOf(directoryListing.path.getFileName()));
+                    final ChangelogRelease release = consolidatedRelease != null
+                                    && consolidatedRelease.upToDate(releaseXmlFile)
+                            ? consolidatedRelease.release
+                            : ChangelogRelease.readFromXmlFile(releaseXmlFile, validator);
+                    return new ReleaseDirectory(directoryListing.path, release, directoryListing.changelogEntryFileCount);
+                });
+
+        // Sort releases by their dates.
+        // Versions are used to break ties to generate the same output between different runs.
+        releasedDirectories.sort(Comparator
+                .comparing((ReleaseDirectory releaseDirectory) -> releaseDirectory.release.date)
+                .thenComparing(releaseDirectory -> releaseDirectory.release.version));
+        return releasedDirectories;
+
+    }
+
+    /**
+     * Reads the given {@code .releases.xml} file.
+     *
+     * @return releases keyed by their version
+     */
+    public static Map<String, ChangelogRelease> readReleasesXmlFile(
+            final Path releasesXmlFile, final XmlValidator validator) {
+        final Map<String, ChangelogRelease> releaseByVersion = new LinkedHashMap<>();
+        readConsolidatedReleases(releasesXmlFile, validator).forEach((version, consolidatedRelease) ->
+                releaseByVersion.put(version, consolidatedRelease.release));
+        return releaseByVersion;
+    }
+
+    /**
+     * Reads the given {@code .releases.xml} file along with the digests of the {@code .release.xml} files the releases are consolidated from.
+     *
+     * @return consolidated releases keyed by their version
+     */
+    public static Map<String, ConsolidatedRelease> readConsolidatedReleases(
+            final Path releasesXmlFile, final XmlValidator validator) {
+        final Map<String, ConsolidatedRelease> consolidatedReleaseByVersion = new LinkedHashMap<>();
+        StreamingXmlReader.readXmlFile(releasesXmlFile, validator, "releases", reader -> {
+            reader.forEachChildElement(childReader -> {
+                if ("release".equals(childReader.elementName())) {
+                    @Nullable
+                    final String releaseXmlFileDigest = childReader.attribute("digest");
+                    final ChangelogRelease release = ChangelogRelease.readFromReleaseElement(childReader);
+                    consolidatedReleaseByVersion.put(
+                            release.version, new ConsolidatedRelease(release, releaseXmlFileDigest));
+                }
+            });
+            return null;
+        });
+        return consolidatedReleaseByVersion;
+    }
+
+    private static void writeReleasesXmlFile(
+            final Path releasesXmlFile, final Collection<ConsolidatedRelease> consolidatedReleases) {
+        final List<ConsolidatedRelease> sortedConsolidatedReleases = consolidatedReleases
+                .stream()
+                // Sorting is needed to generate the same output between different runs
+                .sorted(Comparator
+                        .comparing((ConsolidatedRelease consolidatedRelease) -> consolidatedRelease.release.date)
+                        .thenComparing(consolidatedRelease -> consolidatedRelease.release.version))
+                .collect(Collectors.toList());
+        StreamingXmlWriter.toFile(releasesXmlFile, "releases", releasesWriter -> sortedConsolidatedReleases
+                .forEach(consolidatedRelease -> releasesWriter.element("release", releaseWriter -> {
+                    releaseWriter
+                            .attribute("version", consolidatedRelease.release.version)
+                            .attribute("date", consolidatedRelease.release.date);
+                    if (consolidatedRelease.releaseXmlFileDigest != null) {
+                        releaseWriter.attribute("digest", consolidatedRelease.releaseXmlFileDigest);
+                    }
+                })));
+    }
+
+    /**
+     * Writes the release information of all released directories to {@code .releases.xml}.
+     */
+    public static void writeReleasesXmlFile(final Path changelogDirectory, @Nullable final ExecutorService executor) {
+        final ChangelogReleaseCatalog catalog = scan(changelogDirectory, executor);
+        final List<ConsolidatedRelease> consolidatedReleases = catalog
+                .releasedDirectories
+                .stream()
+                .map(releaseDirectory -> new ConsolidatedRelease(
+                        releaseDirectory.release,
+                        releaseXmlFileDigest(ChangelogFiles.releaseXmlFile(releaseDirectory.path))))
+                .collect(Collectors.toList());
+        writeReleasesXmlFile(ChangelogFiles.releasesXmlFile(changelogDirectory), consolidatedReleases);
+    }
+
+    /**
+     * Adds the given release to {@code .releases.xml}, replacing the existing one with the same version, if there is any.
+     * <p>
+     * The digest of the {@code .release.xml} file of the release directory, if there is any, is recorded along with the release.
+     * Nothing is done if {@code .releases.xml} doesn't exist.
+     * </p>
+     */
+    public static void updateReleasesXmlFileIfExists(final Path changelogDirectory, final ChangelogRelease release) {
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        if (!Files.exists(releasesXmlFile)) {
+            return;
+        }
+        final Map<String, ConsolidatedRelease> consolidatedReleaseByVersion =
+                readConsolidatedReleases(releasesXmlFile, XmlValidator.off());
+        final Path releaseXmlFile =
+                ChangelogFiles.releaseXmlFile(ChangelogFiles.releaseDirectory(changelogDirectory, release.version));
+        @Nullable
+        final String releaseXmlFileDigest = Files.exists(releaseXmlFile) ? releaseXmlFileDigest(releaseXmlFile) : null;
+        consolidatedReleaseByVersion.put(release.version, new ConsolidatedRelease(release, releaseXmlFileDigest));
+        writeReleasesXmlFile(releasesXmlFile, consolidatedReleaseByVersion.values());
+    }
+
+    /**
+     * Finds the release of the given version in {@code .releases.xml}.
+     *
+     * @return the consolidated release, or {@code null}, if {@code .releases.xml} doesn't exist or doesn't contain the version
+     */
+    @Nullable
+    public static ConsolidatedRelease findConsolidatedRelease(
+            final Path changelogDirectory, final String releaseVersion) {
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        return Files.exists(releasesXmlFile)
+                ? readConsolidatedReleases(releasesXmlFile, XmlValidator.off()).get(releaseVersion)
+                : null;
+    }
+
+    /**
+     * Restores the release of the given version in {@code .releases.xml} to the given one, or removes it, if {@code null}.
+     * <p>
+     * Nothing is done if {@code .releases.xml} doesn't exist, or neither contains the version nor needs to.
+     * </p>
+     */
+    public static void restoreReleasesXmlFileIfExists(
+            final Path changelogDirectory,
+            final String releaseVersion,
+            @Nullable final ConsolidatedRelease consolidatedRelease) {
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        if (!Files.exists(releasesXmlFile)) {
+            return;
+        }
+        final Map<String, ConsolidatedRelease> consolidatedReleaseByVersion =
+                readConsolidatedReleases(releasesXmlFile, XmlValidator.off());
+        if (consolidatedRelease == null && !consolidatedReleaseByVersion.containsKey(releaseVersion)) {
+            return;
+        }
+        if (consolidatedRelease != null) {
+            consolidatedReleaseByVersion.put(releaseVersion, consolidatedRelease);
+        } else {
+            consolidatedReleaseByVersion.remove(releaseVersion);
+        }
+        writeReleasesXmlFile(releasesXmlFile, consolidatedReleaseByVersion.values());
+    }
+
+    private static String releaseXmlFileDigest(final Path releaseXmlFile) {
+        try {
+            return DigestUtils.digestHex(Files.readAllBytes(releaseXmlFile));
+        } catch (final IOException error) {
+            final String message = String.format("failed reading file: `%s`", releaseXmlFile);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+}
@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.JsonUtils;
+
+/**
+ * Report of a changelog operation, e.g., an export, an import, or a release.
+ * <p>
+ * It contains the time spent in each phase (e.g., listing directories, reading XML files, rendering templates, writing files), the time spent rendering each template, the slowest releases, the number of files and bytes read and written, and the peak heap usage sampled during the operation.
+ * </p>
+ * <p>
+ * Durations of phases, templates, and releases are summed over all threads.
+ * Hence, they can exceed the total duration of an operation performed concurrently.
+ * </p>
+ * <p>
+ * Instances are thread-safe.
+ * Measurements are recorded while the operation is running, and the report is {@link #complete() completed} once the operation is finished.
+ * </p>
+ */
+public final class ChangelogReport {
+
+    /**
+     * Number of the slowest releases reported.
+     */
+    static final int SLOWEST_RELEASE_COUNT = 10;
+
+    private static final MemoryMXBean MEMORY_MX_BEAN = ManagementFactory.getMemoryMXBean();
+
+    private final String operation;
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong durationNanos = new AtomicLong(-1);
+
+    private final ConcurrentMap<String, LongAdder> nanosByPhase = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> nanosByTemplate = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> nanosByRelease = new ConcurrentHashMap<>();
+
+    private final LongAdder readFileCount = new LongAdder();
+
+    private final LongAdder readByteCount = new LongAdder();
+
+    private final LongAdder writtenFileCount = new LongAdder();
+
+    private final LongAdder writtenByteCount = new LongAdder();
+
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+
+    /**
+     * @param operation the name of the operation, e.g., {@code export}
+     */
+    public ChangelogReport(final String operation) {
+        this.operation = Objects.requireNonNull(operation, "operation");
+        sampleHeap();
+    }
+
+    /**
+     * Runs the given action, and adds its duration to the given phase.
+     */
+    public <V> V measure(final String phase, final Supplier<V> action) {
+        final long startNanos = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            recordPhase(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    public void recordPhase(final String phase, final long nanos) {
+        add(nanosByPhase, phase, nanos);
+    }
+
+    public void recordTemplate(final String templateName, final long nanos) {
+        add(nanosByTemplate, templateName, nanos);
+    }
+
+    /**
+     * Adds the given duration to the release, and samples the heap usage.
+     */
+    public void recordRelease(final String releaseVersion, final long nanos) {
+        add(nanosByRelease, releaseVersion, nanos);
+        sampleHeap();
+    }
+
+    private static void add(final ConcurrentMap<String, LongAdder> nanosByName, final String name, final long nanos) {
+        nanosByName.computeIfAbsent(name, ignored -> new LongAdder()).add(nanos);
+    }
+
+    public void recordFilesRead(final long fileCount, final long byteCount) {
+        readFileCount.add(fileCount);
+        readByteCount.add(byteCount);
+    }
+
+    public void recordFilesWritten(final long fileCount, final long byteCount) {
+        writtenFileCount.add(fileCount);
+        writtenByteCount.add(byteCount);
+    }
+
+    /**
+     * Samples the heap usage, and updates the peak heap usage, if exceeded.
+     */
+    public void sampleHeap() {
+        final long heapBytes = MEMORY_MX_BEAN.getHeapMemoryUsage().getUsed();
+        peakHeapBytes.accumulateAndGet(heapBytes, Math::max);
+    }
+
+    /**
+     * Marks the operation as finished, which fixes its duration.
+     * <p>
+     * Subsequent invocations have no effect.
+     * </p>
+     *
+     * @return this report
+     */
+    public ChangelogReport complete() {
+        sampleHeap();
+        durationNanos.compareAndSet(-1, System.nanoTime() - startNanos);
+        return this;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    /**
+     * Gets the duration of the operation.
+     *
+     * @return the duration of the operation, or the time elapsed so far, if the report is not completed
+     */
+    public Duration duration() {
+        final long nanos = durationNanos.get();
+        return Duration.ofNanos(nanos >= 0 ? nanos : System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Gets the time spent in each phase, e.g., {@code render}.
+     *
+     * @return durations of phases sorted by their names
+     */
+    public Map<String, Duration> phaseDurations() {
+        return durations(nanosByPhase);
+    }
+
+    /**
+     * Gets the time spent rendering each template.
+     *
+     * @return durations of templates sorted by their names
+     */
+    public Map<String, Duration> templateDurations() {
+        return durations(nanosByTemplate);
+    }
+
+    private static Map<String, Duration> durations(final Map<String, LongAdder> nanosByName) {
+        final Map<String, Duration> durationByName = new TreeMap<>();
+        nanosByName.forEach((name, nanos) -> durationByName.put(name, Duration.ofNanos(nanos.sum())));
+        return durationByName;
+    }
+
+    /**
+     * Gets the time spent exporting the slowest releases.
+     *
+     * @return durations of the slowest releases, the slowest first
+     */
+    public Map<String, Duration> slowestReleaseDurations() {
+        final Map<String, Duration> durationByRelease = new LinkedHashMap<>();
+        nanosByRelease
+                .entrySet()
+                .stream()
+                .map(releaseAndNanos -> new AbstractMap.SimpleImmutableEntry<>(
+                        releaseAndNanos.getKey(), releaseAndNanos.getValue().sum()))
+                // Versions are used to break ties to generate the same output between different runs
+                .sorted(Map.Entry
+                        .<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(SLOWEST_RELEASE_COUNT)
+                .forEach(releaseAndNanos ->
+                        durationByRelease.put(releaseAndNanos.getKey(), Duration.ofNanos(releaseAndNanos.getValue())));
+        return durationByRelease;
+    }
+
+    public long readFileCount() {
+        return readFileCount.sum();
+    }
+
+    public long readByteCount() {
+        return readByteCount.sum();
+    }
+
+    public long writtenFileCount() {
+        return writtenFileCount.sum();
+    }
+
+    public long writtenByteCount() {
+        return writtenByteCount.sum();
+    }
+
+    public long peakHeapBytes() {
+        return peakHeapBytes.get();
+    }
+
+    /**
+     * Summarizes the report for build logs.
+     *
+     * @return a single line summary, e.g., {@code export completed in 812 ms: read 3 files (2 KiB), wrote 7 files (5 KiB), peak heap 61 MiB, phases: read=12 ms, render=640 ms, scan=25 ms}
+     */
+    public String summary() {
+        final StringBuilder summaryBuilder = new StringBuilder()
+                .append(operation)
+                .append(" completed in ")
+                .append(formatDuration(duration()))
+                .append(": read ")
+                .append(readFileCount())
+                .append(" files (")
+                .append(formatBytes(readByteCount()))
+                .append("), wrote ")
+                .append(writtenFileCount())
+                .append(" files (")
+                .append(formatBytes(writtenByteCount()))
+                .append("), peak heap ")
+                .append(formatBytes(peakHeapBytes()));
+        final Map<String, Duration> phaseDurations = phaseDurations();
+        if (!phaseDurations.isEmpty()) {
+            summaryBuilder.append(", phases: ");
+            appendDurations(summaryBuilder, phaseDurations);
+        }
+        final Map<String, Duration> slowestReleaseDurations = slowestReleaseDurations();
+        if (!slowestReleaseDurations.isEmpty()) {
+            final Map.Entry<String, Duration> slowestRelease =
+                    slowestReleaseDurations.entrySet().iterator().next();
+            summaryBuilder
+                    .append(", slowest release: ")
+                    .append(slowestRelease.getKey())
+                    .append(" (")
+                    .append(formatDuration(slowestRelease.getValue()))
+                    .append(')');
+        }
+        return summaryBuilder.toString();
+    }
+
+    private static void appendDurations(final StringBuilder builder, final Map<String, Duration> durationByName) {
+        final Iterator<Map.Entry<String, Duration>> iterator = durationByName.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Duration> nameAndDuration = iterator.next();
+            builder
+                    .append(nameAndDuration.getKey())
+                    .append('=')
+                    .append(formatDuration(nameAndDuration.getValue()));
+            if (iterator.hasNext()) {
+                builder.append(", ");
+            }
+        }
+    }
+
+    private static String formatDuration(final Duration duration) {
+        return TimeUnit.NANOSECONDS.toMillis(duration.toNanos()) + " ms";
+    }
+
+    private static String formatBytes(final long byteCount) {
+        if (byteCount < 1024) {
+            return byteCount + " B";
+        }
+        final String[] units = {"KiB", "MiB", "GiB", "TiB"};
+        double scaledByteCount = byteCount;
+        int unitIndex = -1;
+        while (scaledByteCount >= 1024 && unitIndex < units.length - 1) {
+            scaledByteCount /= 1024;
+            unitIndex++;
+        }
+        return String.format(Locale.US, "%.1f %s", scaledByteCount, units[unitIndex]);
+    }
+
+    /**
+     * Formats the report as a JSON object.
+     * <p>
+     * Durations are in nanoseconds and sizes are in bytes.
+     * The output is deterministic, given the same measurements, e.g., object members are sorted by their names.
+     * </p>
+     */
+    public String toJson() {
+        final StringBuilder jsonBuilder = new StringBuilder().append("{\n");
+        appendJsonMember(jsonBuilder, "operation");
+        JsonUtils.appendString(jsonBuilder, operation);
+        jsonBuilder.append(",\n");
+        appendJsonMember(jsonBuilder, "durationNanos");
+        jsonBuilder.append(duration().toNanos()).append(",\n");
+        appendJsonMember(jsonBuilder, "phaseNanos");
+        appendJsonDurations(jsonBuilder, phaseDurations());
+        jsonBuilder.append(",\n");
+        appendJsonMember(jsonBuilder, "templateNanos");
+        appendJsonDurations(jsonBuilder, templateDurations());
+        jsonBuilder.append(",\n");
+        appendJsonMember(jsonBuilder, "slowestReleaseNanos");
+        appendJsonDurations(jsonBuilder, slowestReleaseDurations());
+        jsonBuilder.append(",\n");
+        appendJsonMember(jsonBuilder, "readFileCount");
+        jsonBuilder.append(readFileCount()).append(",\n");
+        appendJsonMember(jsonBuilder, "readByteCount");
+        jsonBuilder.append(readByteCount()).append(",\n");
+        appendJsonMember(jsonBuilder, "writtenFileCount");
+        jsonBuilder.append(writtenFileCount()).append(",\n");
+        appendJsonMember(jsonBuilder, "writtenByteCount");
+        jsonBuilder.append(writtenByteCount()).append(",\n");
+        appendJsonMember(jsonBuilder, "peakHeapBytes");
+        jsonBuilder.append(peakHeapBytes()).append('\n');
+        return jsonBuilder.append("}\n").toString();
+    }
+
+    private static void appendJsonMember(final StringBuilder jsonBuilder, final String name) {
+        jsonBuilder.append("  ");
+        JsonUtils.appendString(jsonBuilder, name);
+        jsonBuilder.append(": ");
+    }
+
+    private static void appendJsonDurations(
+            final StringBuilder jsonBuilder,
+            final Map<String, Duration> durationByName) {
+        if (durationByName.isEmpty()) {
+            jsonBuilder.append("{}");
+            return;
+        }
+        jsonBuilder.append("{\n");
+        final Iterator<Map.Entry<String, Duration>> iterator = durationByName.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Duration> nameAndDuration = iterator.next();
+            jsonBuilder.append("    ");
+            JsonUtils.appendString(jsonBuilder, nameAndDuration.getKey());
+            jsonBuilder.append(": ").append(nameAndDuration.getValue().toNanos());
+            jsonBuilder.append(iterator.hasNext() ? ",\n" : "\n");
+        }
+        jsonBuilder.append("  }");
+    }
+
+    /**
+     * Writes the report {@link #toJson() formatted as JSON} to the given file atomically.
+     */
+    public void writeJsonFile(final Path file) {
+        FileUtils.writeAtomically(file, toJson().getBytes(CharsetUtils.CHARSET));
+    }
+
+}
@@ -0,0 +1,651 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+/**
+ * A binary snapshot of parsed release directories.
+ * <p>
+ * Parsing many small XML files is the dominant cost of reading a changelog directory.
+ * A snapshot stores the release information and changelog entries of each release directory along with the size and the full-resolution modification time of the files they are read from.
+ * The snapshot file is read at once and release directories are decoded lazily, on demand.
+ * If the files of a release directory don't match with their stamps in the snapshot, or its block cannot be decoded, the directory is read from its XML files instead and the snapshot gets updated on {@link #save()}.
+ * </p>
+ * <p>
+ * Directories served from the snapshot are not read at all, hence their files cannot be validated.
+ * A directory is only served from the snapshot, if the validator is off, or its files were validated against the same schema while populating the snapshot.
+ * </p>
+ * <p>
+ * The file consists of a header (magic number, format version, and directory count), an index of absolute directory paths and block locations, and a block per directory.
+ * Directories are keyed by their absolute paths, since a snapshot can be shared by changelog directories containing release directories of the same name.
+ * Each block contains the file stamps, the digest of the schema the files were validated against, if any, the release information, if any, and the changelog entries sorted by their file names.
+ * </p>
+ * <p>
+ * The file is not memory-mapped, since a mapped file cannot be replaced on {@link #save()} on Windows until the mapping gets garbage-collected.
+ * </p>
+ * <p>
+ * Only the exporter reads changelog directories repeatedly without changing them, hence it is the only user of snapshots.
+ * Other operations either read a changelog directory once (e.g., validation) or move the files they read (e.g., releasing), which would leave stale blocks behind.
+ * </p>
+ * <p>
+ * Instances are thread-safe.
+ * </p>
+ */
+public final class ChangelogSnapshot {
+
+    public static final String DEFAULT_FILE_NAME = ".changelog-snapshot.bin";
+
+    /**
+     * ASCII-encoded {@code L4JCLSNP}.
+     */
+    private static final long MAGIC_NUMBER = 0x4C344A434C534E50L;
+
+    /**
+     * Format version that must be incremented on every change to the encoding.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    private static final ChangelogEntry.Type[] ENTRY_TYPES = ChangelogEntry.Type.values();
+
+    @Nullable
+    private final Path file;
+
+    private final ByteBuffer buffer;
+
+    private final Map<String, BlockLocation> blockLocationByDirectoryKey;
+
+    /**
+     * Validator of the XML files read, which only serves release directories from the snapshot whose files were validated against the same schema.
+     */
+    private final XmlValidator validator;
+
+    private final Map<String, Boolean> freshnessByDirectoryKey = new ConcurrentHashMap<>();
+
+    private final Map<String, byte[]> updatedBlockByDirectoryKey = new ConcurrentHashMap<>();
+
+    /**
+     * Keys of directories whose blocks failed to decode, which are not carried over on {@link #save()}.
+     */
+    private final Set<String> corruptDirectoryKeys = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder readFileCount = new LongAdder();
+
+    private final LongAdder readByteCount = new LongAdder();
+
+    private ChangelogSnapshot(
+            @Nullable final Path file,
+            final ByteBuffer buffer,
+            final Map<String, BlockLocation> blockLocationByDirectoryKey,
+            final XmlValidator validator) {
+        this.file = file;
+        this.buffer = buffer;
+        this.blockLocationByDirectoryKey = blockLocationByDirectoryKey;
+        this.validator = validator;
+    }
+
+    private static final class BlockLocation {
+
+        private final int offset;
+
+        private final int length;
+
+        private BlockLocation(final int offset, final int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+    }
+
+    /**
+     * Opens the snapshot stored in the given file.
+     * <p>
+     * If the file is not provided, the snapshot is not persisted and every read is served from XML files.
+     * If the file doesn't exist or is not a valid snapshot, the snapshot starts empty.
+     * If the block of a directory cannot be decoded, the directory is read from its XML files.
+     * </p>
+     */
+    public static ChangelogSnapshot open(@Nullable final Path file) {
+        return open(file, XmlValidator.off());
+    }
+
+    /**
+     * Opens the snapshot stored in the given file, and validates the XML files read using the given validator.
+     */
+    public static ChangelogSnapshot open(@Nullable final Path file, final XmlValidator validator) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return new ChangelogSnapshot(file, ByteBuffer.allocate(0), Collections.emptyMap(), validator);
+        }
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            final Map<String, BlockLocation> blockLocationByDirectoryKey = readIndex(buffer);
+            return new ChangelogSnapshot(file, buffer, blockLocationByDirectoryKey, validator);
+        } catch (final Exception error) {
+            System.out.format("ignoring the invalid changelog snapshot `%s`: %s%n", file, error.getMessage());
+            return new ChangelogSnapshot(file, ByteBuffer.allocate(0), Collections.emptyMap(), validator);
+        }
+    }
+
+    private static Map<String, BlockLocation> readIndex(final ByteBuffer buffer) {
+        final ByteBuffer reader = buffer.duplicate();
+        final long magicNumber = reader.getLong();
+        final int formatVersion = reader.getInt();
+        if (magicNumber != MAGIC_NUMBER || formatVersion != FORMAT_VERSION) {
+            final String message = String.format("unknown format version: %d", formatVersion);
+            throw new IllegalArgumentException(message);
+        }
+        final int directoryCount = readCount(reader);
+        final Map<String, BlockLocation> blockLocationByDirectoryKey = new HashMap<>(directoryCount);
+        for (int directoryIndex = 0; directoryIndex < directoryCount; directoryIndex++) {
+            final String directoryKey = readString(reader);
+            final int blockOffset = reader.getInt();
+            final int blockLength = reader.getInt();
+            if (blockOffset < 0 || blockLength < 0 || blockOffset + blockLength > buffer.limit()) {
+                final String message = String.format("invalid block location for directory `%s`", directoryKey);
+                throw new IllegalArgumentException(message);
+            }
+            blockLocationByDirectoryKey.put(directoryKey, new BlockLocation(blockOffset, blockLength));
+        }
+        return blockLocationByDirectoryKey;
+    }
+
+    /**
+     * Reads the release information of the given release directory.
+     *
+     * @return the release information, or {@code null}, if the directory doesn't contain a {@code .release.xml}
+     */
+    @Nullable
+    public ChangelogRelease readRelease(final Path releaseDirectory) {
+        @Nullable
+        final ByteBuffer blockReader = findFreshBlockReader(releaseDirectory);
+        if (blockReader != null) {
+            try {
+                skipFreshness(blockReader);
+                return readRelease(blockReader);
+            } catch (final RuntimeException error) {
+                ignoreCorruptBlock(releaseDirectory, error);
+            }
+        }
+        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
+        return Files.exists(releaseXmlFile) ? ChangelogRelease.readFromXmlFile(releaseXmlFile, validator) : null;
+    }
+
+    /**
+     * Reads the changelog entries of the given release directory.
+     *
+     * @return changelog entries sorted by their file names
+     */
+    public List<ChangelogEntry> readEntries(final Path releaseDirectory) {
+
+        // Serve from the snapshot, if possible
+        @Nullable
+        final ByteBuffer blockReader = findFreshBlockReader(releaseDirectory);
+        if (blockReader != null) {
+            try {
+                final int blockStartPosition = blockReader.position();
+                skipFreshness(blockReader);
+                readRelease(blockReader);
+                final List<ChangelogEntry> entries = readEntries(blockReader);
+                readByteCount.add(blockReader.position() - blockStartPosition);
+                return entries;
+            } catch (final RuntimeException error) {
+                ignoreCorruptBlock(releaseDirectory, error);
+            }
+        }
+
+        // Otherwise, read the XML files
+        final List<FileStamp> fileStamps = readFileStamps(releaseDirectory);
+        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
+        @Nullable
+        final ChangelogRelease release =
+                Files.exists(releaseXmlFile) ? ChangelogRelease.readFromXmlFile(releaseXmlFile, validator) : null;
+        final List<ChangelogEntry> entries =
+                new ArrayList<>(ChangelogEntryBundle.readAllEntries(releaseDirectory, validator).values());
+        readFileCount.add(fileStamps.size());
+        fileStamps.forEach(fileStamp -> readByteCount.add(fileStamp.size));
+
+        // Record the directory to be persisted
+        if (file != null) {
+            final byte[] block = encodeBlock(fileStamps, validator.schemaDigest(), release, entries);
+            updatedBlockByDirectoryKey.put(directoryKey(releaseDirectory), block);
+        }
+        return entries;
+
+    }
+
+    /**
+     * Counts the XML files parsed so far.
+     *
+     * @return the number of XML files parsed by {@link #readEntries(Path)}
+     */
+    public long readFileCount() {
+        return readFileCount.sum();
+    }
+
+    /**
+     * Counts the bytes read so far.
+     *
+     * @return the number of bytes of XML files parsed and snapshot blocks decoded by {@link #readEntries(Path)}
+     */
+    public long readByteCount() {
+        return readByteCount.sum();
+    }
+
+    /**
+     * @return a reader positioned at the block of the given release directory, if the stamps of its files match and its files were validated as requested; {@code null}, otherwise
+     */
+    @Nullable
+    private ByteBuffer findFreshBlockReader(final Path releaseDirectory) {
+        final String directoryKey = directoryKey(releaseDirectory);
+        @Nullable
+        final BlockLocation blockLocation = blockLocationByDirectoryKey.get(directoryKey);
+        if (blockLocation == null || updatedBlockByDirectoryKey.containsKey(directoryKey)) {
+            return null;
+        }
+        final boolean fresh = freshnessByDirectoryKey.computeIfAbsent(directoryKey, ignored -> {
+
+            // Decode the stamps and the validation
+            final ByteBuffer blockReader = blockReader(blockLocation);
+            final List<FileStamp> snapshotFileStamps;
+            @Nullable
+            final String snapshotSchemaDigest;
+            try {
+                snapshotFileStamps = readStamps(blockReader);
+                snapshotSchemaDigest = readString(blockReader);
+            } catch (final RuntimeException error) {
+                reportCorruptBlock(releaseDirectory, error);
+                corruptDirectoryKeys.add(directoryKey);
+                return false;
+            }
+
+            // Check the validation
+            if (!validatedAsRequested(snapshotSchemaDigest)) {
+                return false;
+            }
+
+            // Check the stamps
+            final List<FileStamp> actualFileStamps = readFileStamps(releaseDirectory);
+            return snapshotFileStamps.equals(actualFileStamps);
+
+        });
+        return fresh ? blockReader(blockLocation) : null;
+    }
+
+    /**
+     * Marks the block of the given release directory as stale, so that the directory is read from its XML files instead.
+     */
+    private void ignoreCorruptBlock(final Path releaseDirectory, final RuntimeException error) {
+        reportCorruptBlock(releaseDirectory, error);
+        final String directoryKey = directoryKey(releaseDirectory);
+        corruptDirectoryKeys.add(directoryKey);
+        freshnessByDirectoryKey.put(directoryKey, false);
+    }
+
+    private void reportCorruptBlock(final Path releaseDirectory, final RuntimeException error) {
+        System.out.format(
+                "ignoring the corrupt block of directory `%s` in the changelog snapshot `%s`: %s%n",
+                releaseDirectory,
+                file,
+                error);
+    }
+
+    /**
+     * @param snapshotSchemaDigest the digest of the schema the files of a directory were validated against while populating the snapshot, if any
+     * @return {@code true}, if the validator is off, or the files were validated against the schema of the validator; {@code false}, otherwise
+     */
+    // Schema digests are public
+    @SuppressFBWarnings("UNSAFE_HASH_EQUALS")
+    private boolean validatedAsRequested(@Nullable final String snapshotSchemaDigest) {
+        @Nullable
+        final String schemaDigest = validator.schemaDigest();
+        return schemaDigest == null || schemaDigest.equals(snapshotSchemaDigest);
+    }
+
+    /**
+     * Creates a reader of the given block, which is limited to the block, so that a truncated block fails to decode instead of reading the next one.
+     */
+    private ByteBuffer blockReader(final BlockLocation blockLocation) {
+        final ByteBuffer blockReader = buffer.duplicate();
+        blockReader.limit(blockLocation.offset + blockLocation.length);
+        blockReader.position(blockLocation.offset);
+        return blockReader;
+    }
+
+    private static String directoryKey(final Path releaseDirectory) {
+        return releaseDirectory.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Persists the directories read from XML files since the snapshot was opened, if any.
+     * <p>
+     * Since the snapshot is merely a cache, failures are reported, but not propagated.
+     * </p>
+     */
+    public void save() {
+        if (file == null || (updatedBlockByDirectoryKey.isEmpty() && corruptDirectoryKeys.isEmpty())) {
+            return;
+        }
+
+        // Collect blocks.
+        // Blocks of directories that haven't been read are carried over as is, their stamps will be checked on the next read.
+        // Corrupt blocks are dropped.
+        final Map<String, byte[]> blockByDirectoryKey = new TreeMap<>();
+        blockLocationByDirectoryKey.forEach((directoryKey, blockLocation) -> {
+            if (!corruptDirectoryKeys.contains(directoryKey)) {
+                final byte[] block = new byte[blockLocation.length];
+                blockReader(blockLocation).get(block);
+                blockByDirectoryKey.put(directoryKey, block);
+            }
+        });
+        blockByDirectoryKey.putAll(updatedBlockByDirectoryKey);
+
+        // Encode the header and the index
+        final byte[][] directoryKeyBytes = blockByDirectoryKey
+                .keySet()
+                .stream()
+                .map(directoryKey -> directoryKey.getBytes(CharsetUtils.CHARSET))
+                .toArray(byte[][]::new);
+        int headerLength = Long.BYTES + 2 * Integer.BYTES;
+        for (final byte[] bytes : directoryKeyBytes) {
+            headerLength += 3 * Integer.BYTES + bytes.length;
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (final DataOutputStream output = new DataOutputStream(outputStream)) {
+            output.writeLong(MAGIC_NUMBER);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(blockByDirectoryKey.size());
+            int blockOffset = headerLength;
+            int directoryIndex = 0;
+            for (final byte[] block : blockByDirectoryKey.values()) {
+                final byte[] bytes = directoryKeyBytes[directoryIndex++];
+                output.writeInt(bytes.length);
+                output.write(bytes);
+                output.writeInt(blockOffset);
+                output.writeInt(block.length);
+                blockOffset += block.length;
+            }
+            for (final byte[] block : blockByDirectoryKey.values()) {
+                output.write(block);
+            }
+        } catch (final IOException error) {
+            // `ByteArrayOutputStream` doesn't throw
+            throw new UncheckedIOException(error);
+        }
+
+        // Write the file atomically, so that concurrent readers never observe a partial snapshot
+        try {
+            FileUtils.writeAtomically(file, outputStream.toByteArray());
+        } catch (final UncheckedIOException error) {
+            System.out.format("failed writing the changelog snapshot `%s`: %s%n", file, error.getCause().getMessage());
+        }
+
+    }
+
+    private static final class FileStamp {
+
+        private final String fileName;
+
+        private final long size;
+
+        private final long lastModifiedNanos;
+
+        private FileStamp(final String fileName, final long size, final long lastModifiedNanos) {
+            this.fileName = fileName;
+            this.size = size;
+            this.lastModifiedNanos = lastModifiedNanos;
+        }
+
+        @Override
+        public boolean equals(final Object instance) {
+            if (this == instance) {
+                return true;
+            }
+            if (instance == null || getClass() != instance.getClass()) {
+                return false;
+            }
+            final FileStamp stamp = (FileStamp) instance;
+            return size == stamp.size &&
+                    lastModifiedNanos == stamp.lastModifiedNanos &&
+                    fileName.equals(stamp.fileName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileName, size, lastModifiedNanos);
+        }
+
+    }
+
+    private static List<FileStamp> readFileStamps(final Path releaseDirectory) {
+        final List<Path> files = new ArrayList<>();
+        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
+        if (Files.exists(releaseXmlFile)) {
+            files.add(releaseXmlFile);
+        }
+        final Path entriesXmlFile = ChangelogFiles.entriesXmlFile(releaseDirectory);
+        if (Files.exists(entriesXmlFile)) {
+            files.add(entriesXmlFile);
+        }
+        files.addAll(ChangelogFiles.changelogEntryFiles(releaseDirectory));
+        final List<FileStamp> fileStamps = new ArrayList<>(files.size());
+        for (final Path file : files) {
+            final BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (final IOException error) {
+                final String message = String.format("failed reading file attributes: `%s`", file);
+                throw new UncheckedIOException(message, error);
+            }
+            final FileStamp fileStamp = new FileStamp(
+                    String.valueOf(file.getFileName()),
+                    attributes.size(),
+                    attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+            fileStamps.add(fileStamp);
+        }
+        return fileStamps;
+    }
+
+    /**
+     * @param schemaDigest the digest of the schema the files were validated against, if any
+     */
+    private static byte[] encodeBlock(
+            final List<FileStamp> fileStamps,
+            @Nullable final String schemaDigest,
+            @Nullable final ChangelogRelease release,
+            final List<ChangelogEntry> entries) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (final DataOutputStream output = new DataOutputStream(outputStream)) {
+
+            // Write file stamps
+            output.writeInt(fileStamps.size());
+            for (final FileStamp fileStamp : fileStamps) {
+                writeString(output, fileStamp.fileName);
+                output.writeLong(fileStamp.size);
+                output.writeLong(fileStamp.lastModifiedNanos);
+            }
+
+            // Write the validation
+            writeString(output, schemaDigest);
+
+            // Write the release
+            output.writeBoolean(release != null);
+            if (release != null) {
+                writeString(output, release.version);
+                writeString(output, release.date);
+            }
+
+            // Write entries
+            output.writeInt(entries.size());
+            for (final ChangelogEntry entry : entries) {
+                output.writeByte(entry.type.ordinal());
+                output.writeInt(entry.issues.size());
+                for (final ChangelogEntry.Issue issue : entry.issues) {
+                    writeString(output, issue.id);
+                    writeString(output, issue.link);
+                }
+                output.writeInt(entry.authors.size());
+                for (final ChangelogEntry.Author author : entry.authors) {
+                    writeString(output, author.id);
+                    writeString(output, author.name);
+                }
+                writeString(output, entry.description.format);
+                writeString(output, entry.description.text);
+            }
+
+        } catch (final IOException error) {
+            // `ByteArrayOutputStream` doesn't throw
+            throw new UncheckedIOException(error);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static List<FileStamp> readStamps(final ByteBuffer reader) {
+        final int fileStampCount = readCount(reader);
+        final List<FileStamp> fileStamps = new ArrayList<>(fileStampCount);
+        for (int fileStampIndex = 0; fileStampIndex < fileStampCount; fileStampIndex++) {
+            final String fileName = readString(reader);
+            final long size = reader.getLong();
+            final long lastModifiedNanos = reader.getLong();
+            fileStamps.add(new FileStamp(fileName, size, lastModifiedNanos));
+        }
+        return fileStamps;
+    }
+
+    /**
+     * Skips the file stamps and the schema digest.
+     */
+    private static void skipFreshness(final ByteBuffer reader) {
+        final int fileStampCount = reader.getInt();
+        for (int fileStampIndex = 0; fileStampIndex < fileStampCount; fileStampIndex++) {
+            skipString(reader);
+            reader.position(reader.position() + 2 * Long.BYTES);
+        }
+        skipString(reader);
+    }
+
+    @Nullable
+    private static ChangelogRelease readRelease(final ByteBuffer reader) {
+        final boolean releasePresent = reader.get() != 0;
+        if (!releasePresent) {
+            return null;
+        }
+        final String version = readString(reader);
+        final String date = readString(reader);
+        return new ChangelogRelease(version, date);
+    }
+
+    private static List<ChangelogEntry> readEntries(final ByteBuffer reader) {
+        final int entryCount = readCount(reader);
+        final List<ChangelogEntry> entries = new ArrayList<>(entryCount);
+        for (int entryIndex = 0; entryIndex < entryCount; entryIndex++) {
+            final int typeOrdinal = reader.get();
+            if (typeOrdinal < 0 || typeOrdinal >= ENTRY_TYPES.length) {
+                final String message = String.format("invalid changelog entry type ordinal: %d", typeOrdinal);
+                throw new IllegalArgumentException(message);
+            }
+            final ChangelogEntry.Type type = ENTRY_TYPES[typeOrdinal];
+            final int issueCount = readCount(reader);
+            final List<ChangelogEntry.Issue> issues = new ArrayList<>(issueCount);
+            for (int issueIndex = 0; issueIndex < issueCount; issueIndex++) {
+                final String issueId = readString(reader);
+                final String issueLink = readString(reader);
+                issues.add(new ChangelogEntry.Issue(issueId, issueLink));
+            }
+            final int authorCount = readCount(reader);
+            final List<ChangelogEntry.Author> authors = new ArrayList<>(authorCount);
+            for (int authorIndex = 0; authorIndex < authorCount; authorIndex++) {
+                final String authorId = readString(reader);
+                final String authorName = readString(reader);
+                authors.add(new ChangelogEntry.Author(authorId, authorName));
+            }
+            final String descriptionFormat = readString(reader);
+            final String descriptionText = readString(reader);
+            final ChangelogEntry.Description description =
+                    new ChangelogEntry.Description(descriptionFormat, descriptionText);
+            entries.add(new ChangelogEntry(type, issues, authors, description));
+        }
+        return entries;
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string, where the length {@code -1} denotes {@code null}.
+     * <p>
+     * {@link DataOutputStream#writeUTF(String)} is avoided, since it cannot encode strings longer than 64KiB.
+     * </p>
+     */
+    private static void writeString(final DataOutputStream output, @Nullable final String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+        } else {
+            final byte[] bytes = string.getBytes(CharsetUtils.CHARSET);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    @Nullable
+    private static String readString(final ByteBuffer reader) {
+        final int length = reader.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > reader.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final byte[] bytes = new byte[length];
+        reader.get(bytes);
+        return new String(bytes, CharsetUtils.CHARSET);
+    }
+
+    /**
+     * Reads the number of elements that follow, which cannot exceed the number of remaining bytes, since every element is encoded in at least one byte.
+     */
+    private static int readCount(final ByteBuffer reader) {
+        final int count = reader.getInt();
+        if (count < 0 || count > reader.remaining()) {
+            final String message = String.format("invalid element count: %d", count);
+            throw new IllegalArgumentException(message);
+        }
+        return count;
+    }
+
+    private static void skipString(final ByteBuffer reader) {
+        final int length = reader.getInt();
+        if (length > 0) {
+            reader.position(reader.position() + length);
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.compactor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.apache.logging.log4j.changelog.ChangelogEntryBundle;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+/**
+ * Packs the changelog entry files of release directories into {@code .entries.xml} bundles, and expands them back.
+ * <p>
+ * Only released directories are processed, since unreleased ones are still subject to change.
+ * </p>
+ *
+ * @see ChangelogEntryBundle
+ */
+public final class ChangelogCompactor {
+
+    private ChangelogCompactor() {}
+
+    /**
+     * Packs the changelog entry files of release directories into bundles and deletes the packed files.
+     *
+     * @return the report of the compaction
+     */
+    public static ChangelogReport performCompaction(final ChangelogCompactorArgs args) {
+        final ChangelogReport report = new ChangelogReport("compact");
+        for (final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory : releaseDirectories(args, report)) {
+            final long startNanos = System.nanoTime();
+            compactReleaseDirectory(releaseDirectory.path, args.validator, report);
+            report.recordRelease(releaseDirectory.release.version, System.nanoTime() - startNanos);
+        }
+        saveValidationCache(args, report);
+        return report.complete();
+    }
+
+    private static void compactReleaseDirectory(
+            final Path releaseDirectory, final XmlValidator validator, final ChangelogReport report) {
+
+        // Check if there is anything to compact
+        final List<Path> changelogEntryFiles = ChangelogFiles.changelogEntryFiles(releaseDirectory);
+        if (changelogEntryFiles.isEmpty()) {
+            System.out.format(
+                    "release directory `%s` doesn't contain any changelog entry files, skipping%n", releaseDirectory);
+            return;
+        }
+
+        // Read the bundled and loose changelog entries
+        long startNanos = System.nanoTime();
+        final Path entriesXmlFile = ChangelogFiles.entriesXmlFile(releaseDirectory);
+        final SortedMap<String, ChangelogEntry> entryByFileName = Files.exists(entriesXmlFile)
+                ? ChangelogEntryBundle.readFromXmlFile(entriesXmlFile, validator)
+                : new TreeMap<>();
+        long readByteCount = 0;
+        for (final Path changelogEntryFile : changelogEntryFiles) {
+            final String fileName = releaseDirectory.relativize(changelogEntryFile).toString();
+            entryByFileName.put(fileName, ChangelogEntry.readFromXmlFile(changelogEntryFile, validator));
+            readByteCount += fileSize(changelogEntryFile);
+        }
+        report.recordFilesRead(changelogEntryFiles.size(), readByteCount);
+        report.recordPhase("read", System.nanoTime() - startNanos);
+
+        // Write the bundle
+        startNanos = System.nanoTime();
+        System.out.format(
+                "packing %d changelog entry files into `%s`%n", changelogEntryFiles.size(), entriesXmlFile);
+        ChangelogEntryBundle.writeToXmlFile(entriesXmlFile, entryByFileName);
+        report.recordFilesWritten(1, fileSize(entriesXmlFile));
+        report.recordPhase("write", System.nanoTime() - startNanos);
+
+        // Delete the packed files only after the bundle is written, since loose files take precedence anyway
+        startNanos = System.nanoTime();
+        for (final Path changelogEntryFile : changelogEntryFiles) {
+            deleteFile(changelogEntryFile);
+        }
+        report.recordPhase("delete", System.nanoTime() - startNanos);
+
+    }
+
+    /**
+     * Writes the changelog entries bundled in release directories to files and deletes the bundles.
+     *
+     * @return the report of the expansion
+     */
+    public static ChangelogReport performExpansion(final ChangelogCompactorArgs args) {
+        final ChangelogReport report = new ChangelogReport("expand");
+        for (final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory : releaseDirectories(args, report)) {
+            final long startNanos = System.nanoTime();
+            expandReleaseDirectory(releaseDirectory.path, args.validator, report);
+            report.recordRelease(releaseDirectory.release.version, System.nanoTime() - startNanos);
+        }
+        saveValidationCache(args, report);
+        return report.complete();
+    }
+
+    private static void expandReleaseDirectory(
+            final Path releaseDirectory, final XmlValidator validator, final ChangelogReport report) {
+
+        // Check if there is anything to expand
+        final Path entriesXmlFile = ChangelogFiles.entriesXmlFile(releaseDirectory);
+        if (!Files.exists(entriesXmlFile)) {
+            System.out.format("release directory `%s` doesn't contain a bundle, skipping%n", releaseDirectory);
+            return;
+        }
+
+        // Read the bundle
+        long startNanos = System.nanoTime();
+        final SortedMap<String, ChangelogEntry> entryByFileName =
+                ChangelogEntryBundle.readFromXmlFile(entriesXmlFile, validator);
+        report.recordFilesRead(1, fileSize(entriesXmlFile));
+        report.recordPhase("read", System.nanoTime() - startNanos);
+
+        // Write the changelog entry files
+        startNanos = System.nanoTime();
+        System.out.format("expanding %d changelog entries from `%s`%n", entryByFileName.size(), entriesXmlFile);
+        entryByFileName.forEach((fileName, entry) -> {
+            final Path changelogEntryFile = releaseDirectory.resolve(fileName);
+            if (Files.exists(changelogEntryFile)) {
+                // Loose files take precedence over the bundled ones, hence they are kept
+                System.out.format("keeping the existing changelog entry file: `%s`%n", changelogEntryFile);
+            } else {
+                entry.writeToXmlFile(changelogEntryFile);
+                report.recordFilesWritten(1, fileSize(changelogEntryFile));
+            }
+        });
+        report.recordPhase("write", System.nanoTime() - startNanos);
+
+        // Delete the bundle only after all its entries are written
+        startNanos = System.nanoTime();
+        deleteFile(entriesXmlFile);
+        report.recordPhase("delete", System.nanoTime() - startNanos);
+
+    }
+
+    private static List<ChangelogReleaseCatalog.ReleaseDirectory> releaseDirectories(
+            final ChangelogCompactorArgs args, final ChangelogReport report) {
+
+        // Scan the released directories
+        final ChangelogReleaseCatalog catalog = report.measure(
+                "scan", () -> ChangelogReleaseCatalog.scan(args.changelogDirectory, null, args.validator));
+        final String releaseVersion = args.releaseVersion;
+        if (releaseVersion == null) {
+            return catalog.releasedDirectories;
+        }
+
+        // Select the requested one, if provided
+        final List<ChangelogReleaseCatalog.ReleaseDirectory> releaseDirectories = catalog.releasedDirectories.stream()
+                .filter(releaseDirectory -> releaseVersion.equals(releaseDirectory.release.version))
+                .collect(Collectors.toList());
+        if (releaseDirectories.isEmpty()) {
+            final String message = String.format(
+                    "couldn't find a released directory for version `%s` in `%s`",
+                    releaseVersion, args.changelogDirectory);
+            throw new IllegalArgumentException(message);
+        }
+        return releaseDirectories;
+
+    }
+
+    private static void saveValidationCache(final ChangelogCompactorArgs args, final ChangelogReport report) {
+        report.measure("save", () -> {
+            args.validator.saveCache();
+            return null;
+        });
+    }
+
+    private static long fileSize(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (final IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    private static void deleteFile(final Path file) {
+        try {
+            Files.delete(file);
+        } catch (final IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.compactor;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+public final class ChangelogCompactorArgs {
+
+    final Path changelogDirectory;
+
+    /**
+     * The version of the release directory to be processed, or {@code null} to process all release directories.
+     */
+    @Nullable
+    final String releaseVersion;
+
+    /**
+     * Validator of the XML files read; its cache, if there is any, is saved at the end of the operation.
+     */
+    final XmlValidator validator;
+
+    public ChangelogCompactorArgs(final Path changelogDirectory, @Nullable final String releaseVersion) {
+        this(changelogDirectory, releaseVersion, XmlValidator.off());
+    }
+
+    public ChangelogCompactorArgs(
+            final Path changelogDirectory,
+            @Nullable final String releaseVersion,
+            final XmlValidator validator) {
+        this.changelogDirectory = Objects.requireNonNull(changelogDirectory, "changelogDirectory");
+        this.releaseVersion = releaseVersion;
+        this.validator = Objects.requireNonNull(validator, "validator");
+    }
+
+}
@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.DigestUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+
+/**
+ * Records the fingerprint of the inputs and the outputs of each exported release.
+ * <p>
+ * The manifest is persisted in the output directory and consulted in the next export to skip the releases whose inputs haven't changed since, and whose outputs are still in place.
+ * It is a plain text file of lines with tab-separated columns:
+ * </p>
+ * <ul>
+ * <li>a {@code shared} line containing the stamp and the fingerprint of the template files and {@code .releases.xml} in the changelog directory</li>
+ * <li>a {@code release} line per release directory containing the release directory name, the stamp and the fingerprint of the files in the release directory, the input fingerprint, the index fingerprint, the changelog entry count, and the name and the stamp of each file rendered</li>
+ * </ul>
+ * <p>
+ * Fingerprints are computed from file contents, which requires reading all inputs.
+ * Hence, files are stamped first using their names, sizes, and modification times, and only hashed if their stamps don't match the ones recorded.
+ * </p>
+ * <p>
+ * Release templates can access the index, which covers all releases.
+ * Hence, the {@link #indexFingerprint(List, List) index fingerprint} is only recorded for releases whose templates have accessed the index, and is {@code -} otherwise.
+ * </p>
+ */
+final class ChangelogExportManifest {
+
+    private static final String FILE_NAME = ".changelog-export-manifest";
+
+    private static final String HEADER = "# log4j-changelog export manifest v3";
+
+    /**
+     * The index fingerprint column of releases whose templates haven't accessed the index.
+     */
+    private static final String NO_INDEX_FINGERPRINT = "-";
+
+    /**
+     * The number of columns of a {@code release} line preceding the rendered files.
+     */
+    private static final int RELEASE_COLUMN_COUNT = 7;
+
+    @Nullable
+    private final InputFiles sharedInputFiles;
+
+    private final Map<String, Entry> entryByReleaseDirectoryName;
+
+    private ChangelogExportManifest(
+            @Nullable final InputFiles sharedInputFiles,
+            final Map<String, Entry> entryByReleaseDirectoryName) {
+        this.sharedInputFiles = sharedInputFiles;
+        this.entryByReleaseDirectoryName = entryByReleaseDirectoryName;
+    }
+
+    static ChangelogExportManifest empty() {
+        return new ChangelogExportManifest(null, Collections.emptyMap());
+    }
+
+    /**
+     * The stamp and the fingerprint of a set of input files.
+     */
+    static final class InputFiles {
+
+        /**
+         * The digest of the names, sizes, and modification times of the files.
+         */
+        private final String stamp;
+
+        /**
+         * The digest of the names and contents of the files.
+         */
+        private final String fingerprint;
+
+        private InputFiles(final String stamp, final String fingerprint) {
+            this.stamp = stamp;
+            this.fingerprint = fingerprint;
+        }
+
+    }
+
+    static final class Entry {
+
+        /**
+         * The files of the release directory, which are only available for incremental exports.
+         */
+        @Nullable
+        private final InputFiles inputFiles;
+
+        /**
+         * The input fingerprint, which is only available for incremental exports.
+         */
+        @Nullable
+        private final String fingerprint;
+
+        /**
+         * The fingerprint of the inputs of all releases, which is only available for incremental exports, and if a template has accessed the index.
+         */
+        @Nullable
+        private final String indexFingerprint;
+
+        final int changelogEntryCount;
+
+        /**
+         * Stamps of the rendered files keyed by their names relative to the output directory, which are only available for incremental exports.
+         */
+        private final Map<String, String> outputStampByFileName;
+
+        Entry(
+                @Nullable final InputFiles inputFiles,
+                @Nullable final String fingerprint,
+                @Nullable final String indexFingerprint,
+                final int changelogEntryCount,
+                final Map<String, String> outputStampByFileName) {
+            this.inputFiles = inputFiles;
+            this.fingerprint = fingerprint;
+            this.indexFingerprint = indexFingerprint;
+            this.changelogEntryCount = changelogEntryCount;
+            this.outputStampByFileName = outputStampByFileName;
+        }
+
+        /**
+         * Copies this entry with the given input files.
+         *
+         * @return a copy of this entry with the given input files, which can have a different stamp, yet the same fingerprint
+         */
+        Entry withInputFiles(final InputFiles inputFiles) {
+            return new Entry(inputFiles, fingerprint, indexFingerprint, changelogEntryCount, outputStampByFileName);
+        }
+
+    }
+
+    static Path file(final Path outputDirectory) {
+        return outputDirectory.resolve(FILE_NAME);
+    }
+
+    /**
+     * Finds the entry of the given release directory, if its outputs are up-to-date.
+     *
+     * @param indexFingerprint the fingerprint of the inputs of all releases, see {@link #indexFingerprint(List, List)}
+     * @return the entry of the given release directory, if its fingerprint matches, the index fingerprint matches in case its templates have accessed the index, and all its outputs are still in place with matching stamps; {@code null}, otherwise
+     */
+    @Nullable
+    Entry findUpToDateEntry(
+            final Path outputDirectory,
+            final Path releaseDirectory,
+            final String fingerprint,
+            final String indexFingerprint) {
+        final String releaseDirectoryName = String.valueOf(releaseDirectory.getFileName());
+        @Nullable
+        final Entry entry = entryByReleaseDirectoryName.get(releaseDirectoryName);
+        if (entry == null
+                || !fingerprint.equals(entry.fingerprint)
+                || (entry.indexFingerprint != null && !indexFingerprint.equals(entry.indexFingerprint))) {
+            return null;
+        }
+        final boolean outputsUnchanged =
+                entry.outputStampByFileName.entrySet().stream().allMatch(outputFileNameAndStamp -> {
+                    final Path outputFile = outputDirectory.resolve(outputFileNameAndStamp.getKey());
+                    return Files.exists(outputFile) && outputFileNameAndStamp.getValue().equals(stamp(outputFile));
+                });
+        return outputsUnchanged ? entry : null;
+    }
+
+    /**
+     * Fingerprints the template files in the changelog directory, which can be included by release templates, and {@code .releases.xml}, which release information can be read from.
+     * <p>
+     * The recorded fingerprint is reused, if the stamp of the files matches the recorded one.
+     * </p>
+     */
+    InputFiles fingerprintSharedInputFiles(final Path changelogDirectory) {
+        final String templateFileNameSuffix = '.' + ChangelogFiles.templateFileNameExtension();
+        final String releasesXmlFileName =
+                String.valueOf(ChangelogFiles.releasesXmlFile(changelogDirectory).getFileName());
+        final List<Path> sharedFiles = regularFiles(changelogDirectory)
+                .stream()
+                .filter(file -> {
+                    final String fileName = String.valueOf(file.getFileName());
+                    return fileName.endsWith(templateFileNameSuffix) || fileName.equals(releasesXmlFileName);
+                })
+                .collect(Collectors.toList());
+        return fingerprintInputFiles(sharedFiles, sharedInputFiles);
+    }
+
+    /**
+     * Fingerprints the files of the given release directory: entry files, {@code .release.xml}, and template files alike.
+     * <p>
+     * The recorded fingerprint is reused, if the stamp of the files matches the recorded one.
+     * </p>
+     */
+    InputFiles fingerprintReleaseInputFiles(final Path releaseDirectory) {
+        final String releaseDirectoryName = String.valueOf(releaseDirectory.getFileName());
+        @Nullable
+        final Entry entry = entryByReleaseDirectoryName.get(releaseDirectoryName);
+        return fingerprintInputFiles(regularFiles(releaseDirectory), entry != null ? entry.inputFiles : null);
+    }
+
+    private static InputFiles fingerprintInputFiles(
+            final List<Path> files,
+            @Nullable final InputFiles recordedInputFiles) {
+
+        // Stamp the files, and reuse the recorded fingerprint, if the stamp matches
+        final MessageDigest stampDigest = DigestUtils.createDigest();
+        files.forEach(file -> DigestUtils.updateDigestWithStamp(stampDigest, file));
+        final String stamp = DigestUtils.toHex(stampDigest.digest());
+        if (recordedInputFiles != null && stamp.equals(recordedInputFiles.stamp)) {
+            return recordedInputFiles;
+        }
+
+        // Hash the file contents otherwise
+        final MessageDigest digest = DigestUtils.createDigest();
+        files.forEach(file -> DigestUtils.updateDigest(digest, file));
+        return new InputFiles(stamp, DigestUtils.toHex(digest.digest()));
+
+    }
+
+    /**
+     * Computes the fingerprint of inputs shared by all releases: the changelog templates configured, and the template files and {@code .releases.xml} in the changelog directory.
+     *
+     * @param sharedInputFiles the template files and {@code .releases.xml} in the changelog directory, see {@link #fingerprintSharedInputFiles(Path)}
+     */
+    static String sharedFingerprint(
+            final Set<ChangelogExporterTemplate> changelogTemplates,
+            final InputFiles sharedInputFiles) {
+        final MessageDigest digest = DigestUtils.createDigest();
+        changelogTemplates
+                .stream()
+                .map(ChangelogExporterTemplate::toString)
+                .sorted()
+                .forEach(changelogTemplate -> DigestUtils.updateDigest(digest, changelogTemplate));
+        DigestUtils.updateDigest(digest, sharedInputFiles.fingerprint);
+        return DigestUtils.toHex(digest.digest());
+    }
+
+    /**
+     * Computes the fingerprint of all inputs that can affect the export of a particular release directory.
+     *
+     * @param sharedFingerprint the fingerprint of inputs shared by all releases, see {@link #sharedFingerprint(Set, InputFiles)}
+     * @param releaseInputFiles the files of the release directory, see {@link #fingerprintReleaseInputFiles(Path)}
+     */
+    static String releaseFingerprint(final String sharedFingerprint, final InputFiles releaseInputFiles) {
+        final MessageDigest digest = DigestUtils.createDigest();
+        DigestUtils.updateDigest(digest, sharedFingerprint);
+        DigestUtils.updateDigest(digest, releaseInputFiles.fingerprint);
+        return DigestUtils.toHex(digest.digest());
+    }
+
+    /**
+     * Computes the fingerprint of the inputs of all releases, which can affect the export of releases whose templates access the index.
+     *
+     * @param releaseDirectories release directories in the order they are passed to the index
+     * @param releaseFingerprints the fingerprints of the release directories, see {@link #releaseFingerprint(String, InputFiles)}
+     */
+    static String indexFingerprint(final List<Path> releaseDirectories, final List<String> releaseFingerprints) {
+        final MessageDigest digest = DigestUtils.createDigest();
+        for (int releaseIndex = 0; releaseIndex < releaseDirectories.size(); releaseIndex++) {
+            // Directory names are included to account for added, removed, and renamed releases
+            DigestUtils.updateDigest(digest, String.valueOf(releaseDirectories.get(releaseIndex).getFileName()));
+            DigestUtils.updateDigest(digest, releaseFingerprints.get(releaseIndex));
+        }
+        return DigestUtils.toHex(digest.digest());
+    }
+
+    /**
+     * Stamps the given rendered files to detect their modifications in the next export.
+     *
+     * @param outputFileNames the names of the rendered files relative to the output directory
+     * @return stamps of the rendered files keyed by their names
+     */
+    static Map<String, String> stampOutputFiles(final Path outputDirectory, final List<String> outputFileNames) {
+        // Sorting is needed to generate the same output between different runs
+        final Map<String, String> outputStampByFileName = new TreeMap<>();
+        outputFileNames.forEach(outputFileName ->
+                outputStampByFileName.put(outputFileName, stamp(outputDirectory.resolve(outputFileName))));
+        return outputStampByFileName;
+    }
+
+    private static String stamp(final Path file) {
+        final MessageDigest digest = DigestUtils.createDigest();
+        DigestUtils.updateDigestWithStamp(digest, file);
+        return DigestUtils.toHex(digest.digest());
+    }
+
+    private static List<Path> regularFiles(final Path directory) {
+        return FileUtils.findAdjacentFiles(directory, false, paths -> paths
+                .filter(Files::isRegularFile)
+                // Sorting is needed to produce the same fingerprint between different runs
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Reads the manifest from the given output directory.
+     * <p>
+     * An empty manifest is returned if the file doesn't exist or is malformed; the worst outcome of this is a full export.
+     * </p>
+     */
+    static ChangelogExportManifest readFromOutputDirectory(final Path outputDirectory) {
+        final Path file = file(outputDirectory);
+        if (!Files.exists(file)) {
+            return empty();
+        }
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(file, CharsetUtils.CHARSET);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading the export manifest: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+        if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+            System.out.format("ignoring the export manifest with unknown format: `%s`%n", file);
+            return empty();
+        }
+        @Nullable
+        InputFiles sharedInputFiles = null;
+        final Map<String, Entry> entryByReleaseDirectoryName = new HashMap<>();
+        for (int lineIndex = 1; lineIndex < lines.size(); lineIndex++) {
+            final String[] columns = lines.get(lineIndex).split("\t", -1);
+
+            // Read the shared input files
+            if (columns.length == 3 && "shared".equals(columns[0])) {
+                sharedInputFiles = new InputFiles(columns[1], columns[2]);
+                continue;
+            }
+
+            // Read the release
+            if (columns.length < RELEASE_COLUMN_COUNT
+                    || (columns.length - RELEASE_COLUMN_COUNT) % 2 != 0
+                    || !"release".equals(columns[0])) {
+                System.out.format("ignoring the malformed export manifest: `%s`%n", file);
+                return empty();
+            }
+            final String releaseDirectoryName = columns[1];
+            final InputFiles inputFiles = new InputFiles(columns[2], columns[3]);
+            final String fingerprint = columns[4];
+            @Nullable
+            final String indexFingerprint = NO_INDEX_FINGERPRINT.equals(columns[5]) ? null : columns[5];
+            final int changelogEntryCount;
+            try {
+                changelogEntryCount = Integer.parseInt(columns[6]);
+            } catch (final NumberFormatException ignored) {
+                System.out.format("ignoring the malformed export manifest: `%s`%n", file);
+                return empty();
+            }
+            final Map<String, String> outputStampByFileName = new TreeMap<>();
+            for (int columnIndex = RELEASE_COLUMN_COUNT; columnIndex < columns.length; columnIndex += 2) {
+                outputStampByFileName.put(columns[columnIndex], columns[columnIndex + 1]);
+            }
+            final Entry entry =
+                    new Entry(inputFiles, fingerprint, indexFingerprint, changelogEntryCount, outputStampByFileName);
+            entryByReleaseDirectoryName.put(releaseDirectoryName, entry);
+
+        }
+        return new ChangelogExportManifest(sharedInputFiles, entryByReleaseDirectoryName);
+    }
+
+    static void writeToOutputDirectory(
+            final Path outputDirectory,
+            final InputFiles sharedInputFiles,
+            final Map<String, Entry> entryByReleaseDirectoryName) {
+        final Path file = file(outputDirectory);
+        final List<String> lines = new ArrayList<>(2 + entryByReleaseDirectoryName.size());
+        lines.add(HEADER);
+        lines.add("shared\t" + sharedInputFiles.stamp + '\t' + sharedInputFiles.fingerprint);
+        // Sorting is needed to generate the same output between different runs
+        new TreeMap<>(entryByReleaseDirectoryName).forEach((releaseDirectoryName, entry) -> {
+            final InputFiles inputFiles = Objects.requireNonNull(entry.inputFiles, "inputFiles");
+            final StringBuilder lineBuilder = new StringBuilder("release")
+                    .append('\t')
+                    .append(releaseDirectoryName)
+                    .append('\t')
+                    .append(inputFiles.stamp)
+                    .append('\t')
+                    .append(inputFiles.fingerprint)
+                    .append('\t')
+                    .append(entry.fingerprint)
+                    .append('\t')
+                    .append(entry.indexFingerprint != null ? entry.indexFingerprint : NO_INDEX_FINGERPRINT)
+                    .append('\t')
+                    .append(entry.changelogEntryCount);
+            entry.outputStampByFileName.forEach((outputFileName, outputStamp) ->
+                    lineBuilder.append('\t').append(outputFileName).append('\t').append(outputStamp));
+            lines.add(lineBuilder.toString());
+        });
+        final String content = String.join("\n", lines) + '\n';
+        FileUtils.writeAtomically(file, content.getBytes(CharsetUtils.CHARSET));
+    }
+
+}
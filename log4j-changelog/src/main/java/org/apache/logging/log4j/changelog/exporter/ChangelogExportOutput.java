@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+
+/**
+ * Renders templates of a changelog directory to the output directory, and counts the rendered and written files.
+ * <p>
+ * Instances are thread-safe.
+ * </p>
+ */
+final class ChangelogExportOutput {
+
+    final Path directory;
+
+    private final boolean writeIfChanged;
+
+    private final ChangelogReport report;
+
+    private final AtomicInteger renderedFileCount = new AtomicInteger();
+
+    private final AtomicInteger writtenFileCount = new AtomicInteger();
+
+    ChangelogExportOutput(final Path directory, final boolean writeIfChanged, final ChangelogReport report) {
+        this.directory = directory;
+        this.writeIfChanged = writeIfChanged;
+        this.report = report;
+    }
+
+    /**
+     * Renders the template to the given file in the output directory.
+     * <p>
+     * If {@code writeIfChanged} is set, the template is rendered to memory first, and the file is only written if its content differs from the rendered one.
+     * Otherwise, the template is rendered to the file directly, hence the time spent writing the file is reported as rendering.
+     * </p>
+     */
+    void render(
+            final Path changelogDirectory,
+            final String templateName,
+            final Object templateData,
+            final String targetFileName) {
+        final FreeMarkerEngine engine = FreeMarkerEngine.forTemplateDirectory(changelogDirectory);
+        final Path targetFile = directory.resolve(targetFileName);
+        final long startNanos = System.nanoTime();
+        final long writtenByteCount;
+        if (writeIfChanged) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try (final Writer outputWriter = new OutputStreamWriter(outputStream, CharsetUtils.CHARSET)) {
+                engine.render(templateName, templateData, outputWriter);
+            } catch (final IOException error) {
+                // `ByteArrayOutputStream` doesn't throw
+                throw new UncheckedIOException(error);
+            }
+            final long renderEndNanos = System.nanoTime();
+            report.recordPhase("render", renderEndNanos - startNanos);
+            final byte[] content = outputStream.toByteArray();
+            final boolean written = FileUtils.writeIfChanged(targetFile, content);
+            report.recordPhase("write", System.nanoTime() - renderEndNanos);
+            writtenByteCount = written ? content.length : -1;
+        } else {
+            engine.render(templateName, templateData, targetFile);
+            report.recordPhase("render", System.nanoTime() - startNanos);
+            writtenByteCount = fileSize(targetFile);
+        }
+        report.recordTemplate(templateFileName(templateName), System.nanoTime() - startNanos);
+        renderedFileCount.incrementAndGet();
+        if (writtenByteCount >= 0) {
+            writtenFileCount.incrementAndGet();
+            report.recordFilesWritten(1, writtenByteCount);
+        }
+    }
+
+    /**
+     * @return the template name without its directory, so that the same template of different releases are reported together
+     */
+    private static String templateFileName(final String templateName) {
+        return templateName.substring(templateName.lastIndexOf('/') + 1);
+    }
+
+    private static long fileSize(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading the size of file: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    /**
+     * Reports the number of files left untouched, since their contents haven't changed, if any.
+     */
+    void printUnchangedFileCount() {
+        final int unchangedFileCount = renderedFileCount.get() - writtenFileCount.get();
+        if (unchangedFileCount > 0) {
+            System.out.format(
+                    "wrote %d out of %d rendered files, the rest were unchanged%n",
+                    writtenFileCount.get(),
+                    renderedFileCount.get());
+        }
+    }
+
+}
@@ -0,0 +1,495 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.apache.logging.log4j.changelog.ChangelogEntryBundle;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Keeps the exported changelog up-to-date by watching the changelog directory for changes.
+ * <p>
+ * Parsed changelog entries are kept in memory.
+ * On each change, only the touched files are parsed again, and only the affected releases are rendered again.
+ * The index is rendered again only if releases are added, removed, or modified, or their changelog entry counts change.
+ * Changes to the templates in the changelog directory affect all releases.
+ * Once a template accesses the {@code index}, which covers the changelog entries of all releases, any change affects all releases and the index.
+ * </p>
+ * <p>
+ * Changes are processed in a single background thread, and failures (e.g., a changelog entry file saved while it is being edited) are reported without stopping the watcher.
+ * </p>
+ *
+ * @see ChangelogExporter#watch(ChangelogExporterArgs, long, Consumer)
+ */
+public final class ChangelogExportWatcher implements Closeable {
+
+    private final ChangelogExporterArgs args;
+
+    private final long debounceDelayMillis;
+
+    private final Consumer<List<String>> exportListener;
+
+    private final Path absoluteOutputDirectory;
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, Path> directoryByWatchKey = new HashMap<>();
+
+    private final Map<Path, ReleaseState> releaseStateByDirectory = new HashMap<>();
+
+    /**
+     * Release directories in the index order, i.e., released ones sorted by date followed by unreleased ones.
+     */
+    private List<ChangelogReleaseCatalog.ReleaseDirectory> releaseDirectories = Collections.emptyList();
+
+    /**
+     * Supplier of the index data of the current changelog entries, which is replaced on every export.
+     */
+    private Supplier<Map<String, Object>> indexDataSupplier;
+
+    /**
+     * Indicates if a template has accessed the index data, and hence, if any change needs all releases to be rendered again.
+     */
+    private volatile boolean indexAccessed;
+
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    private ChangelogExportWatcher(
+            final ChangelogExporterArgs args,
+            final long debounceDelayMillis,
+            final Consumer<List<String>> exportListener)
+            throws IOException {
+        this.args = args;
+        this.debounceDelayMillis = debounceDelayMillis;
+        this.exportListener = Objects.requireNonNull(exportListener, "exportListener");
+        this.absoluteOutputDirectory = args.outputDirectory.toAbsolutePath().normalize();
+        this.watchService = args.changelogDirectory.getFileSystem().newWatchService();
+        final String threadName = String.format("log4j-changelog-watcher-%s", args.changelogDirectory);
+        this.indexDataSupplier = createIndexDataSupplier();
+        this.thread = new Thread(this::run, threadName);
+        this.thread.setDaemon(true);
+    }
+
+    static ChangelogExportWatcher start(
+            final ChangelogExporterArgs args,
+            final long debounceDelayMillis,
+            final Consumer<List<String>> exportListener) {
+        if (debounceDelayMillis < 0) {
+            final String message =
+                    String.format("was expecting `debounceDelayMillis >= 0`, found: %d", debounceDelayMillis);
+            throw new IllegalArgumentException(message);
+        }
+        if (!args.moduleChangelogDirectories.isEmpty()) {
+            throw new IllegalArgumentException("watching an export with module changelog directories is not supported");
+        }
+        final ChangelogExportWatcher watcher;
+        try {
+            watcher = new ChangelogExportWatcher(args, debounceDelayMillis, exportListener);
+        } catch (final IOException error) {
+            final String message = String.format("failed watching directory: `%s`", args.changelogDirectory);
+            throw new UncheckedIOException(message, error);
+        }
+        try {
+            watcher.exportAll();
+        } catch (final RuntimeException error) {
+            watcher.closeWatchService();
+            throw error;
+        }
+        watcher.thread.start();
+        return watcher;
+    }
+
+    /**
+     * Reads and exports all releases, and starts watching their directories.
+     */
+    private void exportAll() {
+
+        // Watch the changelog directory first, so that no release directory created meanwhile gets missed
+        watch(args.changelogDirectory);
+
+        // Read all releases
+        final ChangelogReleaseCatalog catalog =
+                ChangelogReleaseCatalog.scan(args.changelogDirectory, null, args.validator);
+        releaseDirectories = catalog.releaseDirectories();
+        releaseDirectories.forEach(releaseDirectory -> watch(releaseDirectory.path));
+        final List<ReleaseState> releaseStates = ExecutorUtils.withExecutor(
+                args.executorService,
+                args.parallelism,
+                executor -> ExecutorUtils.mapOrdered(
+                        executor,
+                        releaseDirectories,
+                        releaseDirectory -> ReleaseState.read(releaseDirectory, args.validator)));
+        releaseStates.forEach(releaseState -> releaseStateByDirectory.put(releaseState.directory.path, releaseState));
+
+        // Export all releases
+        indexDataSupplier = createIndexDataSupplier();
+        final ChangelogExportOutput output =
+                new ChangelogExportOutput(args.outputDirectory, args.writeIfChanged, new ChangelogReport("watch"));
+        releaseStates.forEach(releaseState -> exportRelease(output, releaseState));
+        exportIndex(output);
+        args.validator.saveCache();
+        System.out.format("exported %d release directories, watching for changes%n", releaseStates.size());
+
+    }
+
+    private void watch(final Path directory) {
+        try {
+            final WatchKey watchKey = directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            directoryByWatchKey.put(watchKey, directory);
+        } catch (final IOException error) {
+            final String message = String.format("failed watching directory: `%s`", directory);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+
+                // Wait for a change, and collect the rest of the burst it belongs to
+                final Changes changes = new Changes();
+                collectChanges(watchService.take(), changes);
+                @Nullable
+                WatchKey watchKey;
+                while ((watchKey = watchService.poll(debounceDelayMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collectChanges(watchKey, changes);
+                }
+
+                // Export the changes
+                final long startNanos = System.nanoTime();
+                final List<String> outputFileNames = export(changes);
+                if (!outputFileNames.isEmpty()) {
+                    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                    System.out.format(
+                            "exported %d changed files in %d ms: %s%n",
+                            changes.files.size(), elapsedMillis, outputFileNames);
+                    exportListener.accept(outputFileNames);
+                }
+
+            } catch (final ClosedWatchServiceException | InterruptedException ignored) {
+                return;
+            } catch (final RuntimeException error) {
+                System.err.format("failed exporting changes, waiting for further changes: %s%n", error);
+                error.printStackTrace(System.err);
+            }
+        }
+    }
+
+    private static final class Changes {
+
+        private final Set<Path> files = new LinkedHashSet<>();
+
+        /**
+         * Indicates that release directories need to be scanned again, e.g., due to an added release directory or missed events.
+         */
+        private boolean structural;
+
+    }
+
+    private void collectChanges(final WatchKey watchKey, final Changes changes) {
+        @Nullable
+        final Path directory = directoryByWatchKey.get(watchKey);
+        for (final WatchEvent<?> event : watchKey.pollEvents()) {
+            if (OVERFLOW.equals(event.kind())) {
+                changes.structural = true;
+            } else if (directory != null) {
+                changes.files.add(directory.resolve((Path) event.context()));
+            }
+        }
+        if (!watchKey.reset()) {
+            directoryByWatchKey.remove(watchKey);
+            changes.structural = true;
+        }
+    }
+
+    /**
+     * @return the names of the rendered files, relative to the output directory
+     */
+    private List<String> export(final Changes changes) {
+
+        // Determine the affected releases
+        boolean structural = changes.structural;
+        boolean allReleasesAffected = false;
+        final Set<Path> affectedReleaseDirectories = new LinkedHashSet<>();
+        final Set<Path> reloadedReleaseDirectories = new LinkedHashSet<>();
+        for (final Path file : changes.files) {
+            @Nullable
+            final Path directory = file.getParent();
+            final String fileName = String.valueOf(file.getFileName());
+            if (directory == null || file.toAbsolutePath().normalize().startsWith(absoluteOutputDirectory)) {
+                continue;
+            }
+            final boolean templateFile = fileName.endsWith('.' + ChangelogFiles.templateFileNameExtension());
+            if (directory.equals(args.changelogDirectory)) {
+                // Release information can be read from `.releases.xml` instead of `.release.xml` files
+                if (releaseStateByDirectory.containsKey(file)
+                        || Files.isDirectory(file)
+                        || ChangelogFiles.releasesXmlFile(directory).equals(file)) {
+                    structural = true;
+                } else if (templateFile) {
+                    allReleasesAffected = true;
+                }
+            } else if (releaseStateByDirectory.containsKey(directory)) {
+                if (ChangelogFiles.releaseXmlFile(directory).equals(file)) {
+                    structural = true;
+                } else if (ChangelogFiles.entriesXmlFile(directory).equals(file)) {
+                    reloadedReleaseDirectories.add(directory);
+                } else if (templateFile) {
+                    affectedReleaseDirectories.add(directory);
+                } else if (!fileName.startsWith(".")) {
+                    if (!releaseStateByDirectory.get(directory).update(file, args.validator)) {
+                        reloadedReleaseDirectories.add(directory);
+                    }
+                    affectedReleaseDirectories.add(directory);
+                }
+            }
+        }
+
+        // Read compacted release directories again, once per directory, since they can't be updated file by file
+        reloadedReleaseDirectories.forEach(directory -> releaseStateByDirectory.get(directory).reload(args.validator));
+        affectedReleaseDirectories.addAll(reloadedReleaseDirectories);
+
+        // Scan release directories again, if necessary
+        allReleasesAffected |= indexAccessed && (structural || !affectedReleaseDirectories.isEmpty());
+        boolean indexAffected = structural || allReleasesAffected;
+        if (structural) {
+            affectedReleaseDirectories.addAll(rescan());
+        }
+
+        // Export affected releases
+        indexDataSupplier = createIndexDataSupplier();
+        final ChangelogExportOutput output =
+                new ChangelogExportOutput(args.outputDirectory, args.writeIfChanged, new ChangelogReport("watch"));
+        final List<String> outputFileNames = new ArrayList<>();
+        for (final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory : releaseDirectories) {
+            if (allReleasesAffected || affectedReleaseDirectories.contains(releaseDirectory.path)) {
+                final ReleaseState releaseState = releaseStateByDirectory.get(releaseDirectory.path);
+                indexAffected |= releaseState.exportedEntryCount != releaseState.entryByFile.size();
+                outputFileNames.addAll(exportRelease(output, releaseState));
+            }
+        }
+
+        // Export the index, if necessary
+        if (indexAffected) {
+            outputFileNames.addAll(exportIndex(output));
+        }
+        output.printUnchangedFileCount();
+        args.validator.saveCache();
+        return outputFileNames;
+
+    }
+
+    /**
+     * Scans release directories again, reusing the parsed changelog entries of the known ones.
+     *
+     * @return the directories of added or modified releases
+     */
+    private Set<Path> rescan() {
+        final ChangelogReleaseCatalog catalog =
+                ChangelogReleaseCatalog.scan(args.changelogDirectory, null, args.validator);
+        final Set<Path> affectedReleaseDirectories = new LinkedHashSet<>();
+        final Map<Path, ReleaseState> oldReleaseStateByDirectory = new HashMap<>(releaseStateByDirectory);
+        releaseStateByDirectory.clear();
+        for (final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory : catalog.releaseDirectories()) {
+            @Nullable
+            final ReleaseState oldReleaseState = oldReleaseStateByDirectory.get(releaseDirectory.path);
+            final ReleaseState releaseState;
+            if (oldReleaseState == null) {
+                watch(releaseDirectory.path);
+                releaseState = ReleaseState.read(releaseDirectory, args.validator);
+                affectedReleaseDirectories.add(releaseDirectory.path);
+            } else {
+                if (!sameRelease(oldReleaseState.directory.release, releaseDirectory.release)) {
+                    affectedReleaseDirectories.add(releaseDirectory.path);
+                }
+                releaseState = new ReleaseState(releaseDirectory, oldReleaseState);
+            }
+            releaseStateByDirectory.put(releaseDirectory.path, releaseState);
+        }
+        releaseDirectories = catalog.releaseDirectories();
+        return affectedReleaseDirectories;
+    }
+
+    private static boolean sameRelease(final ChangelogRelease release1, final ChangelogRelease release2) {
+        return release1.version.equals(release2.version) && Objects.equals(release1.date, release2.date);
+    }
+
+    private List<String> exportRelease(final ChangelogExportOutput output, final ReleaseState releaseState) {
+        final List<String> outputFileNames = ChangelogExporter.exportRelease(
+                output,
+                args.changelogDirectory,
+                releaseState.directory.path,
+                releaseState.directory.release,
+                ChangelogExporter.groupChangelogEntriesByType(releaseState.entryByFile.values()),
+                indexDataSupplier,
+                args.changelogTemplates);
+        releaseState.exportedEntryCount = releaseState.entryByFile.size();
+        return outputFileNames;
+    }
+
+    private List<String> exportIndex(final ChangelogExportOutput output) {
+        final List<Map<String, Object>> releaseDataList = releaseDirectories
+                .stream()
+                .map(releaseDirectory -> {
+                    final Collection<ChangelogEntry> entries =
+                            releaseStateByDirectory.get(releaseDirectory.path).entryByFile.values();
+                    return ChangelogExporter.indexReleaseData(
+                            releaseDirectory.release,
+                            entries.size(),
+                            () -> entries
+                                    .stream()
+                                    .map(entry -> new ChangelogEntry.Summary(entry.type, entry.authors))
+                                    .collect(Collectors.toList()));
+                })
+                .collect(Collectors.toList());
+        return ChangelogExporter.exportIndex(
+                output, args.changelogDirectory, args.indexTemplates, releaseDataList, indexDataSupplier);
+    }
+
+    /**
+     * @return a supplier of the index data of the changelog entries in memory, which records its first invocation
+     */
+    private Supplier<Map<String, Object>> createIndexDataSupplier() {
+        final Supplier<Map<String, Object>> supplier = ChangelogExporter.indexDataSupplier(
+                releaseDirectories,
+                releaseDirectory -> releaseStateByDirectory.get(releaseDirectory).entryByFile.values(),
+                new ChangelogReport("watch"));
+        return () -> {
+            indexAccessed = true;
+            return supplier.get();
+        };
+    }
+
+    /**
+     * Parsed changelog entries of a release directory.
+     */
+    private static final class ReleaseState {
+
+        private final ChangelogReleaseCatalog.ReleaseDirectory directory;
+
+        /**
+         * Changelog entries sorted by their files to generate the same output as {@link ChangelogExporter}.
+         */
+        private final SortedMap<Path, ChangelogEntry> entryByFile;
+
+        /**
+         * Number of changelog entries at the last export, which is used to tell if the index needs to be exported again.
+         */
+        private int exportedEntryCount;
+
+        private ReleaseState(
+                final ChangelogReleaseCatalog.ReleaseDirectory directory,
+                final SortedMap<Path, ChangelogEntry> entryByFile) {
+            this.directory = directory;
+            this.entryByFile = entryByFile;
+            this.exportedEntryCount = entryByFile.size();
+        }
+
+        private ReleaseState(final ChangelogReleaseCatalog.ReleaseDirectory directory, final ReleaseState oldState) {
+            this(directory, oldState.entryByFile);
+            this.exportedEntryCount = oldState.exportedEntryCount;
+        }
+
+        private static ReleaseState read(
+                final ChangelogReleaseCatalog.ReleaseDirectory directory, final XmlValidator validator) {
+            return new ReleaseState(directory, ChangelogEntryBundle.readAllEntries(directory.path, validator));
+        }
+
+        /**
+         * Parses the given changelog entry file again, or removes its entry, if the file doesn't exist anymore.
+         *
+         * @return {@code false}, if the file is removed from a compacted release directory, and hence, the directory needs to be {@link #reload(XmlValidator) reloaded} to serve its bundled entry instead, if there is any
+         */
+        private boolean update(final Path file, final XmlValidator validator) {
+            if (Files.exists(file)) {
+                entryByFile.put(file, ChangelogEntry.readFromXmlFile(file, validator));
+                return true;
+            }
+            if (Files.exists(ChangelogFiles.entriesXmlFile(directory.path))) {
+                return false;
+            }
+            entryByFile.remove(file);
+            return true;
+        }
+
+        /**
+         * Parses all changelog entries of the release directory again, e.g., once its {@code .entries.xml} has changed.
+         */
+        private void reload(final XmlValidator validator) {
+            final SortedMap<Path, ChangelogEntry> reloadedEntryByFile =
+                    ChangelogEntryBundle.readAllEntries(directory.path, validator);
+            entryByFile.clear();
+            entryByFile.putAll(reloadedEntryByFile);
+        }
+
+    }
+
+    /**
+     * Blocks until the watcher is closed.
+     */
+    public void awaitClose() throws InterruptedException {
+        thread.join();
+    }
+
+    /**
+     * Stops watching the changelog directory.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        closeWatchService();
+        try {
+            thread.join();
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeWatchService() {
+        try {
+            watchService.close();
+        } catch (final IOException error) {
+            final String message = String.format(
+                    "failed closing the watch service of directory: `%s`", args.changelogDirectory);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+}
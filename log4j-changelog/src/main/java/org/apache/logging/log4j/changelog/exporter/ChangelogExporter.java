@@ -16,248 +16,904 @@
  */
 package org.apache.logging.log4j.changelog.exporter;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+import edu.umd.cs.findbugs.annotations.Nullable;
 import org.apache.logging.log4j.changelog.ChangelogEntry;
-import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogEntryBundle;
+import org.apache.logging.log4j.changelog.ChangelogIndex;
 import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.ChangelogSnapshot;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
 import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 
 public final class ChangelogExporter {
 
     private ChangelogExporter() {}
 
-    public static void performExport(final ChangelogExporterArgs args) {
+    /**
+     * Exports the changelog directory, or the ZIP archive containing it.
+     *
+     * @return the report of the export
+     */
+    public static ChangelogReport performExport(final ChangelogExporterArgs args) {
+        final ChangelogReport report = new ChangelogReport("export");
+        withChangelogDirectory(args, directoryArgs -> ExecutorUtils.withExecutor(
+                directoryArgs.executorService, directoryArgs.parallelism, executor -> {
+                    performExport(directoryArgs, executor, report);
+                    return null;
+                }));
+        return report.complete();
+    }
 
-        // Find release directories
-        final List<Path> releaseDirectories = findReleaseDirectories(args);
-        final int releaseDirectoryCount = releaseDirectories.size();
+    /**
+     * Runs the given export against the changelog directory.
+     * <p>
+     * If the changelog directory is a file instead, it is opened as a ZIP archive containing the changelog directory at its root.
+     * Reading a single archive sequentially is considerably faster than accessing thousands of small files on network file systems.
+     * </p>
+     */
+    private static void withChangelogDirectory(
+            final ChangelogExporterArgs args,
+            final Consumer<ChangelogExporterArgs> export) {
+        if (!Files.isRegularFile(args.changelogDirectory)) {
+            export.accept(args);
+            return;
+        }
+        System.out.format("reading the changelog directory from archive: `%s`%n", args.changelogDirectory);
+        try (final FileSystem archiveFileSystem = FileUtils.openArchive(args.changelogDirectory)) {
+            try {
+                final Path archivedChangelogDirectory = archiveFileSystem.getPath("/");
+                export.accept(args.withChangelogDirectory(archivedChangelogDirectory));
+            } finally {
+                FreeMarkerEngine.discardEngines(archiveFileSystem);
+            }
+        } catch (final IOException error) {
+            final String message = String.format("failed closing archive: `%s`", args.changelogDirectory);
+            throw new UncheckedIOException(message, error);
+        }
+    }
 
-        // Read the release information files
-        final List<ChangelogRelease> changelogReleases = releaseDirectories
-                .stream()
-                .map(releaseDirectory -> {
-                    final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
-                    return ChangelogRelease.readFromXmlFile(releaseXmlFile);
-                })
-                .collect(Collectors.toList());
-        final List<Integer> changelogEntryCounts = releaseDirectories
+    private static void performExport(
+            final ChangelogExporterArgs args,
+            @Nullable final ExecutorService executor,
+            final ChangelogReport report) {
+
+        // Find release directories of the changelog directory and the modules, if there are any
+        final List<ModuleExport> moduleExports = scanModules(args, executor, report)
                 .stream()
-                .map(ignored -> 0)
+                .map(moduleCatalog -> new ModuleExport(moduleCatalog, executor, report))
                 .collect(Collectors.toList());
 
-        // Export releases
-        if (releaseDirectoryCount > 0) {
+        // Export releases of all changelog directories at once.
+        // Each release renders to its own files, hence they can be exported concurrently.
+        // Results are collected in the release order to keep the index rendering deterministic.
+        final List<Supplier<ReleaseExport>> releaseExportTasks = new ArrayList<>();
+        for (final ModuleExport moduleExport : moduleExports) {
+            for (int releaseIndex = 0; releaseIndex < moduleExport.releaseDirectories.size(); releaseIndex++) {
+                final int finalReleaseIndex = releaseIndex;
+                releaseExportTasks.add(() -> moduleExport.exportRelease(report, finalReleaseIndex));
+            }
+        }
+        final List<ReleaseExport> releaseExports = ExecutorUtils.mapOrdered(executor, releaseExportTasks, Supplier::get);
 
-            // Export each release directory
-            for (int releaseIndex = 0; releaseIndex < releaseDirectories.size(); releaseIndex++) {
-                final Path releaseDirectory = releaseDirectories.get(releaseIndex);
-                final ChangelogRelease changelogRelease = changelogReleases.get(releaseIndex);
-                final int changelogEntryCount;
-                try {
-                    changelogEntryCount = exportRelease(
-                            args.outputDirectory,
-                            args.changelogDirectory,
-                            releaseDirectory,
-                            changelogRelease,
-                            args.changelogTemplates);
-                } catch (final Exception error) {
-                    final String message =
-                            String.format("failed exporting release from directory `%s`", releaseDirectory);
-                    throw new RuntimeException(message, error);
-                }
-                changelogEntryCounts.set(releaseIndex, changelogEntryCount);
+        // Complete the export of each changelog directory
+        final List<List<Map<String, Object>>> indexReleaseDataLists = new ArrayList<>(moduleExports.size());
+        int releaseExportOffset = 0;
+        for (final ModuleExport moduleExport : moduleExports) {
+            final int releaseCount = moduleExport.releaseDirectories.size();
+            final List<ReleaseExport> moduleReleaseExports =
+                    releaseExports.subList(releaseExportOffset, releaseExportOffset + releaseCount);
+            indexReleaseDataLists.add(moduleExport.complete(report, moduleReleaseExports));
+            releaseExportOffset += releaseCount;
+        }
+
+        // Export the aggregate index
+        if (!args.moduleChangelogDirectories.isEmpty()) {
+            final ChangelogExportOutput output =
+                    new ChangelogExportOutput(args.outputDirectory, args.writeIfChanged, report);
+            exportAggregateIndex(output, args, indexReleaseDataLists);
+            output.printUnchangedFileCount();
+        }
+
+        // Persist the validation results for subsequent reads
+        report.measure("save", () -> {
+            args.validator.saveCache();
+            return null;
+        });
+
+    }
+
+    /**
+     * A changelog directory to export, i.e., either the one of the export, or the one of a module.
+     */
+    private static final class ModuleCatalog {
+
+        private final ChangelogExporterArgs args;
+
+        private final ChangelogReleaseCatalog catalog;
+
+        private ModuleCatalog(final ChangelogExporterArgs args, final ChangelogReleaseCatalog catalog) {
+            this.args = args;
+            this.catalog = catalog;
+        }
+
+    }
+
+    /**
+     * Scans the changelog directory, and the module changelog directories, if there are any.
+     * <p>
+     * Without modules, release directories are scanned concurrently.
+     * Otherwise, changelog directories are scanned concurrently, each in a single thread, since tasks waiting for tasks submitted to the same executor can exhaust it.
+     * </p>
+     *
+     * @return the catalog of the changelog directory followed by the ones of the modules in module name order
+     */
+    private static List<ModuleCatalog> scanModules(
+            final ChangelogExporterArgs args,
+            @Nullable final ExecutorService executor,
+            final ChangelogReport report) {
+        if (args.moduleChangelogDirectories.isEmpty()) {
+            final ChangelogReleaseCatalog catalog = report.measure(
+                    "scan", () -> ChangelogReleaseCatalog.scan(args.changelogDirectory, executor, args.validator));
+            return Collections.singletonList(new ModuleCatalog(args, catalog));
+        }
+        final List<ChangelogExporterArgs> moduleArgsList = new ArrayList<>();
+        moduleArgsList.add(args);
+        for (final String moduleName : args.moduleChangelogDirectories.keySet()) {
+            moduleArgsList.add(args.forModule(moduleName));
+        }
+        final List<ChangelogReleaseCatalog> catalogs = report.measure("scan", () -> ExecutorUtils.mapOrdered(
+                executor,
+                moduleArgsList,
+                moduleArgs -> ChangelogReleaseCatalog.scan(moduleArgs.changelogDirectory, null, args.validator)));
+        System.out.format("exporting %d module changelog directories%n", moduleArgsList.size() - 1);
+        final List<ModuleCatalog> moduleCatalogs = new ArrayList<>(moduleArgsList.size());
+        for (int moduleIndex = 0; moduleIndex < moduleArgsList.size(); moduleIndex++) {
+            moduleCatalogs.add(new ModuleCatalog(moduleArgsList.get(moduleIndex), catalogs.get(moduleIndex)));
+        }
+        return Collections.unmodifiableList(moduleCatalogs);
+    }
+
+    /**
+     * The state of exporting a changelog directory.
+     */
+    private static final class ModuleExport {
+
+        private final ChangelogExporterArgs args;
+
+        private final List<ChangelogReleaseCatalog.ReleaseDirectory> releasedDirectories;
+
+        /**
+         * Released directories followed by unreleased ones.
+         */
+        private final List<ChangelogReleaseCatalog.ReleaseDirectory> releaseDirectories;
+
+        private final ChangelogSnapshot snapshot;
+
+        private final ChangelogExportManifest manifest;
+
+        /**
+         * The template files of the changelog directory, which are only available for incremental exports.
+         */
+        @Nullable
+        private final ChangelogExportManifest.InputFiles sharedInputFiles;
+
+        /**
+         * The files of {@link #releaseDirectories}, which are only available for incremental exports.
+         */
+        @Nullable
+        private final List<ChangelogExportManifest.InputFiles> releaseInputFiles;
+
+        /**
+         * The input fingerprints of {@link #releaseDirectories}, which are only available for incremental exports.
+         */
+        @Nullable
+        private final List<String> releaseFingerprints;
+
+        /**
+         * The input fingerprint of all releases, which is only available for incremental exports.
+         */
+        @Nullable
+        private final String indexFingerprint;
+
+        private final ChangelogExportOutput output;
+
+        private final Supplier<Map<String, Object>> indexDataSupplier;
+
+        /**
+         * The search index postings of the last export to reuse for releases whose inputs haven't changed.
+         */
+        private final ChangelogSearchIndex searchIndexCache;
+
+        private ModuleExport(
+                final ModuleCatalog moduleCatalog,
+                @Nullable final ExecutorService executor,
+                final ChangelogReport report) {
+            this.args = moduleCatalog.args;
+            moduleCatalog.catalog.unreleasedDirectories.forEach(unreleasedDirectory -> System.out.format(
+                    "exporting upcoming release directory: `%s`%n", unreleasedDirectory.path));
+            this.releasedDirectories = moduleCatalog.catalog.releasedDirectories;
+            this.releaseDirectories = moduleCatalog.catalog.releaseDirectories();
+
+            // Open the snapshot to read changelog entries from
+            this.snapshot = ChangelogSnapshot.open(args.snapshotFile, args.validator);
+
+            // Read the export manifest, if requested
+            this.manifest = args.incremental && !args.force
+                    ? ChangelogExportManifest.readFromOutputDirectory(args.outputDirectory)
+                    : ChangelogExportManifest.empty();
+
+            // Fingerprint the inputs of all releases upfront, since releases whose templates access the index depend on them
+            if (args.incremental) {
+                this.sharedInputFiles = manifest.fingerprintSharedInputFiles(args.changelogDirectory);
+                final String sharedFingerprint =
+                        ChangelogExportManifest.sharedFingerprint(args.changelogTemplates, sharedInputFiles);
+                final List<Path> releaseDirectoryPaths = releaseDirectories
+                        .stream()
+                        .map(releaseDirectory -> releaseDirectory.path)
+                        .collect(Collectors.toList());
+                this.releaseInputFiles =
+                        ExecutorUtils.mapOrdered(executor, releaseDirectoryPaths, manifest::fingerprintReleaseInputFiles);
+                this.releaseFingerprints = releaseInputFiles
+                        .stream()
+                        .map(inputFiles -> ChangelogExportManifest.releaseFingerprint(sharedFingerprint, inputFiles))
+                        .collect(Collectors.toList());
+                this.indexFingerprint =
+                        ChangelogExportManifest.indexFingerprint(releaseDirectoryPaths, releaseFingerprints);
+            } else {
+                this.sharedInputFiles = null;
+                this.releaseInputFiles = null;
+                this.releaseFingerprints = null;
+                this.indexFingerprint = null;
+            }
+
+            this.output = new ChangelogExportOutput(args.outputDirectory, args.writeIfChanged, report);
+            this.indexDataSupplier = indexDataSupplier(releaseDirectories, snapshot::readEntries, report);
+
+            // Read the search index postings of the last export, if requested
+            this.searchIndexCache = args.searchIndex && args.incremental && !args.force
+                    ? ChangelogSearchIndex.readCacheFromOutputDirectory(args.outputDirectory)
+                    : ChangelogSearchIndex.empty();
+
+        }
+
+        /**
+         * @param releaseIndex the index of the release in {@link #releaseDirectories}
+         */
+        private ReleaseExport exportRelease(final ChangelogReport report, final int releaseIndex) {
+            final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory = releaseDirectories.get(releaseIndex);
+            try {
+                return ChangelogExporter.exportRelease(
+                        args,
+                        output,
+                        report,
+                        snapshot,
+                        manifest,
+                        releaseInputFiles != null ? releaseInputFiles.get(releaseIndex) : null,
+                        releaseFingerprints != null ? releaseFingerprints.get(releaseIndex) : null,
+                        indexFingerprint,
+                        indexDataSupplier,
+                        searchIndexCache,
+                        releaseDirectory);
+            } catch (final Exception error) {
+                final String message = String.format(
+                        "failed exporting release from directory `%s`",
+                        releaseDirectory.path);
+                throw new RuntimeException(message, error);
             }
+        }
+
+        /**
+         * Persists the snapshot and the manifest, and exports the index.
+         *
+         * @param releaseExports the exports of {@link #releaseDirectories}
+         * @return the data of releases passed to index templates
+         */
+        private List<Map<String, Object>> complete(
+                final ChangelogReport report,
+                final List<ReleaseExport> releaseExports) {
+
+            // Persist directories parsed from XML files for subsequent reads
+            final long snapshotSaveStartNanos = System.nanoTime();
+            snapshot.save();
+            report.recordPhase("save", System.nanoTime() - snapshotSaveStartNanos);
+            report.recordFilesRead(snapshot.readFileCount(), snapshot.readByteCount());
 
             // Report the operation
+            final int releaseDirectoryCount = releasedDirectories.size();
             if (releaseDirectoryCount == 1) {
-                System.out.format("exported a single release directory: `%s`%n", releaseDirectories.get(0));
-            } else {
+                System.out.format("exported a single release directory: `%s`%n", releasedDirectories.get(0).path);
+            } else if (releaseDirectoryCount > 1) {
                 System.out.format(
                         "exported %d release directories: ..., `%s`%n",
-                        releaseDirectories.size(),
-                        releaseDirectories.get(releaseDirectoryCount - 1));
+                        releaseDirectoryCount,
+                        releasedDirectories.get(releaseDirectoryCount - 1).path);
             }
+            final long skippedReleaseCount = releaseExports
+                    .stream()
+                    .filter(releaseExport -> releaseExport.skipped)
+                    .count();
+            if (skippedReleaseCount > 0) {
+                System.out.format(
+                        "skipped rendering %d out of %d release directories with unchanged inputs%n",
+                        skippedReleaseCount,
+                        releaseExports.size());
+            }
+
+            // Update the export manifest.
+            // A manifest left behind by an earlier incremental export is removed otherwise, since it doesn't reflect the outputs anymore.
+            final long manifestSaveStartNanos = System.nanoTime();
+            if (args.incremental) {
+                final Map<String, ChangelogExportManifest.Entry> manifestEntryByReleaseDirectoryName = new HashMap<>();
+                for (int releaseIndex = 0; releaseIndex < releaseExports.size(); releaseIndex++) {
+                    final String releaseDirectoryName =
+                            String.valueOf(releaseDirectories.get(releaseIndex).path.getFileName());
+                    final ChangelogExportManifest.Entry manifestEntry = releaseExports.get(releaseIndex).manifestEntry;
+                    manifestEntryByReleaseDirectoryName.put(releaseDirectoryName, manifestEntry);
+                }
+                ChangelogExportManifest.writeToOutputDirectory(
+                        args.outputDirectory,
+                        Objects.requireNonNull(sharedInputFiles, "sharedInputFiles"),
+                        manifestEntryByReleaseDirectoryName);
+            } else {
+                deleteFileIfExists(ChangelogExportManifest.file(args.outputDirectory));
+            }
+            report.recordPhase("save", System.nanoTime() - manifestSaveStartNanos);
+
+            // Export the search index
+            if (args.searchIndex) {
+                exportSearchIndex(report, releaseExports);
+            }
+
+            // Export the release index
+            final List<Map<String, Object>> indexReleaseDataList = new ArrayList<>(releaseDirectories.size());
+            for (int releaseIndex = 0; releaseIndex < releaseDirectories.size(); releaseIndex++) {
+                final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory = releaseDirectories.get(releaseIndex);
+                indexReleaseDataList.add(indexReleaseData(
+                        releaseDirectory.release,
+                        releaseExports.get(releaseIndex).manifestEntry.changelogEntryCount,
+                        () -> report.measure(
+                                "read", () -> readChangelogEntrySummaries(args.validator, releaseDirectory.path))));
+            }
+            exportIndex(output, args.changelogDirectory, args.indexTemplates, indexReleaseDataList, indexDataSupplier);
+            output.printUnchangedFileCount();
+            return indexReleaseDataList;
 
         }
 
-        // Export unreleased
-        ChangelogFiles
-                .unreleasedDirectoryVersionMajors(args.changelogDirectory)
-                .stream()
-                .sorted()
-                .forEach(upcomingReleaseVersionMajor -> {
-                    final Path upcomingReleaseDirectory =
-                            ChangelogFiles.unreleasedDirectory(args.changelogDirectory, upcomingReleaseVersionMajor);
-                    final ChangelogRelease upcomingRelease = upcomingRelease(upcomingReleaseVersionMajor);
-                    System.out.format("exporting upcoming release directory: `%s`%n", upcomingReleaseDirectory);
-                    final int changelogEntryCount = exportRelease(
-                            args.outputDirectory,
-                            args.changelogDirectory,
-                            upcomingReleaseDirectory,
-                            upcomingRelease,
-                            args.changelogTemplates);
-                    changelogReleases.add(upcomingRelease);
-                    changelogEntryCounts.add(changelogEntryCount);
-                });
-
-        // Export the release index
-        exportIndex(
-                args.outputDirectory,
-                args.changelogDirectory,
-                args.indexTemplates,
-                changelogReleases,
-                changelogEntryCounts);
+        /**
+         * Writes the shards of the search index, and updates its cache, if the export is incremental.
+         *
+         * @param releaseExports the exports of {@link #releaseDirectories}
+         */
+        private void exportSearchIndex(final ChangelogReport report, final List<ReleaseExport> releaseExports) {
+            final List<ChangelogSearchIndex.ReleasePostings> releasePostingsList = releaseExports
+                    .stream()
+                    .map(releaseExport -> Objects.requireNonNull(releaseExport.searchPostings, "searchPostings"))
+                    .collect(Collectors.toList());
+            report.measure("search", () -> {
+                ChangelogSearchIndex.writeShards(args.outputDirectory, releasePostingsList, args.writeIfChanged, report);
+                return null;
+            });
+            final long cacheSaveStartNanos = System.nanoTime();
+            if (args.incremental) {
+                final Map<String, ChangelogSearchIndex.ReleasePostings> releasePostingsByReleaseDirectoryName =
+                        new HashMap<>();
+                for (int releaseIndex = 0; releaseIndex < releasePostingsList.size(); releaseIndex++) {
+                    final String releaseDirectoryName =
+                            String.valueOf(releaseDirectories.get(releaseIndex).path.getFileName());
+                    releasePostingsByReleaseDirectoryName.put(releaseDirectoryName, releasePostingsList.get(releaseIndex));
+                }
+                ChangelogSearchIndex.writeCacheToOutputDirectory(
+                        args.outputDirectory, releasePostingsByReleaseDirectoryName);
+            } else {
+                deleteFileIfExists(ChangelogSearchIndex.cacheFile(args.outputDirectory));
+            }
+            report.recordPhase("save", System.nanoTime() - cacheSaveStartNanos);
+            final long reusedReleaseCount = releaseExports
+                    .stream()
+                    .filter(releaseExport -> releaseExport.searchPostingsReused)
+                    .count();
+            if (reusedReleaseCount > 0) {
+                System.out.format(
+                        "reused the search index postings of %d out of %d release directories with unchanged inputs%n",
+                        reusedReleaseCount,
+                        releaseExports.size());
+            }
+        }
 
     }
 
-    private static List<Path> findReleaseDirectories(ChangelogExporterArgs args) {
-        return FileUtils.findAdjacentFiles(
-                args.changelogDirectory, true,
-                paths -> paths
-                        .filter(ChangelogExporter::isNonEmptyDirectory)
-                        .sorted(Comparator.comparing(releaseDirectory -> {
-                            final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
-                            final ChangelogRelease changelogRelease =
-                                    ChangelogRelease.readFromXmlFile(releaseXmlFile);
-                            return changelogRelease.date;
-                        }))
-                        .collect(Collectors.toList()));
+    /**
+     * Exports only the index templates of the changelog directory.
+     * <p>
+     * Changelog entry files are not parsed, since index templates only need their counts, which are determined using the directory listings.
+     * Changelog entry counts per type and author are determined by peeking at the leading elements of changelog entry files, and only if a template accesses them.
+     * The export manifest and the snapshot are neither read nor updated.
+     * </p>
+     *
+     * @return the report of the export
+     */
+    public static ChangelogReport performIndexExport(final ChangelogExporterArgs exportArgs) {
+        final ChangelogReport report = new ChangelogReport("index export");
+        withChangelogDirectory(exportArgs, args -> ExecutorUtils.withExecutor(args.executorService, args.parallelism, executor -> {
+            final List<List<Map<String, Object>>> indexReleaseDataLists = new ArrayList<>();
+            for (final ModuleCatalog moduleCatalog : scanModules(args, executor, report)) {
+                final List<Map<String, Object>> indexReleaseDataList = moduleCatalog.catalog
+                        .releaseDirectories()
+                        .stream()
+                        .map(releaseDirectory -> indexReleaseData(
+                                releaseDirectory.release,
+                                releaseDirectory.changelogEntryFileCount,
+                                () -> report.measure(
+                                        "read",
+                                        () -> readChangelogEntrySummaries(args.validator, releaseDirectory.path))))
+                        .collect(Collectors.toList());
+                final ChangelogExportOutput moduleOutput = new ChangelogExportOutput(
+                        moduleCatalog.args.outputDirectory, args.writeIfChanged, report);
+                final Supplier<Map<String, Object>> indexDataSupplier = indexDataSupplier(
+                        moduleCatalog.catalog.releaseDirectories(),
+                        releaseDirectory -> ChangelogEntryBundle.readAllEntries(releaseDirectory, args.validator)
+                                .values(),
+                        report);
+                exportIndex(
+                        moduleOutput,
+                        moduleCatalog.args.changelogDirectory,
+                        args.indexTemplates,
+                        indexReleaseDataList,
+                        indexDataSupplier);
+                System.out.format("exported the index of %d release directories%n", indexReleaseDataList.size());
+                moduleOutput.printUnchangedFileCount();
+                indexReleaseDataLists.add(indexReleaseDataList);
+            }
+            if (!args.moduleChangelogDirectories.isEmpty()) {
+                final ChangelogExportOutput output =
+                        new ChangelogExportOutput(args.outputDirectory, args.writeIfChanged, report);
+                exportAggregateIndex(output, args, indexReleaseDataLists);
+                output.printUnchangedFileCount();
+            }
+            report.measure("save", () -> {
+                args.validator.saveCache();
+                return null;
+            });
+            return null;
+        }));
+        return report.complete();
     }
 
-    private static boolean isNonEmptyDirectory(final Path path) {
-        return Files.isDirectory(path) &&
-                FileUtils.findAdjacentFiles(path, false, paths -> paths.findFirst().isPresent());
+    private static final class ReleaseExport {
+
+        private final ChangelogExportManifest.Entry manifestEntry;
+
+        private final boolean skipped;
+
+        /**
+         * The search index postings of the release, which are only available if the search index is exported.
+         */
+        @Nullable
+        private final ChangelogSearchIndex.ReleasePostings searchPostings;
+
+        private final boolean searchPostingsReused;
+
+        private ReleaseExport(
+                final ChangelogExportManifest.Entry manifestEntry,
+                final boolean skipped,
+                @Nullable final ChangelogSearchIndex.ReleasePostings searchPostings,
+                final boolean searchPostingsReused) {
+            this.manifestEntry = manifestEntry;
+            this.skipped = skipped;
+            this.searchPostings = searchPostings;
+            this.searchPostingsReused = searchPostingsReused;
+        }
+
     }
 
-    private static int exportRelease(
-            final Path outputDirectory,
-            final Path changelogDirectory,
-            final Path releaseDirectory,
-            final ChangelogRelease changelogRelease,
-            final Set<ChangelogExporterTemplate> changelogTemplates) {
+    private static void deleteFileIfExists(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException error) {
+            final String message = String.format("failed deleting file: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    /**
+     * Exports the changelog directory once, and keeps re-exporting the affected releases and the index on every change until the returned watcher is closed.
+     *
+     * @param debounceDelayMillis the period without further changes to wait for before re-exporting, so that a burst of changes, e.g., an editor saving a file, triggers a single re-export
+     * @param exportListener invoked with the names of the rendered files, relative to the output directory, after each re-export
+     * @see ChangelogExportWatcher
+     */
+    public static ChangelogExportWatcher watch(
+            final ChangelogExporterArgs args,
+            final long debounceDelayMillis,
+            final Consumer<List<String>> exportListener) {
+        return ChangelogExportWatcher.start(args, debounceDelayMillis, exportListener);
+    }
+
+    private static ReleaseExport exportRelease(
+            final ChangelogExporterArgs args,
+            final ChangelogExportOutput output,
+            final ChangelogReport report,
+            final ChangelogSnapshot snapshot,
+            final ChangelogExportManifest manifest,
+            @Nullable final ChangelogExportManifest.InputFiles inputFiles,
+            @Nullable final String fingerprint,
+            @Nullable final String indexFingerprint,
+            final Supplier<Map<String, Object>> indexDataSupplier,
+            final ChangelogSearchIndex searchIndexCache,
+            final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory) {
+
+        // Find the search index postings of the last export, if they are up-to-date
+        @Nullable
+        final ChangelogSearchIndex.ReleasePostings upToDateSearchPostings =
+                args.searchIndex ? searchIndexCache.findUpToDateReleasePostings(releaseDirectory.path, fingerprint) : null;
+
+        // Changelog entries are only read once, and if either a template or the search index needs them
+        final Supplier<List<ChangelogEntry>> changelogEntriesSupplier =
+                memoizing(() -> report.measure("read", () -> snapshot.readEntries(releaseDirectory.path)));
+        final Supplier<ChangelogSearchIndex.ReleasePostings> searchPostingsSupplier = () -> {
+            if (upToDateSearchPostings != null) {
+                return upToDateSearchPostings;
+            }
+            final List<ChangelogEntry> changelogEntries = changelogEntriesSupplier.get();
+            return report.measure(
+                    "search",
+                    () -> ChangelogSearchIndex.ReleasePostings.of(
+                            fingerprint, releaseDirectory.release.version, changelogEntries));
+        };
+
+        // Skip the release, if it is up-to-date
+        if (inputFiles != null && fingerprint != null && indexFingerprint != null) {
+            @Nullable
+            final ChangelogExportManifest.Entry upToDateManifestEntry = manifest.findUpToDateEntry(
+                    args.outputDirectory, releaseDirectory.path, fingerprint, indexFingerprint);
+            if (upToDateManifestEntry != null) {
+                return new ReleaseExport(
+                        // Inputs can have a different stamp, yet the same fingerprint, e.g., due to a new checkout
+                        upToDateManifestEntry.withInputFiles(inputFiles),
+                        true,
+                        args.searchIndex ? searchPostingsSupplier.get() : null,
+                        upToDateSearchPostings != null);
+            }
+        }
+
+        // Export the release.
+        // Changelog entries are only read if a template accesses them.
+        // Index accesses are tracked, since the release needs to be rendered again on changes to other releases then.
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean indexAccessed = new AtomicBoolean();
+        final Supplier<Map<String, Object>> trackingIndexDataSupplier = () -> {
+            indexAccessed.set(true);
+            return indexDataSupplier.get();
+        };
         final Map<ChangelogEntry.Type, List<ChangelogEntry>> changelogEntriesByType =
-                readChangelogEntriesByType(releaseDirectory);
+                // Entries are sorted by their file names to generate the same output between different runs
+                new LazyMap<>(() -> groupChangelogEntriesByType(changelogEntriesSupplier.get()));
+        final List<String> outputFileNames;
         try {
-            exportRelease(
-                    outputDirectory,
-                    changelogDirectory,
-                    releaseDirectory,
-                    changelogRelease,
+            outputFileNames = exportRelease(
+                    output,
+                    args.changelogDirectory,
+                    releaseDirectory.path,
+                    releaseDirectory.release,
                     changelogEntriesByType,
-                    changelogTemplates);
+                    trackingIndexDataSupplier,
+                    args.changelogTemplates);
         } catch (final Exception error) {
-            final String message = String.format("failed exporting release from directory `%s`", releaseDirectory);
+            final String message = String.format("failed exporting release from directory `%s`", releaseDirectory.path);
             throw new RuntimeException(message, error);
         }
-        return changelogEntriesByType
-                .values()
-                .stream()
-                .mapToInt(Collection::size)
-                .sum();
+        report.recordRelease(releaseDirectory.release.version, System.nanoTime() - startNanos);
+        final Map<String, String> outputStampByFileName = args.incremental
+                ? ChangelogExportManifest.stampOutputFiles(args.outputDirectory, outputFileNames)
+                : Collections.emptyMap();
+        final ChangelogExportManifest.Entry manifestEntry = new ChangelogExportManifest.Entry(
+                inputFiles,
+                fingerprint,
+                indexAccessed.get() ? indexFingerprint : null,
+                releaseDirectory.changelogEntryFileCount,
+                outputStampByFileName);
+        return new ReleaseExport(
+                manifestEntry,
+                false,
+                args.searchIndex ? searchPostingsSupplier.get() : null,
+                upToDateSearchPostings != null);
+
     }
 
-    private static Map<ChangelogEntry.Type, List<ChangelogEntry>> readChangelogEntriesByType(
-            final Path releaseDirectory) {
-        return FileUtils.findAdjacentFiles(releaseDirectory, true, stream -> stream
-                // Sorting is needed to generate the same output between different runs
-                .sorted()
-                .map(ChangelogEntry::readFromXmlFile)
+    static Map<ChangelogEntry.Type, List<ChangelogEntry>> groupChangelogEntriesByType(
+            final Collection<ChangelogEntry> changelogEntries) {
+        return changelogEntries
+                .stream()
                 .collect(Collectors.groupingBy(
                         changelogEntry -> changelogEntry.type,
                         // A sorted map is needed to generate the same output between different runs
                         TreeMap::new,
-                        Collectors.toList())));
+                        Collectors.toList()));
     }
 
-    private static void exportRelease(
-            final Path outputDirectory,
+    /**
+     * Renders the changelog templates of the given release.
+     *
+     * @return the names of the rendered files, relative to the output directory
+     */
+    static List<String> exportRelease(
+            final ChangelogExportOutput output,
             final Path changelogDirectory,
             final Path releaseDirectory,
             final ChangelogRelease release,
             final Map<ChangelogEntry.Type, List<ChangelogEntry>> entriesByType,
+            final Supplier<Map<String, Object>> indexDataSupplier,
             final Set<ChangelogExporterTemplate> changelogTemplates) {
         final Map<String, Object> changelogTemplateData = new LinkedHashMap<>();
         changelogTemplateData.put("release", release);
         changelogTemplateData.put("entriesByType", entriesByType);
+        changelogTemplateData.put("index", new LazyMap<>(indexDataSupplier));
+        final List<String> outputFileNames = new ArrayList<>(changelogTemplates.size());
         for (final ChangelogExporterTemplate changelogTemplate : changelogTemplates) {
             final Path changelogTemplateSourceFile = releaseDirectory.resolve(changelogTemplate.sourceFileName);
             if (Files.exists(changelogTemplateSourceFile)) {
                 final String changelogTemplateName = templateName(changelogDirectory, changelogTemplateSourceFile);
                 final String changelogTemplateTargetFileName =
                         changelogTemplate.targetFileName.replaceAll("%v", release.version);
-                final Path changelogTemplateTargetFile = outputDirectory.resolve(changelogTemplateTargetFileName);
-                FreeMarkerUtils.render(
-                        changelogDirectory,
-                        changelogTemplateName,
-                        changelogTemplateData,
-                        changelogTemplateTargetFile);
+                output.render(
+                        changelogDirectory, changelogTemplateName, changelogTemplateData, changelogTemplateTargetFileName);
+                outputFileNames.add(changelogTemplateTargetFileName);
             } else if (changelogTemplate.failIfNotFound) {
                 final String message = String.format("could not find template file: `%s`", changelogTemplateSourceFile);
                 throw new IllegalStateException(message);
             }
         }
+        // Sorting is needed to generate the same manifest between different runs
+        Collections.sort(outputFileNames);
+        return outputFileNames;
+    }
+
+    private static List<ChangelogEntry.Summary> readChangelogEntrySummaries(
+            final XmlValidator validator, final Path releaseDirectory) {
+        return ChangelogEntryBundle.readAllEntrySummaries(releaseDirectory, validator);
+    }
+
+    /**
+     * Creates the data of a release passed to index templates.
+     * <p>
+     * Changelog entry counts per type and author are computed from the provided summaries only if a template accesses them.
+     * </p>
+     */
+    static Map<String, Object> indexReleaseData(
+            final ChangelogRelease release,
+            final int changelogEntryCount,
+            final Supplier<List<ChangelogEntry.Summary>> changelogEntrySummariesSupplier) {
+        final ChangelogEntryCounts changelogEntryCounts = new ChangelogEntryCounts(changelogEntrySummariesSupplier);
+        final Map<String, Object> releaseData = new LinkedHashMap<>();
+        releaseData.put("version", release.version);
+        releaseData.put("date", release.date);
+        releaseData.put("changelogEntryCount", changelogEntryCount);
+        releaseData.put(
+                "changelogEntryCountByType", new LazyMap<>(() -> changelogEntryCounts.load().countByType));
+        releaseData.put(
+                "changelogEntryCountByAuthor", new LazyMap<>(() -> changelogEntryCounts.load().countByAuthor));
+        return releaseData;
+    }
+
+    private static final class ChangelogEntryCounts {
+
+        private final Supplier<List<ChangelogEntry.Summary>> summariesSupplier;
+
+        // A sorted map is needed to generate the same output between different runs
+        private final Map<ChangelogEntry.Type, Integer> countByType = new TreeMap<>();
+
+        // A sorted map is needed to generate the same output between different runs
+        private final Map<String, Integer> countByAuthor = new TreeMap<>();
+
+        private boolean loaded;
+
+        private ChangelogEntryCounts(final Supplier<List<ChangelogEntry.Summary>> summariesSupplier) {
+            this.summariesSupplier = summariesSupplier;
+        }
+
+        private ChangelogEntryCounts load() {
+            if (!loaded) {
+                for (final ChangelogEntry.Summary summary : summariesSupplier.get()) {
+                    countByType.merge(summary.type, 1, Integer::sum);
+                    summary.authors.forEach(author -> {
+                        final String authorKey = author.id != null ? author.id : author.name;
+                        countByAuthor.merge(authorKey, 1, Integer::sum);
+                    });
+                }
+                loaded = true;
+            }
+            return this;
+        }
+
+    }
+
+    /**
+     * Renders the index templates of the changelog directory.
+     *
+     * @param releaseDataList data of releases created using {@link #indexReleaseData(ChangelogRelease, int, Supplier)} in the release order
+     * @param indexDataSupplier supplier of the data created using {@link #indexData(ChangelogIndex)}, which is only invoked if a template accesses it
+     * @return the names of the rendered files, relative to the output directory
+     */
+    static List<String> exportIndex(
+            final ChangelogExportOutput output,
+            final Path changelogDirectory,
+            final Set<ChangelogExporterTemplate> indexTemplates,
+            final List<Map<String, Object>> releaseDataList,
+            final Supplier<Map<String, Object>> indexDataSupplier) {
+        final Map<String, Object> indexTemplateData = new LinkedHashMap<>();
+        indexTemplateData.put("releases", reversed(releaseDataList));
+        indexTemplateData.put("index", new LazyMap<>(indexDataSupplier));
+        return exportIndexTemplates(output, changelogDirectory, indexTemplates, indexTemplateData);
+    }
+
+    /**
+     * Exports the aggregate index templates of the changelog directory.
+     * <p>
+     * Templates are rendered with the releases of the changelog directory, and the name and the releases of each module.
+     * </p>
+     *
+     * @param releaseDataLists data of releases of the changelog directory followed by the ones of the modules in module name order
+     */
+    private static void exportAggregateIndex(
+            final ChangelogExportOutput output,
+            final ChangelogExporterArgs args,
+            final List<List<Map<String, Object>>> releaseDataLists) {
+        final List<Map<String, Object>> moduleDataList = new ArrayList<>(args.moduleChangelogDirectories.size());
+        int moduleIndex = 1;
+        for (final String moduleName : args.moduleChangelogDirectories.keySet()) {
+            final Map<String, Object> moduleData = new LinkedHashMap<>();
+            moduleData.put("name", moduleName);
+            moduleData.put("releases", reversed(releaseDataLists.get(moduleIndex++)));
+            moduleDataList.add(moduleData);
+        }
+        final Map<String, Object> aggregateIndexTemplateData = new LinkedHashMap<>();
+        aggregateIndexTemplateData.put("releases", reversed(releaseDataLists.get(0)));
+        aggregateIndexTemplateData.put("modules", moduleDataList);
+        exportIndexTemplates(output, args.changelogDirectory, args.aggregateIndexTemplates, aggregateIndexTemplateData);
     }
 
-    private static ChangelogRelease upcomingRelease(final int versionMajor) {
-        final String releaseVersion = versionMajor + ".x.x";
-        return new ChangelogRelease(releaseVersion, null);
+    private static List<Map<String, Object>> reversed(final List<Map<String, Object>> releaseDataList) {
+        final List<Map<String, Object>> reversedReleaseDataList = new ArrayList<>(releaseDataList);
+        Collections.reverse(reversedReleaseDataList);
+        return reversedReleaseDataList;
     }
 
-    private static void exportIndex(
-            final Path outputDirectory,
+    private static List<String> exportIndexTemplates(
+            final ChangelogExportOutput output,
             final Path changelogDirectory,
             final Set<ChangelogExporterTemplate> indexTemplates,
-            final List<ChangelogRelease> changelogReleases,
-            final List<Integer> changelogEntryCounts) {
-        final Object indexTemplateData = Collections.singletonMap(
-                "releases", IntStream
-                        .range(0, changelogReleases.size())
-                        .boxed()
-                        .sorted(Comparator.reverseOrder())
-                        .map(releaseIndex -> {
-                            final ChangelogRelease changelogRelease = changelogReleases.get(releaseIndex);
-                            final int changelogEntryCount = changelogEntryCounts.get(releaseIndex);
-                            Map<String, Object> changelogReleaseData = new LinkedHashMap<>();
-                            changelogReleaseData.put("version", changelogRelease.version);
-                            changelogReleaseData.put("date", changelogRelease.date);
-                            changelogReleaseData.put("changelogEntryCount", changelogEntryCount);
-                            return (Object) changelogReleaseData;
-                        })
-                        .collect(Collectors.toList()));
-        indexTemplates.forEach(indexTemplate -> {
+            final Object indexTemplateData) {
+        final List<String> outputFileNames = new ArrayList<>(indexTemplates.size());
+        for (final ChangelogExporterTemplate indexTemplate : indexTemplates) {
             final Path indexTemplateSourceFile = changelogDirectory.resolve(indexTemplate.sourceFileName);
             if (Files.exists(indexTemplateSourceFile)) {
                 final String indexTemplateSourceName = templateName(changelogDirectory, indexTemplateSourceFile);
-                final Path indexTemplateTargetFile = outputDirectory.resolve(indexTemplate.targetFileName);
-                FreeMarkerUtils.render(
-                        changelogDirectory,
-                        indexTemplateSourceName,
-                        indexTemplateData,
-                        indexTemplateTargetFile);
+                output.render(changelogDirectory, indexTemplateSourceName, indexTemplateData, indexTemplate.targetFileName);
+                outputFileNames.add(indexTemplate.targetFileName);
             } else if (indexTemplate.failIfNotFound) {
                 final String message = String.format("could not find template file: `%s`", indexTemplateSourceFile);
                 throw new IllegalStateException(message);
             }
-        });
+        }
+        Collections.sort(outputFileNames);
+        return outputFileNames;
+    }
+
+    /**
+     * Creates a supplier of the {@link #indexData(ChangelogIndex) index data} of the given release directories.
+     * <p>
+     * The index is built once, on first access, and shared by all renderings, since it covers all changelog entries.
+     * </p>
+     *
+     * @param entriesReader reads the changelog entries of a release directory sorted by their file names
+     */
+    static Supplier<Map<String, Object>> indexDataSupplier(
+            final List<ChangelogReleaseCatalog.ReleaseDirectory> releaseDirectories,
+            final Function<Path, Collection<ChangelogEntry>> entriesReader,
+            final ChangelogReport report) {
+        return memoizing(() -> report.measure("index", () -> {
+            final List<ChangelogRelease> releases = new ArrayList<>(releaseDirectories.size());
+            final List<Collection<ChangelogEntry>> entryLists = new ArrayList<>(releaseDirectories.size());
+            for (final ChangelogReleaseCatalog.ReleaseDirectory releaseDirectory : releaseDirectories) {
+                releases.add(releaseDirectory.release);
+                entryLists.add(entriesReader.apply(releaseDirectory.path));
+            }
+            return indexData(ChangelogIndex.of(releases, entryLists));
+        }));
+    }
+
+    /**
+     * Creates the data of the index passed to templates as {@code index}.
+     * <p>
+     * Lookup maps are keyed by release version, issue ID, author ID and name, and type name, and contain lists of {@link ChangelogIndex.IndexedEntry}.
+     * </p>
+     */
+    static Map<String, Object> indexData(final ChangelogIndex index) {
+
+        // A linked map of sorted keys is needed to generate the same output between different runs
+        final Map<String, Object> entriesByReleaseVersion = new LinkedHashMap<>();
+        index.releases().forEach(release ->
+                entriesByReleaseVersion.put(release.version, index.findEntriesByReleaseVersion(release.version)));
+        final Map<String, Object> entriesByIssueId = new LinkedHashMap<>();
+        final Map<String, Object> releasesByIssueId = new LinkedHashMap<>();
+        for (final String issueId : index.issueIds()) {
+            entriesByIssueId.put(issueId, index.findEntriesByIssueId(issueId));
+            releasesByIssueId.put(issueId, index.findReleasesByIssueId(issueId));
+        }
+        final Map<String, Object> entriesByAuthor = new LinkedHashMap<>();
+        for (final String author : index.authorIdsAndNames()) {
+            entriesByAuthor.put(author, index.findEntriesByAuthor(author));
+        }
+        final Map<String, Object> entriesByType = new LinkedHashMap<>();
+        for (final ChangelogEntry.Type type : ChangelogEntry.Type.values()) {
+            final List<ChangelogIndex.IndexedEntry> typeEntries = index.findEntriesByType(type);
+            if (!typeEntries.isEmpty()) {
+                entriesByType.put(type.name(), typeEntries);
+            }
+        }
+
+        // Assemble the data
+        final Map<String, Object> indexData = new LinkedHashMap<>();
+        indexData.put("entryCount", index.entryCount());
+        indexData.put("entriesByReleaseVersion", entriesByReleaseVersion);
+        indexData.put("entriesByIssueId", entriesByIssueId);
+        indexData.put("releasesByIssueId", releasesByIssueId);
+        indexData.put("entriesByAuthor", entriesByAuthor);
+        indexData.put("entriesByType", entriesByType);
+        return indexData;
+
+    }
+
+    /**
+     * @return a thread-safe supplier invoking the given one only once
+     */
+    private static <V> Supplier<V> memoizing(final Supplier<V> supplier) {
+        return new Supplier<V>() {
+
+            @Nullable
+            private V value;
+
+            @Override
+            public synchronized V get() {
+                if (value == null) {
+                    value = supplier.get();
+                }
+                return value;
+            }
+
+        };
     }
 
     /**
      * Creates a FreeMarker template name from the given path, assuming that the provided changelog directory is the template folder.
      * <p>
-     * {@link freemarker.cache.FileTemplateLoader} works against a template folder, hence the path relativization required.
+     * {@link PathTemplateLoader} works against a template folder, hence the path relativization required.
+     * Template names are separated by {@code /}, regardless of the file system.
      * </p>
      */
     private static String templateName(final Path changelogDirectory, final Path path) {
         final Path relativePath = changelogDirectory.relativize(path);
-        return File.pathSeparatorChar == '/'
+        final String separator = relativePath.getFileSystem().getSeparator();
+        return "/".equals(separator)
                 ? relativePath.toString()
-                : relativePath.toString().replace('\\', '/');
+                : relativePath.toString().replace(separator, "/");
     }
 
 }
@@ -17,11 +17,26 @@
 package org.apache.logging.log4j.changelog.exporter;
 
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogSnapshot;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 
 public final class ChangelogExporterArgs {
 
+    /**
+     * Directory containing release folders, or a ZIP archive containing such a directory at its root.
+     */
     final Path changelogDirectory;
 
     final Set<ChangelogExporterTemplate> indexTemplates;
@@ -30,15 +45,303 @@ public final class ChangelogExporterArgs {
 
     final Path outputDirectory;
 
+    /**
+     * Number of releases to export concurrently, ignored if an {@link #executorService} is provided.
+     */
+    final int parallelism;
+
+    /**
+     * Executor to export releases with; if not provided, one with the given {@link #parallelism} will be created and shut down per export.
+     */
+    @Nullable
+    final ExecutorService executorService;
+
+    /**
+     * Indicates if the export manifest in the output directory should be used to skip exporting releases whose inputs haven't changed since the last export.
+     */
+    final boolean incremental;
+
+    /**
+     * Indicates if all releases should be exported even if they are up-to-date; the export manifest is still updated if {@link #incremental} is set.
+     */
+    final boolean force;
+
+    /**
+     * File to persist the {@link ChangelogSnapshot} of parsed release directories to; if not provided, all release directories will be parsed from their XML files.
+     */
+    @Nullable
+    final Path snapshotFile;
+
+    /**
+     * Indicates if templates should be rendered to memory first, and files should only be written if their contents have changed, which preserves the modification times of unchanged files.
+     */
+    final boolean writeIfChanged;
+
+    /**
+     * Validator of the XML files read; its cache, if there is any, is saved at the end of the export.
+     */
+    final XmlValidator validator;
+
+    /**
+     * Changelog directories of modules to export along with the {@link #changelogDirectory}, keyed by the module name.
+     * <p>
+     * Each module is exported using the same templates to the sub-directory named after the module in the {@link #outputDirectory}.
+     * </p>
+     */
+    final SortedMap<String, Path> moduleChangelogDirectories;
+
+    /**
+     * Templates in the {@link #changelogDirectory} that will be rendered with the release information of all modules, e.g., to generate a combined index page.
+     */
+    final Set<ChangelogExporterTemplate> aggregateIndexTemplates;
+
+    /**
+     * Indicates if the full-text search index of changelog entries should be exported to the {@link ChangelogSearchIndex#DIRECTORY_NAME search} directory in the {@link #outputDirectory}.
+     */
+    final boolean searchIndex;
+
     public ChangelogExporterArgs(
             final Path changelogDirectory,
             final Set<ChangelogExporterTemplate> indexTemplates,
             final Set<ChangelogExporterTemplate> changelogTemplates,
             final Path outputDirectory) {
-        this.changelogDirectory = Objects.requireNonNull(changelogDirectory, "changelogDirectory");
-        this.indexTemplates = Objects.requireNonNull(indexTemplates, "indexTemplates");
-        this.changelogTemplates = Objects.requireNonNull(changelogTemplates, "changelogTemplates");
-        this.outputDirectory = Objects.requireNonNull(outputDirectory, "outputDirectory");
+        this(builder(changelogDirectory, indexTemplates, changelogTemplates, outputDirectory));
+    }
+
+    private ChangelogExporterArgs(final Builder builder) {
+        this.changelogDirectory = Objects.requireNonNull(builder.changelogDirectory, "changelogDirectory");
+        this.indexTemplates = Objects.requireNonNull(builder.indexTemplates, "indexTemplates");
+        this.changelogTemplates = Objects.requireNonNull(builder.changelogTemplates, "changelogTemplates");
+        this.outputDirectory = Objects.requireNonNull(builder.outputDirectory, "outputDirectory");
+        this.parallelism = ExecutorUtils.requireValidParallelism(builder.parallelism);
+        this.executorService = builder.executorService;
+        this.incremental = builder.incremental;
+        this.force = builder.force;
+        this.snapshotFile = builder.snapshotFile;
+        this.writeIfChanged = builder.writeIfChanged;
+        this.validator = Objects.requireNonNull(builder.validator, "validator");
+        this.moduleChangelogDirectories = requireValidModuleChangelogDirectories(builder.moduleChangelogDirectories);
+        this.aggregateIndexTemplates =
+                Objects.requireNonNull(builder.aggregateIndexTemplates, "aggregateIndexTemplates");
+        this.searchIndex = builder.searchIndex;
+    }
+
+    /**
+     * Creates a builder of arguments exporting the given changelog directory.
+     * <p>
+     * Optional arguments default to a non-incremental export without a snapshot, using {@link ExecutorUtils#defaultParallelism() the default parallelism}, and without any validation, modules, or search index.
+     * </p>
+     */
+    public static Builder builder(
+            final Path changelogDirectory,
+            final Set<ChangelogExporterTemplate> indexTemplates,
+            final Set<ChangelogExporterTemplate> changelogTemplates,
+            final Path outputDirectory) {
+        return new Builder(changelogDirectory, indexTemplates, changelogTemplates, outputDirectory);
+    }
+
+    /**
+     * Creates a builder initialized with these arguments.
+     *
+     * @return a builder initialized with these arguments
+     */
+    Builder toBuilder() {
+        return builder(changelogDirectory, indexTemplates, changelogTemplates, outputDirectory)
+                .parallelism(parallelism)
+                .executorService(executorService)
+                .incremental(incremental)
+                .force(force)
+                .snapshotFile(snapshotFile)
+                .writeIfChanged(writeIfChanged)
+                .validator(validator)
+                .moduleChangelogDirectories(moduleChangelogDirectories)
+                .aggregateIndexTemplates(aggregateIndexTemplates)
+                .searchIndex(searchIndex);
+    }
+
+    /**
+     * Builder of {@link ChangelogExporterArgs}; see the fields of the latter for the description of each argument.
+     */
+    public static final class Builder {
+
+        private Path changelogDirectory;
+
+        private Set<ChangelogExporterTemplate> indexTemplates;
+
+        private Set<ChangelogExporterTemplate> changelogTemplates;
+
+        private Path outputDirectory;
+
+        private int parallelism = ExecutorUtils.defaultParallelism();
+
+        @Nullable
+        private ExecutorService executorService;
+
+        private boolean incremental;
+
+        private boolean force;
+
+        @Nullable
+        private Path snapshotFile;
+
+        private boolean writeIfChanged;
+
+        private XmlValidator validator = XmlValidator.off();
+
+        private Map<String, Path> moduleChangelogDirectories = Collections.emptyMap();
+
+        private Set<ChangelogExporterTemplate> aggregateIndexTemplates = Collections.emptySet();
+
+        private boolean searchIndex;
+
+        private Builder(
+                final Path changelogDirectory,
+                final Set<ChangelogExporterTemplate> indexTemplates,
+                final Set<ChangelogExporterTemplate> changelogTemplates,
+                final Path outputDirectory) {
+            this.changelogDirectory = changelogDirectory;
+            this.indexTemplates = copyTemplates(indexTemplates, "indexTemplates");
+            this.changelogTemplates = copyTemplates(changelogTemplates, "changelogTemplates");
+            this.outputDirectory = outputDirectory;
+        }
+
+        /**
+         * Copies the given templates, so that later modifications by the caller don't affect the arguments.
+         */
+        private static Set<ChangelogExporterTemplate> copyTemplates(
+                final Set<ChangelogExporterTemplate> templates, final String name) {
+            return new LinkedHashSet<>(Objects.requireNonNull(templates, name));
+        }
+
+        public Builder changelogDirectory(final Path changelogDirectory) {
+            this.changelogDirectory = changelogDirectory;
+            return this;
+        }
+
+        public Builder indexTemplates(final Set<ChangelogExporterTemplate> indexTemplates) {
+            this.indexTemplates = copyTemplates(indexTemplates, "indexTemplates");
+            return this;
+        }
+
+        public Builder changelogTemplates(final Set<ChangelogExporterTemplate> changelogTemplates) {
+            this.changelogTemplates = copyTemplates(changelogTemplates, "changelogTemplates");
+            return this;
+        }
+
+        public Builder outputDirectory(final Path outputDirectory) {
+            this.outputDirectory = outputDirectory;
+            return this;
+        }
+
+        public Builder parallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder executorService(@Nullable final ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        public Builder incremental(final boolean incremental) {
+            this.incremental = incremental;
+            return this;
+        }
+
+        public Builder force(final boolean force) {
+            this.force = force;
+            return this;
+        }
+
+        public Builder snapshotFile(@Nullable final Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        public Builder writeIfChanged(final boolean writeIfChanged) {
+            this.writeIfChanged = writeIfChanged;
+            return this;
+        }
+
+        public Builder validator(final XmlValidator validator) {
+            this.validator = validator;
+            return this;
+        }
+
+        public Builder moduleChangelogDirectories(final Map<String, Path> moduleChangelogDirectories) {
+            Objects.requireNonNull(moduleChangelogDirectories, "moduleChangelogDirectories");
+            this.moduleChangelogDirectories = new LinkedHashMap<>(moduleChangelogDirectories);
+            return this;
+        }
+
+        public Builder aggregateIndexTemplates(final Set<ChangelogExporterTemplate> aggregateIndexTemplates) {
+            this.aggregateIndexTemplates = copyTemplates(aggregateIndexTemplates, "aggregateIndexTemplates");
+            return this;
+        }
+
+        public Builder searchIndex(final boolean searchIndex) {
+            this.searchIndex = searchIndex;
+            return this;
+        }
+
+        public ChangelogExporterArgs build() {
+            return new ChangelogExporterArgs(this);
+        }
+
+    }
+
+    private static SortedMap<String, Path> requireValidModuleChangelogDirectories(
+            final Map<String, Path> moduleChangelogDirectories) {
+        Objects.requireNonNull(moduleChangelogDirectories, "moduleChangelogDirectories");
+        moduleChangelogDirectories.forEach((moduleName, moduleChangelogDirectory) -> {
+            if (moduleName.isEmpty()
+                    || moduleName.startsWith(".")
+                    || moduleName.contains("/")
+                    || moduleName.contains("\\")) {
+                final String message = String.format(
+                        "was expecting a non-empty module name without a leading dot or path separators, found: `%s`",
+                        moduleName);
+                throw new IllegalArgumentException(message);
+            }
+            Objects.requireNonNull(moduleChangelogDirectory, "moduleChangelogDirectory");
+        });
+        // A sorted map is needed to generate the same output between different runs
+        return Collections.unmodifiableSortedMap(new TreeMap<>(moduleChangelogDirectories));
+    }
+
+    /**
+     * Creates a copy of these arguments reading from the given changelog directory.
+     *
+     * @return a copy of these arguments reading from the given changelog directory, e.g., the root of a ZIP archive
+     */
+    ChangelogExporterArgs withChangelogDirectory(final Path changelogDirectory) {
+        return toBuilder().changelogDirectory(changelogDirectory).build();
+    }
+
+    /**
+     * Creates a copy of these arguments exporting the given module changelog directory to its own output sub-directory, without any modules of its own.
+     * <p>
+     * If a snapshot file is provided, the snapshot of the module is stored in its output sub-directory using the same file name.
+     * </p>
+     */
+    ChangelogExporterArgs forModule(final String moduleName) {
+        final Path moduleChangelogDirectory = moduleChangelogDirectories.get(moduleName);
+        if (moduleChangelogDirectory == null) {
+            final String message = String.format("unknown module: `%s`", moduleName);
+            throw new IllegalArgumentException(message);
+        }
+        final Path moduleOutputDirectory = outputDirectory.resolve(moduleName);
+        @Nullable
+        final Path moduleSnapshotFile = snapshotFile != null
+                ? moduleOutputDirectory.resolve(String.valueOf(snapshotFile.getFileName()))
+                : null;
+        return toBuilder()
+                .changelogDirectory(moduleChangelogDirectory)
+                .outputDirectory(moduleOutputDirectory)
+                .snapshotFile(moduleSnapshotFile)
+                .moduleChangelogDirectories(Collections.emptyMap())
+                .aggregateIndexTemplates(Collections.emptySet())
+                .build();
     }
 
 }
@@ -0,0 +1,485 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.JsonUtils;
+
+/**
+ * Builds the full-text search index of the changelog entries of a changelog directory.
+ * <p>
+ * The index is an inverted index mapping tokens to the IDs of the changelog entries (i.e., documents) containing them.
+ * Tokens are the lower-cased runs of letters and digits in descriptions, issue IDs, and author IDs and names.
+ * Issue and author IDs are additionally indexed as a whole, e.g., {@code log4j2-3333}.
+ * Documents are numbered in the release order (released ones sorted by date followed by unreleased ones), and then by their file names.
+ * </p>
+ * <p>
+ * The index is written to the {@value #DIRECTORY_NAME} directory in the output directory as JSON files, i.e., shards, small enough to be loaded by browsers on demand:
+ * </p>
+ * <ul>
+ * <li>{@code index.json} lists the document count and the shards, along with the first and the last token of each postings shard</li>
+ * <li>{@code documents-<n>.json} contains an array of documents, i.e., the release version, type, issue IDs, author IDs or names, and the description of changelog entries</li>
+ * <li>{@code postings-<n>.json} contains an object mapping tokens in lexicographical order to the ascending IDs of documents containing them</li>
+ * </ul>
+ * <p>
+ * Postings of each release are persisted to a cache file in the output directory along with the fingerprint of the release inputs.
+ * Incremental exports reuse them for releases whose inputs haven't changed, instead of reading and tokenizing their changelog entries again.
+ * </p>
+ */
+final class ChangelogSearchIndex {
+
+    static final String DIRECTORY_NAME = "search";
+
+    /**
+     * The number of characters a shard is allowed to exceed before it is completed.
+     */
+    static final int SHARD_SIZE = 64 * 1024;
+
+    private static final String CACHE_FILE_NAME = ".changelog-search-cache";
+
+    private static final String CACHE_HEADER = "# log4j-changelog search cache v1";
+
+    private final Map<String, ReleasePostings> releasePostingsByReleaseDirectoryName;
+
+    private ChangelogSearchIndex(final Map<String, ReleasePostings> releasePostingsByReleaseDirectoryName) {
+        this.releasePostingsByReleaseDirectoryName = releasePostingsByReleaseDirectoryName;
+    }
+
+    /**
+     * The documents and postings of a release, where document IDs are relative to the release.
+     */
+    static final class ReleasePostings {
+
+        /**
+         * The input fingerprint, which is only available for incremental exports.
+         */
+        @Nullable
+        final String fingerprint;
+
+        /**
+         * Documents encoded in JSON.
+         */
+        final List<String> documents;
+
+        /**
+         * Ascending document IDs keyed by tokens.
+         */
+        final SortedMap<String, List<Integer>> documentIdsByToken;
+
+        private ReleasePostings(
+                @Nullable final String fingerprint,
+                final List<String> documents,
+                final SortedMap<String, List<Integer>> documentIdsByToken) {
+            this.fingerprint = fingerprint;
+            this.documents = documents;
+            this.documentIdsByToken = documentIdsByToken;
+        }
+
+        /**
+         * Tokenizes the given changelog entries of a release.
+         *
+         * @param entries changelog entries sorted by their file names
+         */
+        static ReleasePostings of(
+                @Nullable final String fingerprint,
+                final String releaseVersion,
+                final List<ChangelogEntry> entries) {
+            final List<String> documents = new ArrayList<>(entries.size());
+            final SortedMap<String, List<Integer>> documentIdsByToken = new TreeMap<>();
+            for (int documentId = 0; documentId < entries.size(); documentId++) {
+                final ChangelogEntry entry = entries.get(documentId);
+                documents.add(encodeDocument(releaseVersion, entry));
+                for (final String token : tokenize(entry)) {
+                    documentIdsByToken
+                            .computeIfAbsent(token, ignored -> new ArrayList<>())
+                            .add(documentId);
+                }
+            }
+            return new ReleasePostings(fingerprint, documents, documentIdsByToken);
+        }
+
+    }
+
+    private static String encodeDocument(final String releaseVersion, final ChangelogEntry entry) {
+        final StringBuilder documentBuilder = new StringBuilder("{\"version\":");
+        JsonUtils.appendString(documentBuilder, releaseVersion);
+        documentBuilder.append(",\"type\":");
+        JsonUtils.appendString(documentBuilder, entry.type.toString().toLowerCase(Locale.US));
+        documentBuilder.append(",\"issues\":");
+        appendStrings(documentBuilder, entry.issues.stream().map(issue -> issue.id).collect(Collectors.toList()));
+        documentBuilder.append(",\"authors\":");
+        appendStrings(
+                documentBuilder,
+                entry.authors
+                        .stream()
+                        .map(author -> author.id != null ? author.id : author.name)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+        documentBuilder.append(",\"description\":");
+        JsonUtils.appendString(documentBuilder, entry.description.text);
+        return documentBuilder.append('}').toString();
+    }
+
+    private static void appendStrings(final StringBuilder builder, final List<String> strings) {
+        builder.append('[');
+        for (int stringIndex = 0; stringIndex < strings.size(); stringIndex++) {
+            if (stringIndex > 0) {
+                builder.append(',');
+            }
+            JsonUtils.appendString(builder, strings.get(stringIndex));
+        }
+        builder.append(']');
+    }
+
+    /**
+     * Splits the given changelog entry into tokens.
+     *
+     * @return the distinct tokens of the given changelog entry
+     */
+    static Set<String> tokenize(final ChangelogEntry entry) {
+        final Set<String> tokens = new HashSet<>();
+        addWords(tokens, entry.description.text);
+        entry.issues.forEach(issue -> addIdAndWords(tokens, issue.id));
+        entry.authors.forEach(author -> {
+            addIdAndWords(tokens, author.id);
+            addWords(tokens, author.name);
+        });
+        return tokens;
+    }
+
+    private static void addIdAndWords(final Set<String> tokens, @Nullable final String id) {
+        if (id != null && !id.trim().isEmpty()) {
+            tokens.add(id.trim().toLowerCase(Locale.ROOT));
+            addWords(tokens, id);
+        }
+    }
+
+    private static void addWords(final Set<String> tokens, @Nullable final String text) {
+        if (text == null) {
+            return;
+        }
+        int wordStartIndex = -1;
+        for (int charIndex = 0; charIndex <= text.length(); charIndex++) {
+            final boolean wordChar = charIndex < text.length() && Character.isLetterOrDigit(text.charAt(charIndex));
+            if (wordChar && wordStartIndex < 0) {
+                wordStartIndex = charIndex;
+            } else if (!wordChar && wordStartIndex >= 0) {
+                tokens.add(text.substring(wordStartIndex, charIndex).toLowerCase(Locale.ROOT));
+                wordStartIndex = -1;
+            }
+        }
+    }
+
+    /**
+     * Finds the postings of the given release directory, if they are up-to-date.
+     *
+     * @return the postings of the given release directory, if its fingerprint matches; {@code null}, otherwise
+     */
+    @Nullable
+    ReleasePostings findUpToDateReleasePostings(final Path releaseDirectory, @Nullable final String fingerprint) {
+        if (fingerprint == null) {
+            return null;
+        }
+        final String releaseDirectoryName = String.valueOf(releaseDirectory.getFileName());
+        @Nullable
+        final ReleasePostings releasePostings = releasePostingsByReleaseDirectoryName.get(releaseDirectoryName);
+        return releasePostings != null && fingerprint.equals(releasePostings.fingerprint) ? releasePostings : null;
+    }
+
+    static ChangelogSearchIndex empty() {
+        return new ChangelogSearchIndex(Collections.emptyMap());
+    }
+
+    static Path cacheFile(final Path outputDirectory) {
+        return outputDirectory.resolve(CACHE_FILE_NAME);
+    }
+
+    /**
+     * Reads the postings cache from the given output directory.
+     * <p>
+     * An empty cache is returned if the file doesn't exist or is malformed; the worst outcome of this is tokenizing all releases.
+     * </p>
+     */
+    static ChangelogSearchIndex readCacheFromOutputDirectory(final Path outputDirectory) {
+        final Path file = cacheFile(outputDirectory);
+        if (!Files.exists(file)) {
+            return empty();
+        }
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(file, CharsetUtils.CHARSET);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading the search index cache: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+        if (lines.isEmpty() || !CACHE_HEADER.equals(lines.get(0))) {
+            System.out.format("ignoring the search index cache with unknown format: `%s`%n", file);
+            return empty();
+        }
+        final Map<String, ReleasePostings> releasePostingsByReleaseDirectoryName = new HashMap<>();
+        int lineIndex = 1;
+        try {
+            while (lineIndex < lines.size()) {
+
+                // Read the release line
+                final String[] releaseColumns = lines.get(lineIndex++).split("\t", -1);
+                if (releaseColumns.length != 5 || !"release".equals(releaseColumns[0])) {
+                    System.out.format("ignoring the malformed search index cache: `%s`%n", file);
+                    return empty();
+                }
+                final String releaseDirectoryName = releaseColumns[1];
+                final String fingerprint = releaseColumns[2];
+                final int documentCount = Integer.parseInt(releaseColumns[3]);
+                final int tokenCount = Integer.parseInt(releaseColumns[4]);
+
+                // Read documents
+                final List<String> documents = new ArrayList<>(documentCount);
+                for (int documentIndex = 0; documentIndex < documentCount; documentIndex++) {
+                    documents.add(lines.get(lineIndex++));
+                }
+
+                // Read postings
+                final SortedMap<String, List<Integer>> documentIdsByToken = new TreeMap<>();
+                for (int tokenIndex = 0; tokenIndex < tokenCount; tokenIndex++) {
+                    final String[] tokenColumns = lines.get(lineIndex++).split("\t", -1);
+                    final List<Integer> documentIds = new ArrayList<>(tokenColumns.length - 1);
+                    for (int columnIndex = 1; columnIndex < tokenColumns.length; columnIndex++) {
+                        documentIds.add(Integer.parseInt(tokenColumns[columnIndex]));
+                    }
+                    documentIdsByToken.put(tokenColumns[0], documentIds);
+                }
+
+                final ReleasePostings releasePostings = new ReleasePostings(fingerprint, documents, documentIdsByToken);
+                releasePostingsByReleaseDirectoryName.put(releaseDirectoryName, releasePostings);
+
+            }
+        } catch (final NumberFormatException | IndexOutOfBoundsException ignored) {
+            System.out.format("ignoring the malformed search index cache: `%s`%n", file);
+            return empty();
+        }
+        return new ChangelogSearchIndex(releasePostingsByReleaseDirectoryName);
+    }
+
+    /**
+     * Writes the postings of releases to the cache file in the given output directory.
+     * <p>
+     * Each release is written as a tab-separated line of the release directory name, the fingerprint, the document count, and the token count; followed by a line per document, and a line per token listing the IDs of the documents containing it.
+     * Documents are encoded in JSON, hence they don't contain any line breaks.
+     * </p>
+     */
+    static void writeCacheToOutputDirectory(
+            final Path outputDirectory,
+            final Map<String, ReleasePostings> releasePostingsByReleaseDirectoryName) {
+        final Path file = cacheFile(outputDirectory);
+        final List<String> lines = new ArrayList<>();
+        lines.add(CACHE_HEADER);
+        // Sorting is needed to generate the same output between different runs
+        new TreeMap<>(releasePostingsByReleaseDirectoryName).forEach((releaseDirectoryName, releasePostings) -> {
+            lines.add(String.format(
+                    "release\t%s\t%s\t%d\t%d",
+                    releaseDirectoryName,
+                    releasePostings.fingerprint,
+                    releasePostings.documents.size(),
+                    releasePostings.documentIdsByToken.size()));
+            lines.addAll(releasePostings.documents);
+            releasePostings.documentIdsByToken.forEach((token, documentIds) -> {
+                final StringBuilder lineBuilder = new StringBuilder(token);
+                documentIds.forEach(documentId -> lineBuilder.append('\t').append(documentId));
+                lines.add(lineBuilder.toString());
+            });
+        });
+        try {
+            Files.createDirectories(outputDirectory);
+            Files.write(file, lines, CharsetUtils.CHARSET);
+        } catch (final IOException error) {
+            final String message = String.format("failed writing the search index cache: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    /**
+     * Merges the postings of releases, and writes the shards of the search index to the output directory.
+     * <p>
+     * Shards left behind by an earlier export, which are not part of the index anymore, are deleted.
+     * </p>
+     *
+     * @param releasePostingsList postings of releases in the release order
+     * @param writeIfChanged indicates if files should only be written if their contents have changed
+     */
+    static void writeShards(
+            final Path outputDirectory,
+            final List<ReleasePostings> releasePostingsList,
+            final boolean writeIfChanged,
+            final ChangelogReport report) {
+
+        // Merge documents and postings of releases
+        final List<String> documents = new ArrayList<>();
+        final SortedMap<String, List<Integer>> documentIdsByToken = new TreeMap<>();
+        for (final ReleasePostings releasePostings : releasePostingsList) {
+            final int documentIdOffset = documents.size();
+            documents.addAll(releasePostings.documents);
+            releasePostings.documentIdsByToken.forEach((token, releaseDocumentIds) -> {
+                final List<Integer> documentIds =
+                        documentIdsByToken.computeIfAbsent(token, ignored -> new ArrayList<>());
+                releaseDocumentIds.forEach(releaseDocumentId -> documentIds.add(documentIdOffset + releaseDocumentId));
+            });
+        }
+
+        // Encode shards
+        final Map<String, String> contentByFileName = new LinkedHashMap<>();
+        final StringBuilder indexBuilder = new StringBuilder("{\"documentCount\":")
+                .append(documents.size())
+                .append(",\"tokenCount\":")
+                .append(documentIdsByToken.size())
+                .append(",\"documentShards\":[");
+        encodeDocumentShards(contentByFileName, indexBuilder, documents);
+        indexBuilder.append("],\"postingsShards\":[");
+        encodePostingsShards(contentByFileName, indexBuilder, documentIdsByToken);
+        indexBuilder.append("]}\n");
+        contentByFileName.put("index.json", indexBuilder.toString());
+
+        // Write shards
+        final Path directory = outputDirectory.resolve(DIRECTORY_NAME);
+        contentByFileName.forEach((fileName, content) -> {
+            final Path file = directory.resolve(fileName);
+            final byte[] bytes = content.getBytes(CharsetUtils.CHARSET);
+            final boolean written;
+            if (writeIfChanged) {
+                written = FileUtils.writeIfChanged(file, bytes);
+            } else {
+                FileUtils.writeAtomically(file, bytes);
+                written = true;
+            }
+            if (written) {
+                report.recordFilesWritten(1, bytes.length);
+            }
+        });
+        deleteStaleShards(directory, contentByFileName.keySet());
+        System.out.format(
+                "exported the search index of %d changelog entries in %d files%n",
+                documents.size(),
+                contentByFileName.size());
+
+    }
+
+    private static void encodeDocumentShards(
+            final Map<String, String> contentByFileName,
+            final StringBuilder indexBuilder,
+            final List<String> documents) {
+        int documentIndex = 0;
+        int shardIndex = 0;
+        while (documentIndex < documents.size()) {
+            final int firstDocumentId = documentIndex;
+            final StringBuilder shardBuilder = new StringBuilder("[");
+            while (documentIndex < documents.size() && shardBuilder.length() < SHARD_SIZE) {
+                if (documentIndex > firstDocumentId) {
+                    shardBuilder.append(",\n");
+                }
+                shardBuilder.append(documents.get(documentIndex++));
+            }
+            shardBuilder.append("]\n");
+            final String fileName = String.format("documents-%d.json", shardIndex);
+            contentByFileName.put(fileName, shardBuilder.toString());
+            if (shardIndex++ > 0) {
+                indexBuilder.append(',');
+            }
+            indexBuilder.append("{\"file\":");
+            JsonUtils.appendString(indexBuilder, fileName);
+            indexBuilder
+                    .append(",\"firstDocumentId\":")
+                    .append(firstDocumentId)
+                    .append(",\"documentCount\":")
+                    .append(documentIndex - firstDocumentId)
+                    .append('}');
+        }
+    }
+
+    private static void encodePostingsShards(
+            final Map<String, String> contentByFileName,
+            final StringBuilder indexBuilder,
+            final SortedMap<String, List<Integer>> documentIdsByToken) {
+        final List<String> tokens = new ArrayList<>(documentIdsByToken.keySet());
+        int tokenIndex = 0;
+        int shardIndex = 0;
+        while (tokenIndex < tokens.size()) {
+            final int firstTokenIndex = tokenIndex;
+            final StringBuilder shardBuilder = new StringBuilder("{");
+            while (tokenIndex < tokens.size() && shardBuilder.length() < SHARD_SIZE) {
+                if (tokenIndex > firstTokenIndex) {
+                    shardBuilder.append(",\n");
+                }
+                final String token = tokens.get(tokenIndex++);
+                JsonUtils.appendString(shardBuilder, token);
+                shardBuilder.append(':');
+                appendIntegers(shardBuilder, documentIdsByToken.get(token));
+            }
+            shardBuilder.append("}\n");
+            final String fileName = String.format("postings-%d.json", shardIndex);
+            contentByFileName.put(fileName, shardBuilder.toString());
+            if (shardIndex++ > 0) {
+                indexBuilder.append(',');
+            }
+            indexBuilder.append("{\"file\":");
+            JsonUtils.appendString(indexBuilder, fileName);
+            indexBuilder.append(",\"firstToken\":");
+            JsonUtils.appendString(indexBuilder, tokens.get(firstTokenIndex));
+            indexBuilder.append(",\"lastToken\":");
+            JsonUtils.appendString(indexBuilder, tokens.get(tokenIndex - 1));
+            indexBuilder.append('}');
+        }
+    }
+
+    private static void appendIntegers(final StringBuilder builder, final List<Integer> integers) {
+        builder.append('[');
+        for (int integerIndex = 0; integerIndex < integers.size(); integerIndex++) {
+            if (integerIndex > 0) {
+                builder.append(',');
+            }
+            builder.append(integers.get(integerIndex));
+        }
+        builder.append(']');
+    }
+
+    private static void deleteStaleShards(final Path directory, final Set<String> fileNames) {
+        final List<Path> staleFiles = FileUtils.findAdjacentFiles(directory, false, paths -> paths
+                .filter(path -> {
+                    final String fileName = String.valueOf(path.getFileName());
+                    return fileName.endsWith(".json") && !fileNames.contains(fileName);
+                })
+                .collect(Collectors.toList()));
+        for (final Path staleFile : staleFiles) {
+            try {
+                Files.delete(staleFile);
+            } catch (final IOException error) {
+                final String message = String.format("failed deleting stale search index file: `%s`", staleFile);
+                throw new UncheckedIOException(message, error);
+            }
+        }
+    }
+
+}
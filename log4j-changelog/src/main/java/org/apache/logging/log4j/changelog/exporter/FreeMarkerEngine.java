@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import freemarker.template.*;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.util.CharsetUtils;
+import org.apache.logging.log4j.changelog.util.DigestUtils;
+import org.apache.logging.log4j.changelog.util.FileEvent;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+
+/**
+ * Renders FreeMarker templates of a template directory.
+ * <p>
+ * There is a single engine per template directory in a JVM, and it is thread-safe.
+ * All renderings share the same {@link Configuration}, and hence its introspection and template caches.
+ * Only the engines of the {@value #MAX_ENGINE_COUNT} most recently used template directories are kept, since the JVM can outlive many exports, e.g., in a Maven daemon.
+ * </p>
+ * <p>
+ * Release directories typically carry byte-identical copies of the same templates.
+ * Hence, compiled templates are additionally cached by the content of the template file and its sibling template files, which are the ones it can include using relative paths.
+ * This allows a compiled template to be shared by all release directories containing the same set of templates.
+ * Only the latest content of each template name is kept, and a compiled template is discarded once no template name refers to it anymore.
+ * </p>
+ */
+final class FreeMarkerEngine {
+
+    private static final int MAX_ENGINE_COUNT = 16;
+
+    @SuppressWarnings("serial")
+    private static final Map<Path, FreeMarkerEngine> ENGINE_BY_TEMPLATE_DIRECTORY =
+            Collections.synchronizedMap(new LinkedHashMap<Path, FreeMarkerEngine>(16, 0.75F, true) {
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Path, FreeMarkerEngine> eldestEntry) {
+                    return size() > MAX_ENGINE_COUNT;
+                }
+
+            });
+
+    private final Path templateDirectory;
+
+    private final Configuration configuration;
+
+    /**
+     * The compiled template of the latest content of each template name, which is read without locking.
+     */
+    private final ConcurrentMap<String, CompiledTemplate> compiledTemplateByName = new ConcurrentHashMap<>();
+
+    /**
+     * Compiled templates referred to by {@link #compiledTemplateByName}, which is guarded by the engine.
+     */
+    private final Map<String, CompiledTemplate> compiledTemplateByContentHash = new HashMap<>();
+
+    private FreeMarkerEngine(final Path templateDirectory) {
+        this.templateDirectory = templateDirectory;
+        this.configuration = createConfiguration(templateDirectory);
+    }
+
+    private static final class CompiledTemplate {
+
+        private final String contentHash;
+
+        private final Template template;
+
+        /**
+         * The number of template names referring to this template, which is guarded by the engine.
+         */
+        private int referenceCount;
+
+        private CompiledTemplate(final String contentHash, final Template template) {
+            this.contentHash = contentHash;
+            this.template = template;
+        }
+
+    }
+
+    static FreeMarkerEngine forTemplateDirectory(final Path templateDirectory) {
+        final Path normalizedTemplateDirectory = templateDirectory.toAbsolutePath().normalize();
+        return ENGINE_BY_TEMPLATE_DIRECTORY.computeIfAbsent(normalizedTemplateDirectory, FreeMarkerEngine::new);
+    }
+
+    /**
+     * Discards the engines of template directories in the given file system, e.g., once a ZIP archive is closed.
+     */
+    static void discardEngines(final FileSystem fileSystem) {
+        ENGINE_BY_TEMPLATE_DIRECTORY
+                .keySet()
+                .removeIf(templateDirectory -> fileSystem.equals(templateDirectory.getFileSystem()));
+    }
+
+    private static Configuration createConfiguration(final Path templateDirectory) {
+        final Version configurationVersion = Configuration.VERSION_2_3_29;
+        final Configuration configuration = new Configuration(configurationVersion);
+        configuration.setDefaultEncoding(CharsetUtils.CHARSET_NAME);
+        configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        configuration.setTemplateLoader(new PathTemplateLoader(templateDirectory));
+        // The engine is long-lived, make sure included templates modified in the meantime are reloaded
+        configuration.setTemplateUpdateDelayMilliseconds(0);
+        final DefaultObjectWrapperBuilder objectWrapperBuilder =
+                new DefaultObjectWrapperBuilder(configurationVersion);
+        objectWrapperBuilder.setExposeFields(true);
+        final DefaultObjectWrapper objectWrapper = objectWrapperBuilder.build();
+        configuration.setObjectWrapper(objectWrapper);
+        configuration.setLogTemplateExceptions(false);
+        configuration.setWrapUncheckedExceptions(true);
+        configuration.setFallbackOnNullLoopVariable(false);
+        return configuration;
+    }
+
+    /**
+     * Renders the template to the given file, creating its parent directories, if necessary.
+     */
+    void render(final String templateName, final Object templateData, final Path outputFile) {
+        try {
+            @Nullable
+            final Path outputFileParent = outputFile.getParent();
+            if (outputFileParent != null) {
+                Files.createDirectories(outputFileParent);
+            }
+            final FileEvent event = FileEvent.beginFileWrite(outputFile);
+            try (final BufferedWriter outputFileWriter = Files.newBufferedWriter(
+                    outputFile,
+                    CharsetUtils.CHARSET,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                render(templateName, templateData, outputFileWriter);
+            }
+            event.endWithFileSize();
+        } catch (final IOException error) {
+            final String message = String.format(
+                    "failed rendering template `%s` in directory `%s` to file `%s`",
+                    templateName,
+                    templateDirectory,
+                    outputFile);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    @SuppressFBWarnings("TEMPLATE_INJECTION_FREEMARKER")
+    void render(final String templateName, final Object templateData, final Writer writer) {
+        final FileEvent event = FileEvent.beginTemplateRender(templateDirectory.resolve(templateName));
+        try {
+            final Template template = getTemplate(templateName);
+            final CharCountingWriter charCountingWriter = new CharCountingWriter(writer);
+            template.process(templateData, charCountingWriter);
+            event.end(charCountingWriter.charCount);
+        } catch (final Exception error) {
+            final String message = String.format(
+                    "failed rendering template `%s` in directory `%s`",
+                    templateName,
+                    templateDirectory);
+            throw new RuntimeException(message, error);
+        }
+    }
+
+    // Template content hashes are public
+    @SuppressFBWarnings("UNSAFE_HASH_EQUALS")
+    private Template getTemplate(final String templateName) throws IOException {
+
+        // Read the template
+        final Path templateFile = templateDirectory.resolve(templateName);
+        final byte[] templateBytes = Files.readAllBytes(templateFile);
+
+        // Determine the content hash.
+        // The compiled template resolves relative includes against its own name.
+        // Hence, sibling template files are hashed too, to share the compiled template only among directories where relative includes resolve to identical contents.
+        final MessageDigest digest = DigestUtils.createDigest();
+        DigestUtils.updateDigest(digest, String.valueOf(templateFile.getFileName()));
+        DigestUtils.updateDigest(digest, templateBytes.length);
+        digest.update(templateBytes);
+        @Nullable
+        final Path templateParentDirectory = templateFile.getParent();
+        if (templateParentDirectory != null) {
+            siblingTemplateFiles(templateParentDirectory, templateFile)
+                    .forEach(siblingTemplateFile -> DigestUtils.updateDigest(digest, siblingTemplateFile));
+        }
+        final String contentHash = DigestUtils.toHex(digest.digest());
+
+        // Use the compiled template of the name, unless its content has changed
+        @Nullable
+        final CompiledTemplate namedTemplate = compiledTemplateByName.get(templateName);
+        if (namedTemplate != null && namedTemplate.contentHash.equals(contentHash)) {
+            return namedTemplate.template;
+        }
+
+        // Compile the template, unless it is already compiled for another name
+        @Nullable
+        final Template sharedTemplate = findCompiledTemplate(contentHash);
+        if (sharedTemplate != null) {
+            return registerCompiledTemplate(templateName, contentHash, sharedTemplate);
+        }
+        final String templateContent = new String(templateBytes, CharsetUtils.CHARSET);
+        final Template template =
+                new Template(templateName, templateName, new StringReader(templateContent), configuration);
+        return registerCompiledTemplate(templateName, contentHash, template);
+
+    }
+
+    @Nullable
+    private synchronized Template findCompiledTemplate(final String contentHash) {
+        @Nullable
+        final CompiledTemplate compiledTemplate = compiledTemplateByContentHash.get(contentHash);
+        return compiledTemplate != null ? compiledTemplate.template : null;
+    }
+
+    /**
+     * Makes the given template the one of the template name, and discards the previous one of the name, if no other name refers to it.
+     *
+     * @return the registered template, which is the one concurrently compiled for the same content, if there is any
+     */
+    private synchronized Template registerCompiledTemplate(
+            final String templateName,
+            final String contentHash,
+            final Template template) {
+        final CompiledTemplate compiledTemplate = compiledTemplateByContentHash.computeIfAbsent(
+                contentHash, ignored -> new CompiledTemplate(contentHash, template));
+        @Nullable
+        final CompiledTemplate previousCompiledTemplate = compiledTemplateByName.put(templateName, compiledTemplate);
+        if (previousCompiledTemplate != compiledTemplate) {
+            compiledTemplate.referenceCount++;
+            if (previousCompiledTemplate != null && --previousCompiledTemplate.referenceCount == 0) {
+                compiledTemplateByContentHash.remove(previousCompiledTemplate.contentHash);
+            }
+        }
+        return compiledTemplate.template;
+    }
+
+    /**
+     * Counts the compiled templates kept, which are bounded by the number of template names rendered.
+     */
+    synchronized int compiledTemplateCount() {
+        return compiledTemplateByContentHash.size();
+    }
+
+    private static List<Path> siblingTemplateFiles(final Path directory, final Path templateFile) {
+        final String templateFileNameSuffix = '.' + ChangelogFiles.templateFileNameExtension();
+        return FileUtils.findAdjacentFiles(directory, false, paths -> paths
+                .filter(path -> !path.equals(templateFile) &&
+                        path.getFileName().toString().endsWith(templateFileNameSuffix) &&
+                        Files.isRegularFile(path))
+                // Sorting is needed to produce the same hash between different runs
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Counts the characters written, to report the size of the rendered output.
+     */
+    private static final class CharCountingWriter extends FilterWriter {
+
+        private long charCount;
+
+        private CharCountingWriter(final Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            out.write(c);
+            charCount++;
+        }
+
+        @Override
+        public void write(final char[] buffer, final int offset, final int length) throws IOException {
+            out.write(buffer, offset, length);
+            charCount += length;
+        }
+
+        @Override
+        public void write(final String string, final int offset, final int length) throws IOException {
+            out.write(string, offset, length);
+            charCount += length;
+        }
+
+    }
+
+}
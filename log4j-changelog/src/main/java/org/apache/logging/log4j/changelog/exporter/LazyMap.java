@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A read-only map whose contents are loaded on first access.
+ * <p>
+ * Template data is wrapped without copying, hence expensive data (e.g., parsed changelog entries) passed to templates this way is only loaded if a template actually accesses it.
+ * </p>
+ * <p>
+ * Instances are not thread-safe, which is fine, since every rendering uses its own template data.
+ * </p>
+ */
+final class LazyMap<K, V> extends AbstractMap<K, V> {
+
+    private final Supplier<Map<K, V>> loader;
+
+    @Nullable
+    private Map<K, V> map;
+
+    LazyMap(final Supplier<Map<K, V>> loader) {
+        this.loader = loader;
+    }
+
+    private Map<K, V> map() {
+        if (map == null) {
+            map = Collections.unmodifiableMap(loader.get());
+        }
+        return map;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return map().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return map().size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        return map().get(key);
+    }
+
+}
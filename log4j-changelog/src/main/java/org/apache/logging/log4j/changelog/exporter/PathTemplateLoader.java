@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import freemarker.cache.TemplateLoader;
+
+/**
+ * Loads FreeMarker templates from a template directory of any {@link java.nio.file.FileSystem}, e.g., a ZIP archive.
+ * <p>
+ * Unlike {@link freemarker.cache.FileTemplateLoader}, which works against a {@link java.io.File}, hence only the default file system.
+ * Template names are relative to the template directory and must not escape it.
+ * </p>
+ */
+final class PathTemplateLoader implements TemplateLoader {
+
+    private final Path templateDirectory;
+
+    PathTemplateLoader(final Path templateDirectory) {
+        this.templateDirectory = templateDirectory.toAbsolutePath().normalize();
+    }
+
+    @Override
+    @Nullable
+    public Object findTemplateSource(final String templateName) {
+        final Path templateFile = templateDirectory.resolve(templateName).normalize();
+        return templateFile.startsWith(templateDirectory) && Files.isRegularFile(templateFile) ? templateFile : null;
+    }
+
+    @Override
+    public long getLastModified(final Object templateSource) {
+        try {
+            return Files.getLastModifiedTime((Path) templateSource).toMillis();
+        } catch (final IOException ignored) {
+            // FreeMarker expects `-1` for unknown modification times
+            return -1;
+        }
+    }
+
+    @Override
+    public Reader getReader(final Object templateSource, final String encoding) throws IOException {
+        return Files.newBufferedReader((Path) templateSource, Charset.forName(encoding));
+    }
+
+    @Override
+    public void closeTemplateSource(final Object templateSource) {
+        // Readers are closed by FreeMarker, there is nothing else to close
+    }
+
+}
@@ -20,50 +20,52 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Consumer;
 
 import edu.umd.cs.findbugs.annotations.Nullable;
-import org.apache.logging.log4j.changelog.util.XmlReader;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.apache.logging.log4j.changelog.util.StreamingXmlReader;
 
 import static org.apache.logging.log4j.changelog.util.StringUtils.isBlank;
 import static org.apache.logging.log4j.changelog.util.StringUtils.trimNullable;
-import static org.apache.logging.log4j.changelog.util.XmlReader.failureAtXmlNode;
-import static org.apache.logging.log4j.changelog.util.XmlReader.readXmlFileRootElement;
 
+/**
+ * Reads <a href="https://maven.apache.org/plugins/maven-changes-plugin/">maven-changes-plugin</a> source XML, i.e., {@code changes.xml}.
+ */
 final class MavenChanges {
 
-    final List<Release> releases;
-
-    private MavenChanges(final List<Release> releases) {
-        this.releases = releases;
-    }
-
-    static MavenChanges readFromFile(final Path file) {
-
-        // Read the root element
-        final Element documentElement = readXmlFileRootElement(file, "document");
-
-        // Read the `body` element
-        final Element bodyElement = XmlReader.requireChildElementMatchingName(documentElement, "body");
-
-        // Read releases
-        final List<Release> releases = new ArrayList<>();
-        final NodeList releaseNodes = bodyElement.getChildNodes();
-        final int releaseNodeCount = releaseNodes.getLength();
-        for (int releaseNodeIndex = 0; releaseNodeIndex < releaseNodeCount; releaseNodeIndex++) {
-            final Node releaseNode = releaseNodes.item(releaseNodeIndex);
-            if ("release".equals(releaseNode.getNodeName()) && Node.ELEMENT_NODE == releaseNode.getNodeType()) {
-                final Element releaseElement = (Element) releaseNode;
-                final Release release = Release.fromElement(releaseElement);
-                releases.add(release);
+    private MavenChanges() {}
+
+    /**
+     * Streams the releases in the given {@code changes.xml} file to the consumer in document order.
+     * <p>
+     * Each release is handed to the consumer as soon as its element is closed, and is not retained afterwards.
+     * Hence, the memory used is bounded by the largest release rather than the file size.
+     * </p>
+     */
+    static void readFromFile(final Path file, final Consumer<Release> releaseConsumer) {
+        StreamingXmlReader.readXmlFile(file, "document", documentReader -> {
+            final int documentLineNumber = documentReader.lineNumber();
+            final int[] bodyCount = {0};
+            documentReader.forEachChildElement(bodyReader -> {
+                if ("body".equals(bodyReader.elementName()) && bodyCount[0]++ == 0) {
+                    bodyReader.forEachChildElement(releaseReader -> {
+                        if ("release".equals(releaseReader.elementName())) {
+                            final Release release = Release.fromElement(releaseReader);
+                            releaseConsumer.accept(release);
+                        }
+                    });
+                }
+            });
+            if (bodyCount[0] != 1) {
+                throw StreamingXmlReader.failureAtLine(
+                        null,
+                        documentLineNumber,
+                        "was expecting a single `%s` element, found: %d",
+                        "body",
+                        bodyCount[0]);
             }
-        }
-
-        // Create the instance
-        return new MavenChanges(releases);
-
+            return null;
+        });
     }
 
     static final class Release {
@@ -80,33 +82,31 @@ final class MavenChanges {
             this.actions = actions;
         }
 
-        private static Release fromElement(final Element element) {
+        private static Release fromElement(final StreamingXmlReader reader) {
 
             // Read `version`
-            final String version = trimNullable(element.getAttribute("version"));
+            @Nullable
+            final String version = trimNullable(reader.attribute("version"));
             if (isBlank(version)) {
-                throw XmlReader.failureAtXmlNode(element, "blank attribute: `version`");
+                throw reader.failure("blank attribute: `version`");
             }
 
             // Read `date`
-            final String date = trimNullable(element.getAttribute("date"));
+            @Nullable
+            final String date = trimNullable(reader.attribute("date"));
             final String datePattern = "^(TBD|[0-9]{4}-[0-9]{2}-[0-9]{2})$";
-            if (!date.matches(datePattern)) {
-                throw XmlReader.failureAtXmlNode(element, "`date` doesn't match with the `%s` pattern: `%s`", datePattern, date);
+            if (date == null || !date.matches(datePattern)) {
+                throw reader.failure("`date` doesn't match with the `%s` pattern: `%s`", datePattern, date);
             }
 
             // Read actions
             final List<Action> actions = new ArrayList<>();
-            final NodeList actionNodes = element.getChildNodes();
-            final int actionNodeCount = actionNodes.getLength();
-            for (int actionNodeIndex = 0; actionNodeIndex < actionNodeCount; actionNodeIndex++) {
-                final Node actionNode = actionNodes.item(actionNodeIndex);
-                if ("action".equals(actionNode.getNodeName()) && Node.ELEMENT_NODE == actionNode.getNodeType()) {
-                    Element actionElement = (Element) actionNode;
-                    Action action = Action.fromElement(actionElement);
+            reader.forEachChildElement(actionReader -> {
+                if ("action".equals(actionReader.elementName())) {
+                    final Action action = Action.fromElement(actionReader);
                     actions.add(action);
                 }
-            }
+            });
 
             // Create the instance
             return new Release(version, date, actions);
@@ -149,21 +149,21 @@ final class MavenChanges {
             this.description = description;
         }
 
-        private static Action fromElement(final Element element) {
+        private static Action fromElement(final StreamingXmlReader reader) {
 
             // Read `issue`
             @Nullable
-            String issue = trimNullable(element.getAttribute("issue"));
+            String issue = trimNullable(reader.attribute("issue"));
             final String issuePattern = "^LOG4J2-[0-9]+$";
             if (isBlank(issue)) {
                 issue = null;
             } else if (!issue.matches(issuePattern)) {
-                throw XmlReader.failureAtXmlNode(element, "`issue` doesn't match with the `%s` pattern: `%s`", issuePattern, issue);
+                throw reader.failure("`issue` doesn't match with the `%s` pattern: `%s`", issuePattern, issue);
             }
 
             // Read `type`
             @Nullable
-            final String typeString = trimNullable(element.getAttribute("type"));
+            final String typeString = trimNullable(reader.attribute("type"));
             final Type type;
             if (isBlank(typeString)) {
                 type = Type.UPDATE;
@@ -171,29 +171,31 @@ final class MavenChanges {
                 try {
                     type = Type.valueOf(typeString.toUpperCase(Locale.US));
                 } catch (IllegalArgumentException error) {
-                    throw failureAtXmlNode(error, element, "invalid type: `%s`", typeString);
+                    throw StreamingXmlReader.failureAtLine(
+                            error, reader.lineNumber(), "invalid type: `%s`", typeString);
                 }
             }
 
             // Read `dev`
             @Nullable
-            final String dev = trimNullable(element.getAttribute("dev"));
+            final String dev = trimNullable(reader.attribute("dev"));
             if (isBlank(dev)) {
-                throw XmlReader.failureAtXmlNode(element, "blank attribute: `dev`");
+                throw reader.failure("blank attribute: `dev`");
             }
 
             // Read `dueTo`
             @Nullable
-            String dueTo = trimNullable(element.getAttribute("due-to"));
+            String dueTo = trimNullable(reader.attribute("due-to"));
             if (isBlank(dueTo)) {
                 dueTo = null;
             }
 
             // Read `description`
+            final int lineNumber = reader.lineNumber();
             @Nullable
-            final String description = trimNullable(element.getTextContent());
+            final String description = trimNullable(reader.readElementText());
             if (isBlank(description)) {
-                throw XmlReader.failureAtXmlNode(element, "blank `description`");
+                throw StreamingXmlReader.failureAtLine(null, lineNumber, "blank `description`");
             }
 
             // Create the instance
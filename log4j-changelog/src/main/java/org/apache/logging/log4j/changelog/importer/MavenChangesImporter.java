@@ -16,62 +16,230 @@
  */
 package org.apache.logging.log4j.changelog.importer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import edu.umd.cs.findbugs.annotations.Nullable;
 import org.apache.logging.log4j.changelog.ChangelogEntry;
 import org.apache.logging.log4j.changelog.ChangelogFiles;
 import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
 
 import static org.apache.logging.log4j.changelog.util.StringUtils.isBlank;
 
 public final class MavenChangesImporter {
 
+    /**
+     * Number of changelog entry files written by a single task.
+     * <p>
+     * Writing a file takes a few dozen microseconds, hence submitting a task per file would make the scheduling overhead dominate.
+     * </p>
+     */
+    private static final int WRITE_BATCH_SIZE = 256;
+
+    /**
+     * Maximum number of batches submitted to the executor, yet not written.
+     * <p>
+     * Reading continues while batches are being written, unless writing falls behind by this many batches.
+     * This bounds the memory used, regardless of the {@code changes.xml} file size.
+     * </p>
+     */
+    private static final int MAX_PENDING_BATCH_COUNT = 64;
+
     private MavenChangesImporter() {}
 
-    public static void performImport(final MavenChangesImporterArgs args) {
-        final MavenChanges mavenChanges = MavenChanges.readFromFile(args.changesXmlFile);
-        mavenChanges.releases.forEach(release -> {
-            if ("TBD".equals(release.date)) {
-                writeUnreleased(args.changelogDirectory, args.releaseVersionMajor, release);
-            } else {
-                writeReleased(args.changelogDirectory, release);
+    /**
+     * Imports the {@code changes.xml} file into the changelog directory.
+     *
+     * @return the report of the import
+     */
+    public static ChangelogReport performImport(final MavenChangesImporterArgs args) {
+        final ChangelogReport report = new ChangelogReport("import");
+
+        // Import releases as soon as they are read
+        ExecutorUtils.withExecutor(args.executorService, args.parallelism, executor -> {
+            final ChangelogEntryFileIndex entryFileIndex = new ChangelogEntryFileIndex();
+            final ChangelogEntryFileWriter entryFileWriter = new ChangelogEntryFileWriter(executor, report);
+            try {
+                MavenChanges.readFromFile(
+                        args.changesXmlFile,
+                        release -> importRelease(args, release, entryFileIndex, entryFileWriter));
+                entryFileWriter.awaitAll();
+            } finally {
+                // This is a no-op for written batches
+                entryFileWriter.cancelAll();
             }
+            return null;
         });
-    }
 
-    private static void writeUnreleased(
-            final Path changelogDirectory,
-            final int releaseVersionMajor,
-            final MavenChanges.Release release) {
-        final Path releaseDirectory = ChangelogFiles.unreleasedDirectory(changelogDirectory, releaseVersionMajor);
-        release.actions.forEach(action -> writeAction(releaseDirectory, action));
+        report.recordFilesRead(1, fileSize(args.changesXmlFile));
+
+        // Consolidate release information, if requested
+        if (args.releasesXmlFileWritten) {
+            report.measure("consolidate", () -> {
+                ChangelogReleaseCatalog.writeReleasesXmlFile(args.changelogDirectory, null);
+                return null;
+            });
+        }
+        return report.complete();
+
     }
 
-    private static void writeReleased(final Path changelogDirectory, final MavenChanges.Release release) {
+    private static void importRelease(
+            final MavenChangesImporterArgs args,
+            final MavenChanges.Release release,
+            final ChangelogEntryFileIndex entryFileIndex,
+            final ChangelogEntryFileWriter entryFileWriter) {
 
         // Determine the directory for this particular release
-        final Path releaseDirectory = ChangelogFiles.releaseDirectory(changelogDirectory, release.version);
+        final boolean released = !"TBD".equals(release.date);
+        final Path releaseDirectory = released
+                ? ChangelogFiles.releaseDirectory(args.changelogDirectory, release.version)
+                : ChangelogFiles.unreleasedDirectory(args.changelogDirectory, args.releaseVersionMajor);
+        if (!released && release.actions.isEmpty()) {
+            return;
+        }
 
-        // Write release information
-        final Path releaseFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
-        final ChangelogRelease changelogRelease = new ChangelogRelease(release.version, release.date);
-        changelogRelease.writeToXmlFile(releaseFile);
+        // Create the release directory once, and write release information
+        createDirectory(releaseDirectory);
+        if (released) {
+            final ChangelogRelease changelogRelease = new ChangelogRelease(release.version, release.date);
+            changelogRelease.writeToXmlFile(ChangelogFiles.releaseXmlFile(releaseDirectory));
+        }
 
-        // Write release actions
-        release.actions.forEach(action -> writeAction(releaseDirectory, action));
+        // Write release actions in batches
+        final List<ChangelogEntryFile> entryFiles = new ArrayList<>(release.actions.size());
+        release.actions.forEach(action -> entryFiles.add(entryFileIndex.add(releaseDirectory, action)));
+        for (int startIndex = 0; startIndex < entryFiles.size(); startIndex += WRITE_BATCH_SIZE) {
+            final int endIndex = Math.min(startIndex + WRITE_BATCH_SIZE, entryFiles.size());
+            entryFileWriter.write(entryFiles.subList(startIndex, endIndex));
+        }
 
     }
 
-    private static void writeAction(final Path releaseDirectory, final MavenChanges.Action action) {
-        final ChangelogEntry changelogEntry = changelogEntry(action);
-        final String changelogEntryFilename = changelogEntryFilename(action);
-        final Path changelogEntryFile = releaseDirectory.resolve(changelogEntryFilename);
-        changelogEntry.writeToXmlFile(changelogEntryFile);
+    private static long fileSize(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading the size of file: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    private static void createDirectory(final Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (final IOException error) {
+            final String message = String.format("failed creating directory: `%s`", directory);
+            throw new UncheckedIOException(message, error);
+        }
     }
 
-    private static String changelogEntryFilename(final MavenChanges.Action action) {
+    private static final class ChangelogEntryFile {
+
+        private final Path path;
+
+        private final MavenChanges.Action action;
+
+        private ChangelogEntryFile(final Path path, final MavenChanges.Action action) {
+            this.path = path;
+            this.action = action;
+        }
+
+        private void write(final ChangelogReport report) {
+            final long startNanos = System.nanoTime();
+            final ChangelogEntry changelogEntry = changelogEntry(action);
+            changelogEntry.writeToXmlFile(path);
+            report.recordPhase("write", System.nanoTime() - startNanos);
+            report.recordFilesWritten(1, fileSize(path));
+        }
+
+    }
+
+    /**
+     * Assigns a unique file to each imported changelog entry.
+     * <p>
+     * File names derived from actions can collide, e.g., for actions sharing the same issue and description prefix, or differing only in letter case, which case-insensitive file systems can't tell apart.
+     * Such collisions are resolved by suffixing the file name with a counter, e.g., {@code LOG4J2-1234_Fix_foo_2.xml}.
+     * Only the file names are retained, not the actions.
+     * </p>
+     */
+    private static final class ChangelogEntryFileIndex {
+
+        private final Set<String> entryFileKeys = new HashSet<>();
+
+        private ChangelogEntryFile add(final Path releaseDirectory, final MavenChanges.Action action) {
+            final String fileNamePrefix = changelogEntryFilenamePrefix(action);
+            String fileName = fileNamePrefix + ".xml";
+            int fileNameIndex = 1;
+            while (!entryFileKeys.add(entryFileKey(releaseDirectory, fileName))) {
+                final String collidingFileName = fileName;
+                fileName = String.format("%s_%d.xml", fileNamePrefix, ++fileNameIndex);
+                System.out.format(
+                        "changelog entry file `%s` is already taken in `%s`, using `%s` instead%n",
+                        collidingFileName, releaseDirectory, fileName);
+            }
+            final Path path = releaseDirectory.resolve(fileName);
+            return new ChangelogEntryFile(path, action);
+        }
+
+        private static String entryFileKey(final Path releaseDirectory, final String fileName) {
+            return releaseDirectory + "/" + fileName.toLowerCase(Locale.ROOT);
+        }
+
+    }
+
+    /**
+     * Writes batches of changelog entry files using the given executor, or in the caller thread, if there is none.
+     */
+    private static final class ChangelogEntryFileWriter {
+
+        @Nullable
+        private final ExecutorService executor;
+
+        private final ChangelogReport report;
+
+        private final Deque<Future<?>> pendingBatches = new ArrayDeque<>();
+
+        private ChangelogEntryFileWriter(@Nullable final ExecutorService executor, final ChangelogReport report) {
+            this.executor = executor;
+            this.report = report;
+        }
+
+        private void write(final List<ChangelogEntryFile> batch) {
+            if (executor == null) {
+                batch.forEach(entryFile -> entryFile.write(report));
+                return;
+            }
+            if (pendingBatches.size() >= MAX_PENDING_BATCH_COUNT) {
+                ExecutorUtils.await(pendingBatches.removeFirst());
+            }
+            pendingBatches.addLast(executor.submit(() -> batch.forEach(entryFile -> entryFile.write(report))));
+        }
+
+        private void awaitAll() {
+            while (!pendingBatches.isEmpty()) {
+                ExecutorUtils.await(pendingBatches.removeFirst());
+            }
+        }
+
+        private void cancelAll() {
+            pendingBatches.forEach(pendingBatch -> pendingBatch.cancel(true));
+        }
+
+    }
+
+    /**
+     * @return the changelog entry file name without the {@code .xml} extension
+     */
+    private static String changelogEntryFilenamePrefix(final MavenChanges.Action action) {
         final StringBuilder actionRelativeFileBuilder = new StringBuilder();
         if (action.issue != null) {
             actionRelativeFileBuilder
@@ -88,7 +256,6 @@ public final class MavenChangesImporter {
                 ? sanitizedDescription.substring(0, 60)
                 : sanitizedDescription;
         actionRelativeFileBuilder.append(shortenedSanitizedDescription);
-        actionRelativeFileBuilder.append(".xml");
         return actionRelativeFileBuilder.toString();
     }
 
@@ -18,6 +18,10 @@ package org.apache.logging.log4j.changelog.importer;
 
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
 
 public final class MavenChangesImporterArgs {
 
@@ -27,10 +31,45 @@ public final class MavenChangesImporterArgs {
 
     final int releaseVersionMajor;
 
+    /**
+     * Number of changelog entry files to write concurrently, ignored if an {@link #executorService} is provided.
+     */
+    final int parallelism;
+
+    /**
+     * Executor to write changelog entry files with; if not provided, one with the given {@link #parallelism} will be created and shut down per import.
+     */
+    @Nullable
+    final ExecutorService executorService;
+
+    /**
+     * Indicates if the release information of all released directories is consolidated into {@code .releases.xml} after the import.
+     */
+    final boolean releasesXmlFileWritten;
+
     public MavenChangesImporterArgs(
             final Path changelogDirectory,
             final Path changesXmlFile,
             final int releaseVersionMajor) {
+        this(changelogDirectory, changesXmlFile, releaseVersionMajor, ExecutorUtils.defaultParallelism(), null);
+    }
+
+    public MavenChangesImporterArgs(
+            final Path changelogDirectory,
+            final Path changesXmlFile,
+            final int releaseVersionMajor,
+            final int parallelism,
+            @Nullable final ExecutorService executorService) {
+        this(changelogDirectory, changesXmlFile, releaseVersionMajor, parallelism, executorService, false);
+    }
+
+    private MavenChangesImporterArgs(
+            final Path changelogDirectory,
+            final Path changesXmlFile,
+            final int releaseVersionMajor,
+            final int parallelism,
+            @Nullable final ExecutorService executorService,
+            final boolean releasesXmlFileWritten) {
 
         // Check arguments
         Objects.requireNonNull(changelogDirectory, "changelogDirectory");
@@ -46,7 +85,25 @@ public final class MavenChangesImporterArgs {
         this.changelogDirectory = changelogDirectory;
         this.changesXmlFile = changesXmlFile;
         this.releaseVersionMajor = releaseVersionMajor;
+        this.parallelism = ExecutorUtils.requireValidParallelism(parallelism);
+        this.executorService = executorService;
+        this.releasesXmlFileWritten = releasesXmlFileWritten;
+
+    }
 
+    /**
+     * Toggles writing the consolidated {@code .releases.xml} file.
+     *
+     * @return a copy of these arguments with the given {@link #releasesXmlFileWritten}
+     */
+    public MavenChangesImporterArgs withReleasesXmlFileWritten(final boolean releasesXmlFileWritten) {
+        return new MavenChangesImporterArgs(
+                changelogDirectory,
+                changesXmlFile,
+                releaseVersionMajor,
+                parallelism,
+                executorService,
+                releasesXmlFileWritten);
     }
 
 }
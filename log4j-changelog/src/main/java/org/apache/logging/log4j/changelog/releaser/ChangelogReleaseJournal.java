@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.releaser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+
+/**
+ * Persists a {@link ChangelogReleasePlan} to the {@link ChangelogFiles#releaseJournalFile(Path) release journal file} before it is applied.
+ * <p>
+ * The journal only records the plan, not its progress.
+ * Whether a move is already applied is determined by checking the file system, which is always up-to-date, even if the release is interrupted abruptly.
+ * Paths are recorded relative to the changelog directory, one tab-separated record per line:
+ * </p>
+ * <pre>{@code
+ * release   <version> <date>
+ * previous  <version> <date>
+ * consolidated <version> <date> <digest or ->
+ * rename    <unreleasedDirectory> <releaseDirectory>
+ * unrenamed <unreleasedDirectory> <releaseDirectory>
+ * move      <source> <target>
+ * keep      <template>
+ * }</pre>
+ */
+final class ChangelogReleaseJournal {
+
+    private static final String HEADER = "# log4j-changelog release journal";
+
+    private ChangelogReleaseJournal() {}
+
+    static void write(final Path changelogDirectory, final ChangelogReleasePlan plan) {
+        final StringBuilder contentBuilder = new StringBuilder(HEADER).append('\n');
+        appendRecord(contentBuilder, "release", plan.release.version, plan.release.date);
+        if (plan.previousRelease != null) {
+            appendRecord(contentBuilder, "previous", plan.previousRelease.version, plan.previousRelease.date);
+        }
+        if (plan.previousConsolidatedRelease != null) {
+            final ChangelogReleaseCatalog.ConsolidatedRelease consolidatedRelease = plan.previousConsolidatedRelease;
+            appendRecord(
+                    contentBuilder,
+                    "consolidated",
+                    consolidatedRelease.release.version,
+                    consolidatedRelease.release.date,
+                    consolidatedRelease.releaseXmlFileDigest != null ? consolidatedRelease.releaseXmlFileDigest : "-");
+        }
+        appendRecord(
+                contentBuilder,
+                plan.directoryRenamed ? "rename" : "unrenamed",
+                relativePath(changelogDirectory, plan.unreleasedDirectory),
+                relativePath(changelogDirectory, plan.releaseDirectory));
+        for (final ChangelogReleasePlan.Move move : plan.moves) {
+            appendRecord(
+                    contentBuilder,
+                    "move",
+                    relativePath(changelogDirectory, move.source),
+                    relativePath(changelogDirectory, move.target));
+        }
+        for (final Path keptTemplateFile : plan.keptTemplateFiles) {
+            appendRecord(contentBuilder, "keep", relativePath(changelogDirectory, keptTemplateFile));
+        }
+        final Path journalFile = ChangelogFiles.releaseJournalFile(changelogDirectory);
+        FileUtils.writeAtomically(journalFile, contentBuilder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendRecord(final StringBuilder contentBuilder, final String type, final String... fields) {
+        contentBuilder.append(type);
+        for (final String field : fields) {
+            contentBuilder.append('\t').append(field);
+        }
+        contentBuilder.append('\n');
+    }
+
+    private static String relativePath(final Path changelogDirectory, final Path path) {
+        return changelogDirectory.relativize(path).toString();
+    }
+
+    /**
+     * Reads the release plan recorded in the journal of the given changelog directory.
+     *
+     * @return the plan recorded in the journal, or {@code null}, if there is no journal
+     */
+    @Nullable
+    static ChangelogReleasePlan readIfExists(final Path changelogDirectory) {
+
+        // Read the journal
+        final Path journalFile = ChangelogFiles.releaseJournalFile(changelogDirectory);
+        if (!Files.exists(journalFile)) {
+            return null;
+        }
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(journalFile, StandardCharsets.UTF_8);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading release journal: `%s`", journalFile);
+            throw new UncheckedIOException(message, error);
+        }
+
+        // Parse the records
+        ChangelogRelease release = null;
+        ChangelogRelease previousRelease = null;
+        ChangelogReleaseCatalog.ConsolidatedRelease previousConsolidatedRelease = null;
+        Path unreleasedDirectory = null;
+        Path releaseDirectory = null;
+        boolean directoryRenamed = false;
+        final List<ChangelogReleasePlan.Move> moves = new ArrayList<>();
+        final List<Path> keptTemplateFiles = new ArrayList<>();
+        for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++) {
+            final String line = lines.get(lineIndex);
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] fields = line.split("\t", -1);
+            final String type = fields[0];
+            if ("release".equals(type) && fields.length == 3) {
+                release = new ChangelogRelease(fields[1], fields[2]);
+            } else if ("previous".equals(type) && fields.length == 3) {
+                previousRelease = new ChangelogRelease(fields[1], fields[2]);
+            } else if ("consolidated".equals(type) && fields.length == 4) {
+                previousConsolidatedRelease = new ChangelogReleaseCatalog.ConsolidatedRelease(
+                        new ChangelogRelease(fields[1], fields[2]), "-".equals(fields[3]) ? null : fields[3]);
+            } else if (("rename".equals(type) || "unrenamed".equals(type)) && fields.length == 3) {
+                directoryRenamed = "rename".equals(type);
+                unreleasedDirectory = changelogDirectory.resolve(fields[1]);
+                releaseDirectory = changelogDirectory.resolve(fields[2]);
+            } else if ("move".equals(type) && fields.length == 3) {
+                moves.add(new ChangelogReleasePlan.Move(
+                        changelogDirectory.resolve(fields[1]),
+                        changelogDirectory.resolve(fields[2])));
+            } else if ("keep".equals(type) && fields.length == 2) {
+                keptTemplateFiles.add(changelogDirectory.resolve(fields[1]));
+            } else {
+                final String message = String.format(
+                        "invalid record at line %d of release journal `%s`: `%s`",
+                        lineIndex + 1, journalFile, line);
+                throw new IllegalStateException(message);
+            }
+        }
+
+        // Check the completeness
+        if (release == null || unreleasedDirectory == null || releaseDirectory == null) {
+            final String message = String.format("incomplete release journal: `%s`", journalFile);
+            throw new IllegalStateException(message);
+        }
+        return new ChangelogReleasePlan(
+                release,
+                unreleasedDirectory,
+                releaseDirectory,
+                directoryRenamed,
+                moves,
+                keptTemplateFiles,
+                previousRelease,
+                previousConsolidatedRelease);
+
+    }
+
+    static void delete(final Path changelogDirectory) {
+        final Path journalFile = ChangelogFiles.releaseJournalFile(changelogDirectory);
+        try {
+            Files.deleteIfExists(journalFile);
+        } catch (final IOException error) {
+            final String message = String.format("failed deleting release journal: `%s`", journalFile);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.releaser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+
+/**
+ * The complete set of file system changes a release consists of, computed before any of them is applied.
+ * <p>
+ * Either the unreleased directory is renamed to the release directory as a whole, or, if the release directory already exists, changelog entry files and templates are moved one by one.
+ * </p>
+ *
+ * @see ChangelogReleaser#planRelease(ChangelogReleaserArgs)
+ */
+public final class ChangelogReleasePlan {
+
+    public final ChangelogRelease release;
+
+    public final Path unreleasedDirectory;
+
+    public final Path releaseDirectory;
+
+    /**
+     * Indicates if the unreleased directory is renamed to the release directory, which doesn't exist yet.
+     */
+    final boolean directoryRenamed;
+
+    /**
+     * Moves of changelog entry files and templates, which is empty if the {@link #directoryRenamed directory is renamed}.
+     */
+    final List<Move> moves;
+
+    /**
+     * Templates in the release directory that are kept, since they take precedence over the ones in the unreleased directory.
+     */
+    final List<Path> keptTemplateFiles;
+
+    /**
+     * Release information in the existing {@code .release.xml} of the release directory, which is to be replaced.
+     */
+    @Nullable
+    final ChangelogRelease previousRelease;
+
+    /**
+     * Release information of the release version in {@code .releases.xml}, which is to be replaced.
+     */
+    @Nullable
+    final ChangelogReleaseCatalog.ConsolidatedRelease previousConsolidatedRelease;
+
+    ChangelogReleasePlan(
+            final ChangelogRelease release,
+            final Path unreleasedDirectory,
+            final Path releaseDirectory,
+            final boolean directoryRenamed,
+            final List<Move> moves,
+            final List<Path> keptTemplateFiles,
+            @Nullable final ChangelogRelease previousRelease,
+            @Nullable final ChangelogReleaseCatalog.ConsolidatedRelease previousConsolidatedRelease) {
+        this.release = Objects.requireNonNull(release, "release");
+        this.unreleasedDirectory = Objects.requireNonNull(unreleasedDirectory, "unreleasedDirectory");
+        this.releaseDirectory = Objects.requireNonNull(releaseDirectory, "releaseDirectory");
+        this.directoryRenamed = directoryRenamed;
+        this.moves = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(moves, "moves")));
+        this.keptTemplateFiles = Collections.unmodifiableList(
+                new ArrayList<>(Objects.requireNonNull(keptTemplateFiles, "keptTemplateFiles")));
+        this.previousRelease = previousRelease;
+        this.previousConsolidatedRelease = previousConsolidatedRelease;
+    }
+
+    /**
+     * Lists all moves of the plan.
+     *
+     * @return all moves of the plan, including the one of the directory, if it is renamed
+     */
+    List<Move> allMoves() {
+        return directoryRenamed
+                ? Collections.singletonList(new Move(unreleasedDirectory, releaseDirectory))
+                : moves;
+    }
+
+    public Path releaseXmlFile() {
+        return ChangelogFiles.releaseXmlFile(releaseDirectory);
+    }
+
+    public int changelogEntryFileMoveCount() {
+        return (int) moves.stream().filter(move -> !move.isDotFile()).count();
+    }
+
+    public int templateFileMoveCount() {
+        return (int) moves.stream().filter(Move::isDotFile).count();
+    }
+
+    /**
+     * Summarizes the plan for logging.
+     *
+     * @return a single-line human-readable summary of the plan, e.g., {@code release `2.19.0` (2023-01-25): rename `.2.x.x` to `2.19.0`}
+     */
+    public String summary() {
+        final List<String> actions = new ArrayList<>();
+        if (directoryRenamed) {
+            actions.add(String.format("rename `%s` to `%s`", unreleasedDirectory, releaseDirectory));
+        } else {
+            actions.add(String.format(
+                    "move %d changelog entry files and %d template files from `%s` to `%s`",
+                    changelogEntryFileMoveCount(),
+                    templateFileMoveCount(),
+                    unreleasedDirectory,
+                    releaseDirectory));
+            if (!keptTemplateFiles.isEmpty()) {
+                actions.add(String.format("keep %d existing template files", keptTemplateFiles.size()));
+            }
+        }
+        if (previousRelease != null) {
+            actions.add(String.format(
+                    "replace the release information of %s (%s)",
+                    previousRelease.version,
+                    previousRelease.date));
+        }
+        return String.format(
+                "release `%s` (%s): %s",
+                release.version,
+                release.date,
+                String.join(", ", actions));
+    }
+
+    static final class Move {
+
+        final Path source;
+
+        final Path target;
+
+        Move(final Path source, final Path target) {
+            this.source = Objects.requireNonNull(source, "source");
+            this.target = Objects.requireNonNull(target, "target");
+        }
+
+        private boolean isDotFile() {
+            return String.valueOf(source.getFileName()).startsWith(".");
+        }
+
+    }
+
+}
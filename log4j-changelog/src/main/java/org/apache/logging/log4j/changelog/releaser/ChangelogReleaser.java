@@ -18,136 +18,410 @@ package org.apache.logging.log4j.changelog.releaser;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogEntry;
 import org.apache.logging.log4j.changelog.ChangelogFiles;
 import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
 import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 
 import static java.time.format.DateTimeFormatter.ISO_DATE;
 
+/**
+ * Moves the unreleased changelog entries to a release directory.
+ * <p>
+ * A release is first {@link #planRelease(ChangelogReleaserArgs) planned}, i.e., all moves and conflicts are determined before touching any file.
+ * The plan is then recorded to a {@link ChangelogFiles#releaseJournalFile(Path) journal}, applied, and the journal is deleted.
+ * If a release is interrupted, the journal is left behind, and the release can be {@link #recoverRelease(Path, Recovery, int) recovered} by either rolling it forward or back.
+ * </p>
+ */
 public final class ChangelogReleaser {
 
-    private ChangelogReleaser() {}
+    /**
+     * The way of recovering an interrupted release.
+     */
+    public enum Recovery {
+
+        /**
+         * Completes the interrupted release.
+         */
+        ROLL_FORWARD,
+
+        /**
+         * Reverts the changes of the interrupted release.
+         */
+        ROLL_BACK
 
-    public static void performRelease(final ChangelogReleaserArgs args) {
+    }
+
+    private ChangelogReleaser() {}
 
-        // Read the release date and version
+    /**
+     * Determines the changes the release consists of without applying them.
+     *
+     * @return the plan of the release
+     */
+    public static ChangelogReleasePlan planRelease(final ChangelogReleaserArgs args) {
         final String releaseDate = ISO_DATE.format(args.releaseDate != null ? args.releaseDate : LocalDate.now());
-        System.out.format("using `%s` for the release date%n", releaseDate);
+        final ChangelogRelease release = new ChangelogRelease(args.releaseVersion, releaseDate);
+        final Path unreleasedDirectory =
+                ChangelogFiles.unreleasedDirectory(args.changelogDirectory, args.releaseVersionMajor);
+        final Path releaseDirectory = ChangelogFiles.releaseDirectory(args.changelogDirectory, args.releaseVersion);
+        return planRelease(args.changelogDirectory, release, unreleasedDirectory, releaseDirectory);
+    }
 
-        try {
+    private static ChangelogReleasePlan planRelease(
+            final Path changelogDirectory,
+            final ChangelogRelease release,
+            final Path unreleasedDirectory,
+            final Path releaseDirectory) {
 
-            // Populate the changelog entry files in the release directory
-            final Path unreleasedDirectory =
-                    ChangelogFiles.unreleasedDirectory(args.changelogDirectory, args.releaseVersionMajor);
-            final Path releaseDirectory = ChangelogFiles.releaseDirectory(args.changelogDirectory, args.releaseVersion);
-            populateChangelogEntryFiles(unreleasedDirectory, releaseDirectory);
+        // Check the source
+        if (!Files.exists(unreleasedDirectory)) {
+            final String message = String.format(
+                    "`%s` does not exist! A release without any changelogs don't make sense!",
+                    unreleasedDirectory);
+            throw new IllegalStateException(message);
+        }
 
-            // Write the release information
-            populateReleaseXmlFiles(releaseDate, args.releaseVersion, releaseDirectory);
+        // Simply rename the unreleased directory, if the release directory doesn't exist
+        if (!Files.exists(releaseDirectory)) {
+            return new ChangelogReleasePlan(
+                    release,
+                    unreleasedDirectory,
+                    releaseDirectory,
+                    true,
+                    new ArrayList<>(),
+                    new ArrayList<>(),
+                    null,
+                    null);
+        }
 
-            // Write the release changelog template
-            populateReleaseChangelogTemplateFile(unreleasedDirectory, releaseDirectory);
+        // Otherwise, move the changelog entry files, which must not exist in the release directory
+        final List<ChangelogReleasePlan.Move> moves = new ArrayList<>();
+        final List<Path> conflictingFiles = new ArrayList<>();
+        for (final Path changelogEntryFile : ChangelogFiles.changelogEntryFiles(unreleasedDirectory)) {
+            final Path targetFile = releaseDirectory.resolve(unreleasedDirectory.relativize(changelogEntryFile));
+            if (Files.exists(targetFile)) {
+                conflictingFiles.add(targetFile);
+            } else {
+                moves.add(new ChangelogReleasePlan.Move(changelogEntryFile, targetFile));
+            }
+        }
+        if (!conflictingFiles.isEmpty()) {
+            final String message = String.format(
+                    "found %d changelog entry files already existing in release directory `%s`: %s",
+                    conflictingFiles.size(), releaseDirectory, conflictingFiles);
+            throw new IllegalStateException(message);
+        }
 
-        } catch (final IOException error) {
-            throw new UncheckedIOException(error);
+        // Move the templates, unless they exist in the release directory
+        final List<Path> keptTemplateFiles = new ArrayList<>();
+        for (final Path templateFile : templateFiles(unreleasedDirectory)) {
+            final Path targetFile = releaseDirectory.resolve(unreleasedDirectory.relativize(templateFile));
+            if (Files.exists(targetFile)) {
+                keptTemplateFiles.add(targetFile);
+            } else {
+                moves.add(new ChangelogReleasePlan.Move(templateFile, targetFile));
+            }
         }
 
+        // Read the release information to be replaced, including the consolidated one
+        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
+        final ChangelogRelease previousRelease =
+                Files.exists(releaseXmlFile) ? ChangelogRelease.readFromXmlFile(releaseXmlFile) : null;
+        @Nullable
+        final ChangelogReleaseCatalog.ConsolidatedRelease previousConsolidatedRelease =
+                ChangelogReleaseCatalog.findConsolidatedRelease(changelogDirectory, release.version);
+        return new ChangelogReleasePlan(
+                release,
+                unreleasedDirectory,
+                releaseDirectory,
+                false,
+                moves,
+                keptTemplateFiles,
+                previousRelease,
+                previousConsolidatedRelease);
+
     }
 
-    private static void populateChangelogEntryFiles(
-            final Path unreleasedDirectory,
-            final Path releaseDirectory)
-            throws IOException {
-        if (Files.exists(releaseDirectory)) {
-            System.out.format(
-                    "release directory `%s` already exists, only moving the changelog entry files from `%s`%n",
-                    releaseDirectory, unreleasedDirectory);
-            moveUnreleasedChangelogEntryFiles(unreleasedDirectory, releaseDirectory);
+    private static List<Path> templateFiles(final Path directory) {
+        final String templateFileNameSuffix = '.' + ChangelogFiles.templateFileNameExtension();
+        return FileUtils.findAdjacentFiles(directory, false, paths -> paths
+                .filter(path -> {
+                    final String fileName = directory.relativize(path).toString();
+                    return fileName.startsWith(".") && fileName.endsWith(templateFileNameSuffix);
+                })
+                .filter(Files::isRegularFile)
+                // Sorting is needed to generate the same output between different runs
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Plans the release, records it to the journal, and applies it.
+     *
+     * @return the report of the release
+     */
+    public static ChangelogReport performRelease(final ChangelogReleaserArgs args) {
+        final ChangelogReport report = new ChangelogReport("release");
+
+        // Refuse to start over an interrupted release
+        final Path journalFile = ChangelogFiles.releaseJournalFile(args.changelogDirectory);
+        if (Files.exists(journalFile)) {
+            final String message = String.format(
+                    "found the journal of an interrupted release: `%s`, it needs to be either rolled forward or back first",
+                    journalFile);
+            throw new IllegalStateException(message);
+        }
+
+        // Validate the changelog entry files before touching any of them
+        final Path unreleasedDirectory =
+                ChangelogFiles.unreleasedDirectory(args.changelogDirectory, args.releaseVersionMajor);
+        report.measure("validate", () -> {
+            validateChangelogEntryFiles(unreleasedDirectory, args.validator);
+            return null;
+        });
+
+        // Plan the release
+        final ChangelogReleasePlan plan = report.measure("plan", () -> planRelease(args));
+        System.out.format("%s%n", plan.summary());
+
+        // Record the plan and apply it
+        report.measure("journal", () -> {
+            ChangelogReleaseJournal.write(args.changelogDirectory, plan);
+            return null;
+        });
+        rollForward(args.changelogDirectory, plan, args.parallelism, report);
+
+        // Persist the validation results for subsequent reads
+        report.measure("save", () -> {
+            args.validator.saveCache();
+            return null;
+        });
+
+        return report.complete();
+    }
+
+    private static void validateChangelogEntryFiles(final Path unreleasedDirectory, final XmlValidator validator) {
+        if (validator.mode() == XmlValidator.Mode.OFF || !Files.exists(unreleasedDirectory)) {
+            return;
+        }
+        final List<Path> changelogEntryFiles = ChangelogFiles.changelogEntryFiles(unreleasedDirectory);
+        System.out.format(
+                "validating %d changelog entry files in `%s`%n", changelogEntryFiles.size(), unreleasedDirectory);
+        changelogEntryFiles.forEach(changelogEntryFile -> ChangelogEntry.readFromXmlFile(changelogEntryFile, validator));
+    }
+
+    /**
+     * Recovers an interrupted release using its journal.
+     *
+     * @return the report of the recovery
+     */
+    public static ChangelogReport recoverRelease(
+            final Path changelogDirectory,
+            final Recovery recovery,
+            final int parallelism) {
+        ExecutorUtils.requireValidParallelism(parallelism);
+        final ChangelogReport report = new ChangelogReport(
+                recovery == Recovery.ROLL_FORWARD ? "release-roll-forward" : "release-roll-back");
+        @Nullable
+        final ChangelogReleasePlan plan = report.measure(
+                "plan", () -> ChangelogReleaseJournal.readIfExists(changelogDirectory));
+        if (plan == null) {
+            final String message = String.format(
+                    "there is no interrupted release to recover, since there is no journal: `%s`",
+                    ChangelogFiles.releaseJournalFile(changelogDirectory));
+            throw new IllegalStateException(message);
+        }
+        System.out.format("recovering the interrupted %s using %s%n", plan.summary(), recovery);
+        if (recovery == Recovery.ROLL_FORWARD) {
+            rollForward(changelogDirectory, plan, parallelism, report);
         } else {
-            System.out.format(
-                    "release directory `%s` doesn't exist, simply renaming the unreleased directory `%s`%n",
-                    releaseDirectory, unreleasedDirectory);
-            moveUnreleasedDirectory(unreleasedDirectory, releaseDirectory);
-        }
-    }
-
-    private static void moveUnreleasedChangelogEntryFiles(final Path unreleasedDirectory, final Path releaseDirectory) {
-        FileUtils.findAdjacentFiles(unreleasedDirectory, true, paths -> {
-            paths.forEach(unreleasedChangelogEntryFile -> {
-                final String fileName = unreleasedChangelogEntryFile.getFileName().toString();
-                final Path releasedChangelogEntryFile = releaseDirectory.resolve(fileName);
-                System.out.format(
-                        "moving changelog entry file `%s` to `%s`%n",
-                        unreleasedChangelogEntryFile, releasedChangelogEntryFile);
-                try {
-                    Files.move(unreleasedChangelogEntryFile, releasedChangelogEntryFile);
-                } catch (final IOException error) {
-                    throw new UncheckedIOException(error);
-                }
-            });
-            return 1;
+            rollBack(changelogDirectory, plan, parallelism, report);
+        }
+        return report.complete();
+    }
+
+    /**
+     * Applies the moves of the plan that are not applied yet, writes the release information, and deletes the journal.
+     */
+    private static void rollForward(
+            final Path changelogDirectory,
+            final ChangelogReleasePlan plan,
+            final int parallelism,
+            final ChangelogReport report) {
+
+        // Apply the pending moves
+        final int moveCount = report.measure("move", () -> {
+            final int count = applyMoves(plan.allMoves(), parallelism, ChangelogReleaser::moveIfPending);
+            if (plan.directoryRenamed) {
+                createDirectories(plan.unreleasedDirectory);
+            }
+            return count;
+        });
+        System.out.format("moved %d files to `%s`%n", moveCount, plan.releaseDirectory);
+
+        // Write the release information, and keep the consolidated release information, if there is any, up-to-date
+        report.measure("write", () -> {
+            final Path releaseXmlFile = writeReleaseXmlFile(plan.releaseXmlFile(), plan.release);
+            report.recordFilesWritten(1, fileSize(releaseXmlFile));
+            ChangelogReleaseCatalog.updateReleasesXmlFileIfExists(changelogDirectory, plan.release);
+            return null;
         });
+
+        // Mark the release as completed
+        ChangelogReleaseJournal.delete(changelogDirectory);
+
     }
 
-    private static void moveUnreleasedDirectory(
-            final Path unreleasedDirectory,
-            final Path releaseDirectory)
-            throws IOException {
-        if (!Files.exists(unreleasedDirectory)) {
+    /**
+     * Reverts the applied moves of the plan and the release information, including the one in {@code .releases.xml}, if there is any, and deletes the journal.
+     */
+    private static void rollBack(
+            final Path changelogDirectory,
+            final ChangelogReleasePlan plan,
+            final int parallelism,
+            final ChangelogReport report) {
+
+        // Revert the release information
+        report.measure("write", () -> {
+            final Path releaseXmlFile = plan.releaseXmlFile();
+            if (plan.previousRelease != null) {
+                writeReleaseXmlFile(releaseXmlFile, plan.previousRelease);
+                report.recordFilesWritten(1, fileSize(releaseXmlFile));
+            } else if (Files.exists(plan.releaseDirectory)) {
+                deleteIfExists(releaseXmlFile);
+            }
+            ChangelogReleaseCatalog.restoreReleasesXmlFileIfExists(
+                    changelogDirectory, plan.release.version, plan.previousConsolidatedRelease);
+            return null;
+        });
+
+        // Revert the applied moves
+        final int moveCount = report.measure("move", () -> {
+            if (plan.directoryRenamed && Files.exists(plan.releaseDirectory)) {
+                deleteRecreatedDirectory(plan.unreleasedDirectory);
+            }
+            return applyMoves(plan.allMoves(), parallelism, ChangelogReleaser::revertIfApplied);
+        });
+        System.out.format("moved %d files back to `%s`%n", moveCount, plan.unreleasedDirectory);
+
+        // Mark the release as reverted
+        ChangelogReleaseJournal.delete(changelogDirectory);
+
+    }
+
+    private static int applyMoves(
+            final List<ChangelogReleasePlan.Move> moves,
+            final int parallelism,
+            final Function<ChangelogReleasePlan.Move, Boolean> mover) {
+        final List<Boolean> moveds = ExecutorUtils.withExecutor(
+                null,
+                // Avoid creating threads for a handful of moves
+                Math.max(1, Math.min(parallelism, moves.size())),
+                executor -> ExecutorUtils.mapOrdered(executor, moves, mover));
+        return (int) moveds.stream().filter(Boolean::booleanValue).count();
+    }
+
+    /**
+     * Applies the move, unless its target exists, which, since targets are checked while planning, indicates that it is already applied.
+     *
+     * @return {@code true}, if the move is applied
+     */
+    private static boolean moveIfPending(final ChangelogReleasePlan.Move move) {
+        if (Files.exists(move.target)) {
+            return false;
+        }
+        return move(move.source, move.target);
+    }
+
+    /**
+     * Reverts the move, if it is applied.
+     *
+     * @return {@code true}, if the move is reverted
+     */
+    private static boolean revertIfApplied(final ChangelogReleasePlan.Move move) {
+        if (!Files.exists(move.target) || Files.exists(move.source)) {
+            return false;
+        }
+        // Reverting moves the target back to the source
+        final Path revertedSource = move.target;
+        final Path revertedTarget = move.source;
+        return move(revertedSource, revertedTarget);
+    }
+
+    private static boolean move(final Path source, final Path target) {
+        try {
+            Files.move(source, target);
+            return true;
+        } catch (final IOException error) {
+            final String message = String.format("failed moving `%s` to `%s`", source, target);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    /**
+     * Deletes the unreleased directory recreated after renaming it, so that the release directory can be renamed back.
+     */
+    private static void deleteRecreatedDirectory(final Path unreleasedDirectory) {
+        try {
+            Files.deleteIfExists(unreleasedDirectory);
+        } catch (final DirectoryNotEmptyException error) {
             final String message = String.format(
-                    "`%s` does not exist! A release without any changelogs don't make sense!",
+                    "cannot roll back, since the recreated unreleased directory `%s` is not empty anymore",
                     unreleasedDirectory);
-            throw new IllegalStateException(message);
+            throw new IllegalStateException(message, error);
+        } catch (final IOException error) {
+            final String message = String.format("failed deleting directory: `%s`", unreleasedDirectory);
+            throw new UncheckedIOException(message, error);
         }
-        System.out.format("moving changelog directory `%s` to `%s`%n", unreleasedDirectory, releaseDirectory);
-        Files.move(unreleasedDirectory, releaseDirectory);
-        Files.createDirectories(unreleasedDirectory);
     }
 
-    private static void populateReleaseXmlFiles(
-            final String releaseDate,
-            final String releaseVersion,
-            final Path releaseDirectory)
-            throws IOException {
-        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
+    private static Path writeReleaseXmlFile(final Path releaseXmlFile, final ChangelogRelease release) {
         System.out.format("writing release information to `%s`%n", releaseXmlFile);
-        final ChangelogRelease changelogRelease = new ChangelogRelease(releaseVersion, releaseDate);
-        Files.deleteIfExists(releaseXmlFile);
-        changelogRelease.writeToXmlFile(releaseXmlFile);
+        deleteIfExists(releaseXmlFile);
+        release.writeToXmlFile(releaseXmlFile);
+        return releaseXmlFile;
     }
 
-    private static void populateReleaseChangelogTemplateFile(
-            final Path unreleasedDirectory,
-            final Path releaseDirectory)
-            throws IOException {
-        Set<String> releaseChangelogTemplateFileNames = releaseChangelogTemplateFileNames(unreleasedDirectory);
-        for (final String releaseChangelogTemplateFileName : releaseChangelogTemplateFileNames) {
-            final Path targetFile = releaseDirectory.resolve(releaseChangelogTemplateFileName);
-            if (Files.exists(targetFile)) {
-                System.out.format("keeping the existing changelog template file: `%s`%n", targetFile);
-            } else {
-                final Path sourceFile = unreleasedDirectory.resolve(releaseChangelogTemplateFileName);
-                System.out.format("moving the changelog template file `%s` to `%s`%n", sourceFile, targetFile);
-                Files.move(sourceFile, targetFile);
-            }
+    private static void createDirectories(final Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (final IOException error) {
+            final String message = String.format("failed creating directory: `%s`", directory);
+            throw new UncheckedIOException(message, error);
         }
     }
 
-    private static Set<String> releaseChangelogTemplateFileNames(final Path releaseDirectory) {
-        final String templateFileNameSuffix = '.' + ChangelogFiles.templateFileNameExtension();
-        return FileUtils.findAdjacentFiles(
-                releaseDirectory,
-                false,
-                paths -> paths
-                        .filter(path -> path.endsWith(templateFileNameSuffix))
-                        .map(path -> path.getFileName().toString())
-                        .collect(Collectors.toSet()));
+    private static void deleteIfExists(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException error) {
+            final String message = String.format("failed deleting file: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    private static long fileSize(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading file size: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
     }
 
 }
@@ -23,6 +23,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 
 @SuppressFBWarnings("REDOS")
 public final class ChangelogReleaserArgs {
@@ -40,16 +42,53 @@ public final class ChangelogReleaserArgs {
 
     final LocalDate releaseDate;
 
+    /**
+     * Validator of the changelog entry files to be released, which are validated before any file is moved.
+     */
+    final XmlValidator validator;
+
+    /**
+     * Number of files to move concurrently, if the release directory already exists.
+     */
+    final int parallelism;
+
     public ChangelogReleaserArgs(
             final Path changelogDirectory,
             final String releaseVersion,
             final Pattern versionPattern,
             final LocalDate releaseDate) {
+        this(changelogDirectory, releaseVersion, versionPattern, releaseDate, XmlValidator.off());
+    }
+
+    public ChangelogReleaserArgs(
+            final Path changelogDirectory,
+            final String releaseVersion,
+            final Pattern versionPattern,
+            final LocalDate releaseDate,
+            final XmlValidator validator) {
+        this(
+                changelogDirectory,
+                releaseVersion,
+                versionPattern,
+                releaseDate,
+                validator,
+                ExecutorUtils.defaultParallelism());
+    }
+
+    public ChangelogReleaserArgs(
+            final Path changelogDirectory,
+            final String releaseVersion,
+            final Pattern versionPattern,
+            final LocalDate releaseDate,
+            final XmlValidator validator,
+            final int parallelism) {
         this.changelogDirectory = Objects.requireNonNull(changelogDirectory, "changelogDirectory");
         this.releaseVersion = Objects.requireNonNull(releaseVersion, "releaseVersion");
         final Pattern effectiveVersionPattern = versionPattern != null ? versionPattern : DEFAULT_VERSION_PATTERN;
         this.releaseVersionMajor = readReleaseVersionMajor(releaseVersion, effectiveVersionPattern);
         this.releaseDate = Objects.requireNonNull(releaseDate, "releaseDate");
+        this.validator = Objects.requireNonNull(validator, "validator");
+        this.parallelism = ExecutorUtils.requireValidParallelism(parallelism);
     }
 
     private static int readReleaseVersionMajor(final String releaseVersion, final Pattern versionPattern) {
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+public final class DigestUtils {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private DigestUtils() {}
+
+    public static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException error) {
+            // Every Java platform implementation is required to support SHA-256
+            throw new IllegalStateException(error);
+        }
+    }
+
+    public static void updateDigest(final MessageDigest digest, final String text) {
+        final byte[] textBytes = text.getBytes(CharsetUtils.CHARSET);
+        updateDigest(digest, textBytes.length);
+        digest.update(textBytes);
+    }
+
+    public static void updateDigest(final MessageDigest digest, final long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            digest.update((byte) (value >>> shift));
+        }
+    }
+
+    /**
+     * Feeds the file name and the content of the given file to the digest.
+     */
+    public static void updateDigest(final MessageDigest digest, final Path file) {
+        final byte[] fileBytes;
+        try {
+            fileBytes = Files.readAllBytes(file);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading file: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+        updateDigest(digest, String.valueOf(file.getFileName()));
+        updateDigest(digest, fileBytes.length);
+        digest.update(fileBytes);
+    }
+
+    /**
+     * Feeds the file name, the size, and the modification time of the given file to the digest, which is considerably cheaper than {@link #updateDigest(MessageDigest, Path) feeding its content}.
+     */
+    public static void updateDigestWithStamp(final MessageDigest digest, final Path file) {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final IOException error) {
+            final String message = String.format("failed reading file attributes: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+        updateDigest(digest, String.valueOf(file.getFileName()));
+        updateDigest(digest, attributes.size());
+        updateDigest(digest, attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+    }
+
+    public static String digestHex(final byte[] bytes) {
+        final MessageDigest digest = createDigest();
+        digest.update(bytes);
+        return toHex(digest.digest());
+    }
+
+    public static String toHex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int byteIndex = 0; byteIndex < bytes.length; byteIndex++) {
+            final int value = bytes[byteIndex] & 0xFF;
+            chars[2 * byteIndex] = HEX_DIGITS[value >>> 4];
+            chars[2 * byteIndex + 1] = HEX_DIGITS[value & 0x0F];
+        }
+        return new String(chars);
+    }
+
+}
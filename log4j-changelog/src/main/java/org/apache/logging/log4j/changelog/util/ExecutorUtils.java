@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+public final class ExecutorUtils {
+
+    private ExecutorUtils() {}
+
+    public static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public static int requireValidParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            final String message = String.format("was expecting `parallelism > 0`, found: %d", parallelism);
+            throw new IllegalArgumentException(message);
+        }
+        return parallelism;
+    }
+
+    /**
+     * Runs the given function with an executor.
+     * <p>
+     * If an executor is provided, it is used as is and left running.
+     * Otherwise, a dedicated executor of given parallelism is created and shut down once the function completes.
+     * If the parallelism is one, no executor is created and the function receives {@code null}, which {@link #mapOrdered(ExecutorService, List, Function) mapOrdered()} interprets as running in the caller thread.
+     * </p>
+     */
+    public static <V> V withExecutor(
+            @Nullable final ExecutorService executor,
+            final int parallelism,
+            final Function<ExecutorService, V> function) {
+        if (executor != null) {
+            return function.apply(executor);
+        }
+        if (parallelism == 1) {
+            return function.apply(null);
+        }
+        final ExecutorService dedicatedExecutor = Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory());
+        try {
+            return function.apply(dedicatedExecutor);
+        } finally {
+            dedicatedExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies the function to each input using the given executor and collects the outputs in input order.
+     * <p>
+     * If the executor is {@code null}, inputs are processed sequentially in the caller thread.
+     * The first failure (in input order) is rethrown after cancelling the remaining tasks.
+     * </p>
+     */
+    public static <I, O> List<O> mapOrdered(
+            @Nullable final ExecutorService executor,
+            final List<I> inputs,
+            final Function<I, O> function) {
+        if (executor == null) {
+            return inputs.stream().map(function).collect(Collectors.toList());
+        }
+        final List<Future<O>> futures = new ArrayList<>(inputs.size());
+        try {
+            for (final I input : inputs) {
+                futures.add(executor.submit(() -> function.apply(input)));
+            }
+            final List<O> outputs = new ArrayList<>(inputs.size());
+            for (final Future<O> future : futures) {
+                outputs.add(await(future));
+            }
+            return outputs;
+        } finally {
+            // This is a no-op for completed tasks
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Waits for the given task to complete and returns its result.
+     * <p>
+     * Failures of the task are rethrown as is, if they are unchecked.
+     * </p>
+     */
+    public static <V> V await(final Future<V> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for a task to complete", error);
+        } catch (final ExecutionException error) {
+            final Throwable cause = error.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+        private final int poolId = POOL_COUNTER.incrementAndGet();
+
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final String threadName = String.format(
+                    "log4j-changelog-%d-%d",
+                    poolId,
+                    threadCounter.incrementAndGet());
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.nio.file.Path;
+
+/**
+ * Java Flight Recorder event of a file operation: reading a changelog entry file, rendering a template, writing a file, or scanning a directory.
+ * <p>
+ * Java Flight Recorder is not available in Java 8, hence this variant doesn't emit any events.
+ * Java 11 and later use the variant in {@code META-INF/versions/11} of the multi-release JAR instead.
+ * </p>
+ */
+public final class FileEvent {
+
+    private static final FileEvent DISABLED = new FileEvent();
+
+    private FileEvent() {}
+
+    /**
+     * Begins the event of reading the given changelog entry file.
+     */
+    public static FileEvent beginEntryRead(final Path file) {
+        return DISABLED;
+    }
+
+    /**
+     * Begins the event of rendering the given template file.
+     */
+    public static FileEvent beginTemplateRender(final Path templateFile) {
+        return DISABLED;
+    }
+
+    /**
+     * Begins the event of writing the given file.
+     */
+    public static FileEvent beginFileWrite(final Path file) {
+        return DISABLED;
+    }
+
+    /**
+     * Begins the event of scanning the given directory.
+     */
+    public static FileEvent beginDirectoryScan(final Path directory) {
+        return DISABLED;
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param amount the number of bytes read or written, characters rendered, or files found
+     */
+    public void end(final long amount) {}
+
+    /**
+     * Ends and commits the event using the size of its file as the amount.
+     * <p>
+     * The file size is only read if the event is recorded.
+     * </p>
+     */
+    public void endWithFileSize() {}
+
+}
@@ -18,11 +18,20 @@ package org.apache.logging.log4j.changelog.util;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import edu.umd.cs.findbugs.annotations.Nullable;
+
 public final class FileUtils {
 
     private FileUtils() {}
@@ -38,6 +47,8 @@ public final class FileUtils {
             final Path directory,
             final boolean dotFilesSkipped,
             final Function<Stream<Path>, V> consumer) {
+        final FileEvent event = FileEvent.beginDirectoryScan(directory);
+        final AtomicLong fileCount = new AtomicLong();
         try (final Stream<Path> paths = Files.walk(directory, 1)) {
             final Stream<Path> filteredPaths = paths.filter(path -> {
 
@@ -53,14 +64,93 @@ public final class FileUtils {
                 }
 
                 // Accept the rest
+                fileCount.incrementAndGet();
                 return true;
 
             });
-            return consumer.apply(filteredPaths);
+            final V result = consumer.apply(filteredPaths);
+            event.end(fileCount.get());
+            return result;
         } catch (final IOException error) {
             final String message = String.format("failed walking directory: `%s`", directory);
             throw new UncheckedIOException(message, error);
         }
     }
 
+    /**
+     * Opens the given ZIP archive as a file system.
+     */
+    public static FileSystem openArchive(final Path archiveFile) {
+        try {
+            return FileSystems.newFileSystem(archiveFile, (ClassLoader) null);
+        } catch (final IOException error) {
+            final String message = String.format("failed opening archive: `%s`", archiveFile);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
+    /**
+     * Writes the given content to the file, unless the file already has the very same content.
+     * <p>
+     * Sizes are compared first, hence the existing file is only read if it has the same size.
+     * The file is replaced {@link #writeAtomically(Path, byte[]) atomically}, if written.
+     * Skipping unchanged files preserves their modification times, which allows tools processing them to skip them too.
+     * </p>
+     *
+     * @return {@code true}, if the file is written
+     */
+    public static boolean writeIfChanged(final Path file, final byte[] content) {
+        try {
+            if (Files.size(file) == content.length && Arrays.equals(Files.readAllBytes(file), content)) {
+                return false;
+            }
+        } catch (final NoSuchFileException ignored) {
+            // The file needs to be created
+        } catch (final IOException error) {
+            final String message = String.format("failed reading file: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+        writeAtomically(file, content);
+        return true;
+    }
+
+    /**
+     * Writes the given content to a temporary file next to the given file, and moves it into place.
+     * <p>
+     * Hence, concurrent readers never observe a partially written file.
+     * Parent directories are created, if necessary.
+     * </p>
+     */
+    public static void writeAtomically(final Path file, final byte[] content) {
+        @Nullable
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent == null) {
+            final String message = String.format("was expecting a file with a parent directory, found: `%s`", file);
+            throw new IllegalArgumentException(message);
+        }
+        try {
+            Files.createDirectories(parent);
+            final Path temporaryFile = Files.createTempFile(parent, ".log4j-changelog-", ".tmp");
+            try {
+                final FileEvent event = FileEvent.beginFileWrite(file);
+                Files.write(temporaryFile, content);
+                try {
+                    Files.move(
+                            temporaryFile,
+                            file,
+                            StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException ignored) {
+                    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                event.end(content.length);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (final IOException error) {
+            final String message = String.format("failed writing file: `%s`", file);
+            throw new UncheckedIOException(message, error);
+        }
+    }
+
 }
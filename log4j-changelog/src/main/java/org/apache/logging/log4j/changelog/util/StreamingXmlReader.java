@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * A StAX-based XML reader mapping elements to objects in a single pass without building a DOM.
+ * <p>
+ * The reader is always positioned at an element, which is referred to as the <em>current element</em>.
+ * Failures are reported with the line number of the current element.
+ * </p>
+ */
+public final class StreamingXmlReader {
+
+    private final XMLStreamReader reader;
+
+    private int depth;
+
+    private StreamingXmlReader(final XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the given XML file using the provided function, which is invoked with the reader positioned at the root element.
+     */
+    public static <V> V readXmlFile(
+            final Path path,
+            final String rootElementName,
+            final Function<StreamingXmlReader, V> rootElementReader) {
+        return readXmlFile(path, XmlValidator.off(), rootElementName, rootElementReader);
+    }
+
+    /**
+     * Reads the given XML file using the provided function, which is invoked with the reader positioned at the root element.
+     * <p>
+     * Unless the validator is {@link XmlValidator.Mode#OFF off}, the file is read into memory once, validated, and then parsed.
+     * </p>
+     */
+    // DTDs and external entities are disabled by `XmlUtils.xmlInputFactory()`
+    @SuppressFBWarnings("XXE_XMLSTREAMREADER")
+    public static <V> V readXmlFile(
+            final Path path,
+            final XmlValidator validator,
+            final String rootElementName,
+            final Function<StreamingXmlReader, V> rootElementReader) {
+        try (final InputStream inputStream = openXmlFile(path, validator)) {
+            final XMLStreamReader reader = XmlUtils.xmlInputFactory().createXMLStreamReader(inputStream);
+            try {
+                final StreamingXmlReader streamingReader = new StreamingXmlReader(reader);
+                streamingReader.next(XMLStreamConstants.START_ELEMENT);
+                final String actualRootElementName = streamingReader.elementName();
+                if (!rootElementName.equals(actualRootElementName)) {
+                    final String message = String.format(
+                            "was expecting root element to be called `%s`, found: `%s`",
+                            rootElementName, actualRootElementName);
+                    throw new IllegalArgumentException(message);
+                }
+                return rootElementReader.apply(streamingReader);
+            } finally {
+                reader.close();
+            }
+        } catch (final Exception error) {
+            final String message = String.format(
+                    "XML read failure for file `%s` and root element `%s`", path, rootElementName);
+            throw new RuntimeException(message, error);
+        }
+    }
+
+    private static InputStream openXmlFile(final Path path, final XmlValidator validator) throws IOException {
+        if (validator.mode() == XmlValidator.Mode.OFF) {
+            return Files.newInputStream(path);
+        }
+        final byte[] content = Files.readAllBytes(path);
+        validator.validate(content);
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Gets the name of the current element.
+     *
+     * @return the qualified name of the current element
+     */
+    public String elementName() {
+        final String prefix = reader.getPrefix();
+        final String localName = reader.getLocalName();
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName;
+    }
+
+    public int lineNumber() {
+        return reader.getLocation().getLineNumber();
+    }
+
+    @Nullable
+    public String attribute(final String attributeName) {
+        for (int attributeIndex = 0; attributeIndex < reader.getAttributeCount(); attributeIndex++) {
+            final String prefix = reader.getAttributePrefix(attributeIndex);
+            final String localName = reader.getAttributeLocalName(attributeIndex);
+            final String qualifiedName = prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName;
+            if (attributeName.equals(qualifiedName)) {
+                return reader.getAttributeValue(attributeIndex);
+            }
+        }
+        return null;
+    }
+
+    public String requireAttribute(final String attributeName) {
+        @Nullable
+        final String attributeValue = attribute(attributeName);
+        if (attributeValue == null) {
+            throw failure("missing attribute: `%s`", attributeName);
+        }
+        return attributeValue;
+    }
+
+    /**
+     * Invokes the consumer for each child element of the current element, and positions the reader at the end of the current element.
+     * <p>
+     * The consumer is invoked with the reader positioned at the child element.
+     * The rest of the child element is skipped after the consumer returns.
+     * </p>
+     */
+    public void forEachChildElement(final Consumer<StreamingXmlReader> childElementConsumer) {
+        forEachChildElementWhile(childReader -> {
+            childElementConsumer.accept(childReader);
+            return true;
+        });
+    }
+
+    /**
+     * Invokes the predicate for each child element of the current element until it returns {@code false}.
+     * <p>
+     * If all child elements are accepted, the reader is positioned at the end of the current element.
+     * Otherwise, the reader is left at the rejected child element, and the rest of the document is not read.
+     * Hence, this is only suitable for reading a prefix of the document, e.g., to peek at the leading child elements.
+     * </p>
+     *
+     * @return {@code true}, if all child elements are accepted
+     */
+    public boolean forEachChildElementWhile(final Predicate<StreamingXmlReader> childElementPredicate) {
+        final int parentDepth = depth;
+        while (true) {
+            final int event = next(XMLStreamConstants.START_ELEMENT, XMLStreamConstants.END_ELEMENT);
+            if (event == XMLStreamConstants.END_ELEMENT && depth < parentDepth) {
+                return true;
+            }
+            if (!childElementPredicate.test(this)) {
+                return false;
+            }
+            skipToEndOfElementAtDepth(parentDepth + 1);
+        }
+    }
+
+    /**
+     * Reads the concatenated text content of the current element, including its descendants, and positions the reader at the end of the current element.
+     */
+    public String readElementText() {
+        final int elementDepth = depth;
+        final StringBuilder textBuilder = new StringBuilder();
+        while (true) {
+            final int event = nextEvent();
+            if (event == XMLStreamConstants.CHARACTERS
+                    || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                textBuilder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            } else if (event == XMLStreamConstants.END_ELEMENT && depth < elementDepth) {
+                return textBuilder.toString();
+            }
+        }
+    }
+
+    /**
+     * Creates a failure of the current element.
+     *
+     * @return a failure reported at the line of the current element
+     */
+    public RuntimeException failure(final String messageFormat, final Object... messageArgs) {
+        return failureAtLine(null, lineNumber(), messageFormat, messageArgs);
+    }
+
+    /**
+     * Creates a failure of the element at the given line.
+     *
+     * @return a failure reported at the given line, which is useful for failures of an element detected after reading its children
+     */
+    public static RuntimeException failureAtLine(
+            @Nullable final Throwable cause,
+            final int lineNumber,
+            final String messageFormat,
+            final Object... messageArgs) {
+        final String messagePrefix = String.format("[line %d] ", lineNumber);
+        final String message = String.format(messagePrefix + messageFormat, messageArgs);
+        return new IllegalArgumentException(message, cause);
+    }
+
+    private void skipToEndOfElementAtDepth(final int elementDepth) {
+        while (depth >= elementDepth) {
+            nextEvent();
+        }
+    }
+
+    /**
+     * Advances to the next event of one of the given types, skipping the rest.
+     */
+    private int next(final int... eventTypes) {
+        while (true) {
+            final int event = nextEvent();
+            for (final int eventType : eventTypes) {
+                if (event == eventType) {
+                    return event;
+                }
+            }
+        }
+    }
+
+    private int nextEvent() {
+        try {
+            if (!reader.hasNext()) {
+                throw new IllegalStateException("unexpected end of document");
+            }
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+            return event;
+        } catch (final XMLStreamException error) {
+            throw new RuntimeException(error);
+        }
+    }
+
+}
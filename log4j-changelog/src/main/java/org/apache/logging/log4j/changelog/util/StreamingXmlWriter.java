@@ -0,0 +1,318 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A streaming XML writer emitting changelog files without building a DOM.
+ * <p>
+ * The output is formatted the way changelog files always have been: an XML declaration, the license comment, namespace attributes of the root element each on its own line, the rest of the attributes sorted by name, and child elements indented by two spaces.
+ * Elements either contain child elements or text, not both.
+ * </p>
+ */
+public final class StreamingXmlWriter {
+
+    private static final String LS = System.lineSeparator();
+
+    private static final String LICENSE_COMMENT = "<!--" + LS +
+            "  ~ Licensed to the Apache Software Foundation (ASF) under one or more" + LS +
+            "  ~ contributor license agreements.  See the NOTICE file distributed with" + LS +
+            "  ~ this work for additional information regarding copyright ownership." + LS +
+            "  ~ The ASF licenses this file to you under the Apache License, Version 2.0" + LS +
+            "  ~ (the \"License\"); you may not use this file except in compliance with" + LS +
+            "  ~ the License.  You may obtain a copy of the License at" + LS +
+            "  ~" + LS +
+            "  ~      http://www.apache.org/licenses/LICENSE-2.0" + LS +
+            "  ~" + LS +
+            "  ~ Unless required by applicable law or agreed to in writing, software" + LS +
+            "  ~ distributed under the License is distributed on an \"AS IS\" BASIS," + LS +
+            "  ~ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied." + LS +
+            "  ~ See the License for the specific language governing permissions and" + LS +
+            "  ~ limitations under the License." + LS +
+            "  -->";
+
+    private final Writer writer;
+
+    private ElementState element;
+
+    private StreamingXmlWriter(final Writer writer, final String rootElementName) {
+        this.writer = writer;
+        this.element = new ElementState(null, rootElementName, 0);
+    }
+
+    private static final class ElementState {
+
+        @Nullable
+        private final ElementState parent;
+
+        private final String name;
+
+        private final int depth;
+
+        // Sorted to match the attribute order of earlier DOM-serialized files
+        private final Map<String, String> attributes = new TreeMap<>();
+
+        private final StringBuilder textBuilder = new StringBuilder();
+
+        private boolean startTagWritten;
+
+        private ElementState(@Nullable final ElementState parent, final String name, final int depth) {
+            this.parent = parent;
+            this.name = name;
+            this.depth = depth;
+        }
+
+    }
+
+    public static void toFile(
+            final Path filepath,
+            final String rootElementName,
+            final Consumer<StreamingXmlWriter> rootElementWriter) {
+        final FileEvent event = FileEvent.beginFileWrite(filepath);
+        try {
+            try (final BufferedWriter writer = newBufferedWriter(filepath)) {
+                write(writer, rootElementName, rootElementWriter);
+            }
+            event.endWithFileSize();
+        } catch (final Exception error) {
+            final String message = String.format("failed writing XML to file `%s`", filepath);
+            throw new RuntimeException(message, error);
+        }
+    }
+
+    /**
+     * Opens the file for writing and creates its parent directories only if they are missing.
+     * <p>
+     * Writing many files to the same directory is the common case, where calling {@link Files#createDirectories(Path, java.nio.file.attribute.FileAttribute[]) createDirectories()} upfront would cost a failed directory creation per file.
+     * </p>
+     */
+    private static BufferedWriter newBufferedWriter(final Path filepath) throws IOException {
+        try {
+            return Files.newBufferedWriter(
+                    filepath, CharsetUtils.CHARSET, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (final NoSuchFileException error) {
+            @Nullable
+            final Path filepathParent = filepath.getParent();
+            if (filepathParent == null) {
+                throw error;
+            }
+            Files.createDirectories(filepathParent);
+            return Files.newBufferedWriter(
+                    filepath, CharsetUtils.CHARSET, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    public static String toString(final String rootElementName, final Consumer<StreamingXmlWriter> rootElementWriter) {
+        final StringWriter writer = new StringWriter();
+        write(writer, rootElementName, rootElementWriter);
+        return writer.toString();
+    }
+
+    private static void write(
+            final Writer writer,
+            final String rootElementName,
+            final Consumer<StreamingXmlWriter> rootElementWriter) {
+        final StreamingXmlWriter streamingWriter = new StreamingXmlWriter(writer, rootElementName);
+        streamingWriter.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + LS + LICENSE_COMMENT + LS);
+        rootElementWriter.accept(streamingWriter);
+        streamingWriter.writeEndElement();
+    }
+
+    /**
+     * Sets an attribute of the current element.
+     */
+    public StreamingXmlWriter attribute(final String attributeName, final String attributeValue) {
+        if (element.startTagWritten) {
+            final String message = String.format(
+                    "cannot add attribute `%s` to element `%s` after its content",
+                    attributeName, element.name);
+            throw new IllegalStateException(message);
+        }
+        element.attributes.put(attributeName, attributeValue);
+        return this;
+    }
+
+    /**
+     * Appends text to the current element.
+     */
+    public StreamingXmlWriter text(@Nullable final String text) {
+        if (element.startTagWritten) {
+            final String message = String.format("cannot mix text and child elements in element `%s`", element.name);
+            throw new IllegalStateException(message);
+        }
+        if (text != null) {
+            element.textBuilder.append(text);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a child element to the current element.
+     *
+     * @param elementWriter invoked with this writer positioned at the child element
+     */
+    public StreamingXmlWriter element(final String elementName, final Consumer<StreamingXmlWriter> elementWriter) {
+        if (element.textBuilder.length() > 0) {
+            final String message = String.format("cannot mix text and child elements in element `%s`", element.name);
+            throw new IllegalStateException(message);
+        }
+        if (!element.startTagWritten) {
+            writeStartTag(false);
+            write(LS);
+        }
+        element = new ElementState(element, elementName, element.depth + 1);
+        elementWriter.accept(this);
+        writeEndElement();
+        return this;
+    }
+
+    private void writeEndElement() {
+        if (element.startTagWritten) {
+            writeIndentation();
+            write("</" + element.name + '>');
+        } else if (element.textBuilder.length() == 0) {
+            writeStartTag(true);
+        } else {
+            writeStartTag(false);
+            writeEscapedText(element.textBuilder);
+            write("</" + element.name + '>');
+        }
+        write(LS);
+        if (element.parent != null) {
+            element = element.parent;
+        }
+    }
+
+    private void writeStartTag(final boolean empty) {
+        writeIndentation();
+        write("<" + element.name);
+        if (element.parent == null) {
+            writeRootNamespaceAttributes();
+        }
+        element.attributes.forEach((attributeName, attributeValue) -> {
+            write(" " + attributeName + "=\"");
+            writeEscapedAttributeValue(attributeValue);
+            write("\"");
+        });
+        write(empty ? "/>" : ">");
+        element.startTagWritten = true;
+    }
+
+    private void writeRootNamespaceAttributes() {
+        final String padding = StringUtils.repeat(" ", element.name.length() + 2);
+        write(" xmlns=\"" + XmlUtils.XML_NAMESPACE + "\"" + LS +
+                padding + "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"" + LS +
+                padding + "xsi:schemaLocation=\"" + XmlUtils.XML_NAMESPACE + " " + XmlUtils.XML_SCHEMA_LOCATION + "\"");
+        // The rest of the attributes go to the next line
+        if (!element.attributes.isEmpty()) {
+            write(LS + padding.substring(1));
+        }
+    }
+
+    private void writeIndentation() {
+        write(StringUtils.repeat("  ", element.depth));
+    }
+
+    private void writeEscapedText(final CharSequence text) {
+        final StringBuilder escapedTextBuilder = new StringBuilder(text.length());
+        for (int charIndex = 0; charIndex < text.length(); charIndex++) {
+            final char c = text.charAt(charIndex);
+            if (c == '\n') {
+                escapedTextBuilder.append(LS);
+            } else if (c == '\t') {
+                escapedTextBuilder.append(c);
+            } else if (c < 0x20 || (c >= 0x7F && c <= 0x9F)) {
+                appendCharacterReference(escapedTextBuilder, c);
+            } else {
+                charIndex = appendEscapedChar(escapedTextBuilder, text, charIndex);
+            }
+        }
+        write(escapedTextBuilder);
+    }
+
+    private void writeEscapedAttributeValue(final CharSequence value) {
+        final StringBuilder escapedValueBuilder = new StringBuilder(value.length());
+        for (int charIndex = 0; charIndex < value.length(); charIndex++) {
+            final char c = value.charAt(charIndex);
+            if (c < 0x20) {
+                appendCharacterReference(escapedValueBuilder, c);
+            } else if (c == '"') {
+                escapedValueBuilder.append("&quot;");
+            } else {
+                charIndex = appendEscapedChar(escapedValueBuilder, value, charIndex);
+            }
+        }
+        write(escapedValueBuilder);
+    }
+
+    /**
+     * Appends the character at the given index with escaping common to both text and attribute values.
+     *
+     * @return the index of the last character consumed
+     */
+    private static int appendEscapedChar(final StringBuilder builder, final CharSequence chars, final int charIndex) {
+        final char c = chars.charAt(charIndex);
+        switch (c) {
+            case '&':
+                builder.append("&amp;");
+                return charIndex;
+            case '<':
+                builder.append("&lt;");
+                return charIndex;
+            case '>':
+                builder.append("&gt;");
+                return charIndex;
+            default:
+                // Supplementary characters are written as character references
+                if (Character.isHighSurrogate(c)
+                        && charIndex + 1 < chars.length()
+                        && Character.isLowSurrogate(chars.charAt(charIndex + 1))) {
+                    appendCharacterReference(builder, Character.toCodePoint(c, chars.charAt(charIndex + 1)));
+                    return charIndex + 1;
+                }
+                builder.append(c);
+                return charIndex;
+        }
+    }
+
+    private static void appendCharacterReference(final StringBuilder builder, final int codePoint) {
+        builder.append("&#").append(codePoint).append(';');
+    }
+
+    private void write(final CharSequence chars) {
+        try {
+            writer.append(chars);
+        } catch (final IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+}
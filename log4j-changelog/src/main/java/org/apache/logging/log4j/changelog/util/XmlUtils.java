@@ -16,15 +16,24 @@
  */
 package org.apache.logging.log4j.changelog.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
+/**
+ * Shared XML infrastructure.
+ * <p>
+ * The schema is compiled once and the factory is created once and never mutated afterwards.
+ * </p>
+ */
 final class XmlUtils {
 
     static final String XML_NAMESPACE = "http://logging.apache.org/log4j/changelog";
@@ -33,79 +42,90 @@ final class XmlUtils {
 
     private XmlUtils() {}
 
-    static DocumentBuilderFactory createDocumentBuilderFactory() {
-        final DocumentBuilderFactory dbf = createSecureDocumentBuilderFactory();
-        final Schema schema = readSchema();
-        dbf.setSchema(schema);
-        dbf.setValidating(true);
-        return dbf;
+    private static final String SCHEMA_FILE_NAME = "/log4j-changelog.xsd";
+
+    /**
+     * Lazily initialized holder of the shared factory and the compiled schema.
+     */
+    private static final class Holder {
+
+        private static final byte[] SCHEMA_BYTES = readSchemaBytes();
+
+        private static final String SCHEMA_DIGEST = DigestUtils.digestHex(SCHEMA_BYTES);
+
+        private static final Schema SCHEMA = readSchema(SCHEMA_BYTES);
+
+        private static final XMLInputFactory XML_INPUT_FACTORY = createSecureXmlInputFactory();
+
     }
 
     /**
-     * @return a {@link DocumentBuilderFactory} instance configured with certain XXE protection measures
-     * @see <a href="https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html#jaxp-documentbuilderfactory-saxparserfactory-and-dom4j">XML External Entity Prevention Cheat Sheet</a>
+     * Gets the changelog schema.
+     *
+     * @return the compiled {@code log4j-changelog.xsd} schema, which is immutable and safe to share between threads
      */
-    private static DocumentBuilderFactory createSecureDocumentBuilderFactory() {
-        final DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        String feature = null;
-        try {
+    static Schema schema() {
+        return Holder.SCHEMA;
+    }
 
-            // This is the PRIMARY defense.
-            // If DTDs (doctypes) are disallowed, almost all XML entity attacks are prevented.
-            // Xerces 2 only - http://xerces.apache.org/xerces2-j/features.html#disallow-doctype-decl
-            feature = "http://apache.org/xml/features/disallow-doctype-decl";
-            dbf.setFeature(feature, true);
-
-            // If you can't completely disable DTDs, then at least do the following:
-            // Xerces 1 - http://xerces.apache.org/xerces-j/features.html#external-general-entities
-            // Xerces 2 - http://xerces.apache.org/xerces2-j/features.html#external-general-entities
-            // JDK7+ - http://xml.org/sax/features/external-general-entities
-            // This feature has to be used together with the following one, otherwise it will not protect you from XXE for sure.
-            feature = "http://xml.org/sax/features/external-general-entities";
-            dbf.setFeature(feature, false);
-
-            // Xerces 1 - http://xerces.apache.org/xerces-j/features.html#external-parameter-entities
-            // Xerces 2 - http://xerces.apache.org/xerces2-j/features.html#external-parameter-entities
-            // JDK7+ - http://xml.org/sax/features/external-parameter-entities
-            // This feature has to be used together with the previous one, otherwise it will not protect you from XXE for sure.
-            feature = "http://xml.org/sax/features/external-parameter-entities";
-            dbf.setFeature(feature, false);
-
-            // Disable external DTDs as well
-            feature = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
-            dbf.setFeature(feature, false);
-
-            // and these as well, per Timothy Morgan's 2014 paper: "XML Schema, DTD, and Entity Attacks"
-            dbf.setXIncludeAware(false);
-            dbf.setExpandEntityReferences(false);
-
-        } catch (final ParserConfigurationException error) {
-            final String message = String.format("`%s` is probably not supported by your XML processor", feature);
-            throw new RuntimeException(message, error);
-        }
-        return dbf;
+    /**
+     * Gets the digest of the changelog schema.
+     *
+     * @return the SHA-256 digest of the {@code log4j-changelog.xsd} schema, which changes whenever the schema changes
+     */
+    static String schemaDigest() {
+        return Holder.SCHEMA_DIGEST;
     }
 
-    private static Schema readSchema() {
+    /**
+     * Gets the shared factory of XML stream readers.
+     *
+     * @return an {@link XMLInputFactory}, which is safe to share between threads for creating readers
+     */
+    static XMLInputFactory xmlInputFactory() {
+        return Holder.XML_INPUT_FACTORY;
+    }
 
-        // Read the schema file resource
-        final String schemaFileName = "/log4j-changelog.xsd";
-        final InputStream schemaInputStream = XmlUtils.class.getResourceAsStream(schemaFileName);
-        if (schemaInputStream == null) {
-            final String message = String.format("could not find the schema file resource: `%s`", schemaFileName);
-            throw new RuntimeException(message);
+    /**
+     * @return an {@link XMLInputFactory} instance with DTDs and external entities disabled
+     * @see <a href="https://cheatsheetseries.owasp.org/cheatsheets/XML_External_Entity_Prevention_Cheat_Sheet.html#jaxp-documentbuilderfactory-saxparserfactory-and-dom4j">XML External Entity Prevention Cheat Sheet</a>
+     */
+    private static XMLInputFactory createSecureXmlInputFactory() {
+        final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xmlInputFactory;
+    }
+
+    private static byte[] readSchemaBytes() {
+        try (final InputStream schemaInputStream = XmlUtils.class.getResourceAsStream(SCHEMA_FILE_NAME)) {
+            if (schemaInputStream == null) {
+                final String message =
+                        String.format("could not find the schema file resource: `%s`", SCHEMA_FILE_NAME);
+                throw new RuntimeException(message);
+            }
+            final ByteArrayOutputStream schemaOutputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int readByteCount;
+            while ((readByteCount = schemaInputStream.read(buffer)) > 0) {
+                schemaOutputStream.write(buffer, 0, readByteCount);
+            }
+            return schemaOutputStream.toByteArray();
+        } catch (final IOException error) {
+            final String message = String.format("failed to read the schema file resource: `%s`", SCHEMA_FILE_NAME);
+            throw new UncheckedIOException(message, error);
         }
+    }
 
-        // Read the schema
+    private static Schema readSchema(final byte[] schemaBytes) {
         try {
-            final StreamSource schemaSource = new StreamSource(schemaInputStream);
+            final StreamSource schemaSource = new StreamSource(new ByteArrayInputStream(schemaBytes));
             final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
             return schemaFactory.newSchema(schemaSource);
         } catch (final Exception error) {
-            final String message = String.format("failed to load schema from file resource: `%s`", schemaFileName);
+            final String message = String.format("failed to load schema from file resource: `%s`", SCHEMA_FILE_NAME);
             throw new RuntimeException(message, error);
         }
-
     }
 
 }
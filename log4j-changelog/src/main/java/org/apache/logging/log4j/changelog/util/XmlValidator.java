@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Validates changelog XML files against the {@code log4j-changelog.xsd} schema, which is compiled once and shared.
+ * <p>
+ * In {@link Mode#CHANGED} mode, the SHA-256 digests of the contents that passed validation are kept, and optionally persisted to a cache file, so that unchanged files are never validated again.
+ * The cache is keyed by contents rather than paths, hence moving or renaming a file (e.g., while releasing) doesn't invalidate it.
+ * The cache file is discarded once the schema changes.
+ * </p>
+ * <p>
+ * Instances are safe to share between threads.
+ * </p>
+ */
+public final class XmlValidator {
+
+    public static final String DEFAULT_CACHE_FILE_NAME = ".changelog-validation-cache.txt";
+
+    public enum Mode {
+
+        /**
+         * Validates every file read.
+         */
+        STRICT,
+
+        /**
+         * Validates only the files whose contents didn't pass validation before.
+         */
+        CHANGED,
+
+        /**
+         * Doesn't validate any files.
+         */
+        OFF
+
+    }
+
+    private static final XmlValidator OFF = new XmlValidator(Mode.OFF, null, Collections.emptySet());
+
+    /**
+     * {@link Validator} is not thread-safe, yet reusing one per thread is considerably cheaper than creating one per file.
+     */
+    private static final ThreadLocal<Validator> VALIDATOR = ThreadLocal.withInitial(XmlValidator::createValidator);
+
+    private final Mode mode;
+
+    @Nullable
+    private final Path cacheFile;
+
+    private final Set<String> validatedDigests;
+
+    private final int cachedDigestCount;
+
+    private final LongAdder validatedFileCount = new LongAdder();
+
+    private final LongAdder skippedFileCount = new LongAdder();
+
+    private XmlValidator(final Mode mode, @Nullable final Path cacheFile, final Set<String> cachedDigests) {
+        this.mode = mode;
+        this.cacheFile = cacheFile;
+        this.validatedDigests = ConcurrentHashMap.newKeySet();
+        this.validatedDigests.addAll(cachedDigests);
+        this.cachedDigestCount = cachedDigests.size();
+    }
+
+    /**
+     * Creates a validator that is turned off.
+     *
+     * @return a validator that doesn't validate any files
+     */
+    public static XmlValidator off() {
+        return OFF;
+    }
+
+    /**
+     * Creates a validator that is always turned on.
+     *
+     * @return a validator that validates every file read
+     */
+    public static XmlValidator strict() {
+        return new XmlValidator(Mode.STRICT, null, Collections.emptySet());
+    }
+
+    /**
+     * Creates a validator of the given mode.
+     *
+     * @param cacheFile the file to read the validation cache from and {@link #saveCache() save} it to; if not provided, the cache is only kept in memory; ignored, unless the mode is {@link Mode#CHANGED}
+     */
+    public static XmlValidator of(final Mode mode, @Nullable final Path cacheFile) {
+        Objects.requireNonNull(mode, "mode");
+        if (mode == Mode.OFF) {
+            return OFF;
+        }
+        if (mode == Mode.STRICT) {
+            return strict();
+        }
+        return new XmlValidator(mode, cacheFile, readCache(cacheFile));
+    }
+
+    private static Set<String> readCache(@Nullable final Path cacheFile) {
+        if (cacheFile == null || !Files.isRegularFile(cacheFile)) {
+            return Collections.emptySet();
+        }
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(cacheFile, CharsetUtils.CHARSET);
+        } catch (final IOException error) {
+            System.out.format("ignoring the unreadable validation cache `%s`: %s%n", cacheFile, error.getMessage());
+            return Collections.emptySet();
+        }
+        if (lines.isEmpty() || !cacheHeader().equals(lines.get(0))) {
+            System.out.format("ignoring the validation cache `%s` of a different schema%n", cacheFile);
+            return Collections.emptySet();
+        }
+        return new HashSet<>(lines.subList(1, lines.size()));
+    }
+
+    private static String cacheHeader() {
+        return "# schema " + XmlUtils.schemaDigest();
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Gets the digest of the schema used for validation.
+     *
+     * @return the digest of the schema files are validated against, or {@code null}, if the mode is {@link Mode#OFF}
+     */
+    @Nullable
+    public String schemaDigest() {
+        return mode == Mode.OFF ? null : XmlUtils.schemaDigest();
+    }
+
+    /**
+     * Counts the files validated so far.
+     *
+     * @return the number of files validated against the schema
+     */
+    public long validatedFileCount() {
+        return validatedFileCount.sum();
+    }
+
+    /**
+     * Counts the files whose validation is skipped so far.
+     *
+     * @return the number of files whose validation is skipped, since their contents passed validation before
+     */
+    public long skippedFileCount() {
+        return skippedFileCount.sum();
+    }
+
+    /**
+     * Validates the given file contents against the schema, unless the mode tells otherwise.
+     *
+     * @param content the contents of the file to be validated
+     * @throws IllegalArgumentException on validation failures, reported with the line number
+     */
+    public void validate(final byte[] content) {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        @Nullable
+        final String digest = mode == Mode.CHANGED ? DigestUtils.digestHex(content) : null;
+        if (digest != null && validatedDigests.contains(digest)) {
+            skippedFileCount.increment();
+            return;
+        }
+        validateAgainstSchema(content);
+        validatedFileCount.increment();
+        if (digest != null) {
+            validatedDigests.add(digest);
+        }
+    }
+
+    private static Validator createValidator() {
+        final Validator validator = XmlUtils.schema().newValidator();
+        try {
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        } catch (final SAXException error) {
+            throw new IllegalStateException(error);
+        }
+        return validator;
+    }
+
+    private static void validateAgainstSchema(final byte[] content) {
+        final Validator validator = VALIDATOR.get();
+        try {
+            validator.validate(new StreamSource(new ByteArrayInputStream(content)));
+        } catch (final SAXParseException error) {
+            throw StreamingXmlReader.failureAtLine(
+                    error, error.getLineNumber(), "schema validation failure: %s", error.getMessage());
+        } catch (final SAXException | IOException error) {
+            throw new IllegalArgumentException("schema validation failure", error);
+        }
+    }
+
+    /**
+     * Saves the validation cache to the cache file, if there is one and there are newly validated files.
+     */
+    public void saveCache() {
+        if (cacheFile == null || validatedDigests.size() == cachedDigestCount) {
+            return;
+        }
+        // Sorting is needed to generate the same output between different runs
+        final List<String> digests = new ArrayList<>(validatedDigests);
+        Collections.sort(digests);
+        final StringBuilder cacheBuilder = new StringBuilder(cacheHeader()).append('\n');
+        digests.forEach(digest -> cacheBuilder.append(digest).append('\n'));
+        FileUtils.writeAtomically(cacheFile, cacheBuilder.toString().getBytes(CharsetUtils.CHARSET));
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.validator;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Failure thrown by {@link ChangelogValidator} listing all invalid files.
+ */
+public final class ChangelogValidationException extends RuntimeException {
+
+    private static final long serialVersionUID = 0L;
+
+    private final transient List<Failure> failures;
+
+    ChangelogValidationException(final Path changelogDirectory, final List<Failure> failures) {
+        super(String.format(
+                "found %d invalid files in `%s`:%n%s",
+                failures.size(),
+                changelogDirectory,
+                failures.stream().map(Failure::toString).collect(Collectors.joining(System.lineSeparator()))));
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * Gets the failures found.
+     *
+     * @return failures sorted by their files
+     */
+    public List<Failure> failures() {
+        return failures;
+    }
+
+    /**
+     * Failure of a single file.
+     */
+    public static final class Failure {
+
+        public final Path file;
+
+        /**
+         * Line of the failure, or zero, if it is not specific to a line.
+         */
+        public final int lineNumber;
+
+        public final String message;
+
+        Failure(final Path file, final int lineNumber, final String message) {
+            this.file = file;
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return lineNumber > 0 ? String.format("%s:%d: %s", file, lineNumber, message) : file + ": " + message;
+        }
+
+    }
+
+}
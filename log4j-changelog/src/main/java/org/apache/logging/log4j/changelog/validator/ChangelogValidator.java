@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.validator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.apache.logging.log4j.changelog.ChangelogEntryBundle;
+import org.apache.logging.log4j.changelog.ChangelogFiles;
+import org.apache.logging.log4j.changelog.ChangelogRelease;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.apache.logging.log4j.changelog.ChangelogReport;
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.FileUtils;
+import org.apache.logging.log4j.changelog.util.StreamingXmlReader;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+/**
+ * Validates every XML file of a changelog directory, without rendering anything.
+ * <p>
+ * Unlike other operations, which abort on the first invalid file, all files are validated and all failures are reported at once.
+ * Files are validated concurrently against the shared compiled schema, and are additionally read the same way the exporter reads them.
+ * </p>
+ */
+public final class ChangelogValidator {
+
+    private static final Pattern LINE_NUMBER_PREFIXED_MESSAGE_PATTERN =
+            Pattern.compile("^\\[line (\\d+)\\] (.*)$", Pattern.DOTALL);
+
+    private ChangelogValidator() {}
+
+    /**
+     * Validates the XML files of the changelog directory.
+     *
+     * @return the report of the validation
+     * @throws ChangelogValidationException if there are invalid files
+     */
+    public static ChangelogReport performValidation(final ChangelogValidatorArgs args) {
+        final ChangelogReport report = new ChangelogReport("validate");
+
+        // Find the files to validate
+        final List<ChangelogValidationException.Failure> failures = new ArrayList<>();
+        final List<FileValidation> fileValidations =
+                report.measure("scan", () -> findFileValidations(args.changelogDirectory, failures));
+
+        // Validate the files
+        final List<FileValidationResult> fileValidationResults = report.measure(
+                "validate",
+                () -> ExecutorUtils.withExecutor(null, args.parallelism, executor -> ExecutorUtils.mapOrdered(
+                        executor,
+                        fileValidations,
+                        fileValidation -> fileValidation.perform(args.validator, report))));
+        fileValidationResults.stream()
+                .map(fileValidationResult -> fileValidationResult.failure)
+                .filter(Objects::nonNull)
+                .forEach(failures::add);
+
+        // Verify that the consolidated release information matches the release information files
+        report.measure("validate", () -> {
+            findReleasesXmlFileFailures(args.changelogDirectory, fileValidationResults, failures);
+            return null;
+        });
+
+        // Persist the validation results for subsequent runs
+        report.measure("save", () -> {
+            args.validator.saveCache();
+            return null;
+        });
+
+        // Report the outcome
+        System.out.format("validated %d files in `%s`%n", fileValidations.size(), args.changelogDirectory);
+        if (!failures.isEmpty()) {
+            // Sorting is needed to generate the same output between different runs
+            final List<ChangelogValidationException.Failure> sortedFailures = failures.stream()
+                    .sorted((failure1, failure2) -> {
+                        final int fileComparison = failure1.file.compareTo(failure2.file);
+                        return fileComparison != 0
+                                ? fileComparison
+                                : Integer.compare(failure1.lineNumber, failure2.lineNumber);
+                    })
+                    .collect(Collectors.toList());
+            throw new ChangelogValidationException(args.changelogDirectory, sortedFailures);
+        }
+        return report.complete();
+
+    }
+
+    private static final class FileValidation {
+
+        private final Path file;
+
+        private final BiFunction<Path, XmlValidator, ?> reader;
+
+        private FileValidation(final Path file, final BiFunction<Path, XmlValidator, ?> reader) {
+            this.file = file;
+            this.reader = reader;
+        }
+
+        private FileValidationResult perform(final XmlValidator validator, final ChangelogReport report) {
+            try {
+                final Object content = reader.apply(file, validator);
+                report.recordFilesRead(1, Files.size(file));
+                return new FileValidationResult(file, content, null);
+            } catch (final Exception error) {
+                return new FileValidationResult(file, null, failure(file, error));
+            }
+        }
+
+    }
+
+    private static final class FileValidationResult {
+
+        private final Path file;
+
+        /**
+         * The content read from the file, or {@code null}, if the file is invalid.
+         */
+        @Nullable
+        private final Object content;
+
+        /**
+         * The failure, or {@code null}, if the file is valid.
+         */
+        @Nullable
+        private final ChangelogValidationException.Failure failure;
+
+        private FileValidationResult(
+                final Path file,
+                @Nullable final Object content,
+                @Nullable final ChangelogValidationException.Failure failure) {
+            this.file = file;
+            this.content = content;
+            this.failure = failure;
+        }
+
+    }
+
+    /**
+     * Finds the files to validate, and records the failures detected by just listing the directories, e.g., a missing {@code .release.xml}.
+     * <p>
+     * Directories are classified the same way {@link ChangelogReleaseCatalog} does.
+     * </p>
+     */
+    private static List<FileValidation> findFileValidations(
+            final Path changelogDirectory, final List<ChangelogValidationException.Failure> failures) {
+        final List<FileValidation> fileValidations = new ArrayList<>();
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        for (final Path path : sortedAdjacentFiles(changelogDirectory)) {
+            final String fileName = String.valueOf(path.getFileName());
+            if (path.equals(releasesXmlFile)) {
+                fileValidations.add(new FileValidation(path, ChangelogValidator::readReleasesXmlFile));
+            } else if (Files.isDirectory(path)) {
+                final boolean released = ChangelogReleaseCatalog.releasedDirectoryName(fileName);
+                if (released || ChangelogReleaseCatalog.unreleasedDirectoryName(fileName)) {
+                    findReleaseDirectoryFileValidations(path, released, fileValidations, failures);
+                }
+            }
+        }
+        return fileValidations;
+    }
+
+    private static void findReleaseDirectoryFileValidations(
+            final Path releaseDirectory,
+            final boolean released,
+            final List<FileValidation> fileValidations,
+            final List<ChangelogValidationException.Failure> failures) {
+        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(releaseDirectory);
+        final Path entriesXmlFile = ChangelogFiles.entriesXmlFile(releaseDirectory);
+        final List<Path> paths = sortedAdjacentFiles(releaseDirectory);
+        boolean releaseXmlFilePresent = false;
+        for (final Path path : paths) {
+            if (path.equals(releaseXmlFile)) {
+                releaseXmlFilePresent = true;
+                fileValidations.add(new FileValidation(path, ChangelogRelease::readFromXmlFile));
+            } else if (path.equals(entriesXmlFile)) {
+                fileValidations.add(new FileValidation(path, ChangelogEntryBundle::readFromXmlFile));
+            } else if (!String.valueOf(path.getFileName()).startsWith(".")) {
+                fileValidations.add(new FileValidation(path, ChangelogEntry::readFromXmlFile));
+            }
+        }
+        // Empty release directories are ignored by the exporter
+        if (released && !releaseXmlFilePresent && !paths.isEmpty()) {
+            failures.add(new ChangelogValidationException.Failure(
+                    releaseXmlFile, 0, "could not find release information file"));
+        }
+    }
+
+    /**
+     * Release information read from {@code .releases.xml} along with the lines it is read from.
+     */
+    private static final class ConsolidatedReleases {
+
+        private final int lineNumber;
+
+        private final Map<String, ChangelogRelease> releaseByVersion;
+
+        private final Map<String, Integer> lineNumberByVersion;
+
+        private ConsolidatedReleases(
+                final int lineNumber,
+                final Map<String, ChangelogRelease> releaseByVersion,
+                final Map<String, Integer> lineNumberByVersion) {
+            this.lineNumber = lineNumber;
+            this.releaseByVersion = releaseByVersion;
+            this.lineNumberByVersion = lineNumberByVersion;
+        }
+
+    }
+
+    /**
+     * Reads {@code .releases.xml} the same way {@link ChangelogReleaseCatalog#readReleasesXmlFile(Path, XmlValidator)} does, but additionally records the line of each release.
+     */
+    private static ConsolidatedReleases readReleasesXmlFile(final Path releasesXmlFile, final XmlValidator validator) {
+        return StreamingXmlReader.readXmlFile(releasesXmlFile, validator, "releases", reader -> {
+            final int lineNumber = reader.lineNumber();
+            final Map<String, ChangelogRelease> releaseByVersion = new LinkedHashMap<>();
+            final Map<String, Integer> lineNumberByVersion = new HashMap<>();
+            reader.forEachChildElement(childReader -> {
+                if ("release".equals(childReader.elementName())) {
+                    final int releaseLineNumber = childReader.lineNumber();
+                    final ChangelogRelease release = ChangelogRelease.readFromReleaseElement(childReader);
+                    releaseByVersion.put(release.version, release);
+                    lineNumberByVersion.put(release.version, releaseLineNumber);
+                }
+            });
+            return new ConsolidatedReleases(lineNumber, releaseByVersion, lineNumberByVersion);
+        });
+    }
+
+    /**
+     * Verifies that {@code .releases.xml}, if there is any, contains the same releases as the {@code .release.xml} files, since {@link ChangelogReleaseCatalog} reads it in place of them.
+     * <p>
+     * Both are compared as read by the given file validations, hence no file is read again.
+     * Release directories whose {@code .release.xml} is missing or invalid are skipped, since their failures are already reported.
+     * Failures are reported at the line of the contradicting release in {@code .releases.xml}, or at its root element for missing releases.
+     * </p>
+     */
+    private static void findReleasesXmlFileFailures(
+            final Path changelogDirectory,
+            final List<FileValidationResult> fileValidationResults,
+            final List<ChangelogValidationException.Failure> failures) {
+
+        // Collect the release information read
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        @Nullable
+        ConsolidatedReleases consolidatedReleases = null;
+        final Map<String, ChangelogRelease> releaseByDirectoryName = new TreeMap<>();
+        for (final FileValidationResult fileValidationResult : fileValidationResults) {
+            if (fileValidationResult.content instanceof ConsolidatedReleases) {
+                consolidatedReleases = (ConsolidatedReleases) fileValidationResult.content;
+            } else if (fileValidationResult.content instanceof ChangelogRelease) {
+                @Nullable
+                final Path releaseDirectory = fileValidationResult.file.getParent();
+                final String directoryName =
+                        releaseDirectory != null ? String.valueOf(releaseDirectory.getFileName()) : "";
+                if (ChangelogReleaseCatalog.releasedDirectoryName(directoryName)) {
+                    releaseByDirectoryName.put(directoryName, (ChangelogRelease) fileValidationResult.content);
+                }
+            }
+        }
+        if (consolidatedReleases == null) {
+            return;
+        }
+
+        // Compare the consolidated releases with the release information files
+        for (final Map.Entry<String, ChangelogRelease> versionAndRelease :
+                consolidatedReleases.releaseByVersion.entrySet()) {
+            final String version = versionAndRelease.getKey();
+            final ChangelogRelease consolidatedRelease = versionAndRelease.getValue();
+            final int lineNumber = consolidatedReleases.lineNumberByVersion.get(version);
+            @Nullable
+            final ChangelogRelease release = releaseByDirectoryName.get(version);
+            if (release != null && !Objects.equals(consolidatedRelease.date, release.date)) {
+                final String message = String.format(
+                        "contradicting release information file `%s`: was expecting date `%s`, found: `%s`",
+                        ChangelogFiles.releaseXmlFile(ChangelogFiles.releaseDirectory(changelogDirectory, version)),
+                        release.date,
+                        consolidatedRelease.date);
+                failures.add(new ChangelogValidationException.Failure(releasesXmlFile, lineNumber, message));
+            } else if (release == null
+                    && !Files.isDirectory(ChangelogFiles.releaseDirectory(changelogDirectory, version))) {
+                final String message = String.format("could not find release directory of version `%s`", version);
+                failures.add(new ChangelogValidationException.Failure(releasesXmlFile, lineNumber, message));
+            }
+        }
+
+        // Verify that every release is consolidated
+        for (final String directoryName : releaseByDirectoryName.keySet()) {
+            if (!consolidatedReleases.releaseByVersion.containsKey(directoryName)) {
+                final String message = String.format("could not find release of version `%s`", directoryName);
+                failures.add(new ChangelogValidationException.Failure(
+                        releasesXmlFile, consolidatedReleases.lineNumber, message));
+            }
+        }
+
+    }
+
+    private static List<Path> sortedAdjacentFiles(final Path directory) {
+        return FileUtils.findAdjacentFiles(directory, false, paths -> paths
+                // Sorting is needed to generate the same output between different runs
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Creates a failure from the innermost cause carrying a line number, or from the innermost cause, if there is none.
+     */
+    private static ChangelogValidationException.Failure failure(final Path file, final Throwable error) {
+        int lineNumber = 0;
+        String message = String.valueOf(error.getMessage());
+        for (@Nullable Throwable cause = error; cause != null; cause = cause.getCause()) {
+            final String causeMessage = String.valueOf(cause.getMessage());
+            final Matcher lineNumberPrefixedMessageMatcher =
+                    LINE_NUMBER_PREFIXED_MESSAGE_PATTERN.matcher(causeMessage);
+            @Nullable
+            final Location location =
+                    cause instanceof XMLStreamException ? ((XMLStreamException) cause).getLocation() : null;
+            if (lineNumberPrefixedMessageMatcher.matches()) {
+                lineNumber = Integer.parseInt(lineNumberPrefixedMessageMatcher.group(1));
+                message = lineNumberPrefixedMessageMatcher.group(2);
+            } else if (location != null) {
+                lineNumber = location.getLineNumber();
+                // Drop the location prefix, e.g., `ParseError at [row,col]:[4,3]\nMessage: `
+                final int messageIndex = causeMessage.indexOf("Message: ");
+                message = messageIndex < 0 ? causeMessage : causeMessage.substring(messageIndex + 9);
+            } else if (lineNumber == 0) {
+                message = causeMessage;
+            }
+        }
+        return new ChangelogValidationException.Failure(file, lineNumber, message);
+    }
+
+}
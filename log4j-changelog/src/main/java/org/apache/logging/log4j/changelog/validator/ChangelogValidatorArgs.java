@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.validator;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+import org.apache.logging.log4j.changelog.util.ExecutorUtils;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+
+public final class ChangelogValidatorArgs {
+
+    final Path changelogDirectory;
+
+    /**
+     * Number of files to validate concurrently.
+     */
+    final int parallelism;
+
+    /**
+     * Validator to check the files against the schema with; its cache, if there is any, is saved at the end of the validation.
+     */
+    final XmlValidator validator;
+
+    public ChangelogValidatorArgs(final Path changelogDirectory) {
+        this(changelogDirectory, ExecutorUtils.defaultParallelism(), XmlValidator.strict());
+    }
+
+    public ChangelogValidatorArgs(
+            final Path changelogDirectory,
+            final int parallelism,
+            final XmlValidator validator) {
+        this.changelogDirectory = Objects.requireNonNull(changelogDirectory, "changelogDirectory");
+        this.parallelism = ExecutorUtils.requireValidParallelism(parallelism);
+        this.validator = Objects.requireNonNull(validator, "validator");
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of a file operation: reading a changelog entry file, rendering a template, writing a file, or scanning a directory.
+ * <p>
+ * This is the Java 11 variant of the multi-release JAR.
+ * Events are only created if they are enabled, e.g., using {@code -XX:StartFlightRecording}.
+ * </p>
+ */
+public final class FileEvent {
+
+    private static final FileEvent DISABLED = new FileEvent(null, null);
+
+    @Nullable
+    private final AbstractEvent event;
+
+    @Nullable
+    private final Path path;
+
+    private FileEvent(@Nullable final AbstractEvent event, @Nullable final Path path) {
+        this.event = event;
+        this.path = path;
+    }
+
+    /**
+     * Begins the event of reading the given changelog entry file.
+     */
+    public static FileEvent beginEntryRead(final Path file) {
+        return begin(new EntryReadEvent(), file);
+    }
+
+    /**
+     * Begins the event of rendering the given template file.
+     */
+    public static FileEvent beginTemplateRender(final Path templateFile) {
+        return begin(new TemplateRenderEvent(), templateFile);
+    }
+
+    /**
+     * Begins the event of writing the given file.
+     */
+    public static FileEvent beginFileWrite(final Path file) {
+        return begin(new FileWriteEvent(), file);
+    }
+
+    /**
+     * Begins the event of scanning the given directory.
+     */
+    public static FileEvent beginDirectoryScan(final Path directory) {
+        return begin(new DirectoryScanEvent(), directory);
+    }
+
+    private static FileEvent begin(final AbstractEvent event, final Path path) {
+        if (!event.isEnabled()) {
+            return DISABLED;
+        }
+        event.begin();
+        return new FileEvent(event, path);
+    }
+
+    /**
+     * Ends and commits the event.
+     *
+     * @param amount the number of bytes read or written, characters rendered, or files found
+     */
+    public void end(final long amount) {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setPathAndAmount(path, amount);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Ends and commits the event using the size of its file as the amount.
+     * <p>
+     * The file size is only read if the event is recorded.
+     * </p>
+     */
+    public void endWithFileSize() {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setPathAndAmount(path, fileSize(path));
+                event.commit();
+            }
+        }
+    }
+
+    private static long fileSize(@Nullable final Path file) {
+        if (file == null) {
+            return -1;
+        }
+        try {
+            return Files.size(file);
+        } catch (final IOException ignored) {
+            // The event shouldn't fail the operation
+            return -1;
+        }
+    }
+
+    @Category({"Log4j", "Changelog"})
+    @StackTrace(false)
+    private abstract static class AbstractEvent extends Event {
+
+        abstract void setPathAndAmount(@Nullable Path path, long amount);
+
+    }
+
+    @Name("org.apache.logging.log4j.changelog.EntryRead")
+    @Label("Changelog Entry Read")
+    @Description("Reading a changelog entry XML file")
+    // Fields are read by Java Flight Recorder
+    @SuppressFBWarnings("URF_UNREAD_FIELD")
+    @SuppressWarnings("UnusedVariable")
+    private static final class EntryReadEvent extends AbstractEvent {
+
+        @Label("Path")
+        private String filePath;
+
+        @Label("Size")
+        @DataAmount
+        private long size;
+
+        @Override
+        void setPathAndAmount(@Nullable final Path path, final long amount) {
+            filePath = String.valueOf(path);
+            size = amount;
+        }
+
+    }
+
+    @Name("org.apache.logging.log4j.changelog.TemplateRender")
+    @Label("Changelog Template Render")
+    @Description("Rendering a FreeMarker template")
+    // Fields are read by Java Flight Recorder
+    @SuppressFBWarnings("URF_UNREAD_FIELD")
+    @SuppressWarnings("UnusedVariable")
+    private static final class TemplateRenderEvent extends AbstractEvent {
+
+        @Label("Template Path")
+        private String templatePath;
+
+        @Label("Rendered Characters")
+        private long characterCount;
+
+        @Override
+        void setPathAndAmount(@Nullable final Path path, final long amount) {
+            templatePath = String.valueOf(path);
+            characterCount = amount;
+        }
+
+    }
+
+    @Name("org.apache.logging.log4j.changelog.FileWrite")
+    @Label("Changelog File Write")
+    @Description("Writing an XML or a rendered file")
+    // Fields are read by Java Flight Recorder
+    @SuppressFBWarnings("URF_UNREAD_FIELD")
+    @SuppressWarnings("UnusedVariable")
+    private static final class FileWriteEvent extends AbstractEvent {
+
+        @Label("Path")
+        private String filePath;
+
+        @Label("Size")
+        @DataAmount
+        private long size;
+
+        @Override
+        void setPathAndAmount(@Nullable final Path path, final long amount) {
+            filePath = String.valueOf(path);
+            size = amount;
+        }
+
+    }
+
+    @Name("org.apache.logging.log4j.changelog.DirectoryScan")
+    @Label("Changelog Directory Scan")
+    @Description("Listing the files of a changelog directory")
+    // Fields are read by Java Flight Recorder
+    @SuppressFBWarnings("URF_UNREAD_FIELD")
+    @SuppressWarnings("UnusedVariable")
+    private static final class DirectoryScanEvent extends AbstractEvent {
+
+        @Label("Directory Path")
+        private String directoryPath;
+
+        @Label("File Count")
+        private long fileCount;
+
+        @Override
+        void setPathAndAmount(@Nullable final Path path, final long amount) {
+            directoryPath = String.valueOf(path);
+            fileCount = amount;
+        }
+
+    }
+
+}
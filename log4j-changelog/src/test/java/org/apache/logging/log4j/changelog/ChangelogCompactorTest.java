@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.changelog.compactor.ChangelogCompactor;
+import org.apache.logging.log4j.changelog.compactor.ChangelogCompactorArgs;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporter;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporterArgs;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporterTemplate;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.apache.commons.io.FileUtils.copyDirectory;
+import static org.apache.logging.log4j.changelog.FileTestUtils.assertDirectoryContentMatches;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangelogCompactorTest {
+
+    @Test
+    void compacted_directories_should_be_exported_and_expanded(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Compact the released directories
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.18.0");
+        final SortedMap<Path, ChangelogEntry> entryByFile = ChangelogEntryBundle.readAllEntries(releaseDirectory);
+        final ChangelogCompactorArgs args = new ChangelogCompactorArgs(changelogDirectory, null);
+        ChangelogCompactor.performCompaction(args);
+        assertThat(ChangelogFiles.changelogEntryFiles(releaseDirectory)).isEmpty();
+        assertThat(ChangelogFiles.changelogEntryFiles(changelogDirectory.resolve("2.17.2"))).isEmpty();
+        assertThat(ChangelogFiles.changelogEntryFiles(changelogDirectory.resolve(".2.x.x"))).isNotEmpty();
+        assertThat(ChangelogEntryBundle.readEntryCountFromXmlFile(ChangelogFiles.entriesXmlFile(releaseDirectory)))
+                .isEqualTo(3);
+
+        // Verify that the export output doesn't change
+        final ChangelogExporterArgs exporterArgs = new ChangelogExporterArgs(
+                changelogDirectory,
+                templates(
+                        new ChangelogExporterTemplate(".index.adoc.ftl", "index.adoc", true),
+                        new ChangelogExporterTemplate(".index.txt.ftl", "index.adoc", false)),
+                templates(
+                        new ChangelogExporterTemplate(".release-notes.adoc.ftl", "%v.adoc", true),
+                        new ChangelogExporterTemplate(".release-notes.txt.ftl", "%v.txt", false)),
+                outputDirectory);
+        ChangelogExporter.performExport(exporterArgs);
+        assertDirectoryContentMatches(outputDirectory, Paths.get("src/test/resources/4-exported"));
+
+        // Expand the released directories validating the bundles, and verify that the entry files are restored
+        ChangelogCompactor.performExpansion(
+                new ChangelogCompactorArgs(changelogDirectory, null, XmlValidator.strict()));
+        assertThat(ChangelogFiles.entriesXmlFile(releaseDirectory)).doesNotExist();
+        assertThat(ChangelogFiles.changelogEntryFiles(releaseDirectory))
+                .containsExactlyElementsOf(entryByFile.keySet());
+        assertThat(ChangelogEntryBundle.readAllEntries(releaseDirectory))
+                .usingRecursiveComparison()
+                .isEqualTo(entryByFile);
+
+    }
+
+    private static Set<ChangelogExporterTemplate> templates(final ChangelogExporterTemplate... templates) {
+        return Stream.of(templates).collect(Collectors.toSet());
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangelogEntryTest {
+
+    @Test
+    void entry_should_be_read(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path directory) throws Exception {
+        final Path entryFile = directory.resolve("entry.xml");
+        write(entryFile,
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<entry xmlns=\"http://logging.apache.org/log4j/changelog\" type=\"fixed\">",
+                "  <issue id=\"LOG4J2-1\" link=\"https://issues.apache.org/jira/browse/LOG4J2-1\"/>",
+                "  <author id=\"alice\"/>",
+                "  <author name=\"Bob\"/>",
+                "  <description format=\"asciidoc\">",
+                "    Fix <![CDATA[`a & b`]]> &amp; more",
+                "  </description>",
+                "</entry>");
+        final ChangelogEntry entry = ChangelogEntry.readFromXmlFile(entryFile);
+        assertThat(entry.type).isEqualTo(ChangelogEntry.Type.FIXED);
+        assertThat(entry.issues).extracting(issue -> issue.id).containsExactly("LOG4J2-1");
+        assertThat(entry.authors).extracting(author -> author.id).containsExactly("alice", null);
+        assertThat(entry.authors).extracting(author -> author.name).containsExactly(null, "Bob");
+        assertThat(entry.description.format).isEqualTo("asciidoc");
+        assertThat(entry.description.text).isEqualTo("Fix `a & b` & more");
+    }
+
+    @Test
+    void failures_should_report_line_numbers(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path directory)
+            throws Exception {
+        final Path entryFile = directory.resolve("entry.xml");
+        write(entryFile,
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<entry xmlns=\"http://logging.apache.org/log4j/changelog\" type=\"fixed\">",
+                "  <author id=\"alice\"/>",
+                "  <author/>",
+                "  <description format=\"asciidoc\">Fix</description>",
+                "</entry>");
+        assertThatThrownBy(() -> ChangelogEntry.readFromXmlFile(entryFile))
+                .hasMessageContaining(entryFile.toString())
+                .cause()
+                .hasMessage("[line 4] `author` must have at least one of `id` or `name` attributes");
+    }
+
+    private static void write(final Path file, final String... lines) throws Exception {
+        Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -16,36 +16,737 @@
  */
 package org.apache.logging.log4j.changelog;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Set;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import org.apache.logging.log4j.changelog.exporter.ChangelogExportWatcher;
 import org.apache.logging.log4j.changelog.exporter.ChangelogExporter;
 import org.apache.logging.log4j.changelog.exporter.ChangelogExporterArgs;
 import org.apache.logging.log4j.changelog.exporter.ChangelogExporterTemplate;
+import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.CleanupMode;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import static org.apache.commons.io.FileUtils.copyDirectory;
 import static org.apache.logging.log4j.changelog.FileTestUtils.assertDirectoryContentMatches;
+import static org.assertj.core.api.Assertions.as;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ChangelogExporterTest {
 
+    private static final Path CHANGELOG_DIRECTORY = Paths.get("src/test/resources/3-enriched");
+
+    private static final Path EXPECTED_OUTPUT_DIRECTORY = Paths.get("src/test/resources/4-exported");
+
     @Test
     void output_should_match(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory) {
-        final ChangelogExporterArgs args = new ChangelogExporterArgs(
-                Paths.get("src/test/resources/3-enriched"),
-                setOf(
+        final ChangelogExporterArgs args = argsBuilder(CHANGELOG_DIRECTORY, outputDirectory)
+                .indexTemplates(setOf(
                         new ChangelogExporterTemplate(".index.adoc.ftl", "index.adoc", true),
-                        new ChangelogExporterTemplate(".index.txt.ftl", "index.adoc", false)),
+                        new ChangelogExporterTemplate(".index.txt.ftl", "index.adoc", false)))
+                .build();
+        ChangelogExporter.performExport(args);
+        assertDirectoryContentMatches(outputDirectory, EXPECTED_OUTPUT_DIRECTORY);
+    }
+
+    @Test
+    void output_should_match_when_read_from_zip_archive(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path archiveDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Archive the changelog directory
+        final Path archiveFile = archiveDirectory.resolve("changelog.zip");
+        try (final ZipOutputStream archiveOutputStream = new ZipOutputStream(Files.newOutputStream(archiveFile));
+                final Stream<Path> paths = Files.walk(CHANGELOG_DIRECTORY)) {
+            for (final Path path : (Iterable<Path>) paths.skip(1).sorted()::iterator) {
+                final String entryName = CHANGELOG_DIRECTORY.relativize(path).toString().replace('\\', '/');
+                if (Files.isDirectory(path)) {
+                    archiveOutputStream.putNextEntry(new ZipEntry(entryName + '/'));
+                } else {
+                    archiveOutputStream.putNextEntry(new ZipEntry(entryName));
+                    Files.copy(path, archiveOutputStream);
+                }
+                archiveOutputStream.closeEntry();
+            }
+        }
+
+        // Export from the archive and verify the output
+        final ChangelogExporterArgs args = argsBuilder(archiveFile, outputDirectory).build();
+        ChangelogExporter.performExport(args);
+        assertDirectoryContentMatches(outputDirectory, EXPECTED_OUTPUT_DIRECTORY);
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 8})
+    void output_should_match_for_any_parallelism(
+            final int parallelism,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory) {
+        final ChangelogExporterArgs args = argsBuilder(CHANGELOG_DIRECTORY, outputDirectory)
+                .parallelism(parallelism)
+                .build();
+        ChangelogExporter.performExport(args);
+        assertDirectoryContentMatches(outputDirectory, EXPECTED_OUTPUT_DIRECTORY);
+    }
+
+    @Test
+    void provided_executor_should_be_used_and_left_running(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory) {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final ChangelogExporterArgs args = argsBuilder(CHANGELOG_DIRECTORY, outputDirectory)
+                    .parallelism(1)
+                    .executorService(executor)
+                    .build();
+            ChangelogExporter.performExport(args);
+            assertDirectoryContentMatches(outputDirectory, EXPECTED_OUTPUT_DIRECTORY);
+            assertThat(executor.isShutdown()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void incremental_export_should_only_render_changed_releases(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export everything once
+        copyChangelogDirectory(changelogDirectory);
+        exportIncrementally(changelogDirectory, outputDirectory, false);
+        assertThat(outputDirectory.resolve(".changelog-export-manifest")).isRegularFile();
+
+        // Change an input of the unreleased directory and verify that only that release is rendered
+        final Path unreleasedTemplateFile = changelogDirectory.resolve(".2.x.x/.release-notes.common.ftl");
+        Files.write(unreleasedTemplateFile, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertThat(exportIncrementally(changelogDirectory, outputDirectory, false).slowestReleaseDurations())
+                .containsOnlyKeys("2.x.x");
+        assertThat(outputDirectory.resolve("2.x.x.adoc"))
+                .content()
+                .isNotEqualTo(new String(
+                        Files.readAllBytes(EXPECTED_OUTPUT_DIRECTORY.resolve("2.x.x.adoc")), StandardCharsets.UTF_8));
+        assertThat(outputDirectory.resolve("index.adoc"))
+                .hasSameTextualContentAs(EXPECTED_OUTPUT_DIRECTORY.resolve("index.adoc"));
+
+        // Verify that forcing renders everything
+        assertThat(exportIncrementally(changelogDirectory, outputDirectory, true).slowestReleaseDurations())
+                .hasSize(5);
+
+    }
+
+    @Test
+    void incremental_export_should_render_all_releases_on_changes_to_releases_xml_file(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export everything once using a consolidated release information file
+        copyChangelogDirectory(changelogDirectory);
+        ChangelogReleaseCatalog.writeReleasesXmlFile(changelogDirectory, null);
+        exportIncrementally(changelogDirectory, outputDirectory, false);
+
+        // Change a release date in `.releases.xml` and verify that all releases are rendered
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        final String releasesXml = new String(Files.readAllBytes(releasesXmlFile), StandardCharsets.UTF_8);
+        assertThat(releasesXml).contains("2022-02-23");
+        Files.write(releasesXmlFile, releasesXml.replace("2022-02-23", "2022-02-24").getBytes(StandardCharsets.UTF_8));
+        assertThat(exportIncrementally(changelogDirectory, outputDirectory, false).slowestReleaseDurations())
+                .hasSize(5);
+        assertThat(outputDirectory.resolve("2.17.2.adoc")).content().contains("2022-02-24");
+
+    }
+
+    @Test
+    void incremental_export_should_only_hash_restamped_inputs_and_verify_outputs(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export everything once
+        copyChangelogDirectory(changelogDirectory);
+        exportIncrementally(changelogDirectory, outputDirectory, false);
+
+        // Touch an input and verify that nothing is rendered, since its content hasn't changed
+        final Path entryFile = changelogDirectory.resolve(
+                "2.18.0/LOG4J2-3527_Don_t_use_Paths_get_to_avoid_circular_file_systems.xml");
+        final FileTime entryFileModificationTime = Files.getLastModifiedTime(entryFile);
+        Files.setLastModifiedTime(entryFile, FileTime.fromMillis(entryFileModificationTime.toMillis() + 60_000));
+        assertThat(exportIncrementally(changelogDirectory, outputDirectory, false).slowestReleaseDurations())
+                .isEmpty();
+
+        // Change an input without changing its size and modification time, and verify that it isn't read
+        final String entryXml = new String(Files.readAllBytes(entryFile), StandardCharsets.UTF_8);
+        final FileTime touchedEntryFileModificationTime = Files.getLastModifiedTime(entryFile);
+        Files.write(entryFile, entryXml.replace("Paths.get", "Paths.GET").getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(entryFile, touchedEntryFileModificationTime);
+        assertThat(exportIncrementally(changelogDirectory, outputDirectory, false).slowestReleaseDurations())
+                .isEmpty();
+        Files.write(entryFile, entryXml.getBytes(StandardCharsets.UTF_8));
+
+        // Tamper and delete outputs, and verify that their releases are rendered
+        Files.write(outputDirectory.resolve("2.17.2.adoc"), "stale".getBytes(StandardCharsets.UTF_8));
+        Files.delete(outputDirectory.resolve("2.x.x.adoc"));
+        assertThat(exportIncrementally(changelogDirectory, outputDirectory, false).slowestReleaseDurations())
+                .containsOnlyKeys("2.17.2", "2.x.x");
+        for (final String outputFileName : new String[] {"2.17.2.adoc", "2.x.x.adoc"}) {
+            assertThat(outputDirectory.resolve(outputFileName))
+                    .hasSameTextualContentAs(EXPECTED_OUTPUT_DIRECTORY.resolve(outputFileName));
+        }
+
+    }
+
+    @Test
+    void incremental_export_should_render_releases_accessing_the_index_on_changes_to_other_releases(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Create a release template listing the entry count of each release using the index
+        copyChangelogDirectory(changelogDirectory);
+        final String releasesTemplate = "<#list index.entriesByReleaseVersion as version, entries>"
+                + "${version}=${entries?size}\n"
+                + "</#list>";
+        Files.write(
+                changelogDirectory.resolve("2.17.2/.releases.txt.ftl"),
+                releasesTemplate.getBytes(StandardCharsets.UTF_8));
+
+        // Export everything once
+        final ChangelogExporterArgs args = argsBuilder(changelogDirectory, outputDirectory)
+                .changelogTemplates(setOf(
+                        new ChangelogExporterTemplate(".release-notes.adoc.ftl", "%v.adoc", true),
+                        new ChangelogExporterTemplate(".releases.txt.ftl", "%v-releases.txt", false)))
+                .incremental(true)
+                .build();
+        ChangelogExporter.performExport(args);
+        final Path releasesOutputFile = outputDirectory.resolve("2.17.2-releases.txt");
+        assertThat(releasesOutputFile).content().contains("2.18.0=3\n");
+
+        // Change another release and verify that the release accessing the index is rendered along with it
+        writeChangelogEntry(changelogDirectory.resolve("2.18.0"), "LOG4J2-9999", "Fix the zebra crossing");
+        final ChangelogReport report = ChangelogExporter.performExport(args);
+        assertThat(report.slowestReleaseDurations()).containsOnlyKeys("2.17.2", "2.18.0");
+        assertThat(releasesOutputFile).content().contains("2.18.0=4\n");
+
+        // Verify that nothing is rendered when nothing has changed
+        assertThat(ChangelogExporter.performExport(args).slowestReleaseDurations())
+                .isEmpty();
+
+    }
+
+    @Test
+    void write_if_changed_should_only_write_changed_files(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export everything once
+        copyChangelogDirectory(changelogDirectory);
+        final ChangelogExporterArgs args = argsBuilder(changelogDirectory, outputDirectory)
+                .parallelism(2)
+                .writeIfChanged(true)
+                .build();
+        ChangelogExporter.performExport(args);
+        assertDirectoryContentMatches(outputDirectory, EXPECTED_OUTPUT_DIRECTORY);
+
+        // Backdate the outputs to detect which ones get written
+        final FileTime backdatedModificationTime = FileTime.fromMillis(0);
+        try (final Stream<Path> outputFiles = Files.list(outputDirectory)) {
+            for (final Path outputFile : (Iterable<Path>) outputFiles::iterator) {
+                Files.setLastModifiedTime(outputFile, backdatedModificationTime);
+            }
+        }
+
+        // Change an input of the unreleased directory and verify that only its outputs are written
+        final Path unreleasedTemplateFile = changelogDirectory.resolve(".2.x.x/.release-notes.common.ftl");
+        Files.write(unreleasedTemplateFile, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        ChangelogExporter.performExport(args);
+        assertThat(Files.getLastModifiedTime(outputDirectory.resolve("2.x.x.adoc")))
+                .isNotEqualTo(backdatedModificationTime);
+        for (final String unchangedFileName : new String[] {"2.17.2.adoc", "2.18.0.adoc", "index.adoc"}) {
+            assertThat(Files.getLastModifiedTime(outputDirectory.resolve(unchangedFileName)))
+                    .as("modification time of `%s`", unchangedFileName)
+                    .isEqualTo(backdatedModificationTime);
+        }
+
+    }
+
+    @Test
+    void export_should_report_read_and_written_files(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export everything once
+        copyChangelogDirectory(changelogDirectory);
+        final ChangelogExporterArgs args = argsBuilder(changelogDirectory, outputDirectory)
+                .parallelism(2)
+                .writeIfChanged(true)
+                .build();
+        final ChangelogReport report = ChangelogExporter.performExport(args);
+
+        // Verify the report
+        assertThat(report.operation()).isEqualTo("export");
+        assertThat(report.readFileCount()).isPositive();
+        assertThat(report.readByteCount()).isPositive();
+        assertThat(report.writtenFileCount()).isEqualTo(7);
+        assertThat(report.writtenByteCount()).isPositive();
+        assertThat(report.phaseDurations()).containsKeys("scan", "read", "render", "write");
+        assertThat(report.templateDurations()).containsKeys(".index.adoc.ftl", ".release-notes.adoc.ftl");
+        assertThat(report.slowestReleaseDurations())
+                .containsOnlyKeys("2.17.2", "2.18.0", "2.x.x", "3.x.x", "4.x.x");
+        assertThat(report.summary()).startsWith("export completed in ").contains("wrote 7 files");
+        assertThat(report.toJson())
+                .contains("\"operation\": \"export\"", "\"phaseNanos\": {", "\"writtenFileCount\": 7");
+
+        // Verify that unchanged files are not reported as written
+        final ChangelogReport unchangedReport = ChangelogExporter.performExport(args);
+        assertThat(unchangedReport.writtenFileCount()).isZero();
+
+    }
+
+    @Test
+    // The watcher is only used to be closed
+    @SuppressWarnings("try")
+    void watch_should_only_render_affected_releases(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Start watching, which exports everything once
+        copyChangelogDirectory(changelogDirectory);
+        final ChangelogExporterArgs args = argsBuilder(changelogDirectory, outputDirectory).build();
+        final BlockingQueue<List<String>> outputFileNamesQueue = new LinkedBlockingQueue<>();
+        final Path unreleasedTemplateFile = changelogDirectory.resolve(".2.x.x/.release-notes.common.ftl");
+        try (final ChangelogExportWatcher ignored =
+                ChangelogExporter.watch(args, 50, outputFileNamesQueue::add)) {
+            assertDirectoryContentMatches(outputDirectory, EXPECTED_OUTPUT_DIRECTORY);
+
+            // Tamper an output to detect if it gets rendered
+            final Path releasedOutputFile = outputDirectory.resolve("2.17.2.adoc");
+            Files.write(releasedOutputFile, "stale".getBytes(StandardCharsets.UTF_8));
+
+            // Remove a changelog entry and verify that only its release and the index are rendered
+            Files.delete(changelogDirectory.resolve(
+                    "2.18.0/LOG4J2-3527_Don_t_use_Paths_get_to_avoid_circular_file_systems.xml"));
+            assertThat(outputFileNamesQueue.poll(30, TimeUnit.SECONDS)).containsExactly("2.18.0.adoc", "index.adoc");
+            assertThat(releasedOutputFile).hasContent("stale");
+            assertThat(outputDirectory.resolve("2.18.0.adoc")).content().doesNotContain("LOG4J2-3527");
+
+            // Modify a template and verify that only its release is rendered
+            Files.write(unreleasedTemplateFile, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            assertThat(outputFileNamesQueue.poll(30, TimeUnit.SECONDS)).containsExactly("2.x.x.adoc", "2.x.x.txt");
+            assertThat(releasedOutputFile).hasContent("stale");
+
+            // Consolidate the release information and verify that only the index is rendered
+            ChangelogReleaseCatalog.writeReleasesXmlFile(changelogDirectory, null);
+            assertThat(outputFileNamesQueue.poll(30, TimeUnit.SECONDS)).containsExactly("index.adoc");
+
+            // Change a release date in `.releases.xml` and verify that its release is rendered
+            final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+            final String releasesXml = new String(Files.readAllBytes(releasesXmlFile), StandardCharsets.UTF_8);
+            Files.write(
+                    releasesXmlFile, releasesXml.replace("2022-02-23", "2022-02-24").getBytes(StandardCharsets.UTF_8));
+            assertThat(outputFileNamesQueue.poll(30, TimeUnit.SECONDS)).containsExactly("2.17.2.adoc", "index.adoc");
+            assertThat(releasedOutputFile).content().contains("2022-02-24");
+
+        }
+
+        // Verify that changes are not exported once the watcher is closed
+        Files.write(unreleasedTemplateFile, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertThat(outputFileNamesQueue.poll(500, TimeUnit.MILLISECONDS)).isNull();
+
+    }
+
+    @Test
+    void index_export_should_not_parse_changelog_entries(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Create an invalid changelog entry file, which can only be peeked at
+        copyChangelogDirectory(changelogDirectory);
+        final Path changelogEntryFile =
+                changelogDirectory.resolve("2.18.0/LOG4J2-3527_Don_t_use_Paths_get_to_avoid_circular_file_systems.xml");
+        final String changelogEntryXml = new String(Files.readAllBytes(changelogEntryFile), StandardCharsets.UTF_8)
+                .replaceAll("<description[^>]*>[^<]*</description>", "");
+        Files.write(changelogEntryFile, changelogEntryXml.getBytes(StandardCharsets.UTF_8));
+
+        // Create an index template accessing changelog entry counts
+        final String indexTemplate = "<#list releases as release>${release.version}: ${release.changelogEntryCount}"
+                + "<#list release.changelogEntryCountByType as type, count> ${type}=${count}</#list>"
+                + "<#list release.changelogEntryCountByAuthor as author, count> ${author}=${count}</#list>\n"
+                + "</#list>";
+        Files.write(changelogDirectory.resolve(".counts.txt.ftl"), indexTemplate.getBytes(StandardCharsets.UTF_8));
+
+        // Verify that the full export fails
+        final ChangelogExporterArgs args = new ChangelogExporterArgs(
+                changelogDirectory,
+                setOf(new ChangelogExporterTemplate(".counts.txt.ftl", "counts.txt", true)),
+                setOf(new ChangelogExporterTemplate(".release-notes.adoc.ftl", "%v.adoc", true)),
+                outputDirectory);
+        assertThatThrownBy(() -> ChangelogExporter.performExport(args))
+                .hasStackTraceContaining("was expecting a single `description` element, found: 0");
+
+        // Verify that the index export succeeds
+        ChangelogExporter.performIndexExport(args);
+        assertThat(outputDirectory.resolve("counts.txt"))
+                .content()
+                .contains("2.18.0: 3 ADDED=1 REMOVED=1 FIXED=1 rgoers=3\n")
+                .contains("2.17.2: 3 REMOVED=2 FIXED=1 ckozak=1 francis-FY=1 rgoers=2\n");
+
+    }
+
+    @Test
+    void aggregate_export_should_export_all_modules(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path indexOutputDirectory)
+            throws Exception {
+
+        // Create an aggregate index template listing the releases of each module
+        copyChangelogDirectory(changelogDirectory);
+        final String aggregateIndexTemplate = "<#list modules as module>${module.name}:"
+                + "<#list module.releases as release> ${release.version}=${release.changelogEntryCount}</#list>\n"
+                + "</#list>";
+        Files.write(
+                changelogDirectory.resolve(".modules.txt.ftl"),
+                aggregateIndexTemplate.getBytes(StandardCharsets.UTF_8));
+
+        // Export the changelog directory along with two modules
+        final Map<String, Path> moduleChangelogDirectories = new TreeMap<>();
+        moduleChangelogDirectories.put("log4j-core", CHANGELOG_DIRECTORY);
+        moduleChangelogDirectories.put("log4j-api", CHANGELOG_DIRECTORY);
+        final ChangelogExporterArgs args = argsBuilder(changelogDirectory, outputDirectory)
+                .parallelism(2)
+                .moduleChangelogDirectories(moduleChangelogDirectories)
+                .aggregateIndexTemplates(setOf(new ChangelogExporterTemplate(".modules.txt.ftl", "modules.txt", true)))
+                .build();
+        ChangelogExporter.performExport(args);
+
+        // Verify the output of each module
+        assertDirectoryContentMatches(outputDirectory.resolve("log4j-api"), EXPECTED_OUTPUT_DIRECTORY);
+        assertDirectoryContentMatches(outputDirectory.resolve("log4j-core"), EXPECTED_OUTPUT_DIRECTORY);
+        assertThat(outputDirectory.resolve("index.adoc"))
+                .hasSameTextualContentAs(EXPECTED_OUTPUT_DIRECTORY.resolve("index.adoc"));
+
+        // Verify the aggregate index
+        final String expectedAggregateIndex = "log4j-api: 4.x.x=0 3.x.x=3 2.x.x=3 2.18.0=3 2.17.2=3\n"
+                + "log4j-core: 4.x.x=0 3.x.x=3 2.x.x=3 2.18.0=3 2.17.2=3\n";
+        assertThat(outputDirectory.resolve("modules.txt")).hasContent(expectedAggregateIndex);
+
+        // Verify that the index export produces the same aggregate index
+        final ChangelogExporterArgs indexArgs = argsBuilder(changelogDirectory, indexOutputDirectory)
+                .changelogTemplates(setOf())
+                .parallelism(2)
+                .moduleChangelogDirectories(moduleChangelogDirectories)
+                .aggregateIndexTemplates(setOf(new ChangelogExporterTemplate(".modules.txt.ftl", "modules.txt", true)))
+                .build();
+        ChangelogExporter.performIndexExport(indexArgs);
+        assertThat(indexOutputDirectory.resolve("modules.txt")).hasContent(expectedAggregateIndex);
+        assertThat(indexOutputDirectory.resolve("log4j-core/index.adoc")).exists();
+
+    }
+
+    @Test
+    void aggregate_export_should_store_module_snapshots_in_module_output_directories(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path snapshotDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export two modules using a snapshot file
+        final Map<String, Path> moduleChangelogDirectories = new TreeMap<>();
+        moduleChangelogDirectories.put("log4j-core", CHANGELOG_DIRECTORY);
+        moduleChangelogDirectories.put("log4j-api", CHANGELOG_DIRECTORY);
+        final Path snapshotFile = snapshotDirectory.resolve(ChangelogSnapshot.DEFAULT_FILE_NAME);
+        final ChangelogExporterArgs args = argsBuilder(CHANGELOG_DIRECTORY, outputDirectory)
+                .snapshotFile(snapshotFile)
+                .moduleChangelogDirectories(moduleChangelogDirectories)
+                .build();
+        ChangelogExporter.performExport(args);
+
+        // Verify that module snapshots are stored in the module output directories, and nothing is created next to the snapshot file
+        assertThat(snapshotFile).isRegularFile();
+        assertThat(outputDirectory.resolve("log4j-api/" + ChangelogSnapshot.DEFAULT_FILE_NAME))
+                .isRegularFile();
+        assertThat(outputDirectory.resolve("log4j-core/" + ChangelogSnapshot.DEFAULT_FILE_NAME))
+                .isRegularFile();
+        assertThat(fileNames(snapshotDirectory)).containsOnly(ChangelogSnapshot.DEFAULT_FILE_NAME);
+
+    }
+
+    @Test
+    void templates_should_access_the_index(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Create an index template listing the releases of each author
+        copyChangelogDirectory(changelogDirectory);
+        final String authorsTemplate = "<#list index.entriesByAuthor as author, indexedEntries>${author}:"
+                + "<#list indexedEntries as indexedEntry> ${indexedEntry.release.version}</#list>\n"
+                + "</#list>"
+                + "LOG4J2-3333:<#list index.releasesByIssueId['LOG4J2-3333'] as release> ${release.version}</#list>\n";
+        Files.write(changelogDirectory.resolve(".authors.txt.ftl"), authorsTemplate.getBytes(StandardCharsets.UTF_8));
+
+        // Export the index and verify the output
+        final ChangelogExporterArgs args = new ChangelogExporterArgs(
+                changelogDirectory,
+                setOf(new ChangelogExporterTemplate(".authors.txt.ftl", "authors.txt", true)),
+                setOf(new ChangelogExporterTemplate(".release-notes.adoc.ftl", "%v.adoc", true)),
+                outputDirectory);
+        ChangelogExporter.performExport(args);
+        assertThat(outputDirectory.resolve("authors.txt"))
+                .content()
+                .startsWith("ckozak: 2.17.2\n")
+                .contains("francis-FY: 2.17.2\n")
+                .contains("rgoers: 2.17.2 2.17.2 2.18.0 2.18.0 2.18.0 2.x.x\n")
+                .endsWith("LOG4J2-3333: 2.17.2\n");
+
+    }
+
+    @Test
+    void search_index_tokens_should_resolve_to_their_entries(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export the search index
+        ChangelogExporter.performExport(argsBuilder(CHANGELOG_DIRECTORY, outputDirectory)
+                .searchIndex(true)
+                .build());
+
+        // Verify that tokens of descriptions, issue IDs, and authors resolve to their entries
+        final Path searchDirectory = outputDirectory.resolve("search");
+        assertThat(searchDirectory.resolve("index.json")).content().startsWith("{\"documentCount\":12,");
+        assertThat(searchDocuments(searchDirectory, "log4j2-3333"))
+                .singleElement(as(InstanceOfAssertFactories.STRING))
+                .startsWith("{\"version\":\"2.17.2\",\"type\":\"removed\",\"issues\":[\"LOG4J2-3333\"],");
+        assertThat(searchDocuments(searchDirectory, "getexplicitlevel"))
+                .singleElement(as(InstanceOfAssertFactories.STRING))
+                .startsWith("{\"version\":\"2.x.x\",\"type\":\"changed\",\"issues\":[\"LOG4J2-3572\"],");
+        assertThat(searchDocuments(searchDirectory, "rgoers")).hasSize(6);
+        assertThat(searchDocuments(searchDirectory, "nonexistent")).isEmpty();
+
+        // Verify that the cache is only written by incremental exports
+        assertThat(outputDirectory.resolve(".changelog-search-cache")).doesNotExist();
+
+    }
+
+    @Test
+    void search_index_should_reuse_postings_of_unchanged_releases(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Export the search index once
+        copyChangelogDirectory(changelogDirectory);
+        final ChangelogExporterArgs.Builder argsBuilder =
+                argsBuilder(changelogDirectory, outputDirectory).incremental(true).searchIndex(true);
+        ChangelogExporter.performExport(argsBuilder.build());
+
+        // Tamper the cached postings to detect which ones get reused
+        final Path cacheFile = outputDirectory.resolve(".changelog-search-cache");
+        final String cache = new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+        Files.write(cacheFile, cache.replace("getexplicitlevel\t", "tampered\t").getBytes(StandardCharsets.UTF_8));
+
+        // Verify that all postings are reused when nothing has changed
+        final Path searchDirectory = outputDirectory.resolve("search");
+        ChangelogExporter.performExport(argsBuilder.build());
+        assertThat(searchDocuments(searchDirectory, "getexplicitlevel")).isEmpty();
+        assertThat(searchDocuments(searchDirectory, "tampered"))
+                .singleElement(as(InstanceOfAssertFactories.STRING))
+                .contains("\"issues\":[\"LOG4J2-3572\"]");
+
+        // Add a changelog entry to a released directory and verify that only that release is tokenized again
+        writeChangelogEntry(changelogDirectory.resolve("2.18.0"), "LOG4J2-9999", "Fix the zebra crossing");
+        ChangelogExporter.performExport(argsBuilder.build());
+        assertThat(searchDirectory.resolve("index.json")).content().startsWith("{\"documentCount\":13,");
+        assertThat(searchDocuments(searchDirectory, "zebra"))
+                .singleElement(as(InstanceOfAssertFactories.STRING))
+                .startsWith("{\"version\":\"2.18.0\",\"type\":\"fixed\",\"issues\":[\"LOG4J2-9999\"],");
+        assertThat(searchDocuments(searchDirectory, "tampered")).hasSize(1);
+
+        // Verify that forcing tokenizes everything
+        ChangelogExporter.performExport(argsBuilder.force(true).build());
+        assertThat(searchDocuments(searchDirectory, "tampered")).isEmpty();
+        assertThat(searchDocuments(searchDirectory, "getexplicitlevel")).hasSize(1);
+
+    }
+
+    @Test
+    void search_index_should_delete_stale_shards(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Add changelog entries with long descriptions to span multiple shards
+        copyChangelogDirectory(changelogDirectory);
+        final Path unreleasedDirectory = changelogDirectory.resolve(".3.x.x");
+        for (int entryIndex = 0; entryIndex < 40; entryIndex++) {
+            final int finalEntryIndex = entryIndex;
+            final String description = IntStream.range(0, 200)
+                    .mapToObj(wordIndex -> "entry" + finalEntryIndex + "word" + wordIndex)
+                    .collect(Collectors.joining(" "));
+            writeChangelogEntry(unreleasedDirectory, "LOG4J2-" + (10_000 + entryIndex), description);
+        }
+
+        // Export the search index and verify that it is sharded
+        final ChangelogExporterArgs args = argsBuilder(changelogDirectory, outputDirectory)
+                .incremental(true)
+                .searchIndex(true)
+                .build();
+        ChangelogExporter.performExport(args);
+        final Path searchDirectory = outputDirectory.resolve("search");
+        assertThat(fileNames(searchDirectory)).contains("documents-1.json", "postings-1.json");
+        assertThat(searchDocuments(searchDirectory, "entry39word199"))
+                .singleElement(as(InstanceOfAssertFactories.STRING))
+                .contains("\"issues\":[\"LOG4J2-10039\"]");
+
+        // Remove the added changelog entries and verify that the stale shards are deleted
+        for (int entryIndex = 0; entryIndex < 40; entryIndex++) {
+            Files.delete(unreleasedDirectory.resolve("LOG4J2-" + (10_000 + entryIndex) + ".xml"));
+        }
+        ChangelogExporter.performExport(args);
+        assertThat(fileNames(searchDirectory)).containsExactly("documents-0.json", "index.json", "postings-0.json");
+        assertThat(searchDocuments(searchDirectory, "entry39word199")).isEmpty();
+        assertThat(searchDocuments(searchDirectory, "log4j2-3333")).hasSize(1);
+
+    }
+
+    private static void writeChangelogEntry(
+            final Path releaseDirectory,
+            final String issueId,
+            final String description) {
+        final ChangelogEntry entry = new ChangelogEntry(
+                ChangelogEntry.Type.FIXED,
+                Collections.singletonList(
+                        new ChangelogEntry.Issue(issueId, "https://issues.apache.org/jira/browse/" + issueId)),
+                Collections.singletonList(new ChangelogEntry.Author("vy", null)),
+                new ChangelogEntry.Description("asciidoc", description));
+        entry.writeToXmlFile(releaseDirectory.resolve(issueId + ".xml"));
+    }
+
+    private static List<String> fileNames(final Path directory) throws IOException {
+        try (final Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> String.valueOf(path.getFileName())).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Looks up the given token in the search index the way a browser would: finds the postings shard covering the token using {@code index.json}, and then the document shards containing the documents found.
+     *
+     * @return the documents containing the token in JSON
+     */
+    private static List<String> searchDocuments(final Path searchDirectory, final String token) throws IOException {
+        final String index =
+                new String(Files.readAllBytes(searchDirectory.resolve("index.json")), StandardCharsets.UTF_8);
+
+        // Find the postings shard covering the token
+        final Matcher postingsShardMatcher =
+                Pattern.compile("\\{\"file\":\"([^\"]+)\",\"firstToken\":\"([^\"]*)\",\"lastToken\":\"([^\"]*)\"}")
+                        .matcher(index);
+        String postingsShardFileName = null;
+        while (postingsShardMatcher.find()) {
+            if (token.compareTo(postingsShardMatcher.group(2)) >= 0
+                    && token.compareTo(postingsShardMatcher.group(3)) <= 0) {
+                postingsShardFileName = postingsShardMatcher.group(1);
+            }
+        }
+        if (postingsShardFileName == null) {
+            return Collections.emptyList();
+        }
+
+        // Find the IDs of documents containing the token
+        final String postingsShard =
+                new String(Files.readAllBytes(searchDirectory.resolve(postingsShardFileName)), StandardCharsets.UTF_8);
+        final Matcher postingsMatcher = Pattern.compile("(?m)^\\{?\"" + Pattern.quote(token) + "\":\\[([0-9,]+)]")
+                .matcher(postingsShard);
+        if (!postingsMatcher.find()) {
+            return Collections.emptyList();
+        }
+
+        // Read documents from the shards containing them, where each line contains a single document
+        final Matcher documentShardMatcher =
+                Pattern.compile("\\{\"file\":\"([^\"]+)\",\"firstDocumentId\":(\\d+),\"documentCount\":(\\d+)}")
+                        .matcher(index);
+        final List<String> documents = new ArrayList<>();
+        while (documentShardMatcher.find()) {
+            final int firstDocumentId = Integer.parseInt(documentShardMatcher.group(2));
+            final int documentCount = Integer.parseInt(documentShardMatcher.group(3));
+            final List<String> documentLines = Files.readAllLines(
+                    searchDirectory.resolve(documentShardMatcher.group(1)), StandardCharsets.UTF_8);
+            for (final String documentIdString : postingsMatcher.group(1).split(",", -1)) {
+                assertThat(documentIdString)
+                        .as("document ID of token `%s`", token)
+                        .isNotEmpty();
+                final int documentId = Integer.parseInt(documentIdString);
+                if (documentId >= firstDocumentId && documentId < firstDocumentId + documentCount) {
+                    final String documentLine = documentLines.get(documentId - firstDocumentId);
+                    documents.add(documentLine.replaceFirst("^\\[", "").replaceFirst("[,\\]]$", ""));
+                }
+            }
+        }
+        return Collections.unmodifiableList(documents);
+
+    }
+
+    /**
+     * @return the report of the export, whose release durations indicate the releases rendered
+     */
+    private static ChangelogReport exportIncrementally(
+            final Path changelogDirectory,
+            final Path outputDirectory,
+            final boolean force) {
+        final ChangelogExporterArgs args = argsBuilder(changelogDirectory, outputDirectory)
+                .parallelism(2)
+                .incremental(true)
+                .force(force)
+                .build();
+        return ChangelogExporter.performExport(args);
+    }
+
+    /**
+     * Copies the changelog directory of the test resources to the given directory, so that tests can modify it.
+     */
+    private static void copyChangelogDirectory(final Path changelogDirectory) throws IOException {
+        copyDirectory(CHANGELOG_DIRECTORY.toFile(), changelogDirectory.toFile());
+    }
+
+    /**
+     * @return a builder of arguments exporting the given changelog directory using the index and release notes templates of the test resources, which produce the {@link #EXPECTED_OUTPUT_DIRECTORY}
+     */
+    private static ChangelogExporterArgs.Builder argsBuilder(
+            final Path changelogDirectory, final Path outputDirectory) {
+        return ChangelogExporterArgs.builder(
+                changelogDirectory,
+                setOf(new ChangelogExporterTemplate(".index.adoc.ftl", "index.adoc", true)),
                 setOf(
                         new ChangelogExporterTemplate(".release-notes.adoc.ftl", "%v.adoc", true),
                         new ChangelogExporterTemplate(".release-notes.txt.ftl", "%v.txt", false)),
                 outputDirectory);
-        ChangelogExporter.performExport(args);
-        assertDirectoryContentMatches(outputDirectory, Paths.get("src/test/resources/4-exported"));
     }
 
     @SafeVarargs
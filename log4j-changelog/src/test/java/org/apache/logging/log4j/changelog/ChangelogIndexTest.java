@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangelogIndexTest {
+
+    @Test
+    void entries_should_be_looked_up() {
+        final ChangelogIndex index =
+                ChangelogIndex.read(Paths.get("src/test/resources/3-enriched"), null, XmlValidator.strict());
+        assertThat(index.releases())
+                .extracting(release -> release.version)
+                .containsExactly("2.17.2", "2.18.0", "2.x.x", "3.x.x", "4.x.x");
+        assertThat(index.entryCount()).isEqualTo(12);
+        assertThat(index.issueIds()).hasSize(12).startsWith("1220", "1221", "LOG4J2-3304");
+        assertThat(index.findReleasesByIssueId("LOG4J2-3333"))
+                .extracting(release -> release.version)
+                .containsExactly("2.17.2");
+        assertThat(index.findEntriesByIssueId("LOG4J2-3333"))
+                .extracting(indexedEntry -> indexedEntry.entry.type)
+                .containsExactly(ChangelogEntry.Type.REMOVED);
+        assertThat(index.findEntriesByIssueId("LOG4J2-0")).isEmpty();
+        assertThat(index.findEntriesByAuthor("vy")).hasSize(4);
+        assertThat(index.findEntriesByAuthor("francis-FY"))
+                .extracting(indexedEntry -> indexedEntry.release.version)
+                .containsExactly("2.17.2");
+        assertThat(index.findEntriesByReleaseVersion("2.18.0")).hasSize(3);
+        assertThat(index.findEntriesByReleaseVersion("4.x.x")).isEmpty();
+        assertThat(index.findEntriesByType(ChangelogEntry.Type.DEPRECATED)).isEmpty();
+    }
+
+    @Test
+    void issues_spanning_releases_should_be_looked_up() {
+
+        // Create 100 releases of 1000 entries each, where every release shares an issue with the next one
+        final List<ChangelogRelease> releases = new ArrayList<>();
+        final List<List<ChangelogEntry>> entryLists = new ArrayList<>();
+        for (int releaseIndex = 0; releaseIndex < 100; releaseIndex++) {
+            releases.add(new ChangelogRelease("1.0." + releaseIndex, null));
+            final List<ChangelogEntry> entries = new ArrayList<>();
+            for (int entryIndex = 0; entryIndex < 1_000; entryIndex++) {
+                final String issueId = entryIndex == 0 ? "SHARED-" + (releaseIndex / 2) : releaseIndex + "-" + entryIndex;
+                entries.add(new ChangelogEntry(
+                        ChangelogEntry.Type.values()[entryIndex % ChangelogEntry.Type.values().length],
+                        Collections.singletonList(new ChangelogEntry.Issue(issueId, "https://example.com/" + issueId)),
+                        Collections.singletonList(new ChangelogEntry.Author("author-" + entryIndex % 10, null)),
+                        new ChangelogEntry.Description("asciidoc", "Entry " + issueId)));
+            }
+            entryLists.add(entries);
+        }
+
+        // Verify the lookups
+        final ChangelogIndex index = ChangelogIndex.of(releases, entryLists);
+        assertThat(index.entryCount()).isEqualTo(100_000);
+        assertThat(index.findReleasesByIssueId("SHARED-7"))
+                .extracting(release -> release.version)
+                .containsExactly("1.0.14", "1.0.15");
+        assertThat(index.findEntriesByIssueId("SHARED-7")).hasSize(2);
+        assertThat(index.findEntriesByAuthor("author-3")).hasSize(10_000);
+        assertThat(index.findEntriesByType(ChangelogEntry.Type.ADDED)).hasSize(20_000);
+        assertThat(index.authorIdsAndNames()).hasSize(10);
+
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.apache.commons.io.FileUtils.copyDirectory;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangelogReleaseCatalogTest {
+
+    @Test
+    void releases_should_be_read_from_up_to_date_releases_xml_file(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Consolidate the release information and tamper a release date in `.releases.xml` to tell where release information is read from
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        ChangelogReleaseCatalog.writeReleasesXmlFile(changelogDirectory, null);
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        replace(releasesXmlFile, "2022-02-23", "2022-12-31");
+
+        // Make `.releases.xml` older than the `.release.xml` files, as a checkout can do
+        final Instant now = Instant.now();
+        Files.setLastModifiedTime(releasesXmlFile, FileTime.from(now.minusSeconds(60)));
+        Files.setLastModifiedTime(
+                ChangelogFiles.releaseXmlFile(changelogDirectory.resolve("2.18.0")), FileTime.from(now));
+
+        // Verify that `.releases.xml` is used while the `.release.xml` files are unchanged
+        final ChangelogReleaseCatalog catalog = ChangelogReleaseCatalog.scan(changelogDirectory, null);
+        assertThat(catalog.releasedDirectories)
+                .extracting(releaseDirectory -> releaseDirectory.release.version + '@' + releaseDirectory.release.date)
+                .containsExactly("2.18.0@2022-06-28", "2.17.2@2022-12-31");
+        assertThat(catalog.releasedDirectories)
+                .extracting(releaseDirectory -> releaseDirectory.changelogEntryFileCount)
+                .containsExactly(3, 3);
+        assertThat(catalog.unreleasedDirectories)
+                .extracting(releaseDirectory -> releaseDirectory.release.version)
+                .containsExactly("2.x.x", "3.x.x", "4.x.x");
+
+        // Edit a release date in a `.release.xml` and verify that it wins over `.releases.xml`
+        replace(ChangelogFiles.releaseXmlFile(changelogDirectory.resolve("2.18.0")), "2022-06-28", "2022-07-01");
+        final ChangelogReleaseCatalog editedCatalog = ChangelogReleaseCatalog.scan(changelogDirectory, null);
+        assertThat(editedCatalog.releasedDirectories)
+                .extracting(releaseDirectory -> releaseDirectory.release.version + '@' + releaseDirectory.release.date)
+                .containsExactly("2.18.0@2022-07-01", "2.17.2@2022-12-31");
+
+        // Add a released directory missing in `.releases.xml` and verify that its `.release.xml` is read
+        final Path addedReleaseDirectory = changelogDirectory.resolve("2.19.0");
+        Files.createDirectories(addedReleaseDirectory);
+        final String releaseXml = "<release xmlns=\"http://logging.apache.org/log4j/changelog\""
+                + " version=\"2.19.0\" date=\"2022-09-09\"/>\n";
+        Files.write(ChangelogFiles.releaseXmlFile(addedReleaseDirectory), releaseXml.getBytes(StandardCharsets.UTF_8));
+        final ChangelogReleaseCatalog addedCatalog = ChangelogReleaseCatalog.scan(changelogDirectory, null);
+        assertThat(addedCatalog.releasedDirectories)
+                .extracting(releaseDirectory -> releaseDirectory.release.version + '@' + releaseDirectory.release.date)
+                .containsExactly("2.18.0@2022-07-01", "2.19.0@2022-09-09", "2.17.2@2022-12-31");
+
+    }
+
+    @Test
+    void releases_xml_file_without_digests_should_be_ignored(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Tamper a release date in a `.releases.xml` without digests, e.g., a hand-written one
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        assertThat(new String(Files.readAllBytes(releasesXmlFile), StandardCharsets.UTF_8))
+                .doesNotContain("digest=");
+        replace(releasesXmlFile, "2022-02-23", "2022-12-31");
+
+        // Verify that the `.release.xml` files are read instead
+        final ChangelogReleaseCatalog catalog = ChangelogReleaseCatalog.scan(changelogDirectory, null);
+        assertThat(catalog.releasedDirectories)
+                .extracting(releaseDirectory -> releaseDirectory.release.version + '@' + releaseDirectory.release.date)
+                .containsExactly("2.17.2@2022-02-23", "2.18.0@2022-06-28");
+
+    }
+
+    @Test
+    void releases_xml_file_should_be_updated_if_exists(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Verify that a missing `.releases.xml` is not created
+        final ChangelogRelease release = new ChangelogRelease("2.19.0", "2023-01-25");
+        ChangelogReleaseCatalog.updateReleasesXmlFileIfExists(changelogDirectory, release);
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        assertThat(releasesXmlFile).doesNotExist();
+
+        // Verify that an existing `.releases.xml` is updated
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        ChangelogReleaseCatalog.updateReleasesXmlFileIfExists(changelogDirectory, release);
+        final String releaseVersions = Arrays
+                .stream(new String(Files.readAllBytes(releasesXmlFile), StandardCharsets.UTF_8).split("\n"))
+                .filter(line -> line.contains("<release "))
+                .map(line -> line.replaceAll(".* version=\"([^\"]+)\".*", "$1"))
+                .collect(Collectors.joining(","));
+        assertThat(releaseVersions).isEqualTo("2.17.2,2.18.0,2.19.0");
+
+    }
+
+    private static void replace(final Path file, final String target, final String replacement) throws IOException {
+        final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(content).contains(target);
+        Files.write(file, content.replace(target, replacement).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -17,19 +17,24 @@
 package org.apache.logging.log4j.changelog;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 
+import org.apache.logging.log4j.changelog.releaser.ChangelogReleasePlan;
 import org.apache.logging.log4j.changelog.releaser.ChangelogReleaser;
 import org.apache.logging.log4j.changelog.releaser.ChangelogReleaserArgs;
+import org.apache.logging.log4j.changelog.util.XmlValidator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.CleanupMode;
 import org.junit.jupiter.api.io.TempDir;
 
 import static org.apache.commons.io.FileUtils.copyDirectory;
 import static org.apache.logging.log4j.changelog.FileTestUtils.assertDirectoryContentMatches;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class ChangelogReleaserTest {
 
@@ -61,4 +66,133 @@ class ChangelogReleaserTest {
 
     }
 
+    @Test
+    void existing_release_directory_should_be_populated_by_moves(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Create a release directory containing a template and the information of an earlier release candidate
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.19.0");
+        Files.createDirectories(releaseDirectory);
+        final Path keptTemplateFile = releaseDirectory.resolve(".release-notes.adoc.ftl");
+        Files.write(keptTemplateFile, "kept".getBytes(StandardCharsets.UTF_8));
+        new ChangelogRelease("2.19.0", "2023-01-20").writeToXmlFile(ChangelogFiles.releaseXmlFile(releaseDirectory));
+
+        // Verify the plan
+        final ChangelogReleaserArgs args = new ChangelogReleaserArgs(
+                changelogDirectory,
+                "2.19.0",
+                null,
+                LocalDate.parse("2023-01-25"),
+                XmlValidator.strict(),
+                2);
+        final ChangelogReleasePlan plan = ChangelogReleaser.planRelease(args);
+        assertThat(plan.changelogEntryFileMoveCount()).isEqualTo(3);
+        assertThat(plan.templateFileMoveCount()).isEqualTo(2);
+        assertThat(plan.summary())
+                .startsWith("release `2.19.0` (2023-01-25): move 3 changelog entry files and 2 template files")
+                .endsWith("keep 1 existing template files, replace the release information of 2.19.0 (2023-01-20)");
+
+        // Verify that planning doesn't touch any files
+        final Path unreleasedDirectory = changelogDirectory.resolve(".2.x.x");
+        assertThat(ChangelogFiles.changelogEntryFiles(unreleasedDirectory)).hasSize(3);
+
+        // Perform the release and verify the outcome
+        ChangelogReleaser.performRelease(args);
+        assertThat(ChangelogFiles.changelogEntryFiles(unreleasedDirectory)).isEmpty();
+        assertThat(unreleasedDirectory.resolve(".release-notes.adoc.ftl")).exists();
+        assertThat(ChangelogFiles.changelogEntryFiles(releaseDirectory)).hasSize(3);
+        assertThat(releaseDirectory.resolve(".release-notes.txt.ftl")).exists();
+        assertThat(keptTemplateFile).hasContent("kept");
+        assertThat(ChangelogRelease.readFromXmlFile(ChangelogFiles.releaseXmlFile(releaseDirectory)).date)
+                .isEqualTo("2023-01-25");
+        assertThat(ChangelogFiles.releaseJournalFile(changelogDirectory)).doesNotExist();
+
+    }
+
+    @Test
+    void interrupted_release_should_be_rolled_forward(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Simulate a release interrupted right after renaming the unreleased directory
+        interruptRelease(changelogDirectory);
+
+        // Verify that a new release is refused
+        final ChangelogReleaserArgs args = new ChangelogReleaserArgs(
+                changelogDirectory,
+                "2.19.0",
+                null,
+                LocalDate.parse("2023-01-25"));
+        assertThatThrownBy(() -> ChangelogReleaser.performRelease(args))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("interrupted release");
+
+        // Roll forward and compare the output
+        ChangelogReleaser.recoverRelease(changelogDirectory, ChangelogReleaser.Recovery.ROLL_FORWARD, 1);
+        final Path expectedChangelogDirectory = Paths.get("src/test/resources/5-released");
+        final Path emptyFolder = expectedChangelogDirectory.resolve(".2.x.x");
+        if (!Files.exists(emptyFolder)) {
+            Files.createDirectories(emptyFolder);
+        }
+        assertDirectoryContentMatches(changelogDirectory, expectedChangelogDirectory);
+
+    }
+
+    @Test
+    void interrupted_release_should_be_rolled_back(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+        interruptRelease(changelogDirectory);
+        ChangelogReleaser.recoverRelease(changelogDirectory, ChangelogReleaser.Recovery.ROLL_BACK, 1);
+        assertDirectoryContentMatches(changelogDirectory, Paths.get("src/test/resources/3-enriched"));
+    }
+
+    @Test
+    void interrupted_re_release_should_be_rolled_back_along_with_releases_xml_file(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Create a release directory containing the information of an earlier release candidate, and consolidate it
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.19.0");
+        Files.createDirectories(releaseDirectory);
+        new ChangelogRelease("2.19.0", "2023-01-20").writeToXmlFile(ChangelogFiles.releaseXmlFile(releaseDirectory));
+        ChangelogReleaseCatalog.writeReleasesXmlFile(changelogDirectory, null);
+        final Path releasesXmlFile = ChangelogFiles.releasesXmlFile(changelogDirectory);
+        final byte[] releasesXml = Files.readAllBytes(releasesXmlFile);
+
+        // Simulate a re-release interrupted right after updating `.releases.xml`
+        final ChangelogReleaseCatalog.ConsolidatedRelease consolidatedRelease =
+                ChangelogReleaseCatalog.findConsolidatedRelease(changelogDirectory, "2.19.0");
+        assertThat(consolidatedRelease).isNotNull();
+        final String journal = "release\t2.19.0\t2023-01-25\n"
+                + "previous\t2.19.0\t2023-01-20\n"
+                + "consolidated\t2.19.0\t2023-01-20\t" + consolidatedRelease.releaseXmlFileDigest + '\n'
+                + "unrenamed\t.2.x.x\t2.19.0\n";
+        Files.write(ChangelogFiles.releaseJournalFile(changelogDirectory), journal.getBytes(StandardCharsets.UTF_8));
+        final ChangelogRelease release = new ChangelogRelease("2.19.0", "2023-01-25");
+        Files.delete(ChangelogFiles.releaseXmlFile(releaseDirectory));
+        release.writeToXmlFile(ChangelogFiles.releaseXmlFile(releaseDirectory));
+        ChangelogReleaseCatalog.updateReleasesXmlFileIfExists(changelogDirectory, release);
+        assertThat(releasesXmlFile).content().contains("2023-01-25");
+
+        // Roll back and verify that both the release information and its consolidated copy are restored
+        ChangelogReleaser.recoverRelease(changelogDirectory, ChangelogReleaser.Recovery.ROLL_BACK, 1);
+        assertThat(releasesXmlFile).hasBinaryContent(releasesXml);
+        assertThat(ChangelogReleaseCatalog.scan(changelogDirectory, null).releasedDirectories)
+                .extracting(directory -> directory.release.version + '@' + directory.release.date)
+                .contains("2.19.0@2023-01-20");
+        assertThat(ChangelogFiles.releaseJournalFile(changelogDirectory)).doesNotExist();
+
+    }
+
+    private static void interruptRelease(final Path changelogDirectory) throws Exception {
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final String journal = "release\t2.19.0\t2023-01-25\nrename\t.2.x.x\t2.19.0\n";
+        Files.write(ChangelogFiles.releaseJournalFile(changelogDirectory), journal.getBytes(StandardCharsets.UTF_8));
+        Files.move(changelogDirectory.resolve(".2.x.x"), changelogDirectory.resolve("2.19.0"));
+    }
+
 }
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.changelog.util.XmlValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.apache.commons.io.FileUtils.copyDirectory;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ChangelogSnapshotTest {
+
+    @Test
+    void snapshot_should_serve_unchanged_directories(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path snapshotDirectory)
+            throws Exception {
+
+        // Populate the snapshot
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.17.2");
+        final Path snapshotFile = snapshotDirectory.resolve(ChangelogSnapshot.DEFAULT_FILE_NAME);
+        final ChangelogSnapshot populatedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        final List<ChangelogEntry> expectedEntries = populatedSnapshot.readEntries(releaseDirectory);
+        populatedSnapshot.save();
+        assertThat(snapshotFile).isRegularFile();
+
+        // Corrupt an entry file without changing its size and modification time
+        final Path entryFile = ChangelogFiles.changelogEntryFiles(releaseDirectory).get(0);
+        final FileTime entryFileModificationTime = Files.getLastModifiedTime(entryFile);
+        corrupt(entryFile);
+        Files.setLastModifiedTime(entryFile, entryFileModificationTime);
+
+        // Verify that entries are served from the snapshot
+        final ChangelogSnapshot reopenedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        assertThat(reopenedSnapshot.readEntries(releaseDirectory))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expectedEntries);
+        final ChangelogRelease release = reopenedSnapshot.readRelease(releaseDirectory);
+        assertThat(release).isNotNull();
+        assertThat(release.version).isEqualTo("2.17.2");
+        assertThat(release.date).isEqualTo("2022-02-23");
+
+        // Change the size of the corrupted entry file and verify that the directory is parsed again
+        Files.write(entryFile, "<corrupted/>".getBytes(StandardCharsets.UTF_8));
+        final ChangelogSnapshot staleSnapshot = ChangelogSnapshot.open(snapshotFile);
+        assertThatThrownBy(() -> staleSnapshot.readEntries(releaseDirectory))
+                .hasMessageContaining(entryFile.getFileName().toString());
+
+    }
+
+    @Test
+    void snapshot_should_detect_sub_millisecond_modifications(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path snapshotDirectory)
+            throws Exception {
+
+        // Populate the snapshot
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.17.2");
+        final Path entryFile = ChangelogFiles.changelogEntryFiles(releaseDirectory).get(0);
+        final long entryFileModificationMicros = TimeUnit.MILLISECONDS.toMicros(
+                Files.getLastModifiedTime(entryFile).toMillis());
+        Files.setLastModifiedTime(entryFile, FileTime.from(entryFileModificationMicros, TimeUnit.MICROSECONDS));
+        final Path snapshotFile = snapshotDirectory.resolve(ChangelogSnapshot.DEFAULT_FILE_NAME);
+        final ChangelogSnapshot populatedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        populatedSnapshot.readEntries(releaseDirectory);
+        populatedSnapshot.save();
+
+        // Corrupt an entry file without changing its size and modification time in milliseconds
+        corrupt(entryFile);
+        Files.setLastModifiedTime(entryFile, FileTime.from(entryFileModificationMicros + 1, TimeUnit.MICROSECONDS));
+        assumeTrue(
+                Files.getLastModifiedTime(entryFile).to(TimeUnit.MICROSECONDS) == entryFileModificationMicros + 1,
+                "the file system doesn't support sub-millisecond modification times");
+
+        // Verify that the directory is parsed again
+        final ChangelogSnapshot staleSnapshot = ChangelogSnapshot.open(snapshotFile);
+        assertThatThrownBy(() -> staleSnapshot.readEntries(releaseDirectory))
+                .hasMessageContaining(entryFile.getFileName().toString());
+
+    }
+
+    @Test
+    void snapshot_should_distinguish_release_directories_of_the_same_name(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path otherChangelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path snapshotDirectory)
+            throws Exception {
+
+        // Populate the snapshot using a changelog directory
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.17.2");
+        final Path snapshotFile = snapshotDirectory.resolve(ChangelogSnapshot.DEFAULT_FILE_NAME);
+        final ChangelogSnapshot populatedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        populatedSnapshot.readEntries(releaseDirectory);
+        populatedSnapshot.save();
+
+        // Create another changelog directory whose files have the same names, sizes, and modification times
+        copyDirectory(new File("src/test/resources/3-enriched"), otherChangelogDirectory.toFile());
+        final Path otherReleaseDirectory = otherChangelogDirectory.resolve("2.17.2");
+        final Path otherEntryFile = ChangelogFiles.changelogEntryFiles(otherReleaseDirectory).get(0);
+        corrupt(otherEntryFile);
+        try (final Stream<Path> otherFiles = Files.list(otherReleaseDirectory)) {
+            for (final Path otherFile : (Iterable<Path>) otherFiles::iterator) {
+                final Path file = releaseDirectory.resolve(otherFile.getFileName());
+                Files.setLastModifiedTime(otherFile, Files.getLastModifiedTime(file));
+            }
+        }
+
+        // Verify that the release directory of the other changelog directory is parsed
+        final ChangelogSnapshot reopenedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        assertThatThrownBy(() -> reopenedSnapshot.readEntries(otherReleaseDirectory))
+                .hasMessageContaining(otherEntryFile.getFileName().toString());
+
+    }
+
+    @Test
+    void snapshot_should_only_serve_directories_validated_as_requested(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path snapshotDirectory)
+            throws Exception {
+
+        // Populate the snapshot without validation
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.17.2");
+        final Path snapshotFile = snapshotDirectory.resolve(ChangelogSnapshot.DEFAULT_FILE_NAME);
+        final ChangelogSnapshot unvalidatedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        unvalidatedSnapshot.readEntries(releaseDirectory);
+        unvalidatedSnapshot.save();
+
+        // Verify that the directory is parsed and validated, once validation is requested
+        final XmlValidator validator = XmlValidator.strict();
+        final ChangelogSnapshot validatedSnapshot = ChangelogSnapshot.open(snapshotFile, validator);
+        validatedSnapshot.readEntries(releaseDirectory);
+        assertThat(validatedSnapshot.readFileCount()).isPositive();
+        assertThat(validator.validatedFileCount()).isPositive();
+        validatedSnapshot.save();
+
+        // Verify that the validated directory is served from the snapshot
+        final ChangelogSnapshot reopenedSnapshot = ChangelogSnapshot.open(snapshotFile, XmlValidator.strict());
+        reopenedSnapshot.readEntries(releaseDirectory);
+        assertThat(reopenedSnapshot.readFileCount()).isZero();
+
+    }
+
+    @Test
+    void invalid_snapshot_should_be_ignored(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path snapshotDirectory)
+            throws Exception {
+        final Path snapshotFile = snapshotDirectory.resolve(ChangelogSnapshot.DEFAULT_FILE_NAME);
+        Files.write(snapshotFile, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+        final ChangelogSnapshot snapshot = ChangelogSnapshot.open(snapshotFile);
+        final Path releaseDirectory = new File("src/test/resources/3-enriched/2.18.0").toPath();
+        assertThat(snapshot.readEntries(releaseDirectory)).hasSize(3);
+    }
+
+    @Test
+    void corrupt_snapshot_block_should_be_ignored(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path snapshotDirectory)
+            throws Exception {
+
+        // Populate the snapshot
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseDirectory = changelogDirectory.resolve("2.17.2");
+        final Path snapshotFile = snapshotDirectory.resolve(ChangelogSnapshot.DEFAULT_FILE_NAME);
+        final ChangelogSnapshot populatedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        final List<ChangelogEntry> expectedEntries = populatedSnapshot.readEntries(releaseDirectory);
+        populatedSnapshot.save();
+
+        // Corrupt the type of the first entry, which follows the release date and the entry count
+        final byte[] snapshotBytes = Files.readAllBytes(snapshotFile);
+        final byte[] releaseDateBytes = "2022-02-23".getBytes(StandardCharsets.UTF_8);
+        final int releaseDateOffset = indexOf(snapshotBytes, releaseDateBytes);
+        assertThat(releaseDateOffset).isNotNegative();
+        snapshotBytes[releaseDateOffset + releaseDateBytes.length + Integer.BYTES] = Byte.MAX_VALUE;
+        Files.write(snapshotFile, snapshotBytes);
+
+        // Verify that the directory is parsed again
+        final ChangelogSnapshot corruptSnapshot = ChangelogSnapshot.open(snapshotFile);
+        assertThat(corruptSnapshot.readEntries(releaseDirectory))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expectedEntries);
+        assertThat(corruptSnapshot.readFileCount()).isPositive();
+        corruptSnapshot.save();
+
+        // Verify that the repaired block is served from the snapshot
+        final ChangelogSnapshot repairedSnapshot = ChangelogSnapshot.open(snapshotFile);
+        assertThat(repairedSnapshot.readEntries(releaseDirectory))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expectedEntries);
+        assertThat(repairedSnapshot.readFileCount()).isZero();
+
+    }
+
+    private static int indexOf(final byte[] bytes, final byte[] searchedBytes) {
+        for (int offset = 0; offset <= bytes.length - searchedBytes.length; offset++) {
+            if (Arrays.equals(Arrays.copyOfRange(bytes, offset, offset + searchedBytes.length), searchedBytes)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Overwrites the given file with whitespace without changing its size.
+     */
+    private static void corrupt(final Path file) throws IOException {
+        final byte[] corruptedContent = new byte[Math.toIntExact(Files.size(file))];
+        Arrays.fill(corruptedContent, (byte) ' ');
+        Files.write(file, corruptedContent);
+    }
+
+}
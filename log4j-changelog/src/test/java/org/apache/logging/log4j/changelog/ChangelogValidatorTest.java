@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.logging.log4j.changelog.validator.ChangelogValidationException;
+import org.apache.logging.log4j.changelog.validator.ChangelogValidator;
+import org.apache.logging.log4j.changelog.validator.ChangelogValidatorArgs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.apache.commons.io.FileUtils.copyDirectory;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ChangelogValidatorTest {
+
+    @Test
+    void all_invalid_files_should_be_reported(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Verify that a valid changelog directory passes
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final ChangelogValidatorArgs args = new ChangelogValidatorArgs(changelogDirectory);
+        assertThat(ChangelogValidator.performValidation(args).readFileCount()).isEqualTo(15);
+
+        // Break a changelog entry file against the schema
+        final Path releasedEntryFile = changelogDirectory.resolve(
+                "2.17.2/LOG4J2-3333_Fix_ThreadContextDataInjector_initialization_deadlock.xml");
+        final String releasedEntryXml = new String(Files.readAllBytes(releasedEntryFile), StandardCharsets.UTF_8);
+        Files.write(
+                releasedEntryFile,
+                releasedEntryXml.replace("type=\"removed\"", "type=\"broken\"").getBytes(StandardCharsets.UTF_8));
+
+        // Break the XML syntax of another changelog entry file
+        final Path unreleasedEntryFile = changelogDirectory.resolve(
+                ".2.x.x/LOG4J2-3572_Add_getExplicitLevel_method_to_LoggerConfig.xml");
+        final String unreleasedEntryXml = "<entry xmlns=\"http://logging.apache.org/log4j/changelog\" type=\"fixed\">\n"
+                + "  <author id=\"alice\">\n"
+                + "</entry>";
+        Files.write(unreleasedEntryFile, unreleasedEntryXml.getBytes(StandardCharsets.UTF_8));
+
+        // Remove the release information of a release directory
+        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(changelogDirectory.resolve("2.18.0"));
+        Files.delete(releaseXmlFile);
+
+        // Verify that all failures are reported at once
+        final ChangelogValidationException error =
+                catchThrowableOfType(() -> ChangelogValidator.performValidation(args), ChangelogValidationException.class);
+        assertThat(error.failures())
+                .extracting(failure -> failure.file, failure -> failure.lineNumber)
+                .containsExactly(
+                        tuple(unreleasedEntryFile, 3),
+                        tuple(releasedEntryFile, 21),
+                        tuple(releaseXmlFile, 0));
+        assertThat(error.failures().get(1).message).startsWith("schema validation failure: ").contains("broken");
+        assertThat(error).hasMessageStartingWith("found 3 invalid files in ");
+
+    }
+
+    @Test
+    void contradicting_releases_xml_file_should_be_reported(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory)
+            throws Exception {
+
+        // Change a release date in a `.release.xml`, but not in `.releases.xml`
+        copyDirectory(new File("src/test/resources/3-enriched"), changelogDirectory.toFile());
+        final Path releaseXmlFile = ChangelogFiles.releaseXmlFile(changelogDirectory.resolve("2.18.0"));
+        final String releaseXml = new String(Files.readAllBytes(releaseXmlFile), StandardCharsets.UTF_8);
+        Files.write(releaseXmlFile, releaseXml.replace("2022-06-28", "2022-06-29").getBytes(StandardCharsets.UTF_8));
+
+        // Verify that `.releases.xml` is reported
+        final ChangelogValidatorArgs args = new ChangelogValidatorArgs(changelogDirectory);
+        final ChangelogValidationException error =
+                catchThrowableOfType(() -> ChangelogValidator.performValidation(args), ChangelogValidationException.class);
+        assertThat(error.failures())
+                .extracting(failure -> failure.file, failure -> failure.lineNumber, failure -> failure.message)
+                .containsExactly(tuple(
+                        ChangelogFiles.releasesXmlFile(changelogDirectory),
+                        22,
+                        String.format(
+                                "contradicting release information file `%s`: was expecting date `%s`, found: `%s`",
+                                releaseXmlFile,
+                                "2022-06-29",
+                                "2022-06-28")));
+
+    }
+
+}
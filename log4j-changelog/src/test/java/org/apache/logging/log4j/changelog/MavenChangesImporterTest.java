@@ -16,6 +16,8 @@
  */
 package org.apache.logging.log4j.changelog;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -24,19 +26,60 @@ import org.apache.logging.log4j.changelog.importer.MavenChangesImporterArgs;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.CleanupMode;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.apache.logging.log4j.changelog.FileTestUtils.assertDirectoryContentMatches;
+import static org.assertj.core.api.Assertions.assertThat;
 
 class MavenChangesImporterTest {
 
-    @Test
-    void output_should_match(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory) {
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void output_should_match(
+            final int parallelism,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path changelogDirectory) {
         final MavenChangesImporterArgs args = new MavenChangesImporterArgs(
                 changelogDirectory,
                 Paths.get("src/test/resources/1-changes.xml"),
-                2);
-        MavenChangesImporter.performImport(args);
+                2,
+                parallelism,
+                null);
+        MavenChangesImporter.performImport(args.withReleasesXmlFileWritten(true));
         assertDirectoryContentMatches(changelogDirectory, Paths.get("src/test/resources/2-imported"));
     }
 
+    @Test
+    void colliding_file_names_should_be_suffixed(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path directory)
+            throws Exception {
+
+        // Create a `changes.xml` containing actions whose file names collide, modulo letter case
+        final Path changesXmlFile = directory.resolve("changes.xml");
+        final String changesXml = "<document xmlns=\"http://maven.apache.org/changes/1.0.0\">\n" +
+                "  <body>\n" +
+                "    <release version=\"2.1.0\" date=\"TBD\">\n" +
+                "      <action issue=\"LOG4J2-1\" dev=\"vy\" type=\"fix\">Fix `foo`</action>\n" +
+                "      <action issue=\"LOG4J2-1\" dev=\"vy\" type=\"fix\">Fix foo</action>\n" +
+                "      <action issue=\"LOG4J2-1\" dev=\"vy\" type=\"fix\">fix foo</action>\n" +
+                "    </release>\n" +
+                "  </body>\n" +
+                "</document>\n";
+        Files.write(changesXmlFile, changesXml.getBytes(StandardCharsets.UTF_8));
+
+        // Import and verify that no entry is lost
+        final Path changelogDirectory = directory.resolve("changelog");
+        final MavenChangesImporterArgs args = new MavenChangesImporterArgs(changelogDirectory, changesXmlFile, 2, 4, null);
+        MavenChangesImporter.performImport(args);
+        final Path unreleasedDirectory = ChangelogFiles.unreleasedDirectory(changelogDirectory, 2);
+        assertThat(ChangelogFiles.changelogEntryFiles(unreleasedDirectory))
+                .extracting(entryFile -> entryFile.getFileName().toString())
+                .containsExactly("LOG4J2-1_Fix_foo.xml", "LOG4J2-1_Fix_foo_2.xml", "LOG4J2-1_fix_foo_3.xml");
+        assertThat(ChangelogEntry.readFromXmlFile(unreleasedDirectory.resolve("LOG4J2-1_fix_foo_3.xml")).description.text)
+                .isEqualTo("fix foo");
+
+        // Verify that release information is not consolidated, unless requested
+        assertThat(ChangelogFiles.releasesXmlFile(changelogDirectory)).doesNotExist();
+
+    }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.exporter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FreeMarkerEngineTest {
+
+    @Test
+    void identical_templates_should_resolve_relative_includes_of_their_own_directory(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path templateDirectory)
+            throws Exception {
+
+        // Create byte-identical templates including siblings with different contents
+        for (final String releaseVersion : new String[] {"1.0.0", "2.0.0"}) {
+            final Path releaseDirectory = templateDirectory.resolve(releaseVersion);
+            Files.createDirectories(releaseDirectory);
+            write(releaseDirectory.resolve(".notes.ftl"), "<#include \".common.ftl\">");
+            write(releaseDirectory.resolve(".common.ftl"), releaseVersion);
+        }
+
+        // Verify the outputs
+        final FreeMarkerEngine engine = FreeMarkerEngine.forTemplateDirectory(templateDirectory);
+        assertThat(render(engine, "1.0.0/.notes.ftl")).isEqualTo("1.0.0");
+        assertThat(render(engine, "2.0.0/.notes.ftl")).isEqualTo("2.0.0");
+
+        // Verify that modifications are picked up
+        final Path includedTemplateFile = templateDirectory.resolve("2.0.0/.common.ftl");
+        final FileTime includedTemplateFileModificationTime = Files.getLastModifiedTime(includedTemplateFile);
+        write(includedTemplateFile, "2.0.1");
+        // Make sure the modification is visible on file systems with coarse timestamps
+        Files.setLastModifiedTime(
+                includedTemplateFile,
+                FileTime.fromMillis(includedTemplateFileModificationTime.toMillis() + 2_000));
+        assertThat(render(engine, "2.0.0/.notes.ftl")).isEqualTo("2.0.1");
+        write(templateDirectory.resolve("1.0.0/.notes.ftl"), "<#include \".common.ftl\">!");
+        assertThat(render(engine, "1.0.0/.notes.ftl")).isEqualTo("1.0.0!");
+
+        // Verify that templates of outdated contents are discarded
+        assertThat(engine.compiledTemplateCount()).isEqualTo(2);
+
+    }
+
+    @Test
+    void identical_templates_should_be_compiled_once(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path templateDirectory)
+            throws Exception {
+
+        // Create byte-identical templates
+        for (final String releaseVersion : new String[] {"1.0.0", "2.0.0"}) {
+            final Path releaseDirectory = templateDirectory.resolve(releaseVersion);
+            Files.createDirectories(releaseDirectory);
+            write(releaseDirectory.resolve(".notes.ftl"), "notes");
+        }
+
+        // Verify that the compiled template is shared
+        final FreeMarkerEngine engine = FreeMarkerEngine.forTemplateDirectory(templateDirectory);
+        assertThat(render(engine, "1.0.0/.notes.ftl")).isEqualTo("notes");
+        assertThat(render(engine, "2.0.0/.notes.ftl")).isEqualTo("notes");
+        assertThat(engine.compiledTemplateCount()).isEqualTo(1);
+
+        // Verify that the shared template is kept as long as a template name refers to it
+        write(templateDirectory.resolve("1.0.0/.notes.ftl"), "changed notes");
+        assertThat(render(engine, "1.0.0/.notes.ftl")).isEqualTo("changed notes");
+        assertThat(engine.compiledTemplateCount()).isEqualTo(2);
+        write(templateDirectory.resolve("2.0.0/.notes.ftl"), "changed notes");
+        assertThat(render(engine, "2.0.0/.notes.ftl")).isEqualTo("changed notes");
+        assertThat(engine.compiledTemplateCount()).isEqualTo(1);
+
+    }
+
+    private static void write(final Path file, final String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String render(final FreeMarkerEngine engine, final String templateName) throws Exception {
+        final Path outputFile = Files.createTempFile("freemarker-engine-test-", ".txt");
+        try {
+            engine.render(templateName, Collections.emptyMap(), outputFile);
+            return new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8);
+        } finally {
+            Files.delete(outputFile);
+        }
+    }
+
+}
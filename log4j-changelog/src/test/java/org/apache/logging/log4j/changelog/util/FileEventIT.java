@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporter;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporterArgs;
+import org.apache.logging.log4j.changelog.exporter.ChangelogExporterTemplate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the Java Flight Recorder events of the Java 11 variant of {@link FileEvent}.
+ * <p>
+ * This is an integration test, since the Java 11 variant is only loaded from the multi-release JAR.
+ * </p>
+ */
+class FileEventIT {
+
+    private static final Path CHANGELOG_DIRECTORY = Paths.get("src/test/resources/3-enriched");
+
+    @Test
+    void export_should_emit_file_events(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path recordingDirectory,
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path outputDirectory)
+            throws Exception {
+
+        // Record an export
+        final Path recordingFile = recordingDirectory.resolve("export.jfr");
+        try (final Recording recording = new Recording()) {
+            for (final String eventName : new String[] {"EntryRead", "TemplateRender", "FileWrite", "DirectoryScan"}) {
+                recording.enable("org.apache.logging.log4j.changelog." + eventName);
+            }
+            recording.start();
+            final ChangelogExporterArgs args = ChangelogExporterArgs.builder(
+                            CHANGELOG_DIRECTORY,
+                            Collections.singleton(new ChangelogExporterTemplate(".index.adoc.ftl", "index.adoc", true)),
+                            Collections.singleton(
+                                    new ChangelogExporterTemplate(".release-notes.adoc.ftl", "%v.adoc", true)),
+                            outputDirectory)
+                    .build();
+            ChangelogExporter.performExport(args);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Verify the recorded events
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        final List<String> eventNames =
+                events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toList());
+        assertThat(eventNames)
+                .contains(
+                        "org.apache.logging.log4j.changelog.EntryRead",
+                        "org.apache.logging.log4j.changelog.TemplateRender",
+                        "org.apache.logging.log4j.changelog.FileWrite",
+                        "org.apache.logging.log4j.changelog.DirectoryScan");
+        assertThat(events)
+                .filteredOn(event -> "org.apache.logging.log4j.changelog.FileWrite"
+                        .equals(event.getEventType().getName()))
+                .extracting(event -> event.getString("filePath"))
+                .contains(String.valueOf(outputDirectory.resolve("index.adoc")));
+
+    }
+
+}
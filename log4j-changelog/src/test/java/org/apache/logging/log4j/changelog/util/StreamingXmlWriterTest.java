@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingXmlWriterTest {
+
+    private static final String LS = System.lineSeparator();
+
+    /**
+     * Unicode line separator, i.e., U+2028, which can't be put into a string literal as is, since code formatters treat it as a line break.
+     */
+    private static final char LINE_SEPARATOR = (char) 0x2028;
+
+    /**
+     * Verifies the layout and escaping against the output of the earlier DOM-based writer.
+     */
+    @Test
+    void output_should_match_the_earlier_dom_serialization() {
+        final String value = "a&b<c>d\"e'f\tg\rh\ni é \205 " + LINE_SEPARATOR + " 😀 \177 \200 ]]> end";
+        final String xml = StreamingXmlWriter.toString("entry", entryWriter -> entryWriter
+                .attribute("zeta", value)
+                .attribute("alpha", "1")
+                .element("description", descriptionWriter -> descriptionWriter
+                        .attribute("format", "x")
+                        .text(value))
+                .element("empty", emptyWriter -> emptyWriter.text(""))
+                .element("nested", nestedWriter -> nestedWriter.element("inner", innerWriter -> {}))
+                .element("whitespace", whitespaceWriter -> whitespaceWriter.text("  \n  ")));
+        final String expectedXmlSuffix = "  -->" + LS +
+                "<entry xmlns=\"http://logging.apache.org/log4j/changelog\"" + LS +
+                "       xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"" + LS +
+                "       xsi:schemaLocation=\"http://logging.apache.org/log4j/changelog https://logging.apache.org/log4j/changelog-0.1.0.xsd\"" + LS +
+                "       alpha=\"1\" zeta=\"a&amp;b&lt;c&gt;d&quot;e'f&#9;g&#13;h&#10;i é \205 " + LINE_SEPARATOR + " &#128512; \177 \200 ]]&gt; end\">" + LS +
+                "  <description format=\"x\">a&amp;b&lt;c&gt;d\"e'f\tg&#13;h" + LS +
+                "i é &#133; " + LINE_SEPARATOR + " &#128512; &#127; &#128; ]]&gt; end</description>" + LS +
+                "  <empty/>" + LS +
+                "  <nested>" + LS +
+                "    <inner/>" + LS +
+                "  </nested>" + LS +
+                "  <whitespace>  " + LS +
+                "  </whitespace>" + LS +
+                "</entry>" + LS;
+        assertThat(xml)
+                .startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + LS + "<!--" + LS)
+                .endsWith(expectedXmlSuffix);
+    }
+
+    @Test
+    void root_element_without_attributes_should_be_written() {
+        final String xml = StreamingXmlWriter.toString("releases", releasesWriter -> {});
+        assertThat(xml).endsWith("  -->" + LS +
+                "<releases xmlns=\"http://logging.apache.org/log4j/changelog\"" + LS +
+                "          xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"" + LS +
+                "          xsi:schemaLocation=\"http://logging.apache.org/log4j/changelog https://logging.apache.org/log4j/changelog-0.1.0.xsd\"/>" + LS);
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.logging.log4j.changelog.util;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.apache.logging.log4j.changelog.ChangelogEntry;
+import org.apache.logging.log4j.changelog.ChangelogEntryBundle;
+import org.apache.logging.log4j.changelog.ChangelogReleaseCatalog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class XmlValidatorTest {
+
+    @Test
+    void changelog_directory_should_pass_strict_validation() {
+        final Path changelogDirectory = Paths.get("src/test/resources/3-enriched");
+        final XmlValidator validator = XmlValidator.strict();
+        final ChangelogReleaseCatalog catalog = ChangelogReleaseCatalog.scan(changelogDirectory, null, validator);
+        catalog.releaseDirectories()
+                .forEach(releaseDirectory -> ChangelogEntryBundle.readAllEntries(releaseDirectory.path, validator));
+        assertThat(validator.validatedFileCount()).isGreaterThan(catalog.releaseDirectories().size());
+        assertThat(validator.skippedFileCount()).isZero();
+    }
+
+    @Test
+    void failures_should_report_line_numbers(@TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path directory)
+            throws Exception {
+
+        // Create an entry file with an element unknown to the schema, which is otherwise ignored while reading
+        final Path entryFile = directory.resolve("entry.xml");
+        write(entryFile,
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<entry xmlns=\"http://logging.apache.org/log4j/changelog\" type=\"fixed\">",
+                "  <author id=\"alice\"/>",
+                "  <reviewer id=\"bob\"/>",
+                "  <description format=\"asciidoc\">Fix</description>",
+                "</entry>");
+
+        // Verify that the file is read without validation
+        assertThat(ChangelogEntry.readFromXmlFile(entryFile, XmlValidator.off()).authors).hasSize(1);
+
+        // Verify that the validation failure is reported
+        assertThatThrownBy(() -> ChangelogEntry.readFromXmlFile(entryFile, XmlValidator.strict()))
+                .hasMessageContaining(entryFile.toString())
+                .cause()
+                .hasMessageStartingWith("[line 4] schema validation failure: ")
+                .hasMessageContaining("reviewer");
+
+    }
+
+    @Test
+    void changed_mode_should_skip_files_validated_before(
+            @TempDir(cleanup = CleanupMode.ON_SUCCESS) final Path directory)
+            throws Exception {
+
+        // Validate an entry file and save the cache
+        final Path entryFile = directory.resolve("entry.xml");
+        write(entryFile,
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<entry xmlns=\"http://logging.apache.org/log4j/changelog\" type=\"fixed\">",
+                "  <author id=\"alice\"/>",
+                "  <description format=\"asciidoc\">Fix</description>",
+                "</entry>");
+        final Path cacheFile = directory.resolve("cache").resolve(XmlValidator.DEFAULT_CACHE_FILE_NAME);
+        final XmlValidator validator = XmlValidator.of(XmlValidator.Mode.CHANGED, cacheFile);
+        ChangelogEntry.readFromXmlFile(entryFile, validator);
+        ChangelogEntry.readFromXmlFile(entryFile, validator);
+        assertThat(validator.validatedFileCount()).isEqualTo(1);
+        assertThat(validator.skippedFileCount()).isEqualTo(1);
+        validator.saveCache();
+        final List<String> cacheLines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+        assertThat(cacheLines).hasSize(2);
+
+        // Verify that the cache is used after renaming the file
+        final Path movedEntryFile = directory.resolve("moved.xml");
+        Files.move(entryFile, movedEntryFile);
+        final XmlValidator cachedValidator = XmlValidator.of(XmlValidator.Mode.CHANGED, cacheFile);
+        ChangelogEntry.readSummaryFromXmlFile(movedEntryFile, cachedValidator);
+        assertThat(cachedValidator.validatedFileCount()).isZero();
+        assertThat(cachedValidator.skippedFileCount()).isEqualTo(1);
+
+        // Verify that a cache of a different schema is ignored
+        Files.write(cacheFile, ("# schema 0\n" + cacheLines.get(1) + "\n").getBytes(StandardCharsets.UTF_8));
+        final XmlValidator staleValidator = XmlValidator.of(XmlValidator.Mode.CHANGED, cacheFile);
+        ChangelogEntry.readSummaryFromXmlFile(movedEntryFile, staleValidator);
+        assertThat(staleValidator.validatedFileCount()).isEqualTo(1);
+
+    }
+
+    private static void write(final Path file, final String... lines) throws Exception {
+        Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+}